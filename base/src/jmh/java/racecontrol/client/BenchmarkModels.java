@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import racecontrol.client.extension.trackdata.TrackData;
+import racecontrol.client.model.Car;
+import racecontrol.client.model.Model;
+import racecontrol.client.protocol.AccBroadcastingDecoder;
+import racecontrol.client.protocol.AccBroadcastingProtocolCallback;
+import racecontrol.client.protocol.BroadcastingEvent;
+import racecontrol.client.protocol.CarInfo;
+import racecontrol.client.protocol.InboundPackets;
+import racecontrol.client.protocol.LapInfo;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionInfo;
+import racecontrol.client.protocol.TrackInfo;
+import racecontrol.client.protocol.enums.CarLocation;
+import racecontrol.client.protocol.enums.LapType;
+
+/**
+ * Builds models, decoded messages and extensions for benchmarks.
+ *
+ * @author Leonard
+ */
+public class BenchmarkModels {
+
+    /**
+     * Track used by default.
+     */
+    public static final String DEFAULT_TRACK = "Circuit de Spa-Francorchamps";
+
+    private BenchmarkModels() {
+    }
+
+    /**
+     * Creates a model with cars spread evenly around the track, all connected
+     * and on track, ordered by their position.
+     *
+     * @param carCount number of cars.
+     * @return the model.
+     */
+    public static Model createModel(int carCount) {
+        Model model = new Model();
+        for (int i = 1; i <= carCount; i++) {
+            Car car = new Car();
+            car.id = i;
+            car.connected = true;
+            car.carLocation = CarLocation.TRACK;
+            car.position = i;
+            car.realtimePosition = i;
+            car.lapCount = 10;
+            car.splinePosition = 1f - i / (float) (carCount + 1);
+            car.raceDistance = car.lapCount + car.splinePosition;
+            car.KMH = 180 + i % 40;
+            car.bestLap = new LapInfo(138000 + i * 50, i, 0, List.of(), false, true, LapType.REGULAR);
+            model.putCar(car);
+        }
+        return model;
+    }
+
+    /**
+     * Makes a model the one returned by getClient().getModel().
+     *
+     * @param model the model.
+     */
+    public static void publish(Model model) {
+        AccBroadcastingClient.getClient().publishSnapshot(model);
+    }
+
+    /**
+     * Sets the model an extension writes to.
+     *
+     * @param <T> the extension type.
+     * @param extension the extension.
+     * @param model the model.
+     * @return the extension.
+     */
+    public static <T extends ClientExtension> T withModel(T extension, Model model) {
+        extension.setWritableModel(model);
+        return extension;
+    }
+
+    /**
+     * Loads the bundled track data for a track.
+     *
+     * @param name name of the track.
+     * @return the track data.
+     * @throws IOException if the track data cannot be read.
+     */
+    public static TrackData loadTrack(String name) throws IOException {
+        InputStream in = BenchmarkModels.class
+                .getResourceAsStream("/trackdata/" + name + ".trackData");
+        if (in == null) {
+            throw new IllegalArgumentException("No track data for " + name);
+        }
+        try (ObjectInputStream objIn = new ObjectInputStream(in)) {
+            return (TrackData) objIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot read track data for " + name, e);
+        }
+    }
+
+    /**
+     * Returns a decoded realtime update of a race session.
+     *
+     * @param sessionTime the session time in ms.
+     * @return the session info.
+     */
+    public static SessionInfo sessionInfo(float sessionTime) {
+        return decode(InboundPackets.realtimeUpdate(sessionTime)).sessionInfo;
+    }
+
+    /**
+     * Returns a decoded realtime car update.
+     *
+     * @param carId the car id.
+     * @param splinePosition the spline position.
+     * @return the realtime info.
+     */
+    public static RealtimeInfo realtimeInfo(int carId, float splinePosition) {
+        return decode(InboundPackets.realtimeCarUpdate(carId, splinePosition, 45678)).realtimeInfo;
+    }
+
+    private static LastDecoded decode(byte[] packet) {
+        LastDecoded callback = new LastDecoded();
+        new AccBroadcastingDecoder().processMessage(ByteBuffer.wrap(packet), callback);
+        return callback;
+    }
+
+    /**
+     * Callback that keeps the decoded updates.
+     */
+    private static class LastDecoded
+            implements AccBroadcastingProtocolCallback {
+
+        private SessionInfo sessionInfo;
+        private RealtimeInfo realtimeInfo;
+
+        @Override
+        public void onRegistrationResult(int connectionID, boolean success, boolean readOnly, String message) {
+        }
+
+        @Override
+        public void onRealtimeUpdate(SessionInfo sessionInfo) {
+            this.sessionInfo = sessionInfo;
+        }
+
+        @Override
+        public void onRealtimeCarUpdate(RealtimeInfo info) {
+            this.realtimeInfo = info;
+        }
+
+        @Override
+        public void onEntryListUpdate(List<Integer> carIds) {
+        }
+
+        @Override
+        public void onTrackData(TrackInfo info) {
+        }
+
+        @Override
+        public void onEntryListCarUpdate(CarInfo carInfo) {
+        }
+
+        @Override
+        public void onBroadcastingEvent(BroadcastingEvent event) {
+        }
+
+        @Override
+        public void afterPacketReceived(byte type) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.autobroadcast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static racecontrol.client.BenchmarkModels.DEFAULT_TRACK;
+import static racecontrol.client.BenchmarkModels.createModel;
+import static racecontrol.client.BenchmarkModels.loadTrack;
+import static racecontrol.client.BenchmarkModels.publish;
+import static racecontrol.client.BenchmarkModels.sessionInfo;
+import static racecontrol.client.BenchmarkModels.withModel;
+import racecontrol.client.extension.model.GapExtension;
+import racecontrol.client.extension.trackdata.TrackDataEvent;
+import racecontrol.client.model.Car;
+import racecontrol.client.model.Model;
+
+/**
+ * Measures rating all cars for the autobroadcast. The gaps between the cars
+ * are calculated once in the setup and the model is published as the client
+ * snapshot the processor reads from.
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RatingProcessorBenchmark {
+
+    @Param({"20", "60", "120"})
+    public int carCount;
+
+    private RatingProcessorImpl processor;
+    private List<CarRating> entries;
+
+    @Setup
+    public void setup() throws IOException {
+        Model model = createModel(carCount);
+        GapExtension gapExtension = withModel(new GapExtension(), model);
+        gapExtension.onEvent(new TrackDataEvent(loadTrack(DEFAULT_TRACK)));
+        gapExtension.onSessionUpdate(sessionInfo(1234567));
+        publish(model);
+
+        processor = new RatingProcessorImpl();
+        entries = new ArrayList<>();
+        for (Car car : model.getCars()) {
+            CarRating entry = new CarRating(car);
+            entry.screenTime = car.id * 1000;
+            entries.add(entry);
+        }
+    }
+
+    @Benchmark
+    public List<CarRating> calculateRating() {
+        processor.calculateRating(entries);
+        return entries;
+    }
+}
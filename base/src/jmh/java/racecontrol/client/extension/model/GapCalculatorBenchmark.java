@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.model;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static racecontrol.client.BenchmarkModels.loadTrack;
+import racecontrol.client.extension.trackdata.TrackData;
+
+/**
+ * Compares the lookup table in GapCalculator with the step by step
+ * integration over the velocity map it replaced, on a synthetic track and on
+ * the bundled track data. The setup checks that both agree before anything is
+ * measured, GapCalculatorTest covers the same check in the regular build. Other bundled tracks can be selected with "-p track=&lt;name&gt;".
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GapCalculatorBenchmark {
+
+    /**
+     * Number of position pairs.
+     */
+    private static final int PAIRS = 1024;
+
+    @Param({"synthetic", "Circuit de Spa-Francorchamps", "Monza Circuit",
+        "Brands Hatch Circuit", "24H N\u00fcrburgring"})
+    public String track;
+
+    private GapCalculator calculator;
+    private IntegratingGapCalculator integrator;
+    private final float[] behind = new float[PAIRS];
+    private final float[] infront = new float[PAIRS];
+    private int index = 0;
+    private TrackData trackData;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        trackData = track.equals("synthetic")
+                ? GapCalculatorTest.syntheticTrack()
+                : loadTrack(track);
+        calculator = new GapCalculator();
+        calculator.setTrackData(trackData);
+        integrator = new IntegratingGapCalculator(trackData);
+
+        for (int i = 0; i < PAIRS; i++) {
+            behind[i] = random.nextFloat();
+            infront[i] = random.nextFloat();
+        }
+        verifyEquivalence(random, trackData.getGt3VelocityMap().size());
+    }
+
+    /**
+     * Checks that the lookup table gives the same gaps as the integrator,
+     * including the wrap around the start finish line and positions on the
+     * points of the velocity map. The integrator steps are lined up with the
+     * points of the velocity map, see GapCalculatorTest.tolerance for the
+     * allowed difference.
+     */
+    private void verifyEquivalence(Random random, int velocityMapSize) {
+        for (int i = 0; i < 100_000; i++) {
+            float b = random.nextFloat();
+            float f = random.nextFloat();
+            if (i % 10 == 0) {
+                // exactly on a point of the velocity map.
+                b = random.nextInt(velocityMapSize) / (float) velocityMapSize;
+            }
+            float expected = integrator.calculateAlignedGap(b, f);
+            float actual = calculator.calculateGap(b, f);
+            float difference = Math.abs(expected - actual);
+            if (difference > GapCalculatorTest.tolerance(trackData, b, expected)) {
+                throw new IllegalStateException("Gap from " + b + " to " + f
+                        + " is " + actual + "ms, integrator says " + expected + "ms");
+            }
+        }
+        float lapTime = integrator.calculateLapTime();
+        if (Math.abs(lapTime - calculator.getLapTime()) > GapCalculatorTest.tolerance(trackData, 0, lapTime)) {
+            throw new IllegalStateException("Lap time is " + calculator.getLapTime()
+                    + "ms, integrator says " + lapTime + "ms");
+        }
+    }
+
+    @Benchmark
+    public float lookupTable() {
+        index = (index + 1) & (PAIRS - 1);
+        return calculator.calculateGap(behind[index], infront[index]);
+    }
+
+    @Benchmark
+    public float integrator() {
+        index = (index + 1) & (PAIRS - 1);
+        return integrator.calculateGap(behind[index], infront[index]);
+    }
+}
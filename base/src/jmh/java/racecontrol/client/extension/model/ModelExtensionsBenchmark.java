@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.model;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static racecontrol.client.BenchmarkModels.DEFAULT_TRACK;
+import static racecontrol.client.BenchmarkModels.createModel;
+import static racecontrol.client.BenchmarkModels.loadTrack;
+import static racecontrol.client.BenchmarkModels.realtimeInfo;
+import static racecontrol.client.BenchmarkModels.sessionInfo;
+import static racecontrol.client.BenchmarkModels.withModel;
+import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.extension.trackdata.TrackDataEvent;
+import racecontrol.client.model.Car;
+import racecontrol.client.model.Model;
+import racecontrol.client.protocol.SessionInfo;
+
+/**
+ * Measures the work the model extensions do for one realtime update, that is
+ * one update for every car followed by the session update.
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelExtensionsBenchmark {
+
+    @Param({"20", "60", "120"})
+    public int carCount;
+
+    private Model model;
+    private GapExtension gapExtension;
+    private RealtimePositionExtension realtimePositionExtension;
+    private SessionInfo sessionInfo;
+    private RealtimeUpdateEvent realtimeUpdate;
+    private RealtimeCarUpdateEvent[] carUpdates;
+
+    @Setup
+    public void setup() throws IOException {
+        model = createModel(carCount);
+        gapExtension = withModel(new GapExtension(), model);
+        gapExtension.onEvent(new TrackDataEvent(loadTrack(DEFAULT_TRACK)));
+        realtimePositionExtension = withModel(new RealtimePositionExtension(), model);
+
+        // well after the start so the realtime position uses the race distance.
+        sessionInfo = sessionInfo(1234567);
+        realtimeUpdate = new RealtimeUpdateEvent(sessionInfo);
+        carUpdates = new RealtimeCarUpdateEvent[carCount];
+        int i = 0;
+        for (Car car : model.getCars()) {
+            carUpdates[i++] = new RealtimeCarUpdateEvent(realtimeInfo(car.id, car.splinePosition));
+        }
+    }
+
+    @Benchmark
+    public Model gapExtension() {
+        gapExtension.onSessionUpdate(sessionInfo);
+        return model;
+    }
+
+    @Benchmark
+    public Model realtimePositionExtension() {
+        for (RealtimeCarUpdateEvent carUpdate : carUpdates) {
+            realtimePositionExtension.onEvent(carUpdate);
+        }
+        realtimePositionExtension.onEvent(realtimeUpdate);
+        return model;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading the model through a deep copy on every call with reading
+ * a snapshot that is published once per realtime update. Run with "-prof gc"
+ * to see the allocation rate.
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelSnapshotBenchmark {
+
+    /**
+     * Number of cars the rating walk visits ahead and behind every car.
+     */
+    private static final int NEIGHBOURS = 3;
+
+    @Param({"20", "60", "120"})
+    public int carCount;
+
+    private Model model;
+    private AtomicReference<Model> snapshot;
+
+    @Setup
+    public void setup() {
+        model = new Model();
+        for (int i = 1; i <= carCount; i++) {
+            Car car = new Car();
+            car.id = i;
+            car.connected = true;
+            car.position = i;
+            car.carPositionAhead = i - 1;
+            car.carPositionBehind = i < carCount ? i + 1 : 0;
+            car.gapPositionAhead = 500;
+            car.gapPositionBehind = 500;
+            model.putCar(car);
+        }
+        snapshot = new AtomicReference<>(model.snapshot());
+    }
+
+    /**
+     * A single read of the model the way getModel() used to work.
+     */
+    @Benchmark
+    public Model deepCopy() {
+        return model.copy();
+    }
+
+    /**
+     * A single read of the model through the snapshot reference.
+     */
+    @Benchmark
+    public Model snapshotRead() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishing a new snapshot, done once per realtime update.
+     */
+    @Benchmark
+    public void snapshotPublish() {
+        snapshot.set(model.snapshot());
+    }
+
+    /**
+     * Walks the neighbours of every car, reading the model for every step
+     * like the rating processor does, using a deep copy per read.
+     */
+    @Benchmark
+    public int ratingWalkDeepCopy() {
+        return ratingWalk(model::copy);
+    }
+
+    /**
+     * Same walk as ratingWalkDeepCopy using the snapshot.
+     */
+    @Benchmark
+    public int ratingWalkSnapshot() {
+        return ratingWalk(snapshot::get);
+    }
+
+    private int ratingWalk(Supplier<Model> source) {
+        int gap = 0;
+        for (Car car : source.get().getCars()) {
+            Car current = car;
+            for (int i = 0; i < NEIGHBOURS && current.carPositionAhead != 0; i++) {
+                current = source.get().getCar(current.carPositionAhead).get();
+                gap += current.gapPositionBehind;
+            }
+            current = car;
+            for (int i = 0; i < NEIGHBOURS && current.carPositionBehind != 0; i++) {
+                current = source.get().getCar(current.carPositionBehind).get();
+                gap += current.gapPositionAhead;
+            }
+        }
+        return gap;
+    }
+}
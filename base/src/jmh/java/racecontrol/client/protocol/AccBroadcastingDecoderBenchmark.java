@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import racecontrol.client.capture.CaptureReader;
+import racecontrol.client.protocol.AccBroadcastingProtocol.InboundMessageTypes;
+
+/**
+ * Compares the stream based decoder in AccBroadcastingProtocol with the
+ * ByteBuffer based AccBroadcastingDecoder for every inbound message type. Run
+ * with "-prof gc" to see the allocation rate of both paths.
+ *
+ * The packets are built like the game sends them. To decode recorded packets
+ * instead pass a capture file with
+ * "-jvmArgsAppend -Dracecontrol.capture=&lt;file&gt;", the first packet of
+ * each type in the capture is used.
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccBroadcastingDecoderBenchmark {
+
+    /**
+     * System property with the path to a capture file.
+     */
+    private static final String CAPTURE_PROPERTY = "racecontrol.capture";
+
+    @Param({"REGISTRATION_RESULT", "REALTIME_UPDATE", "REALTIME_CAR_UPDATE",
+        "ENTRY_LIST", "TRACK_DATA", "ENTRY_LIST_CAR", "BROADCASTING_EVENT"})
+    public String messageType;
+
+    private byte[] packet;
+    private ByteBuffer buffer;
+    private AccBroadcastingDecoder decoder;
+    private BlackholeCallback callback;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws IOException {
+        String capture = System.getProperty(CAPTURE_PROPERTY);
+        if (capture != null) {
+            packet = findRecordedPacket(capture, typeId(messageType));
+        } else {
+            packet = buildPacket(messageType);
+        }
+        buffer = ByteBuffer.wrap(packet);
+        decoder = new AccBroadcastingDecoder();
+        callback = new BlackholeCallback(blackhole);
+    }
+
+    private static byte[] buildPacket(String messageType) {
+        switch (messageType) {
+            case "REGISTRATION_RESULT":
+                return InboundPackets.registrationResult(1);
+            case "REALTIME_UPDATE":
+                return InboundPackets.realtimeUpdate(1234567);
+            case "REALTIME_CAR_UPDATE":
+                return InboundPackets.realtimeCarUpdate(12, 0.5f, 45678);
+            case "ENTRY_LIST":
+                return InboundPackets.entryList(60);
+            case "TRACK_DATA":
+                return InboundPackets.trackData("Circuit de Spa-Francorchamps", 7004);
+            case "ENTRY_LIST_CAR":
+                return InboundPackets.entryListCar(12);
+            case "BROADCASTING_EVENT":
+                return InboundPackets.broadcastingEvent(12, 45678);
+            default:
+                throw new IllegalArgumentException("Unknown message type " + messageType);
+        }
+    }
+
+    private static byte typeId(String messageType) {
+        switch (messageType) {
+            case "REGISTRATION_RESULT":
+                return InboundMessageTypes.REGISTRATION_RESULT;
+            case "REALTIME_UPDATE":
+                return InboundMessageTypes.REALTIME_UPDATE;
+            case "REALTIME_CAR_UPDATE":
+                return InboundMessageTypes.REALTIME_CAR_UPDATE;
+            case "ENTRY_LIST":
+                return InboundMessageTypes.ENTRY_LIST;
+            case "TRACK_DATA":
+                return InboundMessageTypes.TRACK_DATA;
+            case "ENTRY_LIST_CAR":
+                return InboundMessageTypes.ENTRY_LIST_CAR;
+            case "BROADCASTING_EVENT":
+                return InboundMessageTypes.BROADCASTING_EVENT;
+            default:
+                throw new IllegalArgumentException("Unknown message type " + messageType);
+        }
+    }
+
+    /**
+     * Returns the first packet of the given type in a capture file.
+     */
+    private static byte[] findRecordedPacket(String capture, byte type)
+            throws IOException {
+        try (CaptureReader reader = new CaptureReader(Paths.get(capture))) {
+            while (reader.next()) {
+                ByteBuffer datagram = reader.getDatagram();
+                if (datagram.remaining() > 0 && datagram.get(datagram.position()) == type) {
+                    byte[] packet = new byte[datagram.remaining()];
+                    datagram.get(packet);
+                    return packet;
+                }
+            }
+        }
+        throw new IllegalStateException("No packet of type " + type + " in " + capture);
+    }
+
+    @Benchmark
+    public void streamDecoder() {
+        AccBroadcastingProtocol.processMessage(new ByteArrayInputStream(packet), callback);
+    }
+
+    @Benchmark
+    public void bufferDecoder() {
+        buffer.clear();
+        decoder.processMessage(buffer, callback);
+    }
+
+    /**
+     * Callback that consumes all decoded objects.
+     */
+    public static class BlackholeCallback
+            implements AccBroadcastingProtocolCallback {
+
+        private final Blackhole blackhole;
+
+        public BlackholeCallback(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onRegistrationResult(int connectionID, boolean success, boolean readOnly, String message) {
+            blackhole.consume(message);
+        }
+
+        @Override
+        public void onRealtimeUpdate(SessionInfo sessionInfo) {
+            blackhole.consume(sessionInfo);
+        }
+
+        @Override
+        public void onRealtimeCarUpdate(RealtimeInfo info) {
+            blackhole.consume(info);
+        }
+
+        @Override
+        public void onEntryListUpdate(List<Integer> carIds) {
+            blackhole.consume(carIds);
+        }
+
+        @Override
+        public void onTrackData(TrackInfo info) {
+            blackhole.consume(info);
+        }
+
+        @Override
+        public void onEntryListCarUpdate(CarInfo carInfo) {
+            blackhole.consume(carInfo);
+        }
+
+        @Override
+        public void onBroadcastingEvent(BroadcastingEvent event) {
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void afterPacketReceived(byte type) {
+            blackhole.consume(type);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import racecontrol.client.protocol.AccBroadcastingProtocol.InboundMessageTypes;
+
+/**
+ * Builds inbound packets as the game would send them. Used to feed the
+ * decoders in benchmarks.
+ *
+ * @author Leonard
+ */
+public class InboundPackets {
+
+    private InboundPackets() {
+    }
+
+    public static byte[] registrationResult(int connectionId) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.REGISTRATION_RESULT);
+        b.putInt(connectionId);
+        b.put((byte) 1);            // success
+        b.put((byte) 1);            // writable
+        putString(b, "");
+        return toArray(b);
+    }
+
+    public static byte[] realtimeUpdate(float sessionTime) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.REALTIME_UPDATE);
+        b.putShort((short) 1);      // event index
+        b.putShort((short) 2);      // session index
+        b.put((byte) 10);           // session type race
+        b.put((byte) 5);            // session phase session
+        b.putFloat(sessionTime);
+        b.putFloat(3600000);
+        b.putInt(12);               // focused car
+        putString(b, "Drivable");
+        putString(b, "Chase");
+        putString(b, "Basic HUD");
+        b.put((byte) 0);            // no replay
+        b.putFloat(43200);
+        b.put((byte) 22);
+        b.put((byte) 28);
+        b.put((byte) 0);
+        b.put((byte) 0);
+        b.put((byte) 0);
+        putLap(b, 102345, 12, 0, 3);
+        return toArray(b);
+    }
+
+    public static byte[] realtimeCarUpdate(int carId, float splinePosition, int lapTime) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.REALTIME_CAR_UPDATE);
+        b.putShort((short) carId);
+        b.putShort((short) 0);      // driver index
+        b.put((byte) 1);            // driver count
+        b.put((byte) 4);            // gear
+        b.putFloat(0.1f);
+        b.putFloat(0.2f);
+        b.putFloat(0.3f);
+        b.put((byte) 1);            // on track
+        b.putShort((short) 212);
+        b.putShort((short) (carId + 1));
+        b.putShort((short) (carId + 1));
+        b.putShort((short) (carId + 1));
+        b.putFloat(splinePosition);
+        b.putShort((short) 12);
+        b.putInt(-120);
+        putLap(b, 102345 + carId, carId, 0, 3);     // best lap
+        putLap(b, 103456 + carId, carId, 0, 3);     // last lap
+        putLap(b, lapTime, carId, 0, 1);            // current lap
+        return toArray(b);
+    }
+
+    public static byte[] entryList(int carCount) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.ENTRY_LIST);
+        b.putInt(1);                // connection id
+        b.putShort((short) carCount);
+        for (int i = 1; i <= carCount; i++) {
+            b.putShort((short) i);
+        }
+        return toArray(b);
+    }
+
+    public static byte[] trackData(String trackName, int trackMeters) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.TRACK_DATA);
+        b.putInt(1);                // connection id
+        putString(b, trackName);
+        b.putInt(7);                // track id
+        b.putInt(trackMeters);
+        String[][] cameraSets = {
+            {"Drivable", "Chase", "FarChase", "Bonnet", "DashPro", "Cockpit", "Dash", "Helmet"},
+            {"Onboard", "Onboard0", "Onboard1", "Onboard2", "Onboard3"},
+            {"Helicam", "Helicam"},
+            {"pitlane", "CameraPit1", "CameraPit2"},
+            {"set1", "CameraTV1", "CameraTV2", "CameraTV3", "CameraTV4", "CameraTV5"},
+            {"set2", "CameraTV1", "CameraTV2", "CameraTV3", "CameraTV4"},
+            {"setVR", "CameraVR1", "CameraVR2"}
+        };
+        b.put((byte) cameraSets.length);
+        for (String[] set : cameraSets) {
+            putString(b, set[0]);
+            b.put((byte) (set.length - 1));
+            for (int i = 1; i < set.length; i++) {
+                putString(b, set[i]);
+            }
+        }
+        String[] hudPages = {"Blank", "Basic HUD", "Help", "TimeTable", "Broadcasting", "TrackMap"};
+        b.put((byte) hudPages.length);
+        for (String page : hudPages) {
+            putString(b, page);
+        }
+        return toArray(b);
+    }
+
+    public static byte[] entryListCar(int carId) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.ENTRY_LIST_CAR);
+        b.putShort((short) carId);
+        b.put((byte) 25);           // car model
+        putString(b, "Team " + carId);
+        b.putInt(carId + 100);
+        b.put((byte) 0);
+        b.put((byte) 0);
+        b.putShort((short) 1);
+        b.put((byte) 1);            // driver count
+        putString(b, "First");
+        putString(b, "Last" + carId);
+        putString(b, "LST");
+        b.put((byte) 3);
+        b.putShort((short) 1);
+        return toArray(b);
+    }
+
+    public static byte[] broadcastingEvent(int carId, int timeMs) {
+        ByteBuffer b = buffer();
+        b.put(InboundMessageTypes.BROADCASTING_EVENT);
+        b.put((byte) 4);            // accident
+        putString(b, "Accident");
+        b.putInt(timeMs);
+        b.putInt(carId);
+        return toArray(b);
+    }
+
+    private static void putLap(ByteBuffer b, int lapTime, int carId, int driverIndex, int splitCount) {
+        b.putInt(lapTime);
+        b.putShort((short) carId);
+        b.putShort((short) driverIndex);
+        b.put((byte) splitCount);
+        for (int i = 0; i < splitCount; i++) {
+            b.putInt(lapTime / 3);
+        }
+        b.put((byte) 0);            // invalid
+        b.put((byte) 1);            // valid for best
+        b.put((byte) 0);            // outlap
+        b.put((byte) 0);            // inlap
+    }
+
+    private static void putString(ByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        b.putShort((short) bytes.length);
+        b.put(bytes);
+    }
+
+    private static ByteBuffer buffer() {
+        return ByteBuffer.allocate(2048).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] toArray(ByteBuffer b) {
+        return Arrays.copyOf(b.array(), b.position());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import racecontrol.client.events.ConnectionClosedEvent;
+import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.client.events.TrackInfoEvent;
+
+/**
+ * Measures the cost of publishing a RealtimeCarUpdateEvent. The old event bus
+ * offered every event to every listener in a LinkedList, the current one only
+ * calls the listeners registered for the type of the event.
+ *
+ * @author Leonard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBusBenchmark {
+
+    /**
+     * Event types the listeners are interested in. Roughly one in five
+     * listeners of the application handles realtime car updates.
+     */
+    private static final List<Interest> INTERESTS = List.of(
+            interest(RealtimeCarUpdateEvent.class, RealtimeUpdateEvent.class),
+            interest(SessionChangedEvent.class),
+            interest(TrackInfoEvent.class, RealtimeUpdateEvent.class),
+            interest(ConnectionClosedEvent.class, SessionChangedEvent.class),
+            interest(RealtimeUpdateEvent.class)
+    );
+
+    @Param({"25", "50"})
+    public int listenerCount;
+
+    private final Object syncObject = new Object();
+    private final List<EventListener> broadcastListeners = new LinkedList<>();
+    private final List<EventListener> registered = new ArrayList<>();
+    private Event event;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        for (int i = 0; i < listenerCount; i++) {
+            Interest interest = INTERESTS.get(i % INTERESTS.size());
+            EventListener listener = new FilteringListener(interest.types, blackhole);
+            broadcastListeners.add(listener);
+            interest.register.accept(listener);
+            registered.add(listener);
+        }
+        event = new RealtimeCarUpdateEvent(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        registered.forEach(EventBus::unregister);
+        registered.clear();
+        broadcastListeners.clear();
+    }
+
+    @Benchmark
+    public void linkedListBroadcast() {
+        synchronized (syncObject) {
+            broadcastListeners.forEach(listener -> {
+                listener.onEvent(event);
+            });
+        }
+    }
+
+    @Benchmark
+    public void typedPublish() {
+        EventBus.publish(event);
+    }
+
+    private static Interest interest(Class<? extends Event> type) {
+        return new Interest(List.of(type),
+                listener -> EventBus.register(listener, type));
+    }
+
+    private static Interest interest(Class<? extends Event> first,
+            Class<? extends Event> second) {
+        return new Interest(List.of(first, second),
+                listener -> EventBus.register(listener, first, second));
+    }
+
+    /**
+     * Event types a listener is interested in and how to register it for them.
+     */
+    private static class Interest {
+
+        private final List<Class<? extends Event>> types;
+        private final Consumer<EventListener> register;
+
+        Interest(List<Class<? extends Event>> types,
+                Consumer<EventListener> register) {
+            this.types = types;
+            this.register = register;
+        }
+    }
+
+    /**
+     * Listener that ignores events it is not interested in, like the
+     * instanceof chains in the extensions and controllers.
+     */
+    private static class FilteringListener
+            implements EventListener {
+
+        private final Class<?>[] types;
+        private final Blackhole blackhole;
+
+        FilteringListener(List<Class<? extends Event>> types, Blackhole blackhole) {
+            this.types = types.toArray(new Class<?>[0]);
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onEvent(Event e) {
+            for (Class<?> type : types) {
+                if (type.isInstance(e)) {
+                    blackhole.consume(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -6,13 +6,24 @@
 package racecontrol.client;
 
 import racecontrol.client.protocol.AccBroadcastingProtocol;
+import java.io.File;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.SocketException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import static java.util.Objects.requireNonNull;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import racecontrol.Main;
+import racecontrol.client.capture.CaptureFile;
+import racecontrol.client.capture.CaptureReader;
+import racecontrol.client.capture.CaptureWriter;
+import racecontrol.client.capture.CapturingTransport;
+import racecontrol.client.capture.ReplayTransport;
 import racecontrol.client.events.ConnectionClosedEvent;
 import racecontrol.client.extension.autobroadcast.AutobroadcastExtension;
 import racecontrol.client.extension.contact.ContactExtension;
@@ -30,6 +41,8 @@ import racecontrol.client.extension.raceevent.RaceEventExtension;
 import racecontrol.client.extension.replayoffset.ReplayOffsetExtension;
 import racecontrol.client.extension.racereport.RaceReportExtension;
 import racecontrol.client.extension.results.ResultsExtension;
+import racecontrol.client.extension.sessiondb.SessionDatabaseExtension;
+import racecontrol.client.extension.telemetry.TelemetryRecorderExtension;
 import racecontrol.client.extension.model.SpeedExtension;
 import racecontrol.client.extension.model.StintTimeExtension;
 import racecontrol.client.extension.trackdata.TrackDataExtension;
@@ -38,6 +51,10 @@ import racecontrol.client.model.Model;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
+import racecontrol.metrics.Metrics;
+import racecontrol.persistance.PersistantConfig;
+import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_CAPTURE;
+import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_TRANSPORT;
 
 /**
  * A basic connection to the broadcasting interface from Assetto Corsa
@@ -52,6 +69,22 @@ public class AccBroadcastingClient
      * This class's logger.
      */
     private static final Logger LOG = Logger.getLogger(AccBroadcastingClient.class.getName());
+    /**
+     * Time in ms after which the connection times out.
+     */
+    private static final int CONNECTION_TIMEOUT = 10000;
+    /**
+     * Update interval assumed for a replayed capture.
+     */
+    private static final int REPLAY_UPDATE_INTERVAL = 100;
+    /**
+     * Directory capture files are written to.
+     */
+    private static final String CAPTURE_DIRECTORY = "capture";
+    /**
+     * Interval in seconds in which the latency metrics are logged.
+     */
+    private static final int METRICS_LOG_INTERVAL = 60;
     /**
      * Singelton instance.
      */
@@ -60,10 +93,15 @@ public class AccBroadcastingClient
      * The model.
      */
     private Model model = new Model();
+    /**
+     * Read only snapshot of the model. Replaced by the connection thread once
+     * per realtime update.
+     */
+    private final AtomicReference<Model> snapshot = new AtomicReference<>(model.snapshot());
     /**
      * Thread where the connection loop is running.
      */
-    private AccConnection connection;
+    private volatile AccConnection connection;
     /**
      * List of broadcast extensions.
      */
@@ -82,7 +120,18 @@ public class AccBroadcastingClient
     }
 
     private AccBroadcastingClient() {
-        EventBus.register(this);
+        EventBus.register(this, ConnectionClosedEvent.class);
+    }
+
+    /**
+     * Returns the clock of the current connection. During a replay this is
+     * the time of the capture.
+     *
+     * @return the clock, the system clock if there is no connection.
+     */
+    public Clock getClock() {
+        AccConnection current = connection;
+        return current == null ? Clock.SYSTEM : current.getClock();
     }
 
     public void initialise() {
@@ -102,7 +151,7 @@ public class AccBroadcastingClient
         extensions.add(new LapTimeExtension());
         extensions.add(RaceReportExtension.get());
         extensions.add(ReplayOffsetExtension.getInstance());
-        extensions.add(new ResultsExtension());
+        extensions.add(ResultsExtension.getInstance());
         extensions.add(TrackDataExtension.getInstance());
         /**
          * Danger detection currently does not work because of changes to the broadcasting api.
@@ -114,6 +163,8 @@ public class AccBroadcastingClient
         extensions.add(VirtualSafetyCarExtension.getInstance());
         extensions.add(VirtualSafetyCarExtension.getInstance());
         extensions.add(RaceEventExtension.get());
+        extensions.add(SessionDatabaseExtension.getInstance());
+        extensions.add(TelemetryRecorderExtension.getInstance());
         extensions.add(AutobroadcastExtension.getInstance());
 
         // add extension from modules.
@@ -123,6 +174,8 @@ public class AccBroadcastingClient
                 extensions.add(extension);
             }
         });
+
+        Metrics.startLogging(METRICS_LOG_INTERVAL);
     }
 
     @Override
@@ -173,11 +226,79 @@ public class AccBroadcastingClient
         model.hostPort = requireNonNull(hostPort, "hostPort");
 
         extensions.forEach(extension -> extension.setWritableModel(model));
+        publishSnapshot(model);
 
-        connection = new AccConnection(model);
+        AccTransport transport;
+        if (PersistantConfig.get(CONNECTION_TRANSPORT) == AccTransport.Type.CHANNEL) {
+            LOG.info("Using channel transport");
+            transport = new ChannelTransport(hostAddress, hostPort, CONNECTION_TIMEOUT);
+        } else {
+            transport = new SocketTransport(hostAddress, hostPort, CONNECTION_TIMEOUT);
+        }
+        if (PersistantConfig.get(CONNECTION_CAPTURE)) {
+            transport = startCapture(transport);
+        }
+
+        connection = new AccConnection(model, transport);
         connection.start();
     }
 
+    /**
+     * Plays back a capture file through the connection as if it was received
+     * from the game. All extensions process the datagrams like they would
+     * for a live connection.
+     *
+     * @param captureFile The capture file to play.
+     * @param speed Playback speed. 1 is real time, 2 is twice as fast and 0 is
+     * as fast as possible.
+     * @throws IOException if the capture file cannot be opened.
+     */
+    public void replay(File captureFile, double speed) throws IOException {
+        if (connection != null) {
+            return;
+        }
+        LOG.info("Replaying capture " + captureFile + " at speed " + speed);
+
+        CaptureReader reader = new CaptureReader(captureFile.toPath());
+
+        model = new Model();
+        model.displayName = "Replay";
+        model.connectionPassword = "";
+        model.commandPassword = "";
+        model.updateInterval = REPLAY_UPDATE_INTERVAL;
+        model.hostAddress = InetAddress.getLoopbackAddress();
+        model.hostPort = 0;
+
+        extensions.forEach(extension -> extension.setWritableModel(model));
+        publishSnapshot(model);
+
+        connection = new AccConnection(model, new ReplayTransport(reader, speed));
+        connection.start();
+    }
+
+    /**
+     * Wraps a transport so all received datagrams are written to a new
+     * capture file. If the file cannot be created the transport is returned
+     * as is.
+     *
+     * @param transport The transport to capture.
+     * @return The capturing transport.
+     */
+    private AccTransport startCapture(AccTransport transport) {
+        File directory = new File(CAPTURE_DIRECTORY);
+        directory.mkdir();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        File file = new File(directory,
+                dateFormat.format(new Date()) + CaptureFile.EXTENSION);
+        try {
+            LOG.info("Capturing packets to " + file.getAbsolutePath());
+            return new CapturingTransport(transport, new CaptureWriter(file.toPath()));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot create capture file " + file, e);
+            return transport;
+        }
+    }
+
     public void stopAndKill() {
         if (connection == null) {
             return;
@@ -187,12 +308,23 @@ public class AccBroadcastingClient
     }
 
     /**
-     * Returns the current model.
+     * Returns the latest snapshot of the model. The snapshot is shared and
+     * must not be modified. Extensions that need the state of the current
+     * packet should use their writable model instead.
      *
-     * @return The current model.
+     * @return The latest snapshot of the model.
      */
     public Model getModel() {
-        return model.copy();
+        return snapshot.get();
+    }
+
+    /**
+     * Replaces the snapshot returned by getModel().
+     *
+     * @param model The model to take the snapshot from.
+     */
+    void publishSnapshot(Model model) {
+        snapshot.set(model.snapshot());
     }
 
     /**
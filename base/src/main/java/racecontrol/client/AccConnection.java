@@ -7,20 +7,22 @@ package racecontrol.client;
 
 import racecontrol.client.protocol.AccBroadcastingProtocolCallback;
 import racecontrol.client.protocol.AccBroadcastingProtocol;
-import java.io.ByteArrayInputStream;
+import racecontrol.client.protocol.AccBroadcastingProtocol.InboundMessageTypes;
+import java.io.EOFException;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.nio.ByteBuffer;
 import java.net.PortUnreachableException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import racecontrol.Main;
+import racecontrol.client.protocol.AccBroadcastingDecoder;
 import static racecontrol.client.AccBroadcastingClient.getClient;
 import racecontrol.client.protocol.BroadcastingEvent;
 import racecontrol.client.protocol.CarInfo;
@@ -39,6 +41,7 @@ import racecontrol.client.events.ConnectionOpenedEvent;
 import racecontrol.client.events.EntryListCarUpdateEvent;
 import racecontrol.client.events.EntryListUpdateEvent;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.events.RegistrationResultEvent;
 import racecontrol.client.events.ReplayEndedEvent;
@@ -52,6 +55,7 @@ import racecontrol.client.model.Model;
 import racecontrol.client.protocol.enums.Nationality;
 import racecontrol.eventbus.EventBus;
 import racecontrol.logging.UILogger;
+import racecontrol.metrics.Metrics;
 import racecontrol.utility.TimeUtils;
 
 /**
@@ -114,20 +118,50 @@ public class AccConnection
      */
     private Model model = new Model();
     /**
-     * Socket used for the connection.
+     * Idle time in ms after which a keep alive request is send.
      */
-    private final DatagramSocket socket;
+    private static final int KEEP_ALIVE_INTERVAL = 3000;
+    /**
+     * Transport used for the connection.
+     */
+    private final AccTransport transport;
+    /**
+     * Decoder for incomming messages.
+     */
+    private final AccBroadcastingDecoder decoder = new AccBroadcastingDecoder();
+    /**
+     * Clock of the transport.
+     */
+    private final Clock clock;
+    /**
+     * Time in nanoseconds when the current datagram was received. Only used
+     * to measure the processing time.
+     */
+    private long packetReceived;
+    /**
+     * Time of the clock in nanoseconds when the current datagram was
+     * received.
+     */
+    private long packetTime;
+    /**
+     * Time of the clock in nanoseconds after which the open frame is
+     * published.
+     */
+    private long frameDeadline;
+    /**
+     * Collects the realtime car updates of one update interval.
+     */
+    private final RealtimeFrameAssembler frame = new RealtimeFrameAssembler();
 
-    public AccConnection(Model model) throws SocketException {
+    public AccConnection(Model model, AccTransport transport) {
         super("ACC connection thread");
         this.model = model;
+        this.transport = transport;
+        this.clock = transport.getClock();
 
         Thread.setDefaultUncaughtExceptionHandler(new Main.UncoughtExceptionHandler());
 
-        //create socket
-        socket = new DatagramSocket();
-        socket.setSoTimeout(10000);
-        socket.connect(model.hostAddress, model.hostPort);
+        transport.setKeepAlive(KEEP_ALIVE_INTERVAL, this::keepAlive);
     }
 
     @Override
@@ -146,11 +180,18 @@ public class AccConnection
         // start listener loop.
         while (running) {
             try {
-                DatagramPacket response = new DatagramPacket(new byte[2048], 2048);
-                socket.receive(response);
-                AccBroadcastingProtocol.processMessage(
-                        new ByteArrayInputStream(response.getData()), this);
-                afterPacketReceived(response.getData()[0]);
+                ByteBuffer response = transport.receive();
+                packetReceived = System.nanoTime();
+                packetTime = clock.nanoTime();
+                // Transports without deadline support only notice an expired
+                // frame when the next datagram arrives.
+                if (frame.isOpen() && packetTime > frameDeadline) {
+                    publishFrame();
+                }
+                byte type = response.get(response.position());
+                decoder.processMessage(response, this);
+                afterPacketReceived(type);
+                Metrics.PACKET.recordSince(packetReceived);
             } catch (SocketTimeoutException e) {
                 LOG.log(Level.WARNING, "Socket timed out.", e);
                 exitState = ExitState.TIMEOUT;
@@ -168,6 +209,10 @@ public class AccConnection
                     exitState = ExitState.EXCEPTION;
                 }
                 running = false;
+            } catch (EOFException e) {
+                LOG.info("End of capture reached.");
+                exitState = ExitState.END_OF_CAPTURE;
+                running = false;
             } catch (IOException e) {
                 LOG.log(Level.SEVERE, "Error in the listener thread", e);
                 exitState = ExitState.EXCEPTION;
@@ -179,8 +224,11 @@ public class AccConnection
             }
         }
 
+        transport.close();
+
         // set game to disconnected
         model.gameConnected = false;
+        getClient().publishSnapshot(model);
 
         // send close connection
         EventBus.publish(new ConnectionClosedEvent(exitState));
@@ -194,7 +242,16 @@ public class AccConnection
     public void close() {
         super.interrupt();
         forceExit = true;
-        socket.close();
+        transport.close();
+    }
+
+    /**
+     * Returns the clock of the connection.
+     *
+     * @return The clock.
+     */
+    public Clock getClock() {
+        return clock;
     }
 
     /**
@@ -204,8 +261,8 @@ public class AccConnection
      * @return True when connected.
      */
     public boolean isConnected() {
-        if (socket != null
-                && socket.isConnected()
+        if (transport != null
+                && transport.isConnected()
                 && isAlive()
                 && running) {
             return true;
@@ -219,12 +276,25 @@ public class AccConnection
      * @param requestBytes
      */
     public void sendRequest(byte[] requestBytes) {
-        if (socket.isConnected()) {
-            try {
-                socket.send(new DatagramPacket(requestBytes, requestBytes.length));
-            } catch (IOException e) {
-                LOG.log(Level.SEVERE, "Error sending request.", e);
-            }
+        try {
+            transport.send(requestBytes);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error sending request.", e);
+        }
+    }
+
+    /**
+     * Called by the transport when nothing was received for a while. Repeats
+     * the register request if the game has not answered yet, otherwise asks
+     * for the entry list to provoke an answer.
+     */
+    private void keepAlive() {
+        if (!model.gameConnected) {
+            LOG.fine("No answer from the game. Repeating register request.");
+            sendRegisterRequest();
+        } else {
+            LOG.fine("Connection idle. Sending entry list request.");
+            sendEntryListRequest();
         }
     }
 
@@ -260,7 +330,7 @@ public class AccConnection
         if (!isConnected()) {
             return;
         }
-        long now = System.currentTimeMillis();
+        long now = clock.currentTimeMillis();
         if (now - lastTimeEntryListRequest > 5000) {
             lastTimeEntryListRequest = now;
             sendRequest(AccBroadcastingProtocol.buildEntryListRequest(model.connectionId));
@@ -301,6 +371,9 @@ public class AccConnection
 
     @Override
     public void onRealtimeUpdate(SessionInfo sessionInfo) {
+        Metrics.DECODE.recordSince(packetReceived);
+        // a frame that is still open is missing updates, publish what we have.
+        publishFrame();
         SessionInfo oldInfo = model.session.raw;
         model.session.raw = sessionInfo;
 
@@ -371,15 +444,35 @@ public class AccConnection
                 resetCameraWhenReplayIsDone = false;
             }
         }
-        EventBus.publish(new RealtimeUpdateEvent(sessionInfo));
+        EventBus.publish(new RealtimeUpdateEvent(sessionInfo, packetReceived));
+
+        frame.begin(sessionInfo, packetReceived);
+        for (Car car : model.getCars()) {
+            if (car.connected) {
+                frame.expect(car.id);
+            }
+        }
+        // Close the frame after one update interval even if no other
+        // datagram arrives, a car that stopped sending must not hold it open.
+        frameDeadline = packetTime + frameTimeout();
+        transport.setDeadline(frameDeadline, this::publishFrame);
+    }
+
+    /**
+     * Returns the time in nanoseconds after which a frame that is missing car
+     * updates is published anyway.
+     */
+    private long frameTimeout() {
+        return TimeUnit.MILLISECONDS.toNanos(model.updateInterval);
     }
 
     private void checkForDisconnects() {
-        long now = System.currentTimeMillis();
+        long now = clock.currentTimeMillis();
         model.getCars().forEach(car -> {
             if (car.connected) {
                 if (now - car.lastUpdate > model.updateInterval * 10) {
                     car.connected = false;
+                    model.getCarStates().update(car);
 
                     String name = car.getDriver().fullName();
 
@@ -414,8 +507,10 @@ public class AccConnection
 
     @Override
     public void onRealtimeCarUpdate(RealtimeInfo info) {
+        Metrics.DECODE.recordSince(packetReceived);
         model.getCar(info.getCarId()).ifPresentOrElse(car -> {
-            car.lastUpdate = System.currentTimeMillis();
+            long start = System.nanoTime();
+            car.lastUpdate = clock.currentTimeMillis();
             car.connected = true;
             car.driverIndexRealtime = info.getDriverIndex();
             car.driverCount = info.getDriverCount();
@@ -434,7 +529,10 @@ public class AccConnection
             car.bestLap = info.getBestSessionLap();
             car.lastLap = info.getLastLap();
             car.currentLap = info.getCurrentLap();
+            model.getCarStates().update(car);
+            Metrics.MODEL_UPDATE.recordSince(start);
             EventBus.publish(new RealtimeCarUpdateEvent(info));
+            frame.add(info);
         }, () -> {
             //if the car doesnt exist in the model ask for a new entry list.
             LOG.fine("Realtime update for unknown car. Sending entry list request");
@@ -444,6 +542,7 @@ public class AccConnection
 
     @Override
     public void onEntryListUpdate(List<Integer> carIds) {
+        model.getCarStates().retain(carIds);
         EventBus.publish(new EntryListUpdateEvent(carIds));
     }
 
@@ -459,7 +558,7 @@ public class AccConnection
 
         boolean newConnection = car.connected == false;
 
-        car.lastUpdate = System.currentTimeMillis();
+        car.lastUpdate = clock.currentTimeMillis();
         car.connected = true;
         car.id = carInfo.getCarId();
         car.carModel = carInfo.getCarModel();
@@ -498,9 +597,38 @@ public class AccConnection
 
     @Override
     public void afterPacketReceived(byte type) {
+        // Car updates follow the realtime update. The frame that is opened
+        // by the realtime update publishes one snapshot with all updates of
+        // the interval once it is complete, so neither the realtime update nor
+        // the car updates publish their own.
+        if (frame.isComplete()) {
+            publishFrame();
+        } else if (type != InboundMessageTypes.REALTIME_CAR_UPDATE
+                && !(type == InboundMessageTypes.REALTIME_UPDATE && frame.isOpen())) {
+            publishSnapshot();
+        }
         EventBus.publish(new AfterPacketReceivedEvent(type, 0));
     }
 
+    private void publishSnapshot() {
+        long start = System.nanoTime();
+        getClient().publishSnapshot(model);
+        Metrics.SNAPSHOT.recordSince(start);
+    }
+
+    /**
+     * Publishes the current frame, if one is open, together with a snapshot
+     * of the model that contains all its updates.
+     */
+    private void publishFrame() {
+        transport.setDeadline(0, null);
+        RealtimeFrameEvent event = frame.finish();
+        if (event != null) {
+            publishSnapshot();
+            EventBus.publish(event);
+        }
+    }
+
     private void onSessionChanged(SessionId newId, SessionInfo info, boolean init) {
         LOG.info("session changed to " + newId.getType().name() + " Index:" + newId.getIndex() + " sessionCount:" + newId.getNumber());
         EventBus.publish(new SessionChangedEvent(newId, info, init));
@@ -540,6 +668,7 @@ public class AccConnection
         REFUSED,
         PORT_UNREACHABLE,
         EXCEPTION,
-        TIMEOUT
+        TIMEOUT,
+        END_OF_CAPTURE
     };
 }
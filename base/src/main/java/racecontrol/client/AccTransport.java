@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Transport used by the {@link AccConnection} to exchange datagrams with the
+ * game.
+ *
+ * @author Leonard
+ */
+public interface AccTransport {
+
+    /**
+     * Blocks until the next datagram is received. The returned buffer contains
+     * the datagram between its position and limit and is only valid until the
+     * next call to this method.
+     *
+     * @return Buffer containing the received datagram.
+     * @throws java.net.SocketTimeoutException if nothing was received in time.
+     * @throws java.net.SocketException if the transport was closed.
+     * @throws IOException for any other error.
+     */
+    public ByteBuffer receive() throws IOException;
+
+    /**
+     * Sends a datagram to the game.
+     *
+     * @param data The datagram to send.
+     * @throws IOException if the datagram could not be send.
+     */
+    public void send(byte[] data) throws IOException;
+
+    /**
+     * Returns true if the transport is connected.
+     *
+     * @return True if the transport is connected.
+     */
+    public boolean isConnected();
+
+    /**
+     * Closes the transport. A thread blocked in {@link #receive()} will
+     * receive a SocketException.
+     */
+    public void close();
+
+    /**
+     * Sets an action that is run on the receiving thread when nothing was
+     * received for a while. Transports that do not support this ignore it.
+     *
+     * @param interval Idle time in ms after which the action is run.
+     * @param action The action to run.
+     */
+    public default void setKeepAlive(int interval, Runnable action) {
+    }
+
+    /**
+     * Sets an action that is run once on the receiving thread if nothing was
+     * received before the deadline. A new deadline replaces the previous one
+     * and a null action clears it. Must be called from the receiving thread.
+     * Transports that do not support this ignore it.
+     *
+     * @param deadline Time in nanoseconds as given by the clock of this
+     * transport.
+     * @param action The action to run.
+     */
+    public default void setDeadline(long deadline, Runnable action) {
+    }
+
+    /**
+     * Returns the clock of this transport. Transports that talk to the game
+     * use the system clock.
+     *
+     * @return The clock.
+     */
+    public default Clock getClock() {
+        return Clock.SYSTEM;
+    }
+
+    /**
+     * Types of transport available.
+     */
+    public enum Type {
+        /**
+         * Blocking DatagramSocket that allocates a new packet for every
+         * datagram.
+         */
+        SOCKET,
+        /**
+         * Selector driven DatagramChannel that reads every datagram into the
+         * same direct buffer.
+         */
+        CHANNEL
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Transport based on a non blocking DatagramChannel. Every datagram is read
+ * into the same direct buffer so receiving does not create any garbage. The
+ * receive timeout, the keep alive and the deadline are driven by a selector.
+ *
+ * @author Leonard
+ */
+public class ChannelTransport
+        implements AccTransport {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ChannelTransport.class.getName());
+    /**
+     * Maximum size of a datagram.
+     */
+    private static final int BUFFER_SIZE = 2048;
+    /**
+     * Channel used for the connection.
+     */
+    private final DatagramChannel channel;
+    /**
+     * Selector to wait for incomming datagrams.
+     */
+    private final Selector selector;
+    /**
+     * Buffer the datagrams are read into.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * Time in ms after which receiving times out.
+     */
+    private final int timeout;
+    /**
+     * Idle time in ms after which the keep alive action is run.
+     */
+    private int keepAliveInterval;
+    /**
+     * Action to run when the connection is idle.
+     */
+    private Runnable keepAliveAction;
+    /**
+     * Time in nanoseconds at which the deadline action is run.
+     */
+    private long actionDeadline;
+    /**
+     * Action to run when nothing was received before the deadline. Null if
+     * no deadline is set.
+     */
+    private Runnable deadlineAction;
+
+    public ChannelTransport(InetAddress hostAddress, int hostPort, int timeout)
+            throws SocketException {
+        this.timeout = timeout;
+        this.keepAliveInterval = timeout;
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(new InetSocketAddress(hostAddress, hostPort));
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            SocketException socketException = new SocketException("Cannot open channel.");
+            socketException.initCause(e);
+            throw socketException;
+        }
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        try {
+            long now = System.currentTimeMillis();
+            long deadline = now + timeout;
+            long nextKeepAlive = now + keepAliveInterval;
+            while (true) {
+                buffer.clear();
+                if (channel.read(buffer) > 0) {
+                    buffer.flip();
+                    return buffer;
+                }
+
+                now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    throw new SocketTimeoutException("Receive timed out");
+                }
+                if (now >= nextKeepAlive) {
+                    nextKeepAlive = now + keepAliveInterval;
+                    if (keepAliveAction != null) {
+                        keepAliveAction.run();
+                    }
+                }
+                long wait = Math.min(deadline, nextKeepAlive) - now;
+                if (deadlineAction != null) {
+                    long remaining = actionDeadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        Runnable action = deadlineAction;
+                        deadlineAction = null;
+                        action.run();
+                        continue;
+                    }
+                    wait = Math.min(wait, TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                }
+
+                selector.select(wait);
+                selector.selectedKeys().clear();
+                if (!channel.isOpen()) {
+                    throw new SocketException("Socket closed");
+                }
+            }
+        } catch (ClosedChannelException | ClosedSelectorException e) {
+            throw new SocketException("Socket closed");
+        }
+    }
+
+    @Override
+    public void send(byte[] data) throws IOException {
+        if (channel.isConnected()) {
+            if (channel.write(ByteBuffer.wrap(data)) == 0) {
+                LOG.warning("Send buffer full, request dropped.");
+            }
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel.isOpen() && channel.isConnected();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            selector.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error closing the channel.", e);
+        }
+    }
+
+    @Override
+    public void setKeepAlive(int interval, Runnable action) {
+        keepAliveInterval = interval;
+        keepAliveAction = action;
+    }
+
+    @Override
+    public void setDeadline(long deadline, Runnable action) {
+        this.actionDeadline = deadline;
+        this.deadlineAction = action;
+    }
+
+}
@@ -5,7 +5,10 @@
  */
 package racecontrol.client;
 
+import java.util.function.Function;
 import racecontrol.client.model.Model;
+import racecontrol.eventbus.Backpressure;
+import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
 
@@ -29,6 +32,55 @@ public abstract class ClientExtension
         EventBus.register(this);
     }
 
+    /**
+     * Creates an extension that receives its events asynchronously on its own
+     * thread. Only extensions that do not write to the model or depend on the
+     * state of other extensions should use this.
+     *
+     * @param queueCapacity number of events that can be queued.
+     */
+    public ClientExtension(int queueCapacity) {
+        EventBus.registerAsync(this, queueCapacity);
+    }
+
+    /**
+     * Creates an extension that receives events of the given types
+     * asynchronously on its own thread.
+     *
+     * @param queueCapacity number of events that can be queued.
+     * @param types the event types the extension is interested in.
+     */
+    @SafeVarargs
+    public ClientExtension(int queueCapacity, Class<? extends Event>... types) {
+        EventBus.registerAsync(this, queueCapacity, types);
+    }
+
+    /**
+     * Creates an extension that receives events of the given types
+     * asynchronously on its own thread with its own backpressure policy.
+     *
+     * @param queueCapacity number of events that can be queued.
+     * @param policy returns the backpressure policy for an event.
+     * @param types the event types the extension is interested in.
+     */
+    @SafeVarargs
+    public ClientExtension(int queueCapacity,
+            Function<Event, Backpressure> policy,
+            Class<? extends Event>... types) {
+        EventBus.registerAsync(this, queueCapacity, policy, types);
+    }
+
+    /**
+     * Returns the current time of the connection's clock. Time based logic
+     * uses this instead of the system clock, so a replay behaves the same at
+     * any playback speed.
+     *
+     * @return the current time in milliseconds since the epoch.
+     */
+    protected long currentTimeMillis() {
+        return AccBroadcastingClient.getClient().getClock().currentTimeMillis();
+    }
+
     /**
      * Returns the writable version of the system model.
      *
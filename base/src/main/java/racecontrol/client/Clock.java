@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+/**
+ * Source of the current time for the connection and the extensions. A live
+ * connection uses the system clock. A replay uses the time of the capture, so
+ * timeouts and time based logic behave the same regardless of the playback
+ * speed.
+ *
+ * @author Leonard
+ */
+public interface Clock {
+
+    /**
+     * The system clock.
+     */
+    public static final Clock SYSTEM = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Returns the current time in nanoseconds. Like
+     * {@link System#nanoTime()} the value is only meaningful as a difference
+     * to another value of the same clock.
+     *
+     * @return the current time in nanoseconds.
+     */
+    public long nanoTime();
+
+    /**
+     * Returns the current time in milliseconds since the epoch.
+     *
+     * @return the current time in milliseconds.
+     */
+    public long currentTimeMillis();
+}
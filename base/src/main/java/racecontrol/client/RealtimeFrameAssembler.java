@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import racecontrol.client.events.RealtimeFrameEvent;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionInfo;
+
+/**
+ * Collects the realtime car updates that follow a realtime update into a
+ * {@link RealtimeFrameEvent}.
+ *
+ * @author Leonard
+ */
+class RealtimeFrameAssembler {
+
+    /**
+     * Realtime update that started the current frame. Null if no frame is
+     * open.
+     */
+    private SessionInfo sessionInfo;
+    /**
+     * Car updates of the current frame by car id.
+     */
+    private final Map<Integer, RealtimeInfo> carInfos = new LinkedHashMap<>();
+    /**
+     * Time in nanoseconds when the current frame was started.
+     */
+    private long startTime;
+    /**
+     * Ids of the expected cars that have not send an update in the current
+     * frame yet.
+     */
+    private final BitSet missingCars = new BitSet();
+
+    /**
+     * Starts a new frame. A frame that is still open is discarded, use
+     * {@link #finish()} first to keep it. The cars that complete the frame
+     * are set with {@link #expect(int)}.
+     *
+     * @param sessionInfo the realtime update.
+     * @param receiveTime the time the update was received in nanoseconds.
+     */
+    void begin(SessionInfo sessionInfo, long receiveTime) {
+        this.sessionInfo = sessionInfo;
+        this.startTime = receiveTime;
+        carInfos.clear();
+        missingCars.clear();
+    }
+
+    /**
+     * Adds a car to the cars that have to send an update before the current
+     * frame is complete.
+     *
+     * @param carId the car id.
+     */
+    void expect(int carId) {
+        if (sessionInfo != null && !carInfos.containsKey(carId)) {
+            missingCars.set(carId);
+        }
+    }
+
+    /**
+     * Adds a car update to the current frame. A second update for the same
+     * car replaces the first one. Updates without an open frame are ignored.
+     *
+     * @param info the car update.
+     */
+    void add(RealtimeInfo info) {
+        if (sessionInfo != null) {
+            carInfos.put(info.getCarId(), info);
+            missingCars.clear(info.getCarId());
+        }
+    }
+
+    boolean isOpen() {
+        return sessionInfo != null;
+    }
+
+    /**
+     * Returns true if every expected car has send an update. A frame without
+     * any car update is never complete, it is closed by the next realtime
+     * update or when it expires.
+     *
+     * @return true if the frame is complete.
+     */
+    boolean isComplete() {
+        return isOpen() && !carInfos.isEmpty() && missingCars.isEmpty();
+    }
+
+    /**
+     * Closes the current frame.
+     *
+     * @return the event for the frame or null if no frame was open.
+     */
+    RealtimeFrameEvent finish() {
+        if (sessionInfo == null) {
+            return null;
+        }
+        RealtimeFrameEvent event = new RealtimeFrameEvent(sessionInfo,
+                new ArrayList<>(carInfos.values()),
+                startTime,
+                isComplete());
+        sessionInfo = null;
+        carInfos.clear();
+        missingCars.clear();
+        return event;
+    }
+}
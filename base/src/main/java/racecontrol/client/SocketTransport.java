@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport based on a blocking DatagramSocket.
+ *
+ * @author Leonard
+ */
+public class SocketTransport
+        implements AccTransport {
+
+    /**
+     * Socket used for the connection.
+     */
+    private final DatagramSocket socket;
+    /**
+     * Time in ms after which receiving times out.
+     */
+    private final int timeout;
+    /**
+     * Time in nanoseconds at which the deadline action is run.
+     */
+    private long actionDeadline;
+    /**
+     * Action to run when nothing was received before the deadline. Null if
+     * no deadline is set.
+     */
+    private Runnable deadlineAction;
+
+    public SocketTransport(InetAddress hostAddress, int hostPort, int timeout)
+            throws SocketException {
+        this.timeout = timeout;
+        socket = new DatagramSocket();
+        socket.setSoTimeout(timeout);
+        socket.connect(hostAddress, hostPort);
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        DatagramPacket response = new DatagramPacket(new byte[2048], 2048);
+        if (deadlineAction == null) {
+            socket.receive(response);
+        } else {
+            receiveBeforeDeadline(response);
+        }
+        return ByteBuffer.wrap(response.getData(), 0, response.getLength());
+    }
+
+    /**
+     * Receives a datagram with the socket timeout shortened to the deadline.
+     * When the deadline passes its action is run and receiving continues
+     * until the regular timeout.
+     */
+    private void receiveBeforeDeadline(DatagramPacket response) throws IOException {
+        long timeoutAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (deadlineAction != null && now >= actionDeadline) {
+                    Runnable action = deadlineAction;
+                    deadlineAction = null;
+                    action.run();
+                    continue;
+                }
+                long until = deadlineAction != null
+                        ? Math.min(actionDeadline, timeoutAt)
+                        : timeoutAt;
+                if (now >= timeoutAt) {
+                    throw new SocketTimeoutException("Receive timed out");
+                }
+                socket.setSoTimeout((int) TimeUnit.NANOSECONDS.toMillis(until - now) + 1);
+                try {
+                    socket.receive(response);
+                    return;
+                } catch (SocketTimeoutException e) {
+                    if (System.nanoTime() >= timeoutAt) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(timeout);
+            }
+        }
+    }
+
+    @Override
+    public void send(byte[] data) throws IOException {
+        if (socket.isConnected()) {
+            socket.send(new DatagramPacket(data, data.length));
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return socket.isConnected();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    @Override
+    public void setDeadline(long deadline, Runnable action) {
+        this.actionDeadline = deadline;
+        this.deadlineAction = action;
+    }
+
+}
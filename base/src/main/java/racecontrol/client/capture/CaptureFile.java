@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+/**
+ * Layout of a packet capture file.
+ * <p>
+ * A capture starts with a header of the magic bytes and a version byte. After
+ * that the received datagrams follow in the order they were received. Every
+ * datagram is prefixed with the time in microseconds that passed since the
+ * previous datagram as an int and its length as an unsigned short. All values
+ * are big endian.
+ *
+ * @author Leonard
+ */
+public class CaptureFile {
+
+    /**
+     * Bytes every capture file starts with.
+     */
+    public static final byte[] MAGIC = {'A', 'C', 'C', 'C', 'A', 'P'};
+    /**
+     * Version of the file layout.
+     */
+    public static final byte VERSION = 1;
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = MAGIC.length + 1;
+    /**
+     * Size of the prefix before each datagram in bytes.
+     */
+    public static final int RECORD_HEADER_SIZE = 6;
+    /**
+     * Maximum size of a datagram.
+     */
+    public static final int MAX_DATAGRAM_SIZE = 0xFFFF;
+    /**
+     * File extension of capture files.
+     */
+    public static final String EXTENSION = ".acccap";
+
+    private CaptureFile() {
+    }
+}
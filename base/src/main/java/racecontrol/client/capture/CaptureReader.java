@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.READ;
+import java.util.Arrays;
+
+/**
+ * Reads the datagrams of a capture file in the order they were recorded.
+ *
+ * @author Leonard
+ */
+public class CaptureReader
+        implements Closeable {
+
+    /**
+     * Size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Channel of the capture file.
+     */
+    private final FileChannel channel;
+    /**
+     * Buffer the file is read into.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE + CaptureFile.MAX_DATAGRAM_SIZE);
+    /**
+     * View of the current datagram.
+     */
+    private ByteBuffer datagram;
+    /**
+     * Length of the current datagram.
+     */
+    private int length = 0;
+    /**
+     * Time of the current datagram in microseconds since the first datagram.
+     */
+    private long timestamp = 0;
+    /**
+     * Flag to indicate that the end of the file was reached.
+     */
+    private boolean endOfFile = false;
+
+    /**
+     * Opens a capture file for reading.
+     *
+     * @param path path of the capture file.
+     * @throws IOException if the file cannot be opened or is not a capture
+     * file.
+     */
+    public CaptureReader(Path path) throws IOException {
+        channel = FileChannel.open(path, READ);
+        buffer.flip();
+        if (!fill(CaptureFile.HEADER_SIZE)) {
+            channel.close();
+            throw new IOException(path + " is not a capture file.");
+        }
+        byte[] magic = new byte[CaptureFile.MAGIC.length];
+        buffer.get(magic);
+        byte version = buffer.get();
+        if (!Arrays.equals(magic, CaptureFile.MAGIC)
+                || version != CaptureFile.VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a capture file.");
+        }
+    }
+
+    /**
+     * Advances to the next datagram.
+     *
+     * @return true if there is another datagram, false at the end of the
+     * file.
+     * @throws IOException if reading fails.
+     */
+    public boolean next() throws IOException {
+        if (datagram != null) {
+            buffer.position(buffer.position() + length);
+            datagram = null;
+        }
+        if (!fill(CaptureFile.RECORD_HEADER_SIZE)) {
+            return false;
+        }
+        int delta = buffer.getInt();
+        length = Short.toUnsignedInt(buffer.getShort());
+        if (!fill(length)) {
+            // the capture was cut off while writing the last datagram.
+            return false;
+        }
+        timestamp += delta;
+        datagram = buffer.slice();
+        datagram.limit(length);
+        return true;
+    }
+
+    /**
+     * Returns the current datagram. The buffer is only valid until the next
+     * call to {@link #next()}.
+     *
+     * @return buffer containing the datagram between position and limit.
+     */
+    public ByteBuffer getDatagram() {
+        return datagram;
+    }
+
+    /**
+     * Returns the time of the current datagram.
+     *
+     * @return the time in microseconds since the first datagram.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Makes sure that at least the given number of bytes are in the buffer.
+     *
+     * @param bytes the number of bytes needed.
+     * @return false if the end of the file was reached first.
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
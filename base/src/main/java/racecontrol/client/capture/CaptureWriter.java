@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends received datagrams to a capture file. Datagrams are collected in a
+ * buffer and written to the file when the buffer is full or the writer is
+ * flushed or closed.
+ *
+ * @author Leonard
+ */
+public class CaptureWriter
+        implements Closeable {
+
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Channel of the capture file.
+     */
+    private final FileChannel channel;
+    /**
+     * Buffer the records are collected in.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * Timestamp of the last datagram in nanoseconds.
+     */
+    private long lastTimestamp = -1;
+    /**
+     * Number of datagrams written.
+     */
+    private long count = 0;
+
+    /**
+     * Opens a capture file for writing. A new file gets a header, an
+     * existing file is appended to.
+     *
+     * @param path path of the capture file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CaptureWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        if (channel.size() == 0) {
+            buffer.put(CaptureFile.MAGIC);
+            buffer.put(CaptureFile.VERSION);
+        }
+    }
+
+    /**
+     * Appends a datagram. The position of the buffer is not changed.
+     *
+     * @param timestamp monotonic timestamp of when the datagram was received
+     * in nanoseconds. Usually from System.nanoTime().
+     * @param datagram buffer containing the datagram between its position and
+     * limit.
+     * @throws IOException if writing fails.
+     */
+    public synchronized void write(long timestamp, ByteBuffer datagram)
+            throws IOException {
+        int length = datagram.remaining();
+        if (length > CaptureFile.MAX_DATAGRAM_SIZE) {
+            throw new IllegalArgumentException("Datagram too large: " + length);
+        }
+        if (buffer.remaining() < CaptureFile.RECORD_HEADER_SIZE + length) {
+            flush();
+        }
+
+        long delta = lastTimestamp < 0 ? 0 : (timestamp - lastTimestamp) / 1000;
+        lastTimestamp = timestamp;
+        buffer.putInt((int) Math.max(0, Math.min(delta, Integer.MAX_VALUE)));
+        buffer.putShort((short) length);
+        buffer.put(datagram.duplicate());
+        count++;
+    }
+
+    /**
+     * Writes all buffered datagrams to the file.
+     *
+     * @throws IOException if writing fails.
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of datagrams written.
+     *
+     * @return the number of datagrams.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccTransport;
+import racecontrol.client.Clock;
+
+/**
+ * Transport that writes every datagram received by another transport to a
+ * capture file.
+ *
+ * @author Leonard
+ */
+public class CapturingTransport
+        implements AccTransport {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(CapturingTransport.class.getName());
+    /**
+     * The transport that does the actual work.
+     */
+    private final AccTransport transport;
+    /**
+     * Writer for the capture file.
+     */
+    private final CaptureWriter writer;
+    /**
+     * Flag to indicate that capturing failed and was stopped.
+     */
+    private boolean failed = false;
+    /**
+     * Flag to indicate that the transport was closed.
+     */
+    private boolean closed = false;
+
+    public CapturingTransport(AccTransport transport, CaptureWriter writer) {
+        this.transport = transport;
+        this.writer = writer;
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        ByteBuffer datagram = transport.receive();
+        if (!failed) {
+            try {
+                writer.write(System.nanoTime(), datagram);
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Error writing the capture file. Capture stopped.", e);
+                failed = true;
+            }
+        }
+        return datagram;
+    }
+
+    @Override
+    public void send(byte[] data) throws IOException {
+        transport.send(data);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return transport.isConnected();
+    }
+
+    @Override
+    public synchronized void close() {
+        transport.close();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+            LOG.info("Captured " + writer.getCount() + " datagrams.");
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error closing the capture file.", e);
+        }
+    }
+
+    @Override
+    public void setKeepAlive(int interval, Runnable action) {
+        transport.setKeepAlive(interval, action);
+    }
+
+    @Override
+    public void setDeadline(long deadline, Runnable action) {
+        transport.setDeadline(deadline, action);
+    }
+
+    @Override
+    public Clock getClock() {
+        return transport.getClock();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.AccTransport;
+import racecontrol.client.Clock;
+
+/**
+ * Transport that plays back a capture file instead of talking to the game.
+ * The datagrams are returned with the same timing as they were recorded,
+ * scaled by a speed factor. Requests sent to the game are ignored.
+ * <p>
+ * The clock of the replay follows the time of the capture. It starts at the
+ * time the replay was created and advances with the timestamps of the
+ * returned datagrams, so timeouts fire at the same point of the capture at
+ * any speed.
+ *
+ * @author Leonard
+ */
+public class ReplayTransport
+        implements AccTransport {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ReplayTransport.class.getName());
+    /**
+     * Speed to play back as fast as possible.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+    /**
+     * Reader for the capture file.
+     */
+    private final CaptureReader reader;
+    /**
+     * Playback speed. 1 is real time, 0 or less is as fast as possible.
+     */
+    private final double speed;
+    /**
+     * Time when the first datagram was returned in nanoseconds.
+     */
+    private long startTime = -1;
+    /**
+     * Flag to indicate that the transport is open.
+     */
+    private volatile boolean open = true;
+    /**
+     * Time of the replay clock in nanoseconds since the first datagram.
+     */
+    private volatile long clockTime = 0;
+    /**
+     * Time in milliseconds since the epoch the replay clock starts at.
+     */
+    private final long clockStart = System.currentTimeMillis();
+    /**
+     * Deadline on the replay clock in nanoseconds.
+     */
+    private long deadline;
+    /**
+     * Action to run at the deadline. Null if no deadline is set.
+     */
+    private Runnable deadlineAction;
+    /**
+     * Clock that follows the time of the capture.
+     */
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return clockTime;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return clockStart + TimeUnit.NANOSECONDS.toMillis(clockTime);
+        }
+    };
+
+    /**
+     * Creates a new replay.
+     *
+     * @param reader reader for the capture to play.
+     * @param speed playback speed. 1 is real time, 2 twice as fast and 0 or
+     * less as fast as possible.
+     */
+    public ReplayTransport(CaptureReader reader, double speed) {
+        this.reader = reader;
+        this.speed = speed;
+    }
+
+    /**
+     * Returns the next datagram of the capture once it is due. A deadline
+     * that passes before that is run first, at the end of the capture a
+     * pending deadline is run before the end is reported.
+     *
+     * @return buffer containing the datagram.
+     * @throws EOFException when the end of the capture is reached.
+     * @throws SocketException when the transport was closed.
+     * @throws IOException if reading the capture fails.
+     */
+    @Override
+    public ByteBuffer receive() throws IOException {
+        if (!open) {
+            throw new SocketException("Socket closed");
+        }
+        boolean hasNext;
+        try {
+            hasNext = reader.next();
+        } catch (ClosedChannelException e) {
+            throw new SocketException("Socket closed");
+        }
+        long due = hasNext
+                ? TimeUnit.MICROSECONDS.toNanos(reader.getTimestamp())
+                : Long.MAX_VALUE;
+        while (deadlineAction != null && deadline <= due) {
+            waitUntil(deadline);
+            clockTime = Math.max(clockTime, deadline);
+            Runnable action = deadlineAction;
+            deadlineAction = null;
+            action.run();
+        }
+        if (!hasNext) {
+            throw new EOFException("End of capture");
+        }
+        waitUntil(due);
+        clockTime = due;
+        return reader.getDatagram();
+    }
+
+    /**
+     * Waits until a point of the capture is due at the playback speed.
+     *
+     * @param time time in the capture in nanoseconds.
+     * @throws SocketException if the waiting thread is interrupted.
+     */
+    private void waitUntil(long time) throws SocketException {
+        if (speed <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (startTime < 0) {
+            startTime = now;
+        }
+        long due = startTime + (long) (time / speed);
+        if (due > now) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(due - now);
+            } catch (InterruptedException e) {
+                throw new SocketException("Socket closed");
+            }
+        }
+    }
+
+    @Override
+    public void send(byte[] data) {
+    }
+
+    @Override
+    public boolean isConnected() {
+        return open;
+    }
+
+    @Override
+    public void setDeadline(long deadline, Runnable action) {
+        this.deadline = deadline;
+        this.deadlineAction = action;
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error closing the capture file.", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@
  */
 package racecontrol.client.events;
 
+import racecontrol.eventbus.Backpressure;
 import racecontrol.eventbus.Event;
 
 /**
@@ -29,4 +30,9 @@ public class AfterPacketReceivedEvent extends Event {
         return packageCount;
     }
 
+    @Override
+    public Backpressure getBackpressure() {
+        return Backpressure.DROP_OLDEST;
+    }
+
 }
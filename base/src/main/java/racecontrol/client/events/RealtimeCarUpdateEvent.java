@@ -5,6 +5,7 @@
  */
 package racecontrol.client.events;
 
+import racecontrol.eventbus.Backpressure;
 import racecontrol.eventbus.Event;
 import racecontrol.client.protocol.RealtimeInfo;
 
@@ -24,4 +25,9 @@ public class RealtimeCarUpdateEvent extends Event {
         return info;
     }
 
+    @Override
+    public Backpressure getBackpressure() {
+        return Backpressure.DROP_OLDEST;
+    }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.events;
+
+import java.util.List;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionInfo;
+import racecontrol.eventbus.Backpressure;
+import racecontrol.eventbus.Event;
+
+/**
+ * All realtime updates of one update interval. Published once the game has
+ * send an update for every connected car after the realtime update, or when
+ * the interval is over. Listeners that work on the whole grid should use this
+ * instead of handling every RealtimeCarUpdateEvent on its own.
+ *
+ * @author Leonard
+ */
+public class RealtimeFrameEvent
+        extends Event {
+
+    /**
+     * The realtime update that started the frame.
+     */
+    private final SessionInfo sessionInfo;
+    /**
+     * The realtime car updates of the frame in the order they were received.
+     */
+    private final List<RealtimeInfo> carInfos;
+    /**
+     * Time in nanoseconds when the realtime update was received.
+     */
+    private final long receiveTime;
+    /**
+     * True if every connected car has send an update.
+     */
+    private final boolean complete;
+
+    public RealtimeFrameEvent(SessionInfo sessionInfo,
+            List<RealtimeInfo> carInfos,
+            long receiveTime,
+            boolean complete) {
+        this.sessionInfo = sessionInfo;
+        this.carInfos = carInfos;
+        this.receiveTime = receiveTime;
+        this.complete = complete;
+    }
+
+    public SessionInfo getSessionInfo() {
+        return sessionInfo;
+    }
+
+    public List<RealtimeInfo> getCarInfos() {
+        return carInfos;
+    }
+
+    /**
+     * Returns the time the realtime update that started the frame was
+     * received, as given by {@link System#nanoTime()}.
+     *
+     * @return the receive time in nanoseconds.
+     */
+    public long getReceiveTime() {
+        return receiveTime;
+    }
+
+    /**
+     * Returns false if the frame was published because it timed out before
+     * every connected car has send an update.
+     *
+     * @return true if the frame is complete.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public Backpressure getBackpressure() {
+        return Backpressure.DROP_OLDEST;
+    }
+}
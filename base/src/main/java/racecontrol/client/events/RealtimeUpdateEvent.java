@@ -5,6 +5,7 @@
  */
 package racecontrol.client.events;
 
+import racecontrol.eventbus.Backpressure;
 import racecontrol.eventbus.Event;
 import racecontrol.client.protocol.SessionInfo;
 
@@ -15,13 +16,37 @@ import racecontrol.client.protocol.SessionInfo;
 public class RealtimeUpdateEvent extends Event {
 
     private SessionInfo sessionInfo;
+    /**
+     * Time in nanoseconds when the update was received.
+     */
+    private final long receiveTime;
 
     public RealtimeUpdateEvent(SessionInfo sessionInfo) {
+        this(sessionInfo, System.nanoTime());
+    }
+
+    public RealtimeUpdateEvent(SessionInfo sessionInfo, long receiveTime) {
         this.sessionInfo = sessionInfo;
+        this.receiveTime = receiveTime;
     }
 
     public SessionInfo getSessionInfo() {
         return sessionInfo;
     }
 
+    /**
+     * Returns the time the update was received, as given by
+     * {@link System#nanoTime()}.
+     *
+     * @return the receive time in nanoseconds.
+     */
+    public long getReceiveTime() {
+        return receiveTime;
+    }
+
+    @Override
+    public Backpressure getBackpressure() {
+        return Backpressure.DROP_OLDEST;
+    }
+
 }
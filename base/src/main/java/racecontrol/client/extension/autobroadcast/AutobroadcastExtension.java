@@ -105,7 +105,7 @@ public class AutobroadcastExtension
                 || !info.getActiveCameraSet().equals(currentCameraSet)) {
             currentFocusedCarId = info.getFocusedCarIndex();
             currentCameraSet = info.getActiveCameraSet();
-            lastCameraChange = System.currentTimeMillis();
+            lastCameraChange = currentTimeMillis();
             lastCameraUpdate = lastCameraChange;
             lastCarUpdate = lastCameraChange;
             currentCameraRating = null;
@@ -166,7 +166,7 @@ public class AutobroadcastExtension
         }
 
         // update screen time for current car.
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         for (CarRating rating : carRatings) {
             if (rating.car.isFocused) {
                 rating.screenTime += now - lastCarUpdate;
@@ -182,7 +182,7 @@ public class AutobroadcastExtension
 
     private void updateCameraRatings() {
         // update the screen time for the current camera
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         if (currentCameraRating != null) {
             currentCameraRating.screenTime += now - lastCameraUpdate;
         }
@@ -223,7 +223,7 @@ public class AutobroadcastExtension
             for (var camera : cameraRatings) {
                 camera.screenTime = 0;
             }
-            lastCameraChange = System.currentTimeMillis();
+            lastCameraChange = currentTimeMillis();
             lastCameraUpdate = lastCameraChange;
             lastCarUpdate = lastCameraChange;
         } else {
@@ -12,6 +12,7 @@ import racecontrol.client.protocol.SessionInfo;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.model.Car;
+import racecontrol.client.model.Model;
 import racecontrol.eventbus.Event;
 
 /**
@@ -43,6 +44,7 @@ public class RatingProcessorImpl
 
     @Override
     public void calculateRating(List<CarRating> entries) {
+        Model model = getClient().getModel();
         int totalScreenTime = entries.stream()
                 .map(entry -> entry.screenTime)
                 .reduce(0, Integer::sum);
@@ -71,7 +73,7 @@ public class RatingProcessorImpl
             int gap = 0;
             while (currentCar.carPositionAhead != 0) {
                 // move to car ahead.
-                var nextCar = getClient().getModel().getCar(currentCar.carPositionAhead);
+                var nextCar = model.getCar(currentCar.carPositionAhead);
                 if (nextCar.isEmpty()) {
                     break;
                 }
@@ -88,7 +90,7 @@ public class RatingProcessorImpl
             gap = 0;
             while (currentCar.carPositionBehind != 0) {
                 // move to car behind
-                var prevCar = getClient().getModel().getCar(currentCar.carPositionBehind);
+                var prevCar = model.getCar(currentCar.carPositionBehind);
                 if (prevCar.isEmpty()) {
                     break;
                 }
@@ -105,7 +107,7 @@ public class RatingProcessorImpl
 
             // Position rating. Fights in higher positions are more desirable.
             // sort cars by their race position from first to last.
-            int carCount = (int) getClient().getModel().getCars().stream()
+            int carCount = (int) model.getCars().stream()
                     .filter(c -> c.connected)
                     .count();
             entry.position = 1 - (car.realtimePosition * 1f / carCount * 1f);
@@ -115,7 +117,7 @@ public class RatingProcessorImpl
             if (car.isFocused) {
                 entry.focus = 1f;
             } else {
-                int msSinceFocusChange = (int) (System.currentTimeMillis() - focusChangedTimeStamp);
+                int msSinceFocusChange = (int) (getClient().getClock().currentTimeMillis() - focusChangedTimeStamp);
                 entry.focus = clamp(msSinceFocusChange / 60000f);
             }
 
@@ -143,7 +145,7 @@ public class RatingProcessorImpl
     public void sessionUpdate(SessionInfo info) {
         if (info.getFocusedCarIndex() != focusedCarId) {
             focusedCarId = info.getFocusedCarIndex();
-            focusChangedTimeStamp = System.currentTimeMillis();
+            focusChangedTimeStamp = getClient().getClock().currentTimeMillis();
             focusedCarCrossedFinish = false;
             focusedCarSplinePos = 0;
         }
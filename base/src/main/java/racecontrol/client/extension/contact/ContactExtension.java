@@ -7,7 +7,6 @@ package racecontrol.client.extension.contact;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -78,15 +77,28 @@ public class ContactExtension
      * Timestamp of when the contact was staged.
      */
     private long stagedContactTimestamp = 0;
-    /**
-     * Holds car data for the past time. Maps session time to a map of carId to
-     * a car model copy.
-     */
-    private final Map<Integer, Map<Integer, Car>> history = new HashMap<>();
     /**
      * maximum time the history is saved for.
      */
     private final int HISTORY_MAX_TIME = 10000;
+    /**
+     * Number of samples kept per car. Enough for the history time with an
+     * update interval down to 40ms.
+     */
+    private final int HISTORY_CAPACITY = 256;
+    /**
+     * Holds car data for the past time.
+     */
+    private final TelemetryHistory history
+            = new TelemetryHistory(HISTORY_MAX_TIME, HISTORY_CAPACITY);
+    /**
+     * Track position index of the cars currently on track.
+     */
+    private final TrackPositionIndex liveIndex = new TrackPositionIndex();
+    /**
+     * Flag to indicate that the live index has to be rebuilt.
+     */
+    private boolean liveIndexValid = false;
     /**
      * Holds current yellow flag events.
      */
@@ -187,10 +199,12 @@ public class ContactExtension
             removeOldHistory(((RealtimeUpdateEvent) e).getSessionInfo());
         } else if (e instanceof RealtimeCarUpdateEvent) {
             saveInHistory(((RealtimeCarUpdateEvent) e).getInfo());
+            liveIndexValid = false;
         } else if (e instanceof YellowFlagEvent) {
             saveYellowFlagEvent((YellowFlagEvent) e);
         } else if (e instanceof SessionChangedEvent) {
             history.clear();
+            liveIndexValid = false;
             yellowEvents.clear();
         }
     }
@@ -203,11 +217,8 @@ public class ContactExtension
     private void saveInHistory(RealtimeInfo info) {
         // add info to history.
         int sessionTime = getWritableModel().session.raw.getSessionTime();
-        if (!history.containsKey(sessionTime)) {
-            history.put(sessionTime, new HashMap<>());
-        }
         Car car = getWritableModel().getCar(info.getCarId()).get();
-        history.get(sessionTime).put(car.id, car.copy());
+        history.add(sessionTime, car);
     }
 
     /**
@@ -217,14 +228,7 @@ public class ContactExtension
      */
     private void removeOldHistory(SessionInfo info) {
         // remove old history data
-        var iter = history.entrySet().iterator();
-        while (iter.hasNext()) {
-            var entry = iter.next();
-            int t = entry.getKey();
-            if (info.getSessionTime() - t > HISTORY_MAX_TIME) {
-                iter.remove();
-            }
-        }
+        history.evict(info.getSessionTime());
     }
 
     /**
@@ -234,22 +238,7 @@ public class ContactExtension
      * @return The closest match in the history.
      */
     private int getSessionTimeFromHistory(int requestedTime) {
-        if (history.containsKey(requestedTime)) {
-            return requestedTime;
-        }
-        if (history.isEmpty()) {
-            throw new IllegalArgumentException("History is empty");
-        }
-        int sessionTime = 0;
-        int sdt = 999999;
-        for (int t : history.keySet()) {
-            int dt = Math.abs(t - requestedTime);
-            if (dt < sdt) {
-                sdt = dt;
-                sessionTime = t;
-            }
-        }
-        return sessionTime;
+        return history.getClosestTime(requestedTime);
     }
 
     /*
@@ -266,8 +255,7 @@ public class ContactExtension
                 .map(c -> c.copy()).get();
 
         // use realtime data from history
-        car = history.get(sessionTime)
-                .getOrDefault(car.id, car.copy());
+        history.restore(sessionTime, car);
 
         if (stagedContact != null) {
             stagedContact = stagedContact.withCar(sessionTime, car);
@@ -276,14 +264,14 @@ public class ContactExtension
                     REPLAY_EXTENSION.getReplayTimeFromSessionTime(sessionTime),
                     car,
                     getWritableModel().currentSessionId);
-            stagedContactTimestamp = System.currentTimeMillis();
+            stagedContactTimestamp = currentTimeMillis();
         }
     }
 
     public void commitStagedContact() {
         // commit any staged contact that is older than 1 second.
         if (stagedContact != null) {
-            long now = System.currentTimeMillis();
+            long now = currentTimeMillis();
             if (now - stagedContactTimestamp > 1000) {
                 commitContact(stagedContact);
                 stagedContact = null;
@@ -314,12 +302,10 @@ public class ContactExtension
     private ContactInfo findOtherCars(ContactInfo contact) {
         // find history entry for the session time
         int time = getSessionTimeFromHistory(contact.getSessionEarliestTime());
-        Map<Integer, Car> h = history.get(time);
 
         // find other car with the smallest distance
         int subjectId = contact.getCars().get(0).id;
-        Car subject = h.get(subjectId);
-        if (h == null) {
+        if (!history.hasSample(subjectId, time)) {
             // The car cannot be found in the history map.
             // I theory this should never happen but it is possible for a car
             // to miss a realtime update and then the car will be missing from
@@ -329,24 +315,22 @@ public class ContactExtension
             // make sense.
             return contact;
         }
-        Optional<Car> closestCarOption = h.values().stream()
-                .filter(r -> r.id != subject.id)
-                .min((r1, r2) -> {
-                    float d1 = Math.abs(getDistance(r1, subject));
-                    float d2 = Math.abs(getDistance(r2, subject));
-                    return ((Float) d1).compareTo(d2);
-                });
+        float subjectSpline = history.getSplinePosition(subjectId, time);
+        int closestId = history.getIndex(time).nearest(subjectSpline, subjectId);
 
+        Optional<Car> closestCarOption = getWritableModel().getCar(closestId)
+                .map(c -> c.copy());
         if (closestCarOption.isEmpty()) {
             return contact;
         }
 
         Car closestCar = closestCarOption.get();
+        history.restore(time, closestCar);
         // log 
         if (closestCar != null) {
             int trackMeters = getWritableModel().trackInfo.getTrackMeters();
             float distance = (closestCar.splinePosition
-                    - subject.splinePosition) * trackMeters;
+                    - subjectSpline) * trackMeters;
             LOG.info(String.format("Contact: ?%s\t\t%.2fm\t%s",
                     closestCar.carNumberString(),
                     distance,
@@ -424,16 +408,9 @@ public class ContactExtension
         }
 
         // find closest car at the moment the yellow flag was shown.
-        Optional<Car> closestCarInstant
-                = getWritableModel().getCars().stream()
-                        .filter(car -> car.id != flaggedCar.id)
-                        .filter(car -> car.carLocation != CarLocation.NONE)
-                        .filter(car -> car.carLocation != CarLocation.PITLANE)
-                        .min((c1, c2) -> {
-                            float d1 = Math.abs(getDistance(c1, flaggedCar));
-                            float d2 = Math.abs(getDistance(c2, flaggedCar));
-                            return Float.compare(d1, d2);
-                        });
+        int closestId = getLiveIndex().nearest(flaggedCar.splinePosition,
+                flaggedCar.id);
+        Optional<Car> closestCarInstant = getWritableModel().getCar(closestId);
 
         // no closed car found
         if (closestCarInstant.isEmpty()) {
@@ -448,6 +425,25 @@ public class ContactExtension
         );
     }
 
+    /**
+     * Returns the track position index of the cars currently on track.
+     *
+     * @return the live track position index.
+     */
+    private TrackPositionIndex getLiveIndex() {
+        if (!liveIndexValid) {
+            liveIndex.clear();
+            for (Car car : getWritableModel().getCars()) {
+                if (car.carLocation != CarLocation.NONE
+                        && car.carLocation != CarLocation.PITLANE) {
+                    liveIndex.add(car.id, car.splinePosition);
+                }
+            }
+            liveIndexValid = true;
+        }
+        return liveIndex;
+    }
+
     private void removeOldYellowEvents(SessionInfo info) {
         // find yellow event that is to old and should be removed.
         List<YellowFlagContactInfo> oldYellowEvents = yellowEvents.stream()
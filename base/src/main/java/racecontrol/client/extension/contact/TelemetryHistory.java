@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.contact;
+
+import java.util.Arrays;
+import racecontrol.client.model.Car;
+import racecontrol.client.protocol.enums.CarLocation;
+
+/**
+ * Short history of the realtime data of all cars. Every car has a ring
+ * buffer of fixed capacity that holds the values needed to analyse a contact
+ * in primitive arrays, indexed by session time. Samples older than the
+ * maximum age are evicted when new samples are added so the memory use stays
+ * the same no matter how long a session runs.
+ *
+ * @author Leonard
+ */
+public class TelemetryHistory {
+
+    /**
+     * Maximum age of a sample in ms.
+     */
+    private final int maxAge;
+    /**
+     * Number of samples kept per car.
+     */
+    private final int capacity;
+    /**
+     * Session times at which samples were saved.
+     */
+    private final TimeIndex frames;
+    /**
+     * Samples for each car. Indexed by car id.
+     */
+    private Samples[] cars = new Samples[0];
+    /**
+     * Track position index of the last frame that was queried.
+     */
+    private final TrackPositionIndex index = new TrackPositionIndex();
+    /**
+     * Session time of the frame the index was built for.
+     */
+    private int indexTime = -1;
+    /**
+     * Flag to indicate that the index has to be rebuilt.
+     */
+    private boolean indexValid = false;
+
+    /**
+     * Creates a new history.
+     *
+     * @param maxAge maximum age of a sample in ms.
+     * @param capacity number of samples kept per car.
+     */
+    public TelemetryHistory(int maxAge, int capacity) {
+        this.maxAge = maxAge;
+        this.capacity = capacity;
+        this.frames = new TimeIndex(capacity);
+    }
+
+    /**
+     * Saves the current state of a car.
+     *
+     * @param sessionTime the session time of the sample.
+     * @param car the car.
+     */
+    public void add(int sessionTime, Car car) {
+        if (sessionTime == indexTime) {
+            indexValid = false;
+        }
+        if (frames.isEmpty() || frames.lastTime() != sessionTime) {
+            frames.append(sessionTime);
+        }
+        frames.evictOlderThan(sessionTime - maxAge);
+
+        if (car.id >= cars.length) {
+            cars = Arrays.copyOf(cars, Math.max(car.id + 1, cars.length * 2));
+        }
+        Samples samples = cars[car.id];
+        if (samples == null) {
+            samples = new Samples(capacity);
+            cars[car.id] = samples;
+        }
+        samples.add(sessionTime, car);
+        samples.evictOlderThan(sessionTime - maxAge);
+    }
+
+    /**
+     * Removes samples that are older than the maximum age. Cars that are no
+     * longer updated keep no samples past the maximum age either.
+     *
+     * @param sessionTime the current session time.
+     */
+    public void evict(int sessionTime) {
+        int oldest = sessionTime - maxAge;
+        frames.evictOlderThan(oldest);
+        for (Samples samples : cars) {
+            if (samples != null) {
+                samples.evictOlderThan(oldest);
+            }
+        }
+        if (indexTime < oldest) {
+            indexValid = false;
+        }
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void clear() {
+        frames.clear();
+        indexValid = false;
+        for (Samples samples : cars) {
+            if (samples != null) {
+                samples.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the history is empty.
+     *
+     * @return true if the history is empty.
+     */
+    public boolean isEmpty() {
+        return frames.isEmpty();
+    }
+
+    /**
+     * Finds the session time of the saved frame closest to the requested
+     * time.
+     *
+     * @param requestedTime the requested time.
+     * @return the closest session time in the history.
+     */
+    public int getClosestTime(int requestedTime) {
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("History is empty");
+        }
+        return frames.getTime(frames.closest(requestedTime));
+    }
+
+    /**
+     * Returns true if there is a sample of the car at the given session time.
+     *
+     * @param carId the car id.
+     * @param sessionTime the session time.
+     * @return true if there is a sample.
+     */
+    public boolean hasSample(int carId, int sessionTime) {
+        return indexOf(carId, sessionTime) != -1;
+    }
+
+    /**
+     * Returns the spline position of the car at the given session time.
+     *
+     * @param carId the car id.
+     * @param sessionTime the session time.
+     * @return the spline position.
+     * @throws IllegalArgumentException if there is no sample at that time.
+     */
+    public float getSplinePosition(int carId, int sessionTime) {
+        return cars[carId].splinePosition[requireIndex(carId, sessionTime)];
+    }
+
+    /**
+     * Returns the track position index of all cars with a sample at the given
+     * session time. The index is kept until a different frame is requested
+     * or the frame changes, so repeated queries for the same frame do not
+     * rebuild it.
+     *
+     * @param sessionTime the session time.
+     * @return the track position index for that frame.
+     */
+    public TrackPositionIndex getIndex(int sessionTime) {
+        if (!indexValid || indexTime != sessionTime) {
+            index.clear();
+            for (int id = 0; id < cars.length; id++) {
+                int i = indexOf(id, sessionTime);
+                if (i != -1) {
+                    index.add(id, cars[id].splinePosition[i]);
+                }
+            }
+            indexTime = sessionTime;
+            indexValid = true;
+        }
+        return index;
+    }
+
+    /**
+     * Writes the saved values of a car at the given session time into a car.
+     *
+     * @param sessionTime the session time.
+     * @param car the car to write to. Its id selects the samples.
+     * @return true if there was a sample for that time.
+     */
+    public boolean restore(int sessionTime, Car car) {
+        int index = indexOf(car.id, sessionTime);
+        if (index == -1) {
+            return false;
+        }
+        Samples samples = cars[car.id];
+        car.splinePosition = samples.splinePosition[index];
+        car.KMH = samples.kmh[index];
+        car.carLocation = LOCATIONS[samples.location[index]];
+        car.lapCount = samples.lapCount[index];
+        car.position = samples.position[index];
+        return true;
+    }
+
+    private int indexOf(int carId, int sessionTime) {
+        if (carId < 0 || carId >= cars.length || cars[carId] == null) {
+            return -1;
+        }
+        return cars[carId].indexOf(sessionTime);
+    }
+
+    private int requireIndex(int carId, int sessionTime) {
+        int index = indexOf(carId, sessionTime);
+        if (index == -1) {
+            throw new IllegalArgumentException("No sample for car " + carId
+                    + " at " + sessionTime);
+        }
+        return index;
+    }
+
+    /**
+     * Car locations by ordinal.
+     */
+    private static final CarLocation[] LOCATIONS = CarLocation.values();
+
+    /**
+     * Ring buffer of session times in ascending order.
+     */
+    private static class TimeIndex {
+
+        /**
+         * Session times.
+         */
+        protected final int[] times;
+        /**
+         * Position of the oldest entry.
+         */
+        private int head = 0;
+        /**
+         * Number of entries.
+         */
+        private int size = 0;
+
+        TimeIndex(int capacity) {
+            times = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * Adds a time and returns the position it was written to. The oldest
+         * entry is overwritten when the buffer is full. If the time goes
+         * backwards, for example because a replay was played, the buffer is
+         * cleared to keep the times sorted.
+         */
+        int append(int time) {
+            if (size > 0 && time < lastTime()) {
+                clear();
+            }
+            int index;
+            if (size == times.length) {
+                index = head;
+                head = wrap(head + 1);
+            } else {
+                index = wrap(head + size);
+                size++;
+            }
+            times[index] = time;
+            return index;
+        }
+
+        void evictOlderThan(int time) {
+            while (size > 0 && times[head] < time) {
+                head = wrap(head + 1);
+                size--;
+            }
+        }
+
+        int lastTime() {
+            return times[wrap(head + size - 1)];
+        }
+
+        int getTime(int index) {
+            return times[index];
+        }
+
+        /**
+         * Returns the position of the entry closest to the given time. The
+         * buffer must not be empty.
+         */
+        int closest(int time) {
+            int lower = lowerBound(time);
+            if (lower == size) {
+                return wrap(head + size - 1);
+            }
+            if (lower > 0) {
+                int before = times[wrap(head + lower - 1)];
+                int after = times[wrap(head + lower)];
+                if (time - before <= after - time) {
+                    return wrap(head + lower - 1);
+                }
+            }
+            return wrap(head + lower);
+        }
+
+        /**
+         * Returns the position of the entry with exactly the given time or
+         * -1.
+         */
+        int indexOf(int time) {
+            int lower = lowerBound(time);
+            if (lower < size && times[wrap(head + lower)] == time) {
+                return wrap(head + lower);
+            }
+            return -1;
+        }
+
+        /**
+         * Binary search for the first entry that is not smaller than the
+         * given time.
+         */
+        private int lowerBound(int time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[wrap(head + mid)] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int wrap(int index) {
+            return index >= times.length ? index - times.length : index;
+        }
+    }
+
+    /**
+     * Samples for a single car.
+     */
+    private static class Samples
+            extends TimeIndex {
+
+        private final float[] splinePosition;
+        private final int[] kmh;
+        private final byte[] location;
+        private final int[] lapCount;
+        private final int[] position;
+
+        Samples(int capacity) {
+            super(capacity);
+            splinePosition = new float[capacity];
+            kmh = new int[capacity];
+            location = new byte[capacity];
+            lapCount = new int[capacity];
+            position = new int[capacity];
+        }
+
+        void add(int time, Car car) {
+            int index;
+            if (!isEmpty() && lastTime() == time) {
+                // a second update in the same frame replaces the first.
+                index = indexOf(time);
+            } else {
+                index = append(time);
+            }
+            splinePosition[index] = car.splinePosition;
+            kmh[index] = car.KMH;
+            location[index] = (byte) car.carLocation.ordinal();
+            lapCount[index] = car.lapCount;
+            position[index] = car.position;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.contact;
+
+import java.util.Arrays;
+
+/**
+ * Index of car positions on the track. The cars are kept in a circular array
+ * sorted by spline position. A table of spline segments points to the first
+ * car in each segment so a lookup only has to search a single segment.
+ *
+ * @author Leonard
+ */
+public class TrackPositionIndex {
+
+    /**
+     * Number of spline segments.
+     */
+    private static final int SEGMENTS = 64;
+    /**
+     * Number of cars in the index.
+     */
+    private int size = 0;
+    /**
+     * Car ids sorted by spline position.
+     */
+    private int[] ids = new int[64];
+    /**
+     * Spline positions in ascending order.
+     */
+    private float[] splines = new float[64];
+    /**
+     * Sort keys combining the spline position and the car id.
+     */
+    private long[] keys = new long[64];
+    /**
+     * Index of the first car in each segment. The last entry is the size.
+     */
+    private final int[] segmentStart = new int[SEGMENTS + 1];
+    /**
+     * Flag to indicate that cars were added since the last sort.
+     */
+    private boolean dirty = false;
+
+    /**
+     * Removes all cars.
+     */
+    public void clear() {
+        size = 0;
+        dirty = false;
+        Arrays.fill(segmentStart, 0);
+    }
+
+    /**
+     * Adds a car to the index.
+     *
+     * @param carId the car id.
+     * @param splinePosition the spline position of the car.
+     */
+    public void add(int carId, float splinePosition) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = new int[size * 2];
+            splines = new float[size * 2];
+        }
+        float spline = normalise(splinePosition);
+        // the bit pattern of a positive float sorts like the float itself.
+        keys[size++] = ((long) Float.floatToIntBits(spline) << 32)
+                | (carId & 0xFFFFFFFFL);
+        dirty = true;
+    }
+
+    /**
+     * Returns the number of cars in the index.
+     *
+     * @return the number of cars.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the car closest to a spline position in either direction.
+     *
+     * @param splinePosition the spline position.
+     * @param excludeId id of a car to ignore. Usually the car the search is
+     * done for.
+     * @return id of the closest car or -1 if there is none.
+     */
+    public int nearest(float splinePosition, int excludeId) {
+        sort();
+        if (size == 0) {
+            return -1;
+        }
+        float spline = normalise(splinePosition);
+        int next = lowerBound(spline);
+        int prev = next - 1;
+        for (int i = 0; i < size; i++) {
+            float nextDistance = normalise(splines[wrap(next)] - spline);
+            float prevDistance = normalise(spline - splines[wrap(prev)]);
+            int candidate;
+            if (nextDistance <= prevDistance) {
+                candidate = ids[wrap(next++)];
+            } else {
+                candidate = ids[wrap(prev--)];
+            }
+            if (candidate != excludeId) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the cars if there were any added since the last sort and builds
+     * the segment table.
+     */
+    private void sort() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Arrays.sort(keys, 0, size);
+        int segment = 0;
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) keys[i];
+            splines[i] = Float.intBitsToFloat((int) (keys[i] >>> 32));
+            int s = segmentOf(splines[i]);
+            while (segment <= s) {
+                segmentStart[segment++] = i;
+            }
+        }
+        while (segment <= SEGMENTS) {
+            segmentStart[segment++] = size;
+        }
+    }
+
+    /**
+     * Finds the index of the first car with a spline position that is not
+     * smaller than the given one. Returns the size if there is none.
+     */
+    private int lowerBound(float spline) {
+        int segment = segmentOf(spline);
+        int low = segmentStart[segment];
+        int high = segmentStart[segment + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (splines[mid] < spline) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int segmentOf(float spline) {
+        return Math.min((int) (spline * SEGMENTS), SEGMENTS - 1);
+    }
+
+    private int wrap(int index) {
+        index %= size;
+        return index < 0 ? index + size : index;
+    }
+
+    /**
+     * Brings a spline position or distance into the range [0, 1).
+     */
+    private static float normalise(float spline) {
+        spline -= (float) Math.floor(spline);
+        return spline >= 1f ? 0f : spline;
+    }
+}
@@ -20,8 +20,7 @@ import static racecontrol.client.protocol.enums.CarLocation.PITENTRY;
 import static racecontrol.client.protocol.enums.CarLocation.PITEXIT;
 import static racecontrol.client.protocol.enums.CarLocation.PITLANE;
 import racecontrol.client.protocol.enums.SessionPhase;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
-import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
 import racecontrol.client.extension.replayoffset.ReplayOffsetExtension;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -128,15 +127,15 @@ public class DangerDetectionExtension extends ClientExtension
     public void onEvent(Event e) {
         if (e instanceof TrackDataEvent) {
             onTrackData(((TrackDataEvent) e).getTrackData());
-        } else if (e instanceof RealtimeCarUpdateEvent) {
-            RealtimeInfo info = ((RealtimeCarUpdateEvent) e).getInfo();
-            doPitExitProtection(info);
-            testTolerances(info);
-            Car car = getWritableModel().getCar(info.getCarId()).get();
-            car.isWhiteFlag = isCarWhiteFlag(car.id);
-            car.isYellowFlag = isCarYellowFlag(car.id);
-        } else if (e instanceof RealtimeUpdateEvent) {
+        } else if (e instanceof RealtimeFrameEvent) {
             removeFlags();
+            for (RealtimeInfo info : ((RealtimeFrameEvent) e).getCarInfos()) {
+                doPitExitProtection(info);
+                testTolerances(info);
+                Car car = getWritableModel().getCar(info.getCarId()).get();
+                car.isWhiteFlag = isCarWhiteFlag(car.id);
+                car.isYellowFlag = isCarYellowFlag(car.id);
+            }
         }
     }
 
@@ -276,13 +275,13 @@ public class DangerDetectionExtension extends ClientExtension
 
         }
          */
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         whiteFlaggedCars.put(carId, now);
     }
 
     private void setYellowFlag(int carId, boolean isSlow, boolean isSpin) {
         boolean isNew = !yellowFlaggedCars.containsKey(carId);
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         yellowFlaggedCars.put(carId, now);
 
         // yellow flag overrides a white flag.
@@ -314,7 +313,7 @@ public class DangerDetectionExtension extends ClientExtension
     }
 
     private void removeFlags() {
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         var iter = whiteFlaggedCars.entrySet().iterator();
         while (iter.hasNext()) {
             Entry<Integer, Long> entry = iter.next();
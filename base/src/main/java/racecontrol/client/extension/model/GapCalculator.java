@@ -26,9 +26,19 @@ public class GapCalculator {
      * Track data.
      */
     private TrackData trackData;
+    /**
+     * Velocity map in m/s.
+     */
+    private float[] velocity = new float[0];
+    /**
+     * Time in s it takes to drive from spline position 0 to each point of the
+     * velocity map. The last entry is the time for a full lap.
+     */
+    private float[] cumulativeTime = new float[1];
 
     public void setTrackData(TrackData trackData) {
         this.trackData = trackData;
+        buildTimeTable();
         lapTime = calculateLapTime();
     }
 
@@ -44,71 +54,86 @@ public class GapCalculator {
      * @return gap from -> to in ms.
      */
     public float calculateGap(Car behind, Car infront) {
+        return calculateGap(behind.splinePosition, behind.KMH,
+                infront.splinePosition, infront.KMH);
+    }
+
+    /**
+     * Calculates the gap from the car behind to the car infront.
+     *
+     * @param behindSpline spline position of the car behind.
+     * @param behindKMH speed of the car behind.
+     * @param infrontSpline spline position of the car infront.
+     * @param infrontKMH speed of the car infront.
+     * @return gap from -> to in ms.
+     */
+    public float calculateGap(float behindSpline, int behindKMH,
+            float infrontSpline, int infrontKMH) {
         if (trackData == null) {
             return 0.0f;
         }
-        if (trackData.getGt3VelocityMap().isEmpty()) {
-            return calculateGapNaive(behind, infront);
+        if (velocity.length == 0) {
+            return calculateGapNaive(behindSpline, behindKMH,
+                    infrontSpline, infrontKMH);
         }
-        return calculateGap(behind.splinePosition, infront.splinePosition);
+        return calculateGap(behindSpline, infrontSpline);
     }
 
     public float calculateGap(float behind, float infront) {
-        List<Float> velocityMap = trackData.getGt3VelocityMap();
-
-        float start = behind;
-        float end = infront;
-        //make sure the end is always > than the start so we dont have to worry
-        //about that later.
-        //0->1 wrappeing does not matter because it will be Modulo'ed out when
-        //accessing the velocity map.
-        if (end < start) {
-            end += 1;
+        float totalTime = timeToPosition(infront) - timeToPosition(behind);
+        // wrap around the start finish line.
+        if (infront < behind) {
+            totalTime += cumulativeTime[velocity.length];
         }
-
-        float stepSize = 1f / velocityMap.size();
-        float totalTime = 0;
-        float currentPosition = start;
-        //if there is a checkpoint inbetween the current point and the end
-        //calculate the time to the checkpoint first.
-        while (currentPosition + stepSize < end) {
-            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
-            currentPosition += stepSize;
-        }
-        //add time to the end point.
-        totalTime += calcTimeBetweenSplinePoints(currentPosition, end);
         return totalTime * 1000;
     }
 
     /**
-     * Calculates the time it takes to drive from spline position s1 to s2 based
-     * on the velocity map.
-     *
-     * @param s1 start spline position.
-     * @param s2 end spline position.
-     * @return time in ms.
+     * Builds the table of cumulative times from the velocity map.
      */
-    private float calcTimeBetweenSplinePoints(float s1, float s2) {
-        float s1Velocity = findVmapVelocityForPosition(s1);
-        float s2Velocity = findVmapVelocityForPosition(s2);
-        float distance = (s2 - s1) * trackData.getTrackMeters();
-        return calcTimeBetweenPointsWithVelocity(s1Velocity, s2Velocity, distance);
+    private void buildTimeTable() {
+        List<Float> velocityMap = trackData.getGt3VelocityMap();
+        int size = velocityMap.size();
+        velocity = new float[size];
+        for (int i = 0; i < size; i++) {
+            velocity[i] = velocityMap.get(i) / 3.6f;
+        }
+
+        cumulativeTime = new float[size + 1];
+        float stepDistance = 1f / size * trackData.getTrackMeters();
+        double totalTime = 0;
+        for (int i = 0; i < size; i++) {
+            totalTime += calcTimeBetweenPointsWithVelocity(velocity[i],
+                    velocity[(i + 1) % size],
+                    stepDistance);
+            cumulativeTime[i + 1] = (float) totalTime;
+        }
     }
 
     /**
-     * Find the corosponding vmap velocity for the specified position by
-     * interpolating between the two closest vMap points.
+     * Returns the time it takes to drive from spline position 0 to the
+     * specified position by interpolating between the two closest points of
+     * the velocity map.
      *
      * @param s the position.
-     * @return the vMap speed.
+     * @return time in s.
      */
-    private float findVmapVelocityForPosition(float s) {
-        List<Float> velocityMap = trackData.getGt3VelocityMap();
-        int lowerIndex = (int) Math.floor(s * velocityMap.size()) % velocityMap.size();
-        int upperIndex = (lowerIndex + 1) % velocityMap.size();
-        float t = s * velocityMap.size() % 1;
-        float rtn = (velocityMap.get(lowerIndex) * (1 - t) + velocityMap.get(upperIndex) * t) / 3.6f;
-        return rtn;
+    private float timeToPosition(float s) {
+        int size = velocity.length;
+        float scaled = s * size;
+        int lowerIndex = (int) Math.floor(scaled);
+        if (lowerIndex >= size) {
+            return cumulativeTime[size];
+        }
+        if (lowerIndex < 0) {
+            return 0;
+        }
+        float t = scaled - lowerIndex;
+        float lowerVelocity = velocity[lowerIndex];
+        float sVelocity = lowerVelocity * (1 - t) + velocity[(lowerIndex + 1) % size] * t;
+        float distance = t / size * trackData.getTrackMeters();
+        return cumulativeTime[lowerIndex]
+                + calcTimeBetweenPointsWithVelocity(lowerVelocity, sVelocity, distance);
     }
 
     /**
@@ -137,31 +162,20 @@ public class GapCalculator {
      * @return gap from -> to in ms.
      */
     public float calculateGapNaive(Car behind, Car infront) {
-        float splineDistance = infront.splinePosition - behind.splinePosition;
+        return calculateGapNaive(behind.splinePosition, behind.KMH,
+                infront.splinePosition, infront.KMH);
+    }
+
+    private float calculateGapNaive(float behindSpline, int behindKMH,
+            float infrontSpline, int infrontKMH) {
+        float splineDistance = infrontSpline - behindSpline;
         float trackDistance = trackData.getTrackMeters() * splineDistance;
-        float averageSpeed = (infront.KMH + behind.KMH) / 2f / 3.6f;
+        float averageSpeed = (infrontKMH + behindKMH) / 2f / 3.6f;
         return trackDistance / averageSpeed * 1000;
     }
 
     private float calculateLapTime() {
-        if (trackData.getGt3VelocityMap().isEmpty()) {
-            return 0;
-        }
-
-        List<Float> velocityMap = trackData.getGt3VelocityMap();
-
-        float stepSize = 1f / velocityMap.size();
-        float totalTime = 0;
-        float currentPosition = 0;
-        //if there is a checkpoint inbetween the current point and the end
-        //calculate the time to the checkpoint first.
-        while (currentPosition + stepSize < 1) {
-            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
-            currentPosition += stepSize;
-        }
-        //add time to the end point.
-        totalTime += calcTimeBetweenSplinePoints(currentPosition, 1);
-        return totalTime * 1000;
+        return cumulativeTime[velocity.length] * 1000;
     }
 
 }
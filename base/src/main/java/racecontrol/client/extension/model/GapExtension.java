@@ -5,13 +5,13 @@
  */
 package racecontrol.client.extension.model;
 
-import java.util.List;
-import java.util.stream.Collectors;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
 import racecontrol.client.model.Car;
+import racecontrol.client.model.CarStateStore;
+import racecontrol.client.model.SlotOrder;
 import racecontrol.client.protocol.SessionInfo;
 import racecontrol.eventbus.Event;
 
@@ -31,6 +31,10 @@ public class GapExtension
      * Gap calculator.
      */
     private final GapCalculator gapCalculator = new GapCalculator();
+    /**
+     * Connected cars ordered by their realtime position.
+     */
+    private final SlotOrder byPosition = new SlotOrder();
 
     public GapExtension() {
     }
@@ -56,53 +60,84 @@ public class GapExtension
         }
 
         // calculate gaps to position ahead/behind and leader.
-        List<Car> cars = getWritableModel().getCars().stream()
-                .filter(car -> car.connected)
-                .sorted((c1, c2) -> Float.compare(c1.realtimePosition, c2.realtimePosition))
-                .collect(Collectors.toList());
+        CarStateStore store = getWritableModel().getCarStates();
+        byPosition.sort(store, (a, b) -> {
+            if (store.connected[a] != store.connected[b]) {
+                return store.connected[a] ? -1 : 1;
+            }
+            return Integer.compare(store.realtimePosition[a], store.realtimePosition[b]);
+        });
+        int count = connectedCount(store, byPosition);
 
-        for (int i = 0; i < cars.size(); i++) {
-            Car subject = cars.get(i);
+        int leader = count > 0 ? byPosition.get(0) : -1;
+        for (int i = 0; i < count; i++) {
+            int subject = byPosition.get(i);
             if (i == 0) {
-                subject.carPositionAhead = 0;
-                subject.gapPositionAhead = Integer.MAX_VALUE;
+                store.carPositionAhead[subject] = 0;
+                store.gapPositionAhead[subject] = Integer.MAX_VALUE;
             } else {
-                subject.carPositionAhead = cars.get(i - 1).id;
-                subject.gapPositionAhead = (int) gapCalculator
-                        .calculateGap(subject, cars.get(i - 1));
+                int ahead = byPosition.get(i - 1);
+                store.carPositionAhead[subject] = store.id[ahead];
+                store.gapPositionAhead[subject] = gap(store, subject, ahead);
             }
-            if (i == cars.size() - 1) {
-                subject.carPositionBehind = 0;
-                subject.gapPositionBehind = Integer.MAX_VALUE;
+            if (i == count - 1) {
+                store.carPositionBehind[subject] = 0;
+                store.gapPositionBehind[subject] = Integer.MAX_VALUE;
             } else {
-                subject.carPositionBehind = cars.get(i + 1).id;
-                subject.gapPositionBehind = (int) gapCalculator
-                        .calculateGap(cars.get(i + 1), subject);
+                int behind = byPosition.get(i + 1);
+                store.carPositionBehind[subject] = store.id[behind];
+                store.gapPositionBehind[subject] = gap(store, behind, subject);
             }
-            subject.gapToLeader = (int) gapCalculator
-                    .calculateGap(subject, cars.get(0));
-            subject.lapsBehindLeader = cars.get(0).lapCount
-                    + cars.get(0).splinePosition
-                    - subject.lapCount
-                    - subject.splinePosition;
+            store.gapToLeader[subject] = gap(store, subject, leader);
+
+            Car car = store.getCar(subject);
+            car.carPositionAhead = store.carPositionAhead[subject];
+            car.gapPositionAhead = store.gapPositionAhead[subject];
+            car.carPositionBehind = store.carPositionBehind[subject];
+            car.gapPositionBehind = store.gapPositionBehind[subject];
+            car.gapToLeader = store.gapToLeader[subject];
+            car.lapsBehindLeader = store.lapCount[leader]
+                    + store.splinePosition[leader]
+                    - store.lapCount[subject]
+                    - store.splinePosition[subject];
         }
 
         // calculate gaps to car ahead and behind.
         // cap to cars ahead / behind
-        cars = getWritableModel().getCars().stream()
-                .filter(car -> car.connected)
-                .sorted((c1, c2) -> {
-                    return Float.compare(c1.splinePosition, c2.splinePosition);
-                })
-                .collect(Collectors.toList());
-        for (int i = 0; i < cars.size(); i++) {
-            int ahead = (i + 1) % cars.size();
-            int behind = (i == 0) ? cars.size() - 1 : i - 1;
-            Car subject = cars.get(i);
-            subject.carAhead = cars.get(ahead).id;
-            subject.carBehind = cars.get(behind).id;
-            subject.gapAhead = (int) gapCalculator.calculateGap(subject, cars.get(ahead));
-            subject.gapBehind = (int) gapCalculator.calculateGap(cars.get(behind), subject);
+        SlotOrder bySplinePosition = store.getSplinePositionOrder();
+        bySplinePosition.sort(store, (a, b) -> {
+            if (store.connected[a] != store.connected[b]) {
+                return store.connected[a] ? -1 : 1;
+            }
+            return Float.compare(store.splinePosition[a], store.splinePosition[b]);
+        });
+        for (int i = 0; i < count; i++) {
+            int ahead = bySplinePosition.get((i + 1) % count);
+            int behind = bySplinePosition.get((i == 0) ? count - 1 : i - 1);
+            int subject = bySplinePosition.get(i);
+            Car car = store.getCar(subject);
+            car.carAhead = store.id[ahead];
+            car.carBehind = store.id[behind];
+            car.gapAhead = gap(store, subject, ahead);
+            car.gapBehind = gap(store, behind, subject);
+        }
+    }
+
+    private int gap(CarStateStore store, int behind, int infront) {
+        return (int) gapCalculator.calculateGap(
+                store.splinePosition[behind], store.kmh[behind],
+                store.splinePosition[infront], store.kmh[infront]);
+    }
+
+    /**
+     * Returns the number of connected cars in an order that has connected
+     * cars first.
+     */
+    private int connectedCount(CarStateStore store, SlotOrder order) {
+        int count = 0;
+        while (count < order.size() && store.connected[order.get(count)]) {
+            count++;
         }
+        return count;
     }
 }
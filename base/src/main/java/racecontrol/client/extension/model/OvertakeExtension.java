@@ -14,10 +14,13 @@ import racecontrol.client.events.AfterPacketReceivedEvent;
 import racecontrol.client.events.ConnectionClosedEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.model.Car;
+import racecontrol.client.model.CarStateStore;
+import racecontrol.client.model.SlotOrder;
 import racecontrol.eventbus.Event;
 
 /**
- * Finds when a car has finished its session.
+ * Shows an indicator for cars that gained or lost positions. The overtakes
+ * are the swaps in the race distance order since the last update.
  *
  * @author Leonard
  */
@@ -29,9 +32,9 @@ public class OvertakeExtension
      */
     private final int INDICATOR_TIME = 15000;
     /**
-     * Holds the previous position a car was in. Maps CarId to position.
+     * Positions gained or lost in this update for every slot.
      */
-    private final Map<Integer, Integer> prevPositions = new HashMap<>();
+    private int[] positionChange = new int[0];
     /**
      * Timestamp for when a indicator started to show. Maps carId to timestamp.
      */
@@ -47,30 +50,50 @@ public class OvertakeExtension
         } else if (e instanceof AfterPacketReceivedEvent) {
             resetIndicators();
         } else if (e instanceof ConnectionClosedEvent) {
-            prevPositions.clear();
             timestamps.clear();
         }
     }
 
     private void sessionUpdate(SessionInfo info) {
-        if (info.getSessionType() != RACE) {
+        // The realtime position only follows the race distance after the
+        // start of the race.
+        if (info.getSessionType() != RACE
+                || info.getSessionTime() <= RealtimePositionExtension.RACE_START_GRACE_PERIOD) {
             return;
         }
 
-        for (Car car : getWritableModel().getCars()) {
-            if (prevPositions.containsKey(car.id)) {
-                int diff = car.realtimePosition - prevPositions.get(car.id);
-                if (diff != 0) {
-                    car.overtakeIndicator = diff;
-                    timestamps.put(car.id, System.currentTimeMillis());
-                }
+        CarStateStore store = getWritableModel().getCarStates();
+        SlotOrder order = store.getRaceDistanceOrder();
+        if (order.getSwapCount() == 0) {
+            return;
+        }
+        if (positionChange.length < store.size()) {
+            positionChange = new int[store.size()];
+        }
+        for (int i = 0; i < order.getSwapCount(); i++) {
+            int passing = order.getSwapPassing(i);
+            int passed = order.getSwapPassed(i);
+            // cars that have finished keep their official position.
+            if (store.checkeredFlag[passing] || store.checkeredFlag[passed]) {
+                continue;
+            }
+            positionChange[passing]--;
+            positionChange[passed]++;
+        }
+
+        long now = currentTimeMillis();
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (positionChange[slot] != 0) {
+                Car car = store.getCar(slot);
+                car.overtakeIndicator = positionChange[slot];
+                timestamps.put(car.id, now);
+                positionChange[slot] = 0;
             }
-            prevPositions.put(car.id, car.realtimePosition);
         }
     }
 
     private void resetIndicators() {
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         var iter = timestamps.entrySet().iterator();
         while (iter.hasNext()) {
             var entry = iter.next();
@@ -62,7 +62,7 @@ public class PitTimeExtension
     private void carUpdate(RealtimeInfo info) {
         if (info.getLocation() == PITLANE) {
 
-            long now = System.currentTimeMillis();
+            long now = currentTimeMillis();
             Car car = getWritableModel().getCar(info.getCarId()).get();
 
             // if car has entered the pits, set the timestamp, reset the
@@ -6,13 +6,14 @@
 package racecontrol.client.extension.model;
 
 import java.io.FileOutputStream;
-import java.util.stream.Collectors;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.events.RealtimeCarUpdateEvent;
 import racecontrol.client.events.RealtimeUpdateEvent;
 import racecontrol.client.events.SessionChangedEvent;
 import racecontrol.client.events.SessionPhaseChangedEvent;
 import racecontrol.client.model.Car;
+import racecontrol.client.model.CarStateStore;
+import racecontrol.client.model.SlotOrder;
 import racecontrol.client.protocol.RealtimeInfo;
 import racecontrol.client.protocol.SessionInfo;
 import static racecontrol.client.protocol.enums.SessionPhase.PRESESSION;
@@ -27,6 +28,12 @@ import racecontrol.eventbus.Event;
 public class RealtimePositionExtension
         extends ClientExtension {
 
+    /**
+     * Time in ms after the start of a race from which the realtime position
+     * is based on the race distance.
+     */
+    static final int RACE_START_GRACE_PERIOD = 15000;
+
     public RealtimePositionExtension() {
     }
 
@@ -59,30 +66,37 @@ public class RealtimePositionExtension
             }
         }
         car.raceDistance = raceDistance;
+        CarStateStore store = getWritableModel().getCarStates();
+        store.raceDistance[store.slot(car)] = raceDistance;
     }
 
     private void findRealtimePosition(SessionInfo info) {
         // sort cars based on their race distance.
-        var carsSorted = getWritableModel().getCars().stream()
-                .sorted((c1, c2) -> -Float.compare(c1.raceDistance, c2.raceDistance))
-                .collect(Collectors.toList());
+        CarStateStore store = getWritableModel().getCarStates();
+        SlotOrder byRaceDistance = store.getRaceDistanceOrder();
+        byRaceDistance.sort(store,
+                (a, b) -> -Float.compare(store.raceDistance[a], store.raceDistance[b]));
 
-        int pos = 1;
-        for (var car : carsSorted) {
-            if (info.getSessionType() == RACE
-                    && info.getSessionTime() > 15000
-                    && !car.isCheckeredFlag) {
-                car.realtimePosition = pos;
+        boolean useRaceDistance = info.getSessionType() == RACE
+                && info.getSessionTime() > RACE_START_GRACE_PERIOD;
+        for (int i = 0; i < byRaceDistance.size(); i++) {
+            int slot = byRaceDistance.get(i);
+            int realtimePosition;
+            if (useRaceDistance && !store.checkeredFlag[slot]) {
+                realtimePosition = i + 1;
             } else {
-                car.realtimePosition = car.position;
+                realtimePosition = store.position[slot];
             }
-            pos++;
+            store.realtimePosition[slot] = realtimePosition;
+            store.getCar(slot).realtimePosition = realtimePosition;
         }
     }
 
     private void resetDistances() {
+        CarStateStore store = getWritableModel().getCarStates();
         getWritableModel().getCars().forEach(car -> {
             car.raceDistance = 0;
+            store.raceDistance[store.slot(car)] = 0;
         });
     }
 
@@ -91,9 +105,11 @@ public class RealtimePositionExtension
         // to the pits by not pressing drive. This puts them ahead of everyone.
         // give a penalty to avoid this.
         if (info.getPhase() == PRESESSION) {
+            CarStateStore store = getWritableModel().getCarStates();
             getWritableModel().getCars().forEach(car -> {
                 if (car.isInPit()) {
                     car.raceDistance = -1f;
+                    store.raceDistance[store.slot(car)] = -1f;
                 }
             });
         }
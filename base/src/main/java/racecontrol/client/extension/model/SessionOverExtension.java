@@ -5,7 +5,6 @@
  */
 package racecontrol.client.extension.model;
 
-import static racecontrol.client.AccBroadcastingClient.getClient;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.protocol.SessionInfo;
 import static racecontrol.client.protocol.enums.SessionPhase.SESSIONOVER;
@@ -48,7 +47,7 @@ public class SessionOverExtension
     private void onLapCompleted(Car car) {
         // The session is over when the leading car finishes his lap and
         // the session phase is "SESSIONOVER" during a race.
-        SessionInfo info = getClient().getModel().session.raw;
+        SessionInfo info = getWritableModel().session.raw;
         if (info.getSessionType() == RACE
                 && info.getPhase() == SESSIONOVER
                 && car.position == 1) {
@@ -58,14 +57,16 @@ public class SessionOverExtension
         // when the session is over we set the finished flag for the car.
         if (isSessionOver) {
             car.isCheckeredFlag = true;
+            getWritableModel().getCarStates().update(car);
         }
     }
 
     private void onSessionChanged(SessionInfo info) {
         // reset finished flag
-        getWritableModel().getCars().forEach(car
-                -> car.isCheckeredFlag = false
-        );
+        getWritableModel().getCars().forEach(car -> {
+            car.isCheckeredFlag = false;
+            getWritableModel().getCarStates().update(car);
+        });
         isSessionOver = false;
     }
 
@@ -10,7 +10,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
-import static racecontrol.client.AccBroadcastingClient.getClient;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.protocol.BroadcastingEvent;
 import racecontrol.client.protocol.RealtimeInfo;
@@ -63,7 +62,7 @@ public class StintTimeExtension
     private void sessionPhaseChanged(SessionPhaseChangedEvent event) {
         // reset all stint timers, set timestamps and set accurate flag.
         if (event.getSessionInfo().getPhase() == SESSION) {
-            long now = System.currentTimeMillis();
+            long now = currentTimeMillis();
             getWritableModel().getCars().forEach(car -> {
                 stintStartTimestamp.put(car.id, now);
                 car.driverStintTime = 0;
@@ -74,7 +73,7 @@ public class StintTimeExtension
 
     private void carUpdate(RealtimeInfo info) {
         var car = getWritableModel().getCar(info.getCarId()).get();
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         if (!stintStartTimestamp.containsKey(car.id)) {
             stintStartTimestamp.put(car.id, now);
             car.driverStintTimeAccurate = false;
@@ -105,7 +104,7 @@ public class StintTimeExtension
 
     private void broadcastingEvent(BroadcastingEvent event) {
         if (event.getType() == PENALTYCOMMMSG) {
-            Car car = getClient().getModel().getCar(event.getCarId()).get();
+            Car car = getWritableModel().getCar(event.getCarId()).get();
             LOG.info(event.getMessage()
                     + "\t" + car.carNumberString()
                     + "\t" + TimeUtils.asDurationShort(car.driverStintTime)
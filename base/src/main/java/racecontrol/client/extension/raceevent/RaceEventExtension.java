@@ -7,7 +7,6 @@ package racecontrol.client.extension.raceevent;
 
 import java.util.ArrayList;
 import java.util.List;
-import static racecontrol.client.AccBroadcastingClient.getClient;
 import racecontrol.client.ClientExtension;
 import racecontrol.client.protocol.SessionInfo;
 import racecontrol.client.events.SessionChangedEvent;
@@ -104,7 +103,7 @@ public class RaceEventExtension
 
     private void addContactEntry(ContactEvent event) {
         ContactInfo info = event.getInfo();
-        RaceEventEntry entry = new ContactEventEntry(getClient().getModel().currentSessionId,
+        RaceEventEntry entry = new ContactEventEntry(getWritableModel().currentSessionId,
                 info.getSessionEarliestTime(),
                 info.isGameContact() ? "Contact" : "Possible contact",
                 true,
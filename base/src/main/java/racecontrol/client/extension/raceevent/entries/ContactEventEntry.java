@@ -173,6 +173,13 @@ public class ContactEventEntry
         return client.getModel().hasCarWithIndex(carId);
     }
 
+    @Override
+    public int[] getCarIds() {
+        return incident.getCars().stream()
+                .mapToInt(car -> car.id)
+                .toArray();
+    }
+
     @Override
     public String getInfo() {
         return incident.getCars().stream()
@@ -53,6 +53,15 @@ public abstract class RaceEventEntry {
      * @return the info.
      */
     public abstract String getInfo();
+
+    /**
+     * Returns the ids of the cars involved in this event.
+     *
+     * @return the car ids.
+     */
+    public int[] getCarIds() {
+        return new int[0];
+    }
     
     public SessionId getSessionId(){
         return sessionId;
@@ -174,6 +174,11 @@ public class VSCViolationEventEntry
         return carInfoRenderer;
     }
 
+    @Override
+    public int[] getCarIds() {
+        return new int[]{violation.getCarId()};
+    }
+
     @Override
     public String getInfo() {
         return "#" + car.carNumber
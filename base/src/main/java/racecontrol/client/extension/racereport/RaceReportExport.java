@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.racereport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import racecontrol.export.ExportTask;
+import racecontrol.utility.TimeUtils;
+
+/**
+ * Export tasks for the race report. The tasks stream their output, so the
+ * written file is never held in memory as a whole.
+ *
+ * @author Leonard
+ */
+public class RaceReportExport {
+
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Number of records after which progress is reported.
+     */
+    private static final int PROGRESS_STEP = 256;
+    /**
+     * Object mapper for the json export. Records are written one by one into
+     * a buffered writer, flushing after each of them would defeat the
+     * buffer.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private RaceReportExport() {
+    }
+
+    /**
+     * Creates a task that writes the event list as a json array.
+     *
+     * @param file the file to write to.
+     * @param records the event records.
+     * @return the task.
+     */
+    public static ExportTask json(File file, List<EventRecord> records) {
+        return new ExportTask() {
+            @Override
+            public File getFile() {
+                return file;
+            }
+
+            @Override
+            public int getSize() {
+                return records.size();
+            }
+
+            @Override
+            public void write(Progress progress) throws IOException {
+                try ( JsonGenerator generator = MAPPER.getFactory().createGenerator(
+                        new BufferedWriter(new FileWriter(file), BUFFER_SIZE))) {
+                    generator.writeStartArray();
+                    for (int i = 0; i < records.size(); i++) {
+                        MAPPER.writeValue(generator, records.get(i));
+                        if ((i + 1) % PROGRESS_STEP == 0) {
+                            progress.advance(PROGRESS_STEP);
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a task that writes the event list as comma seperated values.
+     *
+     * @param file the file to write to.
+     * @param records the event records.
+     * @return the task.
+     */
+    public static ExportTask csv(File file, List<EventRecord> records) {
+        return new ExportTask() {
+            @Override
+            public File getFile() {
+                return file;
+            }
+
+            @Override
+            public int getSize() {
+                return records.size();
+            }
+
+            @Override
+            public void write(Progress progress) throws IOException {
+                try ( Writer writer = new BufferedWriter(new FileWriter(file), BUFFER_SIZE)) {
+                    for (int i = 0; i < records.size(); i++) {
+                        EventRecord record = records.get(i);
+                        writer.write(TimeUtils.asDuration(record.getSessionTime()));
+                        writer.write(",");
+                        writer.write(record.getTypeDesciptor());
+                        writer.write(",");
+                        writer.write(record.getInfo());
+                        writer.write(",");
+                        writer.write(TimeUtils.asDuration(record.getReplayTime()));
+                        writer.write("\n");
+                        if ((i + 1) % PROGRESS_STEP == 0) {
+                            progress.advance(PROGRESS_STEP);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a task for the human readable report of every session. The
+     * sessions are written to seperate files in a directory.
+     *
+     * @param directory the directory to write to.
+     * @param reports the session reports.
+     * @return one task for every session.
+     */
+    public static List<ExportTask> txt(File directory, List<SessionReport> reports) {
+        directory.mkdirs();
+        List<File> files = RaceReportWriter.getTXTFiles(reports, directory);
+        List<ExportTask> tasks = new ArrayList<>();
+        for (int i = 0; i < reports.size(); i++) {
+            SessionReport report = reports.get(i);
+            File file = files.get(i);
+            tasks.add(new ExportTask() {
+                @Override
+                public File getFile() {
+                    return file;
+                }
+
+                @Override
+                public int getSize() {
+                    return 1;
+                }
+
+                @Override
+                public void write(Progress progress) throws IOException {
+                    RaceReportWriter.writeTXT(report, file);
+                    progress.advance(1);
+                }
+            });
+        }
+        return tasks;
+    }
+}
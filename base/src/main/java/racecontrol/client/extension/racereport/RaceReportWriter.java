@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.racereport;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.extension.sessiondb.SessionDatabase;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.client.protocol.enums.SessionType;
+import static racecontrol.client.protocol.enums.SessionType.RACE;
+import racecontrol.utility.TimeUtils;
+
+/**
+ * Writes the human readable race report of a session. The report is written
+ * in a single pass and does not depend on the GUI, so it can also be
+ * generated from the session database without running the application.
+ *
+ * @author Leonard
+ */
+public class RaceReportWriter {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(RaceReportWriter.class.getName());
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private RaceReportWriter() {
+    }
+
+    /**
+     * Writes a report for every session into a directory. Files are named
+     * after the session type and numbered in the order of the sessions.
+     *
+     * @param reports the session reports.
+     * @param directory the directory to write to.
+     */
+    public static void writeTXT(List<SessionReport> reports, File directory) {
+        directory.mkdirs();
+        List<File> files = getTXTFiles(reports, directory);
+        for (int i = 0; i < reports.size(); i++) {
+            try {
+                writeTXT(reports.get(i), files.get(i));
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.SEVERE, "Error writing race report to " + files.get(i).getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the file the report of each session is written to. Files are
+     * named after the session type and numbered in the order of the sessions.
+     *
+     * @param reports the session reports.
+     * @param directory the directory to write to.
+     * @return the file for each report.
+     */
+    public static List<File> getTXTFiles(List<SessionReport> reports, File directory) {
+        Map<SessionType, Integer> typeCount = new HashMap<>();
+        List<File> files = new ArrayList<>();
+        for (SessionReport report : reports) {
+            SessionType type = report.getSessionId().getType();
+            int count = typeCount.merge(type, 1, Integer::sum);
+            files.add(new File(directory, type.name() + count + ".txt"));
+        }
+        return files;
+    }
+
+    /**
+     * Writes the report of a session to a file.
+     *
+     * @param report the session report.
+     * @param file the file to write to.
+     * @throws IOException if writing fails.
+     */
+    public static void writeTXT(SessionReport report, File file)
+            throws IOException {
+        try ( Writer writer = new BufferedWriter(new FileWriter(file), BUFFER_SIZE)) {
+            writeTXT(report, writer);
+        }
+    }
+
+    /**
+     * Writes the report of a session.
+     *
+     * @param report the session report.
+     * @param writer the writer to write to.
+     * @throws IOException if writing fails.
+     */
+    public static void writeTXT(SessionReport report, Writer writer)
+            throws IOException {
+        List<DriverRecord> drivers = report.getDrivers();
+
+        // write entry list
+        writer.write("- Entry List -\n");
+        for (DriverRecord dr : drivers) {
+            writer.write("#" + dr.getCarNumber()
+                    + "\t" + dr.getDriverName() + "\n");
+        }
+
+        // write positions and laps
+        writer.write("\n- Session Results -\n");
+        // sort records by their lap count and their finishing delta.
+        List<DriverRecord> sortedRecords = new ArrayList<>(drivers);
+        sortedRecords.sort(Comparator
+                .comparingInt((DriverRecord dr) -> -dr.getLapCount())
+                .thenComparingInt(RaceReportWriter::finishingDelta));
+        for (int i = 0; i < sortedRecords.size(); i++) {
+            DriverRecord dr = sortedRecords.get(i);
+            writer.write(String.format("P%2d  ", i));
+            writer.write(String.format("%4s", "#" + dr.getCarNumber()));
+            writer.write(String.format("\tLaps: %3d", dr.getLapCount()));
+            writer.write("\tLaps: ()");
+            writer.write("\n");
+        }
+
+        // write race events
+        writer.write("\n- Session Events -\n");
+        for (EventRecord r : report.getEvents()) {
+            writer.write("Time: " + TimeUtils.asDuration(r.getSessionTime()));
+            writer.write(String.format(" %-30s", r.getTypeDesciptor()));
+            writer.write(String.format(" %-20s", r.getInfo()));
+            writer.write("Replay: " + TimeUtils.asDuration(r.getReplayTime()));
+            writer.write("\n");
+        }
+
+        if (report.getSessionId().getType() == RACE) {
+            writeLapChart(report, writer);
+        }
+    }
+
+    /**
+     * Writes the lap chart. The order after a lap is the order in which the
+     * cars completed that lap, followed by the cars that did not complete it
+     * in their order from the previous lap. That way the chart for every lap
+     * follows from the chart of the lap before without sorting.
+     *
+     * @param report the session report.
+     * @param writer the writer to write to.
+     * @throws IOException if writing fails.
+     */
+    private static void writeLapChart(SessionReport report, Writer writer)
+            throws IOException {
+        writer.write("\n- Lap Chart -\n");
+        List<DriverRecord> chart = new ArrayList<>();
+        List<DriverRecord> next = new ArrayList<>();
+        // last lap number each driver in the chart has completed.
+        Map<DriverRecord, Integer> lastLap = new IdentityHashMap<>();
+        for (int lap = report.getFirstLap(); lap <= report.getLastLap(); lap++) {
+            List<DriverRecord> completed = report.getLapOrder(lap);
+            next.clear();
+            next.addAll(completed);
+            for (DriverRecord dr : completed) {
+                lastLap.put(dr, lap);
+            }
+            for (DriverRecord dr : chart) {
+                if (lastLap.get(dr) != lap) {
+                    next.add(dr);
+                }
+            }
+            List<DriverRecord> swap = chart;
+            chart = next;
+            next = swap;
+
+            writer.write("\nLap " + lap + "\n");
+            for (DriverRecord dr : chart) {
+                writer.write("#" + dr.getCarNumber() + "\t");
+                int driverLap = lastLap.get(dr);
+                String delta = TimeUtils.asDelta(dr.getLaps().get(driverLap).getDeltaToLeader());
+                if (driverLap == lap) {
+                    writer.write(String.format("%10s", delta));
+                } else {
+                    // if driver has not completed this lap
+                    // write delta from last lap that was completed
+                    writer.write(String.format("(Lap %d) %10s", driverLap, delta));
+                }
+                writer.write("\n");
+            }
+        }
+    }
+
+    private static int finishingDelta(DriverRecord dr) {
+        LapRecord lap = dr.getLaps().get(dr.getLapCount());
+        return lap == null ? Integer.MAX_VALUE : lap.getDeltaToLeader();
+    }
+
+    /**
+     * Writes the reports of all sessions in a session database without
+     * starting the application.
+     *
+     * Usage: RaceReportWriter &lt;database file&gt; &lt;output directory&gt;
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the database cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: RaceReportWriter <database file> <output directory>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        List<SessionReport> reports = new ArrayList<>();
+        try ( SessionDatabase database = SessionDatabase.openReadOnly(Paths.get(args[0]))) {
+            for (SessionId sessionId : database.getSessions()) {
+                reports.add(SessionReport.fromDatabase(database, sessionId));
+            }
+        }
+        writeTXT(reports, new File(args[1]));
+        LOG.info("Wrote " + reports.size() + " session reports in "
+                + (System.nanoTime() - start) / 1000000 + " ms.");
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.racereport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import racecontrol.client.extension.sessiondb.CarEntry;
+import racecontrol.client.extension.sessiondb.EventEntry;
+import racecontrol.client.extension.sessiondb.LapEntry;
+import racecontrol.client.extension.sessiondb.SessionDatabase;
+import racecontrol.client.extension.sessiondb.SessionRecord;
+import racecontrol.client.protocol.SessionId;
+import static racecontrol.client.protocol.enums.SessionType.RACE;
+
+/**
+ * Everything that is needed to write the report of a session. Laps are
+ * collected in the order they are completed, which for every lap is also the
+ * order of the delta to the leader. This way the lap chart does not have to
+ * be sorted when the report is written.
+ *
+ * @author Leonard
+ */
+public class SessionReport {
+
+    /**
+     * The session.
+     */
+    private final SessionId sessionId;
+    /**
+     * Driver records by car id in the order the cars were added.
+     */
+    private final Map<Integer, DriverRecord> drivers = new LinkedHashMap<>();
+    /**
+     * Maps a lap number to the drivers in the order they completed that lap.
+     */
+    private final Map<Integer, List<DriverRecord>> lapOrder = new HashMap<>();
+    /**
+     * Race events of this session.
+     */
+    private List<EventRecord> events = new ArrayList<>();
+
+    public SessionReport(SessionId sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Builds the report of a session from the session database.
+     *
+     * @param database the database.
+     * @param sessionId the session.
+     * @return the report.
+     */
+    public static SessionReport fromDatabase(SessionDatabase database,
+            SessionId sessionId) {
+        SessionReport report = new SessionReport(sessionId);
+        // session time when the leader completed a lap.
+        Map<Integer, Integer> leaderTime = new HashMap<>();
+        for (SessionRecord record : database.getTimeline(sessionId)) {
+            if (record instanceof CarEntry) {
+                CarEntry car = (CarEntry) record;
+                report.getDriver(car.getCarId(),
+                        car.getDriverNames(),
+                        String.valueOf(car.getCarNumber()));
+            } else if (record instanceof LapEntry) {
+                LapEntry lap = (LapEntry) record;
+                int deltaToLeader = 0;
+                if (sessionId.getType() == RACE) {
+                    int leader = leaderTime.computeIfAbsent(lap.getLap(),
+                            nr -> lap.getSessionTime());
+                    deltaToLeader = lap.getSessionTime() - leader;
+                }
+                DriverRecord dr = report.getDriver(lap.getCarId(),
+                        "",
+                        String.valueOf(lap.getCarNumber()));
+                dr.setLapCount(Math.max(dr.getLapCount(), lap.getLap()));
+                report.addLap(dr, lap.getLap(),
+                        new LapRecord(lap.getLapTime(), deltaToLeader));
+            } else if (record instanceof EventEntry) {
+                EventEntry event = (EventEntry) record;
+                report.events.add(new EventRecord(event.getSessionTime(),
+                        event.getTypeDescriptor(),
+                        event.getInfo(),
+                        event.getReplayTime(),
+                        sessionId));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Returns a copy of this report that is not changed by laps added to
+     * this report afterwards.
+     *
+     * @return the copy.
+     */
+    public SessionReport copy() {
+        SessionReport copy = new SessionReport(sessionId);
+        Map<DriverRecord, DriverRecord> copies = new IdentityHashMap<>();
+        for (Map.Entry<Integer, DriverRecord> entry : drivers.entrySet()) {
+            DriverRecord dr = entry.getValue();
+            DriverRecord drCopy = new DriverRecord(dr.getDriverName(), dr.getCarNumber());
+            drCopy.setPosition(dr.getPosition());
+            drCopy.setLapCount(dr.getLapCount());
+            drCopy.getLaps().putAll(dr.getLaps());
+            copy.drivers.put(entry.getKey(), drCopy);
+            copies.put(dr, drCopy);
+        }
+        for (Map.Entry<Integer, List<DriverRecord>> entry : lapOrder.entrySet()) {
+            List<DriverRecord> order = new ArrayList<>(entry.getValue().size());
+            for (DriverRecord dr : entry.getValue()) {
+                order.add(copies.get(dr));
+            }
+            copy.lapOrder.put(entry.getKey(), order);
+        }
+        copy.events = new ArrayList<>(events);
+        return copy;
+    }
+
+    public SessionId getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns the driver record of a car. The record is created if it does
+     * not exist yet.
+     *
+     * @param carId the id of the car.
+     * @param driverName name of the drivers.
+     * @param carNumber race number of the car.
+     * @return the driver record.
+     */
+    public DriverRecord getDriver(int carId, String driverName, String carNumber) {
+        return drivers.computeIfAbsent(carId,
+                id -> new DriverRecord(driverName, carNumber));
+    }
+
+    /**
+     * Returns true if a driver record for the car exists.
+     *
+     * @param carId the id of the car.
+     * @return true if the record exists.
+     */
+    public boolean hasDriver(int carId) {
+        return drivers.containsKey(carId);
+    }
+
+    /**
+     * Adds a completed lap. Laps have to be added in the order they were
+     * completed.
+     *
+     * @param dr the driver record.
+     * @param lap the lap number.
+     * @param record the lap record.
+     */
+    public void addLap(DriverRecord dr, int lap, LapRecord record) {
+        if (dr.getLaps().put(lap, record) == null) {
+            lapOrder.computeIfAbsent(lap, nr -> new ArrayList<>()).add(dr);
+        }
+    }
+
+    public List<DriverRecord> getDrivers() {
+        return new ArrayList<>(drivers.values());
+    }
+
+    /**
+     * Returns the drivers in the order they completed a lap.
+     *
+     * @param lap the lap number.
+     * @return list of drivers.
+     */
+    public List<DriverRecord> getLapOrder(int lap) {
+        return lapOrder.getOrDefault(lap, new ArrayList<>());
+    }
+
+    /**
+     * Returns the lowest lap number that was completed.
+     *
+     * @return the lap number or 0 if no lap was completed.
+     */
+    public int getFirstLap() {
+        return lapOrder.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .min()
+                .orElse(0);
+    }
+
+    /**
+     * Returns the highest lap number that was completed.
+     *
+     * @return the lap number or 0 if no lap was completed.
+     */
+    public int getLastLap() {
+        return lapOrder.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+    }
+
+    public List<EventRecord> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<EventRecord> events) {
+        this.events = events;
+    }
+}
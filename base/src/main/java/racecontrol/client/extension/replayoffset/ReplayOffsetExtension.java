@@ -143,7 +143,7 @@ public class ReplayOffsetExtension
         } else if (e instanceof SessionChangedEvent) {
             SessionChangedEvent event = (SessionChangedEvent) e;
             if (!event.isInitialisation()) {
-                replayStartTime = System.currentTimeMillis();
+                replayStartTime = currentTimeMillis();
                 LOG.info("Setting replayStartTime based on session change time to: " + replayStartTime);
                 EventBus.publish(new ReplayStartKnownEvent());
             }
@@ -151,7 +151,7 @@ public class ReplayOffsetExtension
             BroadcastingEvent event = ((BroadcastingEventEvent) e).getEvent();
 
             if (replayStartTime == 0) {
-                long now = System.currentTimeMillis();
+                long now = currentTimeMillis();
                 gameConnectionTime = now - event.getTimeMs();
                 long latestSessionChange = now - (int) getWritableModel().session.raw.getSessionTime();
 
@@ -201,7 +201,7 @@ public class ReplayOffsetExtension
             return -1;
         }
 
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         long sessionOffset = (now - replayStartTime)
                 - (int) getWritableModel().session.raw.getSessionTime();
         return sessionTime + (int) sessionOffset;
@@ -223,7 +223,7 @@ public class ReplayOffsetExtension
             return -1;
         }
 
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         long requestTimeStamp = timeSinceConnection + gameConnectionTime;
         long sessionStartTimeStamp = now
                 - (int) getWritableModel().session.raw.getSessionTime();
@@ -264,7 +264,7 @@ public class ReplayOffsetExtension
         EventBus.publish(new ReplayOffsetSearchStartedEvent());
         searchStepSize = 300000;
         searchStep = 1;
-        upperBound = System.currentTimeMillis() + searchStepSize;
+        upperBound = currentTimeMillis() + searchStepSize;
         lowerBound = upperBound - searchStepSize;
         searchStep(false);
     }
@@ -316,7 +316,7 @@ public class ReplayOffsetExtension
         replayDelay = 0;
         isInSearchMode = true;
 
-        long now = System.currentTimeMillis();
+        long now = currentTimeMillis();
         int secondsBack = ((int) (now - timestamp)) / 1000;
         client.sendInstantReplayRequestSimple(secondsBack, 1);
     }
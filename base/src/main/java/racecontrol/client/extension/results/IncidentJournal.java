@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.results;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append only journal file. Records are handed to a background thread which
+ * appends them to the file. All records that queued up while the previous
+ * write was in progress are written together and synced to disk with a single
+ * fsync, so appending never waits for the disk and the cost of a record does
+ * not depend on the size of the journal.
+ *
+ * @author Leonard
+ */
+public class IncidentJournal
+        implements Closeable {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(IncidentJournal.class.getName());
+    /**
+     * Separates records in the journal.
+     */
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+    /**
+     * Path of the journal file.
+     */
+    private final Path path;
+    /**
+     * Channel of the journal file.
+     */
+    private final FileChannel channel;
+    /**
+     * Records waiting to be written.
+     */
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    /**
+     * Guards the pending records and the counters.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    /**
+     * Number of records appended.
+     */
+    private long appendedCount = 0;
+    /**
+     * Number of records written and synced to disk.
+     */
+    private long syncedCount = 0;
+    /**
+     * Number of records that could not be written or synced.
+     */
+    private long failedCount = 0;
+    /**
+     * Flag to indicate that the journal is being closed.
+     */
+    private boolean closing = false;
+    /**
+     * Thread that writes the records.
+     */
+    private final Thread writer;
+
+    /**
+     * Opens a journal for appending. An existing journal is appended to.
+     *
+     * @param path path of the journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public IncidentJournal(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        writer = new Thread(this::run, "Incident journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return the path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Queues a record to be appended to the journal. Records are separated by
+     * a line break, so the record itself should not contain one.
+     *
+     * @param record the record.
+     */
+    public void append(byte[] record) {
+        lock.lock();
+        try {
+            if (closing) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            pending.addLast(record);
+            appendedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all records appended so far have been written.
+     *
+     * @return true if all of them were synced to disk, false if writing some
+     * of the records of this journal failed.
+     */
+    public boolean sync() {
+        lock.lock();
+        try {
+            long target = appendedCount;
+            while (syncedCount + failedCount < target && writer.isAlive()) {
+                synced.await();
+            }
+            return syncedCount == appendedCount;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued records, stops the writer thread and closes the file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void run() {
+        ByteBuffer[] group = new ByteBuffer[0];
+        while (true) {
+            int count;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closing) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                count = pending.size();
+                if (group.length < count * 2) {
+                    group = new ByteBuffer[count * 2];
+                }
+                for (int i = 0; i < count; i++) {
+                    group[i * 2] = ByteBuffer.wrap(pending.pollFirst());
+                    group[i * 2 + 1] = ByteBuffer.wrap(LINE_SEPARATOR);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            boolean success = write(group, count * 2);
+
+            lock.lock();
+            try {
+                if (success) {
+                    syncedCount += count;
+                } else {
+                    failedCount += count;
+                }
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a group of records and syncs them to disk.
+     *
+     * @param group the records and their line separators.
+     * @param length number of buffers in the group.
+     * @return true if the records were written and synced.
+     */
+    private boolean write(ByteBuffer[] group, int length) {
+        try {
+            int offset = 0;
+            while (offset < length) {
+                channel.write(group, offset, length - offset);
+                while (offset < length && !group[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+            channel.force(false);
+            return true;
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error writing to incident journal " + path, ex);
+            return false;
+        } finally {
+            for (int i = 0; i < length; i++) {
+                group[i] = null;
+            }
+        }
+    }
+}
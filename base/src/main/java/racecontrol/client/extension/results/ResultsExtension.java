@@ -16,20 +16,30 @@ import racecontrol.client.protocol.enums.SessionPhase;
 import racecontrol.client.protocol.enums.SessionType;
 import racecontrol.client.events.SessionChangedEvent;
 import racecontrol.client.events.SessionPhaseChangedEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import racecontrol.client.events.ConnectionClosedEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import racecontrol.client.ClientExtension;
 
 /**
+ * Records the accidents and contacts of a session. Every incident is appended
+ * to a journal file as a single JSON line when it happens. The complete
+ * results file is only written when the session ends or when the connection
+ * is closed.
  *
  * @author Leonard
  */
@@ -37,8 +47,37 @@ public class ResultsExtension
         extends ClientExtension {
 
     private static final Logger LOG = Logger.getLogger(ResultsExtension.class.getName());
+    /**
+     * Singelton instance.
+     */
+    private static ResultsExtension instance;
+    /**
+     * Number of events that can be queued for this extension.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+    /**
+     * Mapper used to serialize the journal records and the results.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /**
+     * File extension of the results file.
+     */
+    private static final String RESULTS_EXTENSION = ".json";
+    /**
+     * File extension of the journal file, one JSON record per line.
+     */
+    private static final String JOURNAL_EXTENSION = ".jsonl";
 
     private String currentFilePath = null;
+    /**
+     * Journal of the current session.
+     */
+    private IncidentJournal journal = null;
+    /**
+     * Indicates that incidents have been recorded since the results file was
+     * last written.
+     */
+    private boolean hasChanges = false;
 
     private List<BroadcastingEvent> broadcastingEvents = new LinkedList<>();
     private List<ContactEvent> incidents = new LinkedList<>();
@@ -49,12 +88,34 @@ public class ResultsExtension
 
     private final IncidentReport report = new IncidentReport();
 
-    public ResultsExtension() {
+    /**
+     * Gets the instance of this extension.
+     *
+     * @return the instance.
+     */
+    public static ResultsExtension getInstance() {
+        if (instance == null) {
+            instance = new ResultsExtension();
+        }
+        return instance;
+    }
+
+    private ResultsExtension() {
+        // Writing the report is slow, keep it off the receiving thread.
+        super(QUEUE_CAPACITY,
+                SessionChangedEvent.class,
+                BroadcastingEventEvent.class,
+                ContactEvent.class,
+                SessionPhaseChangedEvent.class,
+                ConnectionClosedEvent.class);
     }
 
     @Override
-    public void onEvent(Event e) {
+    public synchronized void onEvent(Event e) {
         if (e instanceof SessionChangedEvent) {
+            // The previous session has ended.
+            compact();
+            closeJournal();
             createNewFile(((SessionChangedEvent) e).getSessionId());
             broadcastingEvents.clear();
             incidents.clear();
@@ -66,24 +127,31 @@ public class ResultsExtension
             if (((BroadcastingEventEvent) e).getEvent().getType() == BroadcastingEventType.ACCIDENT) {
                 broadcastingEvents.add(((BroadcastingEventEvent) e).getEvent());
                 report.broadcastEvents.add(((BroadcastingEventEvent) e).getEvent());
-                writeStateToFile();
+                appendToJournal("broadcastEvent", ((BroadcastingEventEvent) e).getEvent());
             }
         } else if (e instanceof ContactEvent) {
             incidents.add((ContactEvent) e);
             report.incidents.add(((ContactEvent) e).getInfo());
-            writeStateToFile();
+            appendToJournal("incident", ((ContactEvent) e).getInfo());
         } else if (e instanceof SessionPhaseChangedEvent) {
             SessionInfo info = ((SessionPhaseChangedEvent) e).getSessionInfo();
+            if (info.getPhase() == SessionPhase.SESSIONOVER) {
+                compact();
+            }
             if (info.getSessionType() == SessionType.RACE) {
                 if (info.getPhase() == SessionPhase.STARTING) {
                     isMeasuringGreenFlagOffset = true;
-                    greenFlagOffsetTimestamp = System.currentTimeMillis();
+                    greenFlagOffsetTimestamp = currentTimeMillis();
                 } else if (info.getPhase() == SessionPhase.SESSION && isMeasuringGreenFlagOffset) {
-                    greenFlagOffset = System.currentTimeMillis() - greenFlagOffsetTimestamp;
+                    greenFlagOffset = currentTimeMillis() - greenFlagOffsetTimestamp;
                     report.greenFlagOffset = greenFlagOffset;
                     isMeasuringGreenFlagOffset = false;
+                    appendToJournal("greenFlagOffset", greenFlagOffset);
                 }
             }
+        } else if (e instanceof ConnectionClosedEvent) {
+            compact();
+            closeJournal();
         }
     }
 
@@ -93,26 +161,72 @@ public class ResultsExtension
         File directory = new File("results");
         directory.mkdir();
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-        currentFilePath = "results/"
+        String baseName = "results/"
                 + dateFormat.format(new Date())
                 + "_"
-                + id.getType().name()
-                + ".json";
+                + id.getType().name();
+        currentFilePath = baseName + RESULTS_EXTENSION;
+        hasChanges = false;
+        try {
+            journal = new IncidentJournal(Paths.get(baseName + JOURNAL_EXTENSION));
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Cannot open incident journal for " + currentFilePath, ex);
+        }
+    }
+
+    /**
+     * Appends a record to the journal of the current session.
+     *
+     * @param type type of the record.
+     * @param data content of the record.
+     */
+    private void appendToJournal(String type, Object data) {
+        hasChanges = true;
+        if (journal == null) {
+            return;
+        }
+        try {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("type", type);
+            record.put("data", data);
+            journal.append(MAPPER.writeValueAsBytes(record));
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error serializing " + type + " for the incident journal", ex);
+        }
     }
 
-    private void writeStateToFile() {
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
         try {
-            String result = new ObjectMapper().writeValueAsString(report);
-            FileWriter writer = new FileWriter(currentFilePath);
-            writer.write(result);
-            writer.close();
+            journal.close();
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error closing incident journal " + journal.getPath(), ex);
+        }
+        journal = null;
+    }
 
-        } catch (JsonProcessingException ex) {
-            Logger.getLogger(ResultsExtension.class.getName()).log(Level.SEVERE, null, ex);
+    /**
+     * Writes the results of the current session to the results file. The file
+     * is replaced atomically, so it always contains a complete report.
+     */
+    private void compact() {
+        if (currentFilePath == null || !hasChanges) {
+            return;
+        }
+        if (journal != null && !journal.sync()) {
+            LOG.warning("Incident journal " + journal.getPath()
+                    + " is incomplete, the results file is still written.");
+        }
+        Path target = Paths.get(currentFilePath);
+        Path temp = Paths.get(currentFilePath + ".tmp");
+        try {
+            MAPPER.writeValue(temp.toFile(), report);
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            hasChanges = false;
         } catch (IOException ex) {
-            Logger.getLogger(ResultsExtension.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (Exception e) {
-            LOG.log(Level.SEVERE, "Error writing results to file: {}.\ncurrentFilePath:" + currentFilePath, e);
+            LOG.log(Level.SEVERE, "Error writing results to file: " + currentFilePath, ex);
         }
     }
 
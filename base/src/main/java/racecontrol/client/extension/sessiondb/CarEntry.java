@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.nio.ByteBuffer;
+import racecontrol.client.protocol.SessionId;
+
+/**
+ * A car of the entry list. Written before the first lap of a car in a
+ * session.
+ *
+ * @author Leonard
+ */
+public class CarEntry
+        extends SessionRecord {
+
+    /**
+     * Id of the car.
+     */
+    private final int carId;
+    /**
+     * Race number of the car.
+     */
+    private final int carNumber;
+    /**
+     * Names of the drivers.
+     */
+    private final String driverNames;
+
+    public CarEntry(SessionId sessionId,
+            int sessionTime,
+            int carId,
+            int carNumber,
+            String driverNames) {
+        super(sessionId, sessionTime);
+        this.carId = carId;
+        this.carNumber = carNumber;
+        this.driverNames = driverNames;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    public int getCarNumber() {
+        return carNumber;
+    }
+
+    public String getDriverNames() {
+        return driverNames;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_CAR;
+    }
+
+    @Override
+    int getPayloadSize() {
+        return 4 + 4 + stringSize(driverNames);
+    }
+
+    @Override
+    void writePayload(ByteBuffer buffer) {
+        buffer.putInt(carId);
+        buffer.putInt(carNumber);
+        putString(buffer, driverNames);
+    }
+
+    static CarEntry readPayload(SessionId sessionId,
+            int sessionTime,
+            ByteBuffer buffer) {
+        return new CarEntry(sessionId,
+                sessionTime,
+                buffer.getInt(),
+                buffer.getInt(),
+                getString(buffer));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.nio.ByteBuffer;
+import racecontrol.client.protocol.SessionId;
+
+/**
+ * A race event like a contact or a virtual safety car violation.
+ *
+ * @author Leonard
+ */
+public class EventEntry
+        extends SessionRecord {
+
+    /**
+     * Describes the type of the event.
+     */
+    private final String typeDescriptor;
+    /**
+     * Info about the event.
+     */
+    private final String info;
+    /**
+     * Ids of the cars involved.
+     */
+    private final int[] carIds;
+    /**
+     * Time of the event in the replay in milliseconds. -1 if it is not known.
+     */
+    private final int replayTime;
+
+    public EventEntry(SessionId sessionId,
+            int sessionTime,
+            String typeDescriptor,
+            String info,
+            int[] carIds,
+            int replayTime) {
+        super(sessionId, sessionTime);
+        this.typeDescriptor = typeDescriptor;
+        this.info = info;
+        this.carIds = carIds;
+        this.replayTime = replayTime;
+    }
+
+    public String getTypeDescriptor() {
+        return typeDescriptor;
+    }
+
+    public String getInfo() {
+        return info;
+    }
+
+    public int[] getCarIds() {
+        return carIds.clone();
+    }
+
+    public int getReplayTime() {
+        return replayTime;
+    }
+
+    /**
+     * Returns true if a car was involved in this event.
+     *
+     * @param carId the id of the car.
+     * @return true if the car was involved.
+     */
+    public boolean involvesCar(int carId) {
+        for (int id : carIds) {
+            if (id == carId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_EVENT;
+    }
+
+    @Override
+    int getPayloadSize() {
+        return stringSize(typeDescriptor)
+                + stringSize(info)
+                + 2 + 4 * carIds.length
+                + 4;
+    }
+
+    @Override
+    void writePayload(ByteBuffer buffer) {
+        putString(buffer, typeDescriptor);
+        putString(buffer, info);
+        buffer.putShort((short) carIds.length);
+        for (int carId : carIds) {
+            buffer.putInt(carId);
+        }
+        buffer.putInt(replayTime);
+    }
+
+    static EventEntry readPayload(SessionId sessionId,
+            int sessionTime,
+            ByteBuffer buffer) {
+        String typeDescriptor = getString(buffer);
+        String info = getString(buffer);
+        int[] carIds = new int[buffer.getShort() & 0xffff];
+        for (int i = 0; i < carIds.length; i++) {
+            carIds[i] = buffer.getInt();
+        }
+        // events written before the replay time was added end here.
+        int replayTime = buffer.hasRemaining() ? buffer.getInt() : -1;
+        return new EventEntry(sessionId, sessionTime, typeDescriptor, info, carIds,
+                replayTime);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.nio.ByteBuffer;
+import racecontrol.client.protocol.SessionId;
+
+/**
+ * A completed lap.
+ *
+ * @author Leonard
+ */
+public class LapEntry
+        extends SessionRecord {
+
+    /**
+     * Id of the car.
+     */
+    private final int carId;
+    /**
+     * Race number of the car.
+     */
+    private final int carNumber;
+    /**
+     * Number of the lap.
+     */
+    private final int lap;
+    /**
+     * Lap time in milliseconds.
+     */
+    private final int lapTime;
+
+    public LapEntry(SessionId sessionId,
+            int sessionTime,
+            int carId,
+            int carNumber,
+            int lap,
+            int lapTime) {
+        super(sessionId, sessionTime);
+        this.carId = carId;
+        this.carNumber = carNumber;
+        this.lap = lap;
+        this.lapTime = lapTime;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    public int getCarNumber() {
+        return carNumber;
+    }
+
+    public int getLap() {
+        return lap;
+    }
+
+    public int getLapTime() {
+        return lapTime;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_LAP;
+    }
+
+    @Override
+    int getPayloadSize() {
+        return 4 * 4;
+    }
+
+    @Override
+    void writePayload(ByteBuffer buffer) {
+        buffer.putInt(carId);
+        buffer.putInt(carNumber);
+        buffer.putInt(lap);
+        buffer.putInt(lapTime);
+    }
+
+    static LapEntry readPayload(SessionId sessionId,
+            int sessionTime,
+            ByteBuffer buffer) {
+        return new LapEntry(sessionId,
+                sessionTime,
+                buffer.getInt(),
+                buffer.getInt(),
+                buffer.getInt(),
+                buffer.getInt());
+    }
+}
@@ -0,0 +1,688 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.protocol.SessionId;
+
+/**
+ * File backed store for the laps, race events and telemetry samples of all
+ * sessions. Records are appended to a single file and indexed by session, car
+ * and lap and by session and session time. The indexes only hold the position
+ * of a record in the file, the record itself is read from the file when it is
+ * queried. When the database is opened the existing file is scanned to
+ * rebuild the indexes.
+ *
+ * Inserts are collected and written in batches by a background thread.
+ * Queries wait for the pending inserts to be written first, so they always see
+ * every record that was inserted before.
+ *
+ * @author Leonard
+ */
+public class SessionDatabase
+        implements Closeable {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SessionDatabase.class.getName());
+    /**
+     * Identifies a session database file.
+     */
+    private static final int MAGIC = 0x41434344;
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the file header.
+     */
+    private static final int FILE_HEADER_SIZE = 8;
+    /**
+     * Size of the length prefix of a record.
+     */
+    private static final int LENGTH_SIZE = 2;
+    /**
+     * Maximum time in milliseconds an insert waits before it is written.
+     */
+    private static final int BATCH_INTERVAL = 500;
+    /**
+     * Number of pending records that start a batch right away.
+     */
+    private static final int BATCH_SIZE = 512;
+    /**
+     * Channel of the database file.
+     */
+    private final FileChannel channel;
+    /**
+     * Flag to indicate that the file is only read and never written.
+     */
+    private final boolean readOnly;
+    /**
+     * Indexes of the sessions by their session key.
+     */
+    private final Map<Long, SessionIndex> sessions = new LinkedHashMap<>();
+    /**
+     * Records waiting to be written.
+     */
+    private List<SessionRecord> pending = new ArrayList<>();
+    /**
+     * Guards the pending records and the counters.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    /**
+     * Number of records inserted.
+     */
+    private long insertedCount = 0;
+    /**
+     * Number of records written and indexed.
+     */
+    private long writtenCount = 0;
+    /**
+     * Flag to indicate that the database is being closed.
+     */
+    private boolean closing = false;
+    /**
+     * Flag to indicate that a query waits for the pending records.
+     */
+    private boolean flushRequested = false;
+    /**
+     * Thread that writes the batches, null if the database is read only.
+     */
+    private final Thread writer;
+    /**
+     * Size of the file.
+     */
+    private long fileSize;
+    /**
+     * Buffer the batches are encoded into.
+     */
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Opens a database file. A new file is created if it does not exist.
+     *
+     * @param path path of the database file.
+     * @throws IOException if the file cannot be opened or is not a session
+     * database.
+     */
+    public SessionDatabase(Path path) throws IOException {
+        this(path, false);
+    }
+
+    private SessionDatabase(Path path, boolean readOnly) throws IOException {
+        this.readOnly = readOnly;
+        channel = readOnly
+                ? FileChannel.open(path, READ)
+                : FileChannel.open(path, CREATE, READ, WRITE);
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (readOnly) {
+            writer = null;
+            return;
+        }
+        writer = new Thread(this::run, "Session database");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens an existing database file for queries only. The file is never
+     * created, written or truncated, so it is safe to open a file that the
+     * application is still writing to. Records written after the file was
+     * opened are not seen.
+     *
+     * @param path path of the database file.
+     * @return the database.
+     * @throws IOException if the file does not exist, cannot be opened or is
+     * not a session database.
+     */
+    public static SessionDatabase openReadOnly(Path path) throws IOException {
+        return new SessionDatabase(path, true);
+    }
+
+    /**
+     * Queues a record to be written in the next batch.
+     *
+     * @param record the record.
+     */
+    public void insert(SessionRecord record) {
+        if (record.getEncodedSize() > 0xffff) {
+            throw new IllegalArgumentException("Record too large: " + record.getEncodedSize());
+        }
+        if (readOnly) {
+            throw new IllegalStateException("Database is read only");
+        }
+        lock.lock();
+        try {
+            if (closing) {
+                throw new IllegalStateException("Database is closed");
+            }
+            pending.add(record);
+            insertedCount++;
+            if (pending.size() >= BATCH_SIZE) {
+                batchReady.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sessions in the database in the order they were added.
+     *
+     * @return list of sessions.
+     */
+    public List<SessionId> getSessions() {
+        awaitWritten();
+        List<SessionId> result = new ArrayList<>();
+        synchronized (sessions) {
+            sessions.values().forEach(index -> result.add(index.sessionId));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all laps of a car in a session ordered by lap number.
+     *
+     * @param sessionId the session.
+     * @param carId the id of the car.
+     * @return list of laps.
+     */
+    public List<LapEntry> getLaps(SessionId sessionId, int carId) {
+        awaitWritten();
+        long[] offsets;
+        synchronized (sessions) {
+            SessionIndex index = sessions.get(sessionKey(sessionId));
+            TreeMap<Integer, Long> laps = index == null ? null : index.laps.get(carId);
+            if (laps == null) {
+                return new ArrayList<>();
+            }
+            offsets = laps.values().stream().mapToLong(Long::longValue).toArray();
+        }
+        List<LapEntry> result = new ArrayList<>(offsets.length);
+        for (SessionRecord record : readRecords(offsets)) {
+            result.add((LapEntry) record);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all records of a session in a range of session time ordered by
+     * session time.
+     *
+     * @param sessionId the session.
+     * @param from start of the range in milliseconds, inclusive.
+     * @param to end of the range in milliseconds, inclusive.
+     * @return list of records.
+     */
+    public List<SessionRecord> getRecords(SessionId sessionId, int from, int to) {
+        awaitWritten();
+        long[] offsets;
+        synchronized (sessions) {
+            SessionIndex index = sessions.get(sessionKey(sessionId));
+            if (index == null) {
+                return new ArrayList<>();
+            }
+            offsets = index.all.range(from, to);
+        }
+        return readRecords(offsets);
+    }
+
+    /**
+     * Returns the entry list, laps and race events of a session ordered by
+     * session time. Telemetry samples are left out.
+     *
+     * @param sessionId the session.
+     * @return list of records.
+     */
+    public List<SessionRecord> getTimeline(SessionId sessionId) {
+        awaitWritten();
+        long[] offsets;
+        synchronized (sessions) {
+            SessionIndex index = sessions.get(sessionKey(sessionId));
+            if (index == null) {
+                return new ArrayList<>();
+            }
+            offsets = index.timeline.range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        return readRecords(offsets);
+    }
+
+    /**
+     * Returns all records of a session around a point in session time.
+     *
+     * @param sessionId the session.
+     * @param sessionTime the point in session time in milliseconds.
+     * @param range the range before and after in milliseconds.
+     * @return list of records.
+     */
+    public List<SessionRecord> getRecordsAround(SessionId sessionId,
+            int sessionTime,
+            int range) {
+        return getRecords(sessionId, sessionTime - range, sessionTime + range);
+    }
+
+    /**
+     * Writes all pending records, stops the writer thread and closes the file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        channel.close();
+    }
+
+    /**
+     * Waits until all records inserted so far have been written and indexed.
+     */
+    private void awaitWritten() {
+        lock.lock();
+        try {
+            long target = insertedCount;
+            if (writtenCount < target) {
+                flushRequested = true;
+                batchReady.signal();
+            }
+            while (writtenCount < target && writer.isAlive()) {
+                written.await();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        List<SessionRecord> batch = new ArrayList<>();
+        while (true) {
+            lock.lock();
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(BATCH_INTERVAL);
+                while (!closing
+                        && !flushRequested
+                        && pending.size() < BATCH_SIZE
+                        && nanos > 0) {
+                    nanos = batchReady.awaitNanos(nanos);
+                }
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    if (closing) {
+                        return;
+                    }
+                    continue;
+                }
+                List<SessionRecord> swap = pending;
+                pending = batch;
+                batch = swap;
+            } catch (InterruptedException ex) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            write(batch);
+
+            lock.lock();
+            try {
+                writtenCount += batch.size();
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of records with a single write and adds them to the
+     * indexes.
+     *
+     * @param batch the records to write.
+     */
+    private void write(List<SessionRecord> batch) {
+        int size = 0;
+        for (SessionRecord record : batch) {
+            size += LENGTH_SIZE + record.getEncodedSize();
+        }
+        if (writeBuffer.capacity() < size) {
+            writeBuffer = ByteBuffer.allocate(size);
+        }
+        writeBuffer.clear();
+        long[] offsets = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            SessionRecord record = batch.get(i);
+            offsets[i] = fileSize + writeBuffer.position();
+            writeBuffer.putShort((short) record.getEncodedSize());
+            record.write(writeBuffer);
+        }
+        writeBuffer.flip();
+        try {
+            long position = fileSize;
+            while (writeBuffer.hasRemaining()) {
+                position += channel.write(writeBuffer, position);
+            }
+            fileSize = position;
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error writing to the session database", ex);
+            return;
+        }
+        synchronized (sessions) {
+            for (int i = 0; i < batch.size(); i++) {
+                addToIndex(batch.get(i), offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the existing file and builds the indexes. A record that cannot be
+     * decoded is skipped using its length prefix, the records after it are
+     * still loaded. Only a record at the end of the file that was partially
+     * written is cut off, unless the database is read only.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER_SIZE && readOnly) {
+            throw new IOException("Not a session database");
+        }
+        if (size < FILE_HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            fileSize = FILE_HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a session database or unsupported version");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        buffer.limit(0);
+        long bufferStart = FILE_HEADER_SIZE;
+        long offset = FILE_HEADER_SIZE;
+        int count = 0;
+        int skipped = 0;
+        while (true) {
+            // refill the buffer when the next record is not completely in it.
+            int relative = (int) (offset - bufferStart);
+            if (!containsRecord(buffer, relative)) {
+                bufferStart = offset;
+                relative = 0;
+                fill(buffer, bufferStart);
+                if (!containsRecord(buffer, relative)) {
+                    break;
+                }
+            }
+            int length = buffer.getShort(relative) & 0xffff;
+            ByteBuffer recordBuffer = buffer.duplicate();
+            recordBuffer.position(relative + LENGTH_SIZE);
+            recordBuffer.limit(relative + LENGTH_SIZE + length);
+            try {
+                addToIndex(SessionRecord.read(recordBuffer), offset);
+                count++;
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Skipping corrupt record in the session database at " + offset, e);
+                skipped++;
+            }
+            offset += LENGTH_SIZE + length;
+        }
+        if (offset < size && readOnly) {
+            LOG.warning("Ignoring " + (size - offset) + " bytes at the end of the session database.");
+        } else if (offset < size) {
+            LOG.warning("Discarding " + (size - offset) + " bytes at the end of the session database.");
+            channel.truncate(offset);
+        }
+        fileSize = offset;
+        LOG.info("Loaded " + count + " records from the session database"
+                + (skipped > 0 ? ", skipped " + skipped + " corrupt records." : "."));
+    }
+
+    /**
+     * Reads records from the file.
+     *
+     * @param offsets the offsets of the records in the file.
+     * @return the records in the same order as the offsets.
+     */
+    private List<SessionRecord> readRecords(long[] offsets) {
+        List<SessionRecord> result = new ArrayList<>(offsets.length);
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_SIZE + 0xffff);
+        try {
+            for (long offset : offsets) {
+                buffer.clear();
+                buffer.limit(LENGTH_SIZE);
+                readFully(buffer, offset);
+                int length = buffer.getShort(0) & 0xffff;
+                buffer.limit(LENGTH_SIZE + length);
+                readFully(buffer, offset);
+                buffer.position(LENGTH_SIZE);
+                result.add(SessionRecord.read(buffer));
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error reading from the session database", ex);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the buffer contains the complete record at a position.
+     *
+     * @param buffer the buffer.
+     * @param position position of the record.
+     * @return true if the record is complete.
+     */
+    private boolean containsRecord(ByteBuffer buffer, int position) {
+        int available = buffer.limit() - position;
+        return available >= LENGTH_SIZE
+                && available >= LENGTH_SIZE + (buffer.getShort(position) & 0xffff);
+    }
+
+    /**
+     * Fills a buffer from the file until it is full or the end of the file
+     * is reached.
+     *
+     * @param buffer the buffer.
+     * @param offset position in the file to start reading.
+     * @throws IOException if reading fails.
+     */
+    private void fill(ByteBuffer buffer, long offset) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) <= 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the session database");
+            }
+        }
+    }
+
+    private void addToIndex(SessionRecord record, long offset) {
+        SessionIndex index = sessions.computeIfAbsent(
+                sessionKey(record.getSessionId()),
+                key -> new SessionIndex(record.getSessionId()));
+        index.all.add(record.getSessionTime(), offset);
+        if (!(record instanceof TelemetrySample)) {
+            index.timeline.add(record.getSessionTime(), offset);
+        }
+        if (record instanceof LapEntry) {
+            LapEntry lap = (LapEntry) record;
+            index.laps.computeIfAbsent(lap.getCarId(), id -> new TreeMap<>())
+                    .put(lap.getLap(), offset);
+        }
+    }
+
+    /**
+     * Returns a key that identifies a session. Session ids are only unique
+     * within one connection, so a file must not hold the sessions of more
+     * than one connection.
+     *
+     * @param sessionId the session.
+     * @return the key.
+     */
+    private static long sessionKey(SessionId sessionId) {
+        return ((long) sessionId.getType().getId() << 48)
+                | ((long) (sessionId.getIndex() & 0xffff) << 32)
+                | (sessionId.getNumber() & 0xffffffffL);
+    }
+
+    /**
+     * Indexes of a single session.
+     */
+    private static class SessionIndex {
+
+        /**
+         * The session.
+         */
+        private final SessionId sessionId;
+        /**
+         * Offsets of the laps by car id and lap number.
+         */
+        private final Map<Integer, TreeMap<Integer, Long>> laps = new HashMap<>();
+        /**
+         * Offsets of all records by session time.
+         */
+        private final TimeIndex all = new TimeIndex();
+        /**
+         * Offsets of all records except telemetry samples by session time.
+         */
+        private final TimeIndex timeline = new TimeIndex();
+
+        SessionIndex(SessionId sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    /**
+     * Offsets of records ordered by session time.
+     */
+    private static class TimeIndex {
+
+        /**
+         * Session times of the records in ascending order.
+         */
+        private int[] times = new int[256];
+        /**
+         * Offsets of the records in the same order as the times.
+         */
+        private long[] offsets = new long[256];
+        /**
+         * Number of records.
+         */
+        private int size = 0;
+
+        /**
+         * Adds a record to the time index. Records mostly arrive in order, so
+         * the record is usually appended at the end.
+         *
+         * @param time session time of the record.
+         * @param offset offset of the record.
+         */
+        void add(int time, long offset) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            int position = time == Integer.MAX_VALUE ? size : firstAtOrAfter(time + 1);
+            System.arraycopy(times, position, times, position + 1, size - position);
+            System.arraycopy(offsets, position, offsets, position + 1, size - position);
+            times[position] = time;
+            offsets[position] = offset;
+            size++;
+        }
+
+        /**
+         * Finds the first record at or after a session time.
+         *
+         * @param time the session time.
+         * @return the position of the record or the number of records if
+         * there is none.
+         */
+        int firstAtOrAfter(int time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the offsets of the records in a range of session time.
+         *
+         * @param from start of the range, inclusive.
+         * @param to end of the range, inclusive.
+         * @return the offsets in order of the session time.
+         */
+        long[] range(int from, int to) {
+            int start = firstAtOrAfter(from);
+            int end = to == Integer.MAX_VALUE ? size : firstAtOrAfter(to + 1);
+            return Arrays.copyOfRange(offsets, start, Math.max(start, end));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.ClientExtension;
+import racecontrol.client.events.ConnectionClosedEvent;
+import racecontrol.client.events.ConnectionOpenedEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
+import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.client.extension.laptimes.LapCompletedEvent;
+import racecontrol.client.extension.raceevent.RaceEventEvent;
+import racecontrol.client.extension.raceevent.entries.RaceEventEntry;
+import racecontrol.client.extension.replayoffset.ReplayOffsetExtension;
+import racecontrol.client.extension.replayoffset.ReplayStartKnownEvent;
+import racecontrol.client.model.Car;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.eventbus.Event;
+
+/**
+ * Writes completed laps, race events and sampled realtime data to the session
+ * database. Sessions are identified by their session id, which is only unique
+ * within a connection because the session numbers start over with every
+ * connection. So every connection gets its own database file, named after
+ * the time the connection was opened, and the file is closed together with
+ * the connection.
+ *
+ * @author Leonard
+ */
+public class SessionDatabaseExtension
+        extends ClientExtension {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SessionDatabaseExtension.class.getName());
+    /**
+     * Singelton instance.
+     */
+    private static SessionDatabaseExtension instance;
+    /**
+     * Number of events that can be queued for this extension.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+    /**
+     * Minimum session time in milliseconds between two samples of a car.
+     */
+    private static final int SAMPLE_INTERVAL = 1000;
+    /**
+     * Directory the database files are created in.
+     */
+    private static final String DIRECTORY = "database";
+    /**
+     * The database of the current connection. Null if there is no connection
+     * or it could not be opened.
+     */
+    private volatile SessionDatabase database;
+    /**
+     * Path of the database of the current or the last connection. Null if
+     * there was no connection yet.
+     */
+    private volatile Path path;
+    /**
+     * Id of the current session.
+     */
+    private SessionId sessionId = new SessionId();
+    /**
+     * Session time of the latest realtime update.
+     */
+    private int sessionTime = 0;
+    /**
+     * Session time of the last sample for each car id.
+     */
+    private final Map<Integer, Integer> lastSampleTime = new HashMap<>();
+    /**
+     * Ids of the cars that have been added to the entry list of the current
+     * session.
+     */
+    private final Set<Integer> entryList = new HashSet<>();
+    /**
+     * Race events with a replay whose replay time is not known yet. They are
+     * written once it is known or when the session ends.
+     */
+    private final List<RaceEventEntry> unknownReplayTime = new ArrayList<>();
+
+    /**
+     * Gets the instance of this extension.
+     *
+     * @return the instance.
+     */
+    public static SessionDatabaseExtension getInstance() {
+        if (instance == null) {
+            instance = new SessionDatabaseExtension();
+        }
+        return instance;
+    }
+
+    private SessionDatabaseExtension() {
+        super(QUEUE_CAPACITY,
+                ConnectionOpenedEvent.class,
+                SessionChangedEvent.class,
+                RealtimeFrameEvent.class,
+                LapCompletedEvent.class,
+                RaceEventEvent.class,
+                ReplayStartKnownEvent.class,
+                ConnectionClosedEvent.class);
+        // pending records are written when the application exits without
+        // closing the connection first.
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(this::closeDatabase, "Session database shutdown"));
+    }
+
+    private SessionDatabase openDatabase() {
+        File directory = new File(DIRECTORY);
+        directory.mkdir();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        String path = DIRECTORY + "/" + dateFormat.format(new Date()) + ".db";
+        this.path = Paths.get(path);
+        try {
+            return new SessionDatabase(this.path);
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Cannot open session database " + path, ex);
+            return null;
+        }
+    }
+
+    private synchronized void closeDatabase() {
+        if (database == null) {
+            return;
+        }
+        try {
+            database.close();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Error closing the session database.", ex);
+        }
+        database = null;
+    }
+
+    /**
+     * Returns the session database of the current connection.
+     *
+     * @return the database or null if there is none.
+     */
+    public SessionDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns the path of the database of the current connection or of the
+     * last connection if there is none. The database is closed when the
+     * connection closes, its file can still be opened read only.
+     *
+     * @return the path or null if there was no connection yet.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void onEvent(Event e) {
+        if (e instanceof ConnectionOpenedEvent) {
+            closeDatabase();
+            database = openDatabase();
+            sessionId = new SessionId();
+            lastSampleTime.clear();
+            entryList.clear();
+            unknownReplayTime.clear();
+            return;
+        }
+        if (database == null) {
+            return;
+        }
+        if (e instanceof ConnectionClosedEvent) {
+            insertUnknownReplayTimes();
+            closeDatabase();
+        } else if (e instanceof SessionChangedEvent) {
+            insertUnknownReplayTimes();
+            sessionId = ((SessionChangedEvent) e).getSessionId();
+            sessionTime = ((SessionChangedEvent) e).getSessionInfo().getSessionTime();
+            lastSampleTime.clear();
+            entryList.clear();
+        } else if (e instanceof RealtimeFrameEvent) {
+            onRealtimeFrame((RealtimeFrameEvent) e);
+        } else if (e instanceof LapCompletedEvent) {
+            onLapCompleted((LapCompletedEvent) e);
+        } else if (e instanceof RaceEventEvent) {
+            onRaceEvent(((RaceEventEvent) e).getEntry());
+        } else if (e instanceof ReplayStartKnownEvent) {
+            onReplayStartKnown();
+        }
+    }
+
+    private void onRealtimeFrame(RealtimeFrameEvent e) {
+        sessionTime = e.getSessionInfo().getSessionTime();
+        for (RealtimeInfo info : e.getCarInfos()) {
+            Integer lastTime = lastSampleTime.get(info.getCarId());
+            if (lastTime != null
+                    && sessionTime >= lastTime
+                    && sessionTime - lastTime < SAMPLE_INTERVAL) {
+                continue;
+            }
+            lastSampleTime.put(info.getCarId(), sessionTime);
+            database.insert(new TelemetrySample(sessionId,
+                    sessionTime,
+                    info.getCarId(),
+                    info.getPosition(),
+                    info.getLaps(),
+                    info.getSplinePosition(),
+                    info.getKMH(),
+                    info.getLocation()));
+        }
+    }
+
+    private void onLapCompleted(LapCompletedEvent e) {
+        Car car = e.getCar();
+        if (entryList.add(car.id)) {
+            database.insert(new CarEntry(sessionId,
+                    sessionTime,
+                    car.id,
+                    car.carNumber,
+                    car.drivers.stream()
+                            .map(driver -> driver.fullName())
+                            .collect(Collectors.joining(", "))));
+        }
+        database.insert(new LapEntry(sessionId,
+                sessionTime,
+                car.id,
+                car.carNumber,
+                car.lapCount,
+                e.getLapTime()));
+    }
+
+    private void onRaceEvent(RaceEventEntry entry) {
+        if (entry.isHasReplay() && entry.getReplayTime() == -1) {
+            unknownReplayTime.add(entry);
+            return;
+        }
+        insertEvent(entry, entry.getReplayTime());
+    }
+
+    private void onReplayStartKnown() {
+        ReplayOffsetExtension replayOffset = ReplayOffsetExtension.getInstance();
+        for (RaceEventEntry entry : unknownReplayTime) {
+            insertEvent(entry,
+                    replayOffset.getReplayTimeFromSessionTime(entry.getSessionTime()));
+        }
+        unknownReplayTime.clear();
+    }
+
+    /**
+     * Writes the race events whose replay time never became known.
+     */
+    private void insertUnknownReplayTimes() {
+        for (RaceEventEntry entry : unknownReplayTime) {
+            insertEvent(entry, -1);
+        }
+        unknownReplayTime.clear();
+    }
+
+    private void insertEvent(RaceEventEntry entry, int replayTime) {
+        database.insert(new EventEntry(entry.getSessionId(),
+                entry.getSessionTime(),
+                entry.getTypeDescriptor(),
+                entry.getInfo(),
+                entry.getCarIds(),
+                replayTime));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.client.protocol.enums.SessionType;
+
+/**
+ * A record in the session database. Every record belongs to a session and
+ * happened at a point in the session time.
+ *
+ * @author Leonard
+ */
+public abstract class SessionRecord {
+
+    /**
+     * Record type of a lap.
+     */
+    static final byte TYPE_LAP = 1;
+    /**
+     * Record type of a race event.
+     */
+    static final byte TYPE_EVENT = 2;
+    /**
+     * Record type of a telemetry sample.
+     */
+    static final byte TYPE_SAMPLE = 3;
+    /**
+     * Record type of a car in the entry list.
+     */
+    static final byte TYPE_CAR = 4;
+    /**
+     * Number of bytes of the common fields.
+     */
+    static final int HEADER_SIZE = 1 + 1 + 4 + 4 + 4;
+    /**
+     * The session this record belongs to.
+     */
+    private final SessionId sessionId;
+    /**
+     * Session time of the record in milliseconds.
+     */
+    private final int sessionTime;
+
+    public SessionRecord(SessionId sessionId, int sessionTime) {
+        this.sessionId = sessionId;
+        this.sessionTime = sessionTime;
+    }
+
+    public SessionId getSessionId() {
+        return sessionId;
+    }
+
+    public int getSessionTime() {
+        return sessionTime;
+    }
+
+    /**
+     * Returns the record type that identifies the record in the database
+     * file.
+     *
+     * @return the record type.
+     */
+    abstract byte getType();
+
+    /**
+     * Returns the number of bytes the record specific fields need.
+     *
+     * @return the size of the payload.
+     */
+    abstract int getPayloadSize();
+
+    /**
+     * Writes the record specific fields.
+     *
+     * @param buffer the buffer to write to.
+     */
+    abstract void writePayload(ByteBuffer buffer);
+
+    /**
+     * Returns the number of bytes the encoded record needs.
+     *
+     * @return the encoded size.
+     */
+    int getEncodedSize() {
+        return HEADER_SIZE + getPayloadSize();
+    }
+
+    /**
+     * Writes the record. The record is not prefixed with its length.
+     *
+     * @param buffer the buffer to write to.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.put(getType());
+        buffer.put((byte) sessionId.getType().getId());
+        buffer.putInt(sessionId.getIndex());
+        buffer.putInt(sessionId.getNumber());
+        buffer.putInt(sessionTime);
+        writePayload(buffer);
+    }
+
+    /**
+     * Reads a record that was written with write().
+     *
+     * @param buffer the buffer to read from.
+     * @return the record.
+     */
+    static SessionRecord read(ByteBuffer buffer) {
+        byte type = buffer.get();
+        SessionId sessionId = new SessionId(
+                SessionType.fromId(buffer.get() & 0xff),
+                buffer.getInt(),
+                buffer.getInt());
+        int sessionTime = buffer.getInt();
+        switch (type) {
+            case TYPE_LAP:
+                return LapEntry.readPayload(sessionId, sessionTime, buffer);
+            case TYPE_EVENT:
+                return EventEntry.readPayload(sessionId, sessionTime, buffer);
+            case TYPE_SAMPLE:
+                return TelemetrySample.readPayload(sessionId, sessionTime, buffer);
+            case TYPE_CAR:
+                return CarEntry.readPayload(sessionId, sessionTime, buffer);
+            default:
+                throw new IllegalArgumentException("Unknown record type " + type);
+        }
+    }
+
+    static int stringSize(String text) {
+        return 2 + text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    static void putString(ByteBuffer buffer, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
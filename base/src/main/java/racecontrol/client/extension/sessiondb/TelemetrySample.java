@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.nio.ByteBuffer;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.client.protocol.enums.CarLocation;
+
+/**
+ * Sampled realtime data of a car.
+ *
+ * @author Leonard
+ */
+public class TelemetrySample
+        extends SessionRecord {
+
+    /**
+     * Id of the car.
+     */
+    private final int carId;
+    /**
+     * Position of the car.
+     */
+    private final int position;
+    /**
+     * Number of laps the car has completed.
+     */
+    private final int laps;
+    /**
+     * Position of the car on the track spline.
+     */
+    private final float splinePosition;
+    /**
+     * Speed in kmh.
+     */
+    private final int kmh;
+    /**
+     * Where the car is.
+     */
+    private final CarLocation location;
+
+    public TelemetrySample(SessionId sessionId,
+            int sessionTime,
+            int carId,
+            int position,
+            int laps,
+            float splinePosition,
+            int kmh,
+            CarLocation location) {
+        super(sessionId, sessionTime);
+        this.carId = carId;
+        this.position = position;
+        this.laps = laps;
+        this.splinePosition = splinePosition;
+        this.kmh = kmh;
+        this.location = location;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getLaps() {
+        return laps;
+    }
+
+    public float getSplinePosition() {
+        return splinePosition;
+    }
+
+    public int getKMH() {
+        return kmh;
+    }
+
+    public CarLocation getLocation() {
+        return location;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_SAMPLE;
+    }
+
+    @Override
+    int getPayloadSize() {
+        return 4 + 2 + 2 + 4 + 2 + 1;
+    }
+
+    @Override
+    void writePayload(ByteBuffer buffer) {
+        buffer.putInt(carId);
+        buffer.putShort((short) position);
+        buffer.putShort((short) laps);
+        buffer.putFloat(splinePosition);
+        buffer.putShort((short) kmh);
+        buffer.put((byte) location.getId());
+    }
+
+    static TelemetrySample readPayload(SessionId sessionId,
+            int sessionTime,
+            ByteBuffer buffer) {
+        return new TelemetrySample(sessionId,
+                sessionTime,
+                buffer.getInt(),
+                buffer.getShort(),
+                buffer.getShort(),
+                buffer.getFloat(),
+                buffer.getShort(),
+                CarLocation.fromId(buffer.get()));
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.enums.CarLocation;
+
+/**
+ * The recorded realtime updates of a single car in a memory mapped file. The
+ * file is split into chunks of a fixed number of rows. Inside a chunk every
+ * value is stored in its own fixed width column, so scanning a single value
+ * only touches the pages of that column. Rows are appended in the order of
+ * the session time, so the session time column is the index for range reads.
+ *
+ * Values are read straight from the mapped file. A trace can be read from
+ * other threads while it is being written.
+ *
+ * @author Leonard
+ */
+public class CarTrace
+        implements Closeable {
+
+    /**
+     * Identifies a car trace file.
+     */
+    private static final int MAGIC = 0x41434354;
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the file header.
+     */
+    private static final int HEADER_SIZE = 32;
+    /**
+     * Position of the row count in the header.
+     */
+    private static final int ROW_COUNT_POSITION = 12;
+    /**
+     * Number of rows in a chunk. One hour at 10 updates per second.
+     */
+    static final int CHUNK_ROWS = 36000;
+    /**
+     * Offsets of the columns in a chunk.
+     */
+    private static final int SESSION_TIME = 0;
+    private static final int SPLINE_POSITION = SESSION_TIME + 4 * CHUNK_ROWS;
+    private static final int KMH = SPLINE_POSITION + 4 * CHUNK_ROWS;
+    private static final int DELTA = KMH + 2 * CHUNK_ROWS;
+    private static final int LAPS = DELTA + 4 * CHUNK_ROWS;
+    private static final int POSITION = LAPS + 2 * CHUNK_ROWS;
+    private static final int GEAR = POSITION + 2 * CHUNK_ROWS;
+    private static final int LOCATION = GEAR + 1 * CHUNK_ROWS;
+    /**
+     * Size of a chunk in bytes.
+     */
+    private static final int CHUNK_SIZE = LOCATION + 1 * CHUNK_ROWS;
+    /**
+     * Channel of the trace file.
+     */
+    private final FileChannel channel;
+    /**
+     * Id of the car.
+     */
+    private final int carId;
+    /**
+     * Indicates that the trace can be written to.
+     */
+    private final boolean writable;
+    /**
+     * The mapped file header.
+     */
+    private final MappedByteBuffer header;
+    /**
+     * The mapped chunks. A new chunk is only added once every CHUNK_ROWS
+     * rows, so readers can access the list without locking.
+     */
+    private final List<MappedByteBuffer> chunks = new CopyOnWriteArrayList<>();
+    /**
+     * Number of rows in the trace.
+     */
+    private volatile int rowCount;
+
+    private CarTrace(FileChannel channel, int carId, boolean writable)
+            throws IOException {
+        this.channel = channel;
+        this.carId = carId;
+        this.writable = writable;
+        header = channel.map(writable ? MapMode.READ_WRITE : MapMode.READ_ONLY,
+                0, HEADER_SIZE);
+    }
+
+    /**
+     * Creates a new trace file.
+     *
+     * @param path path of the file.
+     * @param carId id of the car.
+     * @return the trace.
+     * @throws IOException if the file cannot be created.
+     */
+    static CarTrace create(Path path, int carId) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+        CarTrace trace = new CarTrace(channel, carId, true);
+        trace.header.putInt(0, MAGIC);
+        trace.header.putInt(4, VERSION);
+        trace.header.putInt(8, carId);
+        trace.header.putInt(ROW_COUNT_POSITION, 0);
+        trace.header.putInt(16, CHUNK_ROWS);
+        return trace;
+    }
+
+    /**
+     * Opens an existing trace file for reading.
+     *
+     * @param path path of the file.
+     * @return the trace.
+     * @throws IOException if the file cannot be read or is not a trace.
+     */
+    static CarTrace open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a car trace: " + path);
+            }
+            MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC
+                    || header.getInt(4) != VERSION
+                    || header.getInt(16) != CHUNK_ROWS) {
+                throw new IOException("Not a car trace or unsupported version: " + path);
+            }
+            CarTrace trace = new CarTrace(channel, header.getInt(8), false);
+            // Rows that are counted but not in the file were never written.
+            long available = (channel.size() - HEADER_SIZE) / CHUNK_SIZE * CHUNK_ROWS;
+            int rows = (int) Math.min(header.getInt(ROW_COUNT_POSITION), available);
+            for (int i = 0; i < (rows + CHUNK_ROWS - 1) / CHUNK_ROWS; i++) {
+                trace.mapChunk(i);
+            }
+            trace.rowCount = rows;
+            return trace;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a realtime update. The session time must not be smaller than
+     * the session time of the previous row.
+     *
+     * @param sessionTime the session time of the update.
+     * @param info the realtime update.
+     * @throws IOException if the file cannot be extended.
+     */
+    void append(int sessionTime, RealtimeInfo info) throws IOException {
+        int row = rowCount;
+        int chunkIndex = row / CHUNK_ROWS;
+        if (chunkIndex == chunks.size()) {
+            mapChunk(chunkIndex);
+        }
+        MappedByteBuffer chunk = chunks.get(chunkIndex);
+        int i = row % CHUNK_ROWS;
+        chunk.putInt(SESSION_TIME + 4 * i, sessionTime);
+        chunk.putFloat(SPLINE_POSITION + 4 * i, info.getSplinePosition());
+        chunk.putShort(KMH + 2 * i, (short) info.getKMH());
+        chunk.putInt(DELTA + 4 * i, info.getDelta());
+        chunk.putShort(LAPS + 2 * i, (short) info.getLaps());
+        chunk.putShort(POSITION + 2 * i, (short) info.getPosition());
+        chunk.put(GEAR + i, info.getGear());
+        chunk.put(LOCATION + i, (byte) info.getLocation().getId());
+        header.putInt(ROW_COUNT_POSITION, row + 1);
+        rowCount = row + 1;
+    }
+
+    private void mapChunk(int index) throws IOException {
+        chunks.add(channel.map(writable ? MapMode.READ_WRITE : MapMode.READ_ONLY,
+                HEADER_SIZE + (long) index * CHUNK_SIZE,
+                CHUNK_SIZE));
+    }
+
+    /**
+     * Returns the session time of the last row.
+     *
+     * @return the session time or Integer.MIN_VALUE if the trace is empty.
+     */
+    int getLastSessionTime() {
+        int rows = rowCount;
+        return rows == 0 ? Integer.MIN_VALUE : getSessionTime(rows - 1);
+    }
+
+    /**
+     * Writes changes to the mapped file to the disk.
+     */
+    void force() {
+        if (writable) {
+            chunks.forEach(MappedByteBuffer::force);
+            header.force();
+        }
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    /**
+     * Returns the number of rows in the trace.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Finds the first row at or after a session time.
+     *
+     * @param sessionTime the session time in milliseconds.
+     * @return the row or size() if there is none.
+     */
+    public int firstRowAtOrAfter(int sessionTime) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getSessionTime(mid) < sessionTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int getSessionTime(int row) {
+        return chunk(row).getInt(SESSION_TIME + 4 * (row % CHUNK_ROWS));
+    }
+
+    public float getSplinePosition(int row) {
+        return chunk(row).getFloat(SPLINE_POSITION + 4 * (row % CHUNK_ROWS));
+    }
+
+    public int getKMH(int row) {
+        return chunk(row).getShort(KMH + 2 * (row % CHUNK_ROWS));
+    }
+
+    public int getDelta(int row) {
+        return chunk(row).getInt(DELTA + 4 * (row % CHUNK_ROWS));
+    }
+
+    public int getLaps(int row) {
+        return chunk(row).getShort(LAPS + 2 * (row % CHUNK_ROWS));
+    }
+
+    public int getPosition(int row) {
+        return chunk(row).getShort(POSITION + 2 * (row % CHUNK_ROWS));
+    }
+
+    public byte getGear(int row) {
+        return chunk(row).get(GEAR + (row % CHUNK_ROWS));
+    }
+
+    public CarLocation getLocation(int row) {
+        return CarLocation.fromId(chunk(row).get(LOCATION + (row % CHUNK_ROWS)));
+    }
+
+    private MappedByteBuffer chunk(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return chunks.get(row / CHUNK_ROWS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.telemetry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.ClientExtension;
+import racecontrol.client.events.ConnectionClosedEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
+import racecontrol.client.events.SessionChangedEvent;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.eventbus.Backpressure;
+import racecontrol.eventbus.Event;
+
+/**
+ * Records every realtime car update into a telemetry segment per session. The
+ * data is written to memory mapped files, so a whole event can be recorded
+ * without keeping it on the heap. When the session time goes backwards, for
+ * example after a session restart, a new segment is started.
+ * <p>
+ * Frames are queued with a blocking policy instead of dropping the oldest,
+ * because a gap in the recording cannot be filled later. The price is that
+ * the connection thread waits whenever the disk stalls for longer than the
+ * queue lasts, and every other listener receives its events late for that
+ * time. With the default update interval of 100 ms the queue covers more than
+ * a minute, so only a disk that stops responding holds up the connection.
+ *
+ * @author Leonard
+ */
+public class TelemetryRecorderExtension
+        extends ClientExtension {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(TelemetryRecorderExtension.class.getName());
+    /**
+     * Singelton instance.
+     */
+    private static TelemetryRecorderExtension instance;
+    /**
+     * Number of events that can be queued for this extension. The connection
+     * waits when the queue is full.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+    /**
+     * Directory the segments are created in.
+     */
+    private static final String DIRECTORY = "telemetry";
+    /**
+     * Segment of the current session. Null if there is none.
+     */
+    private volatile TelemetrySegment segment;
+    /**
+     * Id of the current session.
+     */
+    private SessionId sessionId;
+    /**
+     * Session time of the last recorded frame.
+     */
+    private int lastSessionTime;
+
+    /**
+     * Gets the instance of this extension.
+     *
+     * @return the instance.
+     */
+    public static TelemetryRecorderExtension getInstance() {
+        if (instance == null) {
+            instance = new TelemetryRecorderExtension();
+        }
+        return instance;
+    }
+
+    private TelemetryRecorderExtension() {
+        super(QUEUE_CAPACITY,
+                event -> Backpressure.BLOCK,
+                SessionChangedEvent.class,
+                RealtimeFrameEvent.class,
+                ConnectionClosedEvent.class);
+    }
+
+    /**
+     * Returns the segment that is being recorded.
+     *
+     * @return the segment or null if nothing is recorded.
+     */
+    public TelemetrySegment getCurrentSegment() {
+        return segment;
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof SessionChangedEvent) {
+            closeSegment();
+            sessionId = ((SessionChangedEvent) e).getSessionId();
+            createSegment(sessionId);
+        } else if (e instanceof RealtimeFrameEvent) {
+            onRealtimeFrame((RealtimeFrameEvent) e);
+        } else if (e instanceof ConnectionClosedEvent) {
+            closeSegment();
+        }
+    }
+
+    private void onRealtimeFrame(RealtimeFrameEvent e) {
+        if (segment == null) {
+            return;
+        }
+        int sessionTime = e.getSessionInfo().getSessionTime();
+        if (sessionTime < lastSessionTime) {
+            LOG.info("Session time went back from " + lastSessionTime
+                    + " to " + sessionTime + ", starting a new telemetry segment.");
+            closeSegment();
+            createSegment(sessionId);
+            if (segment == null) {
+                return;
+            }
+        }
+        lastSessionTime = sessionTime;
+        try {
+            for (RealtimeInfo info : e.getCarInfos()) {
+                segment.record(sessionTime, info);
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Error recording telemetry, recording stopped.", ex);
+            closeSegment();
+        }
+    }
+
+    private void createSegment(SessionId sessionId) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        String name = dateFormat.format(new Date()) + "_" + sessionId.getType().name();
+        Path directory = Paths.get(DIRECTORY, name);
+        // a segment started within the same second gets a suffix.
+        for (int i = 2; Files.exists(directory); i++) {
+            directory = Paths.get(DIRECTORY, name + "_" + i);
+        }
+        lastSessionTime = Integer.MIN_VALUE;
+        try {
+            segment = TelemetrySegment.create(directory);
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Cannot create telemetry segment " + directory, ex);
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Error closing telemetry segment " + segment.getDirectory(), ex);
+        }
+        segment = null;
+    }
+}
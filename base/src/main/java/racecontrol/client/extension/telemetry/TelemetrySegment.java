@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.protocol.RealtimeInfo;
+
+/**
+ * The recorded telemetry of one session. A segment is a directory with one
+ * trace file for every car.
+ *
+ * @author Leonard
+ */
+public class TelemetrySegment
+        implements Closeable {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(TelemetrySegment.class.getName());
+    /**
+     * Directory of the segment.
+     */
+    private final Path directory;
+    /**
+     * Indicates that the segment is being recorded.
+     */
+    private final boolean writable;
+    /**
+     * Traces of the cars by car id.
+     */
+    private final Map<Integer, CarTrace> traces = new ConcurrentHashMap<>();
+
+    private TelemetrySegment(Path directory, boolean writable) {
+        this.directory = directory;
+        this.writable = writable;
+    }
+
+    /**
+     * Creates a new segment to record to.
+     *
+     * @param directory directory of the segment.
+     * @return the segment.
+     * @throws IOException if the directory cannot be created.
+     */
+    public static TelemetrySegment create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new TelemetrySegment(directory, true);
+    }
+
+    /**
+     * Opens a recorded segment for reading.
+     *
+     * @param directory directory of the segment.
+     * @return the segment.
+     * @throws IOException if the directory cannot be read.
+     */
+    public static TelemetrySegment open(Path directory) throws IOException {
+        TelemetrySegment segment = new TelemetrySegment(directory, false);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "car_*.trace")) {
+            for (Path file : files) {
+                try {
+                    CarTrace trace = CarTrace.open(file);
+                    segment.traces.put(trace.getCarId(), trace);
+                } catch (IOException ex) {
+                    LOG.log(Level.WARNING, "Cannot read car trace " + file, ex);
+                }
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Records a realtime update.
+     *
+     * @param sessionTime session time of the update.
+     * @param info the realtime update.
+     * @throws IOException if the trace cannot be written.
+     */
+    void record(int sessionTime, RealtimeInfo info) throws IOException {
+        if (!writable) {
+            throw new IllegalStateException("Segment is read only");
+        }
+        CarTrace trace = traces.get(info.getCarId());
+        if (trace == null) {
+            trace = CarTrace.create(
+                    directory.resolve("car_" + info.getCarId() + ".trace"),
+                    info.getCarId());
+            traces.put(info.getCarId(), trace);
+        }
+        // The session time index requires rows in order.
+        if (sessionTime < trace.getLastSessionTime()) {
+            LOG.warning("Dropping telemetry of car " + info.getCarId()
+                    + " at " + sessionTime + ", the trace already ends at "
+                    + trace.getLastSessionTime() + ".");
+            return;
+        }
+        trace.append(sessionTime, info);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the ids of the recorded cars.
+     *
+     * @return list of car ids.
+     */
+    public List<Integer> getCarIds() {
+        return new ArrayList<>(traces.keySet());
+    }
+
+    /**
+     * Returns the trace of a car.
+     *
+     * @param carId the id of the car.
+     * @return the trace or null if the car was not recorded.
+     */
+    public CarTrace getTrace(int carId) {
+        return traces.get(carId);
+    }
+
+    /**
+     * Writes all changes to the disk.
+     */
+    public void force() {
+        traces.values().forEach(CarTrace::force);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (CarTrace trace : traces.values()) {
+            trace.close();
+        }
+    }
+}
@@ -5,12 +5,14 @@
  */
 package racecontrol.client.extension.trackdata;
 
-import java.io.FileNotFoundException;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFileChooser;
@@ -20,6 +22,8 @@ import racecontrol.client.events.TrackInfoEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.client.ClientExtension;
+import racecontrol.export.ExportService;
+import racecontrol.export.ExportTask;
 
 /**
  *
@@ -77,6 +81,11 @@ public class TrackDataExtension
         EventBus.publish(new TrackDataEvent(trackData));
     }
 
+    /**
+     * Saves track data to disk. The file is written by the export service.
+     *
+     * @param trackData the track data to save.
+     */
     public void saveTrackData(TrackData trackData) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Save Track Data");
@@ -86,17 +95,28 @@ public class TrackDataExtension
 
         int userSelection = fileChooser.showSaveDialog(null);
         if (userSelection == JFileChooser.APPROVE_OPTION) {
-            String name = fileChooser.getSelectedFile().getParent() + "\\" + trackData.getTrackname() + ".trackData";
-            try {
-                FileOutputStream fos = new FileOutputStream(name);
-                ObjectOutputStream oos = new ObjectOutputStream(fos);
-                oos.writeObject(trackData);
-                oos.close();
-            } catch (FileNotFoundException ex) {
-                Logger.getLogger(TrackDataExtension.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (IOException ex) {
-                Logger.getLogger(TrackDataExtension.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            File file = new File(fileChooser.getSelectedFile().getParent(),
+                    trackData.getTrackname() + ".trackData");
+            ExportService.getInstance().submit("track data", List.of(new ExportTask() {
+                @Override
+                public File getFile() {
+                    return file;
+                }
+
+                @Override
+                public int getSize() {
+                    return 1;
+                }
+
+                @Override
+                public void write(Progress progress) throws IOException {
+                    try ( ObjectOutputStream oos = new ObjectOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(file)))) {
+                        oos.writeObject(trackData);
+                    }
+                    progress.advance(1);
+                }
+            }));
         }
     }
 }
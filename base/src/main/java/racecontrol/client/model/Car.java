@@ -6,6 +6,7 @@
 package racecontrol.client.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import racecontrol.client.protocol.LapInfo;
 import racecontrol.client.protocol.enums.CarLocation;
@@ -25,7 +26,9 @@ public class Car {
      */
     public int id;
     /**
-     * Timestamp of the last update to this car.
+     * Timestamp of the last update to this car. Changes with every update, so
+     * it is not part of the state of the car and not kept up to date in the
+     * frozen cars of a snapshot.
      */
     public long lastUpdate = 0;
     /**
@@ -245,6 +248,10 @@ public class Car {
      * True if the driver stint time is accurate.
      */
     public boolean driverStintTimeAccurate;
+    /**
+     * True if this car is a read only copy that belongs to a snapshot.
+     */
+    private boolean frozen = false;
 
     /**
      * Returns the car number formated as "#XXX".
@@ -352,4 +359,107 @@ public class Car {
         return car;
     }
 
+    /**
+     * Creates a frozen copy of this car for a snapshot of the model. The
+     * copy is shared between snapshots as long as the car does not change,
+     * its drivers cannot be changed and it cannot be put into a model.
+     *
+     * @return the frozen copy.
+     */
+    public synchronized Car freeze() {
+        Car car = copy();
+        car.drivers = Collections.unmodifiableList(car.drivers);
+        car.frozen = true;
+        return car;
+    }
+
+    /**
+     * Returns true if this car is a frozen copy that belongs to a snapshot.
+     *
+     * @return true if the car is frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns true if every value of this car equals the value of the other
+     * car. Values are compared by reference, lap infos and drivers are
+     * replaced and never changed when a car is updated. The time of the last
+     * update is not compared, it changes with every update even when nothing
+     * else does.
+     *
+     * @param other the other car.
+     * @return true if both cars have the same state.
+     */
+    public synchronized boolean sameState(Car other) {
+        return id == other.id
+                && connected == other.connected
+                && carModel == other.carModel
+                && teamName == other.teamName
+                && carNumber == other.carNumber
+                && cupCategory == other.cupCategory
+                && driverIndex == other.driverIndex
+                && nationality == other.nationality
+                && driverIndexRealtime == other.driverIndexRealtime
+                && driverCount == other.driverCount
+                && gear == other.gear
+                && KMH == other.KMH
+                && yaw == other.yaw
+                && pitch == other.pitch
+                && roll == other.roll
+                && carLocation == other.carLocation
+                && position == other.position
+                && realtimePosition == other.realtimePosition
+                && cupPosition == other.cupPosition
+                && trackPosition == other.trackPosition
+                && splinePosition == other.splinePosition
+                && raceDistance == other.raceDistance
+                && lapCount == other.lapCount
+                && delta == other.delta
+                && bestLap == other.bestLap
+                && lastLap == other.lastLap
+                && currentLap == other.currentLap
+                && deltaToSessionBest == other.deltaToSessionBest
+                && carPositionAhead == other.carPositionAhead
+                && carPositionBehind == other.carPositionBehind
+                && gapPositionAhead == other.gapPositionAhead
+                && gapPositionBehind == other.gapPositionBehind
+                && gapToLeader == other.gapToLeader
+                && lapsBehindLeader == other.lapsBehindLeader
+                && carAhead == other.carAhead
+                && carBehind == other.carBehind
+                && gapAhead == other.gapAhead
+                && gapBehind == other.gapBehind
+                && isSessionBestLaptime == other.isSessionBestLaptime
+                && isFocused == other.isFocused
+                && isYellowFlag == other.isYellowFlag
+                && isWhiteFlag == other.isWhiteFlag
+                && isCheckeredFlag == other.isCheckeredFlag
+                && overtakeIndicator == other.overtakeIndicator
+                && maxKMH == other.maxKMH
+                && speedTrapKMH == other.speedTrapKMH
+                && raceStartPosition == other.raceStartPosition
+                && raceStartPositionAccurate == other.raceStartPositionAccurate
+                && pitLaneTime == other.pitLaneTime
+                && pitLaneTimeStationary == other.pitLaneTimeStationary
+                && pitlaneCount == other.pitlaneCount
+                && pitlaneCountAccurate == other.pitlaneCountAccurate
+                && driverStintTime == other.driverStintTime
+                && driverStintTimeAccurate == other.driverStintTimeAccurate
+                && sameDrivers(other.drivers);
+    }
+
+    private boolean sameDrivers(List<Driver> otherDrivers) {
+        if (drivers.size() != otherDrivers.size()) {
+            return false;
+        }
+        for (int i = 0; i < drivers.size(); i++) {
+            if (drivers.get(i) != otherDrivers.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Columnar store for the state of all cars that changes every update. Each
+ * car gets a slot and its values are kept in parallel primitive arrays so
+ * calculations over the whole field can run as plain array scans.
+ * The {@link Car} objects stay the view of a car for the rest of the
+ * application, calculations write their results to both.
+ *
+ * The arrays are replaced when the store grows and slots are reused when a
+ * car leaves the entry list, so neither should be kept across updates.
+ *
+ * @author Leonard
+ */
+public class CarStateStore {
+
+    /**
+     * Initial number of slots.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Maps a car id to its slot.
+     */
+    private int[] slotById = new int[0];
+    /**
+     * Number of slots in use.
+     */
+    private int size = 0;
+    /**
+     * Car view for each slot.
+     */
+    private Car[] cars = new Car[INITIAL_CAPACITY];
+    /**
+     * Car id.
+     */
+    public int[] id = new int[INITIAL_CAPACITY];
+    /**
+     * Whether the car is connected.
+     */
+    public boolean[] connected = new boolean[INITIAL_CAPACITY];
+    /**
+     * Spline position.
+     */
+    public float[] splinePosition = new float[INITIAL_CAPACITY];
+    /**
+     * Number of completed laps.
+     */
+    public int[] lapCount = new int[INITIAL_CAPACITY];
+    /**
+     * Official position.
+     */
+    public int[] position = new int[INITIAL_CAPACITY];
+    /**
+     * Speed in kmh.
+     */
+    public int[] kmh = new int[INITIAL_CAPACITY];
+    /**
+     * Whether the car has received the checkered flag.
+     */
+    public boolean[] checkeredFlag = new boolean[INITIAL_CAPACITY];
+    /**
+     * Race distance as laps + spline position.
+     */
+    public float[] raceDistance = new float[INITIAL_CAPACITY];
+    /**
+     * Position based on the race distance.
+     */
+    public int[] realtimePosition = new int[INITIAL_CAPACITY];
+    /**
+     * Id of the car in the position ahead.
+     */
+    public int[] carPositionAhead = new int[INITIAL_CAPACITY];
+    /**
+     * Id of the car in the position behind.
+     */
+    public int[] carPositionBehind = new int[INITIAL_CAPACITY];
+    /**
+     * Gap to the car in the position ahead in ms.
+     */
+    public int[] gapPositionAhead = new int[INITIAL_CAPACITY];
+    /**
+     * Gap to the car in the position behind in ms.
+     */
+    public int[] gapPositionBehind = new int[INITIAL_CAPACITY];
+    /**
+     * Gap to the leader in ms.
+     */
+    public int[] gapToLeader = new int[INITIAL_CAPACITY];
+    /**
+     * Cars ordered by their race distance, leader first.
+     */
+    private final SlotOrder raceDistanceOrder = new SlotOrder();
+    /**
+     * Cars ordered by their spline position.
+     */
+    private final SlotOrder splinePositionOrder = new SlotOrder();
+
+    /**
+     * Returns the number of slots in use.
+     *
+     * @return the number of slots in use.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the order of cars by race distance. It is sorted once per
+     * realtime update by the realtime position extension, its swaps are the
+     * overtakes since the last update.
+     *
+     * @return the race distance order.
+     */
+    public SlotOrder getRaceDistanceOrder() {
+        return raceDistanceOrder;
+    }
+
+    /**
+     * Returns the order of cars by spline position. It is sorted once per
+     * realtime update by the gap extension.
+     *
+     * @return the spline position order.
+     */
+    public SlotOrder getSplinePositionOrder() {
+        return splinePositionOrder;
+    }
+
+    /**
+     * Returns the car view for a slot.
+     *
+     * @param slot the slot.
+     * @return the car in that slot.
+     */
+    public Car getCar(int slot) {
+        return cars[slot];
+    }
+
+    /**
+     * Returns the slot of a car id.
+     *
+     * @param carId the car id.
+     * @return the slot or -1 if the car is not in the store.
+     */
+    public int slotOf(int carId) {
+        if (carId < 0 || carId >= slotById.length) {
+            return -1;
+        }
+        return slotById[carId];
+    }
+
+    /**
+     * Returns the slot of a car, the car is added if it is not in the store.
+     *
+     * @param car the car.
+     * @return the slot of the car.
+     */
+    public int slot(Car car) {
+        int slot = slotOf(car.id);
+        if (slot == -1) {
+            return insert(car);
+        }
+        cars[slot] = car;
+        return slot;
+    }
+
+    /**
+     * Copies the values that are set by the connection from the car view.
+     * A car that is not in the store is only added while it is connected,
+     * so cars that left the entry list do not get a slot back.
+     *
+     * @param car the car.
+     */
+    public void update(Car car) {
+        int slot = slotOf(car.id);
+        if (slot == -1) {
+            if (car.connected) {
+                insert(car);
+            }
+            return;
+        }
+        cars[slot] = car;
+        copyConnectionValues(slot, car);
+    }
+
+    /**
+     * Frees the slots of all cars that are not in the entry list. The last
+     * slot is moved into a freed slot to keep the slots dense.
+     *
+     * @param carIds ids of the cars in the entry list.
+     */
+    public void retain(Collection<Integer> carIds) {
+        Set<Integer> entryList = new HashSet<>(carIds);
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (!entryList.contains(id[slot])) {
+                remove(slot);
+            }
+        }
+    }
+
+    private int insert(Car car) {
+        if (car.id >= slotById.length) {
+            int oldLength = slotById.length;
+            slotById = Arrays.copyOf(slotById, Math.max(car.id + 1, oldLength * 2));
+            Arrays.fill(slotById, oldLength, slotById.length, -1);
+        }
+        if (size == cars.length) {
+            grow();
+        }
+        int slot = size++;
+        slotById[car.id] = slot;
+        cars[slot] = car;
+        id[slot] = car.id;
+        raceDistance[slot] = car.raceDistance;
+        realtimePosition[slot] = car.realtimePosition;
+        carPositionAhead[slot] = car.carPositionAhead;
+        carPositionBehind[slot] = car.carPositionBehind;
+        gapPositionAhead[slot] = car.gapPositionAhead;
+        gapPositionBehind[slot] = car.gapPositionBehind;
+        gapToLeader[slot] = car.gapToLeader;
+        copyConnectionValues(slot, car);
+        return slot;
+    }
+
+    private void copyConnectionValues(int slot, Car car) {
+        connected[slot] = car.connected;
+        splinePosition[slot] = car.splinePosition;
+        lapCount[slot] = car.lapCount;
+        position[slot] = car.position;
+        kmh[slot] = car.KMH;
+        checkeredFlag[slot] = car.isCheckeredFlag;
+    }
+
+    private void remove(int slot) {
+        int last = size - 1;
+        slotById[id[slot]] = -1;
+        if (slot != last) {
+            slotById[id[last]] = slot;
+            cars[slot] = cars[last];
+            id[slot] = id[last];
+            connected[slot] = connected[last];
+            splinePosition[slot] = splinePosition[last];
+            lapCount[slot] = lapCount[last];
+            position[slot] = position[last];
+            kmh[slot] = kmh[last];
+            checkeredFlag[slot] = checkeredFlag[last];
+            raceDistance[slot] = raceDistance[last];
+            realtimePosition[slot] = realtimePosition[last];
+            carPositionAhead[slot] = carPositionAhead[last];
+            carPositionBehind[slot] = carPositionBehind[last];
+            gapPositionAhead[slot] = gapPositionAhead[last];
+            gapPositionBehind[slot] = gapPositionBehind[last];
+            gapToLeader[slot] = gapToLeader[last];
+        }
+        cars[last] = null;
+        size--;
+        raceDistanceOrder.remove(slot, last);
+        splinePositionOrder.remove(slot, last);
+    }
+
+    private void grow() {
+        int capacity = cars.length * 2;
+        cars = Arrays.copyOf(cars, capacity);
+        id = Arrays.copyOf(id, capacity);
+        connected = Arrays.copyOf(connected, capacity);
+        splinePosition = Arrays.copyOf(splinePosition, capacity);
+        lapCount = Arrays.copyOf(lapCount, capacity);
+        position = Arrays.copyOf(position, capacity);
+        kmh = Arrays.copyOf(kmh, capacity);
+        checkeredFlag = Arrays.copyOf(checkeredFlag, capacity);
+        raceDistance = Arrays.copyOf(raceDistance, capacity);
+        realtimePosition = Arrays.copyOf(realtimePosition, capacity);
+        carPositionAhead = Arrays.copyOf(carPositionAhead, capacity);
+        carPositionBehind = Arrays.copyOf(carPositionBehind, capacity);
+        gapPositionAhead = Arrays.copyOf(gapPositionAhead, capacity);
+        gapPositionBehind = Arrays.copyOf(gapPositionBehind, capacity);
+        gapToLeader = Arrays.copyOf(gapToLeader, capacity);
+    }
+}
@@ -8,6 +8,7 @@ package racecontrol.client.model;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -79,6 +80,16 @@ public class Model {
      * Collection of all cars for this event.
      */
     private Map<Integer, Car> cars = new HashMap<>();
+    /**
+     * Columnar state of all cars. Copies of the model start with an empty
+     * store.
+     */
+    private final CarStateStore carStates = new CarStateStore();
+    /**
+     * Frozen copies of the cars in the last snapshot. Reused by the next
+     * snapshot for every car that did not change.
+     */
+    private Map<Integer, Car> frozenCars = new HashMap<>();
 
     /**
      * Creates a deep copy of the model.
@@ -86,6 +97,14 @@ public class Model {
      * @return a deep copy of this model.
      */
     public synchronized Model copy() {
+        Model model = copyWithoutCars();
+        model.cars = new HashMap<>();
+        Map<Integer, Car> originalCars = new HashMap<>(cars);
+        originalCars.forEach((id, car) -> model.cars.put(id, car.copy()));
+        return model;
+    }
+
+    private Model copyWithoutCars() {
         Model model = new Model();
         model.hostAddress = hostAddress;
         model.hostPort = hostPort;
@@ -99,9 +118,30 @@ public class Model {
         model.gameConnected = gameConnected;
         model.trackInfo = trackInfo;
         model.session = session.copy();
-        model.cars = new HashMap<>();
-        Map<Integer, Car> originalCars = new HashMap<>(cars);
-        originalCars.forEach((id, car) -> model.cars.put(id, car.copy()));
+        return model;
+    }
+
+    /**
+     * Creates a read only snapshot of the model. Immutable values like the
+     * session info, track info and lap infos are shared with this model, cars
+     * cannot be added to the snapshot. The cars of the snapshot are frozen
+     * copies, a car that has not changed since the last snapshot is shared
+     * with that snapshot instead of being copied again.
+     *
+     * @return a read only snapshot of this model.
+     */
+    public synchronized Model snapshot() {
+        Model model = copyWithoutCars();
+        Map<Integer, Car> frozen = new HashMap<>();
+        for (Car car : cars.values()) {
+            Car previous = frozenCars.get(car.id);
+            if (previous == null || !car.sameState(previous)) {
+                previous = car.freeze();
+            }
+            frozen.put(car.id, previous);
+        }
+        frozenCars = frozen;
+        model.cars = Collections.unmodifiableMap(frozen);
         return model;
     }
 
@@ -144,6 +184,19 @@ public class Model {
      * @param car The car to add.
      */
     public void putCar(Car car) {
+        if (car.isFrozen()) {
+            throw new IllegalArgumentException("Cars of a snapshot are read only.");
+        }
         cars.put(car.id, car);
+        carStates.update(car);
+    }
+
+    /**
+     * Returns the columnar state of all cars.
+     *
+     * @return the car state store.
+     */
+    public CarStateStore getCarStates() {
+        return carStates;
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.model;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * An ordering of the slots in a {@link CarStateStore}. The order is kept
+ * between updates and sorted with an insertion sort. Since the order of the
+ * cars changes very little from one update to the next sorting is close to
+ * linear.
+ *
+ * Every time the sort moves a slot in front of another one a swap is
+ * recorded. The swaps of the last sort can be read until the next sort.
+ *
+ * @author Leonard
+ */
+public class SlotOrder {
+
+    /**
+     * Slots in sorted order.
+     */
+    private int[] slots = new int[0];
+    /**
+     * Number of slots.
+     */
+    private int size = 0;
+    /**
+     * Slots that moved in front of another slot during the last sort.
+     */
+    private int[] swapPassing = new int[0];
+    /**
+     * Slots that were passed during the last sort.
+     */
+    private int[] swapPassed = new int[0];
+    /**
+     * Number of swaps during the last sort.
+     */
+    private int swapCount = 0;
+
+    /**
+     * Sorts all slots of the store.
+     *
+     * @param store the store.
+     * @param comparator compares two slots.
+     */
+    public void sort(CarStateStore store, IntBinaryOperator comparator) {
+        int storeSize = store.size();
+        if (size > storeSize) {
+            // The store was replaced.
+            size = 0;
+        }
+        // Slots that are new to the order are sorted in without recording
+        // swaps.
+        int knownSlots = size;
+        swapCount = 0;
+        if (slots.length < storeSize) {
+            slots = Arrays.copyOf(slots, storeSize * 2);
+        }
+        while (size < storeSize) {
+            slots[size] = size;
+            size++;
+        }
+
+        for (int i = 1; i < size; i++) {
+            int slot = slots[i];
+            int j = i - 1;
+            while (j >= 0 && comparator.applyAsInt(slots[j], slot) > 0) {
+                if (slot < knownSlots && slots[j] < knownSlots) {
+                    recordSwap(slot, slots[j]);
+                }
+                slots[j + 1] = slots[j];
+                j--;
+            }
+            slots[j + 1] = slot;
+        }
+    }
+
+    /**
+     * Removes a slot that was freed in the store. The store moves its last
+     * slot into the freed one, so that slot is renamed in the order.
+     *
+     * @param slot the freed slot.
+     * @param lastSlot the last slot of the store before it was freed.
+     */
+    void remove(int slot, int lastSlot) {
+        if (slot >= size) {
+            // Neither slot has been sorted into the order yet.
+            return;
+        }
+        if (lastSlot >= size) {
+            // The moved slot is new to the order, start over.
+            size = 0;
+            return;
+        }
+        int write = 0;
+        for (int i = 0; i < size; i++) {
+            int s = slots[i];
+            if (s != slot) {
+                slots[write++] = s == lastSlot ? slot : s;
+            }
+        }
+        size = write;
+        swapCount = 0;
+    }
+
+    private void recordSwap(int passing, int passed) {
+        if (swapCount == swapPassing.length) {
+            int capacity = Math.max(16, swapCount * 2);
+            swapPassing = Arrays.copyOf(swapPassing, capacity);
+            swapPassed = Arrays.copyOf(swapPassed, capacity);
+        }
+        swapPassing[swapCount] = passing;
+        swapPassed[swapCount] = passed;
+        swapCount++;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the number of slots.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot at a given index in the order.
+     *
+     * @param index the index.
+     * @return the slot.
+     */
+    public int get(int index) {
+        return slots[index];
+    }
+
+    /**
+     * Returns the number of swaps during the last sort.
+     *
+     * @return the number of swaps.
+     */
+    public int getSwapCount() {
+        return swapCount;
+    }
+
+    /**
+     * Returns the slot that moved in front of another slot in a swap.
+     *
+     * @param index the index of the swap.
+     * @return the passing slot.
+     */
+    public int getSwapPassing(int index) {
+        return swapPassing[index];
+    }
+
+    /**
+     * Returns the slot that was passed in a swap.
+     *
+     * @param index the index of the swap.
+     * @return the passed slot.
+     */
+    public int getSwapPassed(int index) {
+        return swapPassed[index];
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.protocol;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import racecontrol.client.protocol.AccBroadcastingProtocol.InboundMessageTypes;
+import racecontrol.client.protocol.enums.BroadcastingEventType;
+import racecontrol.client.protocol.enums.CarLocation;
+import racecontrol.client.protocol.enums.CarModel;
+import racecontrol.client.protocol.enums.DriverCategory;
+import racecontrol.client.protocol.enums.LapType;
+import racecontrol.client.protocol.enums.Nationality;
+import racecontrol.client.protocol.enums.SessionPhase;
+import racecontrol.client.protocol.enums.SessionType;
+
+/**
+ * Decodes inbound messages directly from a little endian ByteBuffer. In
+ * contrast to the stream based decoder in AccBroadcastingProtocol this decoder
+ * does not allocate temporary arrays for every primitive it reads.
+ *
+ * Decoded LapInfo objects are immutable, so a lap that did not change since the
+ * last update of the same car is handed out again instead of being allocated.
+ * The same goes for the camera and hud strings of the realtime update.
+ *
+ * An instance of this class is not thread safe and should only be used from
+ * the connection thread.
+ *
+ * @author Leonard
+ */
+public class AccBroadcastingDecoder {
+
+    private static final Logger LOG = Logger.getLogger(AccBroadcastingDecoder.class.getName());
+    /**
+     * Lap slot for the best session lap of a car.
+     */
+    private static final int LAP_BEST = 0;
+    /**
+     * Lap slot for the last lap of a car.
+     */
+    private static final int LAP_LAST = 1;
+    /**
+     * Lap slot for the current lap of a car.
+     */
+    private static final int LAP_CURRENT = 2;
+    /**
+     * String slots for the realtime update.
+     */
+    private static final int STRING_CAMERA_SET = 0;
+    private static final int STRING_CAMERA = 1;
+    private static final int STRING_HUD_PAGE = 2;
+    /**
+     * Previously decoded laps indexed by [carId * 3 + slot].
+     */
+    private LapInfo[] lapCache = new LapInfo[64 * 3];
+    /**
+     * Previously decoded best session lap of the realtime update.
+     */
+    private LapInfo sessionBestLap;
+    /**
+     * Scratch space for the splits of the lap that is currently decoded.
+     */
+    private final int[] splits = new int[3];
+    /**
+     * Scratch space for decoding strings from direct buffers.
+     */
+    private byte[] stringBuffer = new byte[256];
+    /**
+     * Previously decoded strings and their raw bytes for each string slot.
+     */
+    private final String[] stringCache = new String[3];
+    private final byte[][] stringCacheBytes = new byte[3][];
+
+    /**
+     * Decodes a single message. The buffer is read from its current position
+     * up to its limit. The byte order of the buffer is set to little endian.
+     *
+     * @param in the buffer containing the message.
+     * @param callback the callback to call with the decoded message.
+     */
+    public void processMessage(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        byte messageType = in.get();
+        try {
+            switch (messageType) {
+                case InboundMessageTypes.REGISTRATION_RESULT:
+                    readRegistrationResult(in, callback);
+                    break;
+                case InboundMessageTypes.REALTIME_UPDATE:
+                    readRealtimeUpdate(in, callback);
+                    break;
+                case InboundMessageTypes.REALTIME_CAR_UPDATE:
+                    readRealtimeCarUpdate(in, callback);
+                    break;
+                case InboundMessageTypes.ENTRY_LIST:
+                    readEntryList(in, callback);
+                    break;
+                case InboundMessageTypes.TRACK_DATA:
+                    readTrackData(in, callback);
+                    break;
+                case InboundMessageTypes.ENTRY_LIST_CAR:
+                    readEntryListCar(in, callback);
+                    break;
+                case InboundMessageTypes.BROADCASTING_EVENT:
+                    readBroadcastingEvent(in, callback);
+                    break;
+
+                default:
+                    LOG.warning("Unknown message type: " + messageType);
+            }
+        } catch (BufferUnderflowException e) {
+            LOG.warning("Message of type " + messageType + " is truncated.");
+        }
+    }
+
+    private void readRegistrationResult(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        int connectionID = in.getInt();
+        boolean connectionSuccess = in.get() > 0;
+        boolean isReadonly = in.get() == 0;
+        String errorMessage = readString(in);
+        callback.onRegistrationResult(connectionID, connectionSuccess, isReadonly, errorMessage);
+    }
+
+    private void readRealtimeUpdate(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        int eventIndex = in.getShort();
+        int sessionIndex = in.getShort();
+        SessionType sessionType = SessionType.fromId(in.get());
+        SessionPhase phase = SessionPhase.fromId(in.get());
+        float sessionTime = in.getFloat();
+        float sessionEndTime = in.getFloat();
+
+        int focusedCarIndex = in.getInt();
+        String activeCameraSet = readCachedString(in, STRING_CAMERA_SET);
+        String activeCamera = readCachedString(in, STRING_CAMERA);
+        String currentHudPage = readCachedString(in, STRING_HUD_PAGE);
+
+        boolean isReplayPlaying = in.get() > 0;
+        float replaySessionTime = 0;
+        float replayRemainingTime = 0;
+        if (isReplayPlaying) {
+            replaySessionTime = in.getFloat();
+            replayRemainingTime = in.getFloat();
+        }
+
+        float timeOfDay = in.getFloat();
+        byte ambientTemp = in.get();
+        byte trackTemp = in.get();
+        byte cloudLevel = in.get();
+        byte rainLevel = in.get();
+        byte wetness = in.get();
+
+        sessionBestLap = readLap(in, sessionBestLap);
+
+        SessionInfo sessionInfo = new SessionInfo(eventIndex, sessionIndex, sessionType, phase, (int) sessionTime,
+                (int) sessionEndTime, focusedCarIndex, activeCameraSet, activeCamera, currentHudPage, isReplayPlaying,
+                (int) replaySessionTime, (int) replayRemainingTime, (int) timeOfDay, ambientTemp, trackTemp, cloudLevel,
+                rainLevel, wetness, sessionBestLap);
+
+        callback.onRealtimeUpdate(sessionInfo);
+    }
+
+    private void readRealtimeCarUpdate(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        int carId = in.getShort();
+        int driverIndex = in.getShort();
+        byte driverCount = in.get();
+        byte gear = in.get();
+        float yaw = in.getFloat();  // falsely documented as posX
+        float pitch = in.getFloat();// falsely documented as posY
+        float roll = in.getFloat();  // falsely documented as yaw
+        CarLocation location = CarLocation.fromId(in.get());
+        int kmh = in.getShort();
+        int position = in.getShort();
+        int cupPosition = in.getShort();
+        int trackPosition = in.getShort();
+        float splinePosition = in.getFloat();
+        int laps = in.getShort();
+        int delta = in.getInt();
+
+        int slot = lapCacheIndex(carId);
+        LapInfo bestSessionLap = readLap(in, lapCache[slot + LAP_BEST]);
+        LapInfo lastLap = readLap(in, lapCache[slot + LAP_LAST]);
+        LapInfo currentLap = readLap(in, lapCache[slot + LAP_CURRENT]);
+        lapCache[slot + LAP_BEST] = bestSessionLap;
+        lapCache[slot + LAP_LAST] = lastLap;
+        lapCache[slot + LAP_CURRENT] = currentLap;
+
+        RealtimeInfo info = new RealtimeInfo(carId, driverIndex, driverCount, gear, yaw, pitch, roll,
+                location, kmh, position, cupPosition, trackPosition, splinePosition, laps, delta,
+                bestSessionLap, lastLap, currentLap);
+        callback.onRealtimeCarUpdate(info);
+    }
+
+    private void readEntryList(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        List<Integer> cars = new LinkedList<>();
+
+        int connectionId = in.getInt();
+        int carEntryCount = in.getShort();
+        for (int i = 0; i < carEntryCount; i++) {
+            cars.add((int) in.getShort());
+        }
+        callback.onEntryListUpdate(cars);
+    }
+
+    private void readEntryListCar(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        int carId = in.getShort();
+        byte carModelType = in.get();
+        String teamName = readString(in);
+        int raceNumber = in.getInt();
+        byte cupCatergory = in.get();
+        byte currentDriverIndex = in.get();
+        int carNationality = in.getShort();
+
+        int _driverCount = in.get();
+        List<DriverInfo> drivers = new LinkedList<>();
+        for (int i = 0; i < _driverCount; i++) {
+            String firstName = readString(in);
+            String lastName = readString(in);
+            String shortName = readString(in);
+            DriverCategory category = DriverCategory.fromId(in.get());
+            Nationality driverNationality = Nationality.fromId(in.getShort());
+            drivers.add(new DriverInfo(firstName, lastName, shortName, category, driverNationality));
+        }
+        CarInfo carInfo = new CarInfo(carId, CarModel.fromType(carModelType), teamName, raceNumber,
+                cupCatergory, currentDriverIndex, carNationality, drivers,
+                new RealtimeInfo());
+        callback.onEntryListCarUpdate(carInfo);
+    }
+
+    private void readBroadcastingEvent(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        BroadcastingEventType type = BroadcastingEventType.fromId(in.get());
+        String msg = readString(in);
+        int timeMs = in.getInt();
+        int carId = in.getInt();
+
+        BroadcastingEvent event = new BroadcastingEvent(type, msg, timeMs, carId);
+        callback.onBroadcastingEvent(event);
+    }
+
+    private void readTrackData(ByteBuffer in,
+            AccBroadcastingProtocolCallback callback) {
+        int connectionID = in.getInt();
+        String trackName = readString(in);
+        int trackId = in.getInt();
+        int trackMeters = in.getInt();
+
+        Map<String, List<String>> cameraSets = new HashMap<>();
+        byte cameraSetCount = in.get();
+        for (int camSet = 0; camSet < cameraSetCount; camSet++) {
+
+            String camSetName = readString(in);
+            cameraSets.put(camSetName, new LinkedList<>());
+
+            byte cameraCount = in.get();
+            for (int cam = 0; cam < cameraCount; cam++) {
+
+                String camName = readString(in);
+                cameraSets.get(camSetName).add(camName);
+            }
+        }
+
+        List<String> hudPages = new LinkedList<>();
+        byte hudPagesCount = in.get();
+        for (int i = 0; i < hudPagesCount; i++) {
+            hudPages.add(readString(in));
+        }
+
+        TrackInfo info = new TrackInfo(trackName, trackId, trackMeters, cameraSets, hudPages);
+        callback.onTrackData(info);
+    }
+
+    /**
+     * Reads a lap. If the lap is equal to the previous lap, the previous lap
+     * object is returned instead of creating a new one.
+     *
+     * @param in the buffer to read from.
+     * @param previous the previously decoded lap for this slot or null.
+     * @return the decoded lap.
+     */
+    private LapInfo readLap(ByteBuffer in, LapInfo previous) {
+        int lapTimeMS = in.getInt();
+        int carIndex = in.getShort();
+        int driverIndex = in.getShort();
+
+        int splitCount = in.get();
+        List<Integer> extraSplits = null;
+        for (int i = 0; i < splitCount; i++) {
+            int split = in.getInt();
+            if (i < 3) {
+                splits[i] = split;
+            } else {
+                // more splits than expected, fall back to a boxed list.
+                if (extraSplits == null) {
+                    extraSplits = new LinkedList<>();
+                    for (int s : splits) {
+                        extraSplits.add(s);
+                    }
+                }
+                extraSplits.add(split);
+            }
+        }
+        for (int i = Math.max(splitCount, 0); i < 3; i++) {
+            splits[i] = 0;
+        }
+
+        boolean isInvalid = in.get() > 0;
+        boolean isValidForBest = in.get() > 0;
+
+        boolean isOutLap = in.get() > 0;
+        boolean isInLap = in.get() > 0;
+        LapType type = LapType.REGULAR;
+        if (isOutLap) {
+            type = LapType.OUTLAP;
+        } else if (isInLap) {
+            type = LapType.INLAP;
+        }
+
+        if (extraSplits != null) {
+            return new LapInfo(lapTimeMS, carIndex, driverIndex, extraSplits,
+                    isInvalid, isValidForBest, type);
+        }
+
+        if (previous != null
+                && previous.lapTimeMS == lapTimeMS
+                && previous.carId == carIndex
+                && previous.driverIndex == driverIndex
+                && previous.isInvalid == isInvalid
+                && previous.isValidForBest == isValidForBest
+                && previous.type == type
+                && splitsEqual(previous.splits)) {
+            return previous;
+        }
+
+        return new LapInfo(lapTimeMS, carIndex, driverIndex,
+                Arrays.asList(splits[0], splits[1], splits[2]),
+                isInvalid, isValidForBest, type);
+    }
+
+    private boolean splitsEqual(List<Integer> other) {
+        if (other.size() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (other.get(i) != splits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lapCacheIndex(int carId) {
+        int index = (carId & 0xFFFF) * 3;
+        if (index + 3 > lapCache.length) {
+            lapCache = Arrays.copyOf(lapCache, Math.max(lapCache.length * 2, index + 3));
+        }
+        return index;
+    }
+
+    private String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (in.hasArray()) {
+            String s = new String(in.array(), in.arrayOffset() + in.position(),
+                    length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+        if (stringBuffer.length < length) {
+            stringBuffer = new byte[length];
+        }
+        in.get(stringBuffer, 0, length);
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a string and returns the previously decoded string of that slot if
+     * the bytes did not change.
+     *
+     * @param in the buffer to read from.
+     * @param slot the string slot.
+     * @return the decoded string.
+     */
+    private String readCachedString(ByteBuffer in, int slot) {
+        int length = in.getShort() & 0xFFFF;
+        if (stringBuffer.length < length) {
+            stringBuffer = new byte[length];
+        }
+        in.get(stringBuffer, 0, length);
+
+        byte[] cached = stringCacheBytes[slot];
+        if (cached != null
+                && Arrays.equals(cached, 0, cached.length, stringBuffer, 0, length)) {
+            return stringCache[slot];
+        }
+        stringCacheBytes[slot] = Arrays.copyOf(stringBuffer, length);
+        stringCache[slot] = new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+        return stringCache[slot];
+    }
+}
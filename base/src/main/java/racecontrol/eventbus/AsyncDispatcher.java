@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.metrics.ExtensionProfiler;
+import racecontrol.metrics.LatencyHistogram;
+import racecontrol.metrics.Metrics;
+
+/**
+ * Delivers events to a single listener on its own worker thread. Events are
+ * buffered in a bounded queue and delivered in the order they were published.
+ * When the queue is full the backpressure policy decides if the publisher has
+ * to wait or if an old event is dropped.
+ *
+ * @author Leonard
+ */
+class AsyncDispatcher
+        implements Runnable {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(AsyncDispatcher.class.getName());
+    /**
+     * The listener to deliver events to.
+     */
+    private final EventListener listener;
+    /**
+     * The event types the listener is interested in.
+     */
+    private final Class<?>[] types;
+    /**
+     * Decides what to do with an event when the queue is full.
+     */
+    private final Function<Event, Backpressure> policy;
+    /**
+     * Maximum number of queued events.
+     */
+    private final int capacity;
+    /**
+     * Queued events.
+     */
+    private final ArrayDeque<Event> queue;
+    /**
+     * Guards the queue.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    /**
+     * Thread the listener is called on.
+     */
+    private final Thread worker;
+    /**
+     * Flag to indicate that the worker should be running.
+     */
+    private volatile boolean running = true;
+    /**
+     * Number of events that have been dropped.
+     */
+    private long dropCount = 0;
+    /**
+     * Time spend in the listener while the profiler is enabled.
+     */
+    private final LatencyHistogram dispatchTime;
+
+    AsyncDispatcher(EventListener listener,
+            int capacity,
+            Function<Event, Backpressure> policy,
+            Class<?>[] types) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be less than 1");
+        }
+        this.listener = listener;
+        this.types = types;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = new ArrayDeque<>(capacity);
+        this.dispatchTime = Metrics.dispatchHistogram(listener);
+        this.worker = new Thread(this, "EventBus " + listener.getClass().getSimpleName());
+        this.worker.setDaemon(true);
+    }
+
+    EventListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns true if the listener is interested in events of this class.
+     *
+     * @param eventClass the event class.
+     * @return true if events of this class are delivered.
+     */
+    boolean accepts(Class<?> eventClass) {
+        for (Class<?> type : types) {
+            if (type.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void start() {
+        worker.start();
+    }
+
+    /**
+     * Stops the worker thread. Events still in the queue are discarded.
+     */
+    void shutdown() {
+        running = false;
+        worker.interrupt();
+        lock.lock();
+        try {
+            queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an event for delivery.
+     *
+     * @param e the event.
+     * @param mayBlock false if the publisher must not wait for the queue. The
+     * event is then queued beyond the capacity instead.
+     */
+    void offer(Event e, boolean mayBlock) {
+        Backpressure backpressure = policy.apply(e);
+        lock.lock();
+        try {
+            while (queue.size() >= capacity) {
+                // Make room by dropping the oldest event that may be dropped.
+                if (dropOldest()) {
+                    break;
+                }
+                // Nothing to drop.
+                if (backpressure == Backpressure.DROP_OLDEST) {
+                    dropped(e);
+                    return;
+                }
+                // Events published by the listener itself cannot wait for the
+                // listener and are always queued.
+                if (!mayBlock || Thread.currentThread() == worker || !running) {
+                    break;
+                }
+                notFull.await();
+            }
+            queue.addLast(e);
+            notEmpty.signal();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOG.warning("Interrupted while waiting to publish " + e.getClass().getSimpleName()
+                    + " to " + listener.getClass().getSimpleName());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest event in the queue that may be dropped.
+     *
+     * @return true if an event was removed.
+     */
+    private boolean dropOldest() {
+        Iterator<Event> iter = queue.iterator();
+        while (iter.hasNext()) {
+            Event queued = iter.next();
+            if (policy.apply(queued) == Backpressure.DROP_OLDEST) {
+                iter.remove();
+                dropped(queued);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dropped(Event e) {
+        dropCount++;
+        if (dropCount % 1000 == 1) {
+            LOG.warning(listener.getClass().getSimpleName()
+                    + " cannot keep up, dropped " + dropCount + " events so far.");
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            Event e;
+            lock.lock();
+            try {
+                while (queue.isEmpty()) {
+                    notEmpty.await();
+                }
+                e = queue.pollFirst();
+                notFull.signal();
+            } catch (InterruptedException ex) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+
+            ExtensionProfiler profiler = ExtensionProfiler.getInstance();
+            if (profiler.isEnabled()) {
+                long allocated = profiler.allocatedBytes();
+                long start = System.nanoTime();
+                dispatch(e);
+                long duration = System.nanoTime() - start;
+                dispatchTime.record(duration);
+                profiler.record(listener, e.getClass(), duration,
+                        profiler.allocatedBytes() - allocated);
+            } else {
+                dispatch(e);
+            }
+        }
+    }
+
+    private void dispatch(Event e) {
+        try {
+            listener.onEvent(e);
+        } catch (RuntimeException ex) {
+            LOG.log(Level.SEVERE, "Error in " + listener.getClass().getSimpleName()
+                    + " while handling " + e.getClass().getSimpleName(), ex);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.eventbus;
+
+/**
+ * Describes what happens when an event is published to an asynchronous
+ * listener whose dispatch queue is full.
+ *
+ * @author Leonard
+ */
+public enum Backpressure {
+    /**
+     * The publishing thread waits until there is space in the queue. Older
+     * events that may be dropped are removed first to make room.
+     */
+    BLOCK,
+    /**
+     * The oldest event in the queue that may be dropped is removed to make
+     * room. If there is no such event the new event is dropped.
+     */
+    DROP_OLDEST
+}
@@ -11,4 +11,15 @@ package racecontrol.eventbus;
  */
 public class Event {
 
+    /**
+     * Returns what should happen when this event is published to an
+     * asynchronous listener that cannot keep up. By default the publisher
+     * waits, events that are superseded by newer ones may be dropped instead.
+     *
+     * @return the backpressure policy for this event.
+     */
+    public Backpressure getBackpressure() {
+        return Backpressure.BLOCK;
+    }
+
 }
@@ -5,8 +5,17 @@
  */
 package racecontrol.eventbus;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import racecontrol.metrics.ExtensionProfiler;
+import racecontrol.metrics.LatencyHistogram;
+import racecontrol.metrics.Metrics;
 
 /**
  *
@@ -14,27 +23,295 @@ import java.util.List;
  */
 public class EventBus {
 
-    private static final List<EventListener> listeners = new LinkedList<>();
+    /**
+     * All subscriptions in the order they were made.
+     */
+    private static final List<Subscription> subscriptions = new ArrayList<>();
+    /**
+     * Subscriptions interested in a given event class. Built lazily from the
+     * list of subscriptions and cleared whenever it changes.
+     */
+    private static final Map<Class<?>, Subscription[]> index = new HashMap<>();
+    /**
+     * Dispatchers for listeners that receive their events asynchronously.
+     */
+    private static final List<AsyncDispatcher> dispatchers = new CopyOnWriteArrayList<>();
+    /**
+     * Asynchronous dispatchers interested in a given event class. Read
+     * without holding the sync object, replaced after the dispatchers change
+     * so a lookup that raced with the change cannot leave a stale entry.
+     */
+    private static volatile Map<Class<?>, AsyncDispatcher[]> asyncIndex = new ConcurrentHashMap<>();
 
     private final static Object syncObject = new Object();
 
+    /**
+     * Registers a listener that receives every event.
+     *
+     * @param listener the listener.
+     */
     public static void register(EventListener listener) {
+        register(listener, Event.class);
+    }
+
+    /**
+     * Registers a listener that only receives events of the given types or
+     * their subtypes.
+     *
+     * @param listener the listener.
+     * @param types the event types the listener is interested in.
+     */
+    @SafeVarargs
+    public static void register(EventListener listener,
+            Class<? extends Event>... types) {
         synchronized (syncObject) {
-            listeners.add(listener);
+            add(new Subscription(copyOf(types), listener::onEvent, listener));
         }
     }
 
-    public static void unregister(EventListener listener) {
+    /**
+     * Subscribes a handler to events of the given type or its subtypes.
+     *
+     * @param <E> the event type.
+     * @param type the event class.
+     * @param handler the handler.
+     */
+    public static <E extends Event> void subscribe(Class<E> type,
+            Consumer<? super E> handler) {
+        synchronized (syncObject) {
+            add(new Subscription(new Class<?>[]{type},
+                    e -> handler.accept(type.cast(e)),
+                    handler));
+        }
+    }
+
+    /**
+     * Removes a handler that was added with subscribe.
+     *
+     * @param handler the handler.
+     */
+    public static void unsubscribe(Consumer<? extends Event> handler) {
+        remove(handler);
+    }
+
+    /**
+     * Registers a listener that receives its events on its own thread. Events
+     * are delivered in the order they were published. When the listener
+     * cannot keep up the backpressure policy of the event is applied.
+     *
+     * @param listener the listener.
+     * @param capacity the number of events that can be queued.
+     */
+    public static void registerAsync(EventListener listener, int capacity) {
+        registerAsync(listener, capacity, Event::getBackpressure, Event.class);
+    }
+
+    /**
+     * Registers a listener that receives events of the given types or their
+     * subtypes on its own thread. Events are delivered in the order they
+     * were published. When the listener cannot keep up the backpressure
+     * policy of the event is applied.
+     *
+     * @param listener the listener.
+     * @param capacity the number of events that can be queued.
+     * @param types the event types the listener is interested in.
+     */
+    @SafeVarargs
+    public static void registerAsync(EventListener listener,
+            int capacity,
+            Class<? extends Event>... types) {
+        registerAsync(listener, capacity, Event::getBackpressure, types);
+    }
+
+    /**
+     * Registers a listener that receives its events on its own thread. Events
+     * are delivered in the order they were published.
+     *
+     * @param listener the listener.
+     * @param capacity the number of events that can be queued.
+     * @param policy decides the backpressure policy for an event.
+     */
+    public static void registerAsync(EventListener listener,
+            int capacity,
+            Function<Event, Backpressure> policy) {
+        registerAsync(listener, capacity, policy, Event.class);
+    }
+
+    /**
+     * Registers a listener that receives events of the given types or their
+     * subtypes on its own thread. Events are delivered in the order they
+     * were published.
+     *
+     * @param listener the listener.
+     * @param capacity the number of events that can be queued.
+     * @param policy decides the backpressure policy for an event.
+     * @param types the event types the listener is interested in.
+     */
+    @SafeVarargs
+    public static void registerAsync(EventListener listener,
+            int capacity,
+            Function<Event, Backpressure> policy,
+            Class<? extends Event>... types) {
+        AsyncDispatcher dispatcher = new AsyncDispatcher(listener, capacity, policy,
+                copyOf(types));
         synchronized (syncObject) {
-            listeners.remove(listener);
+            dispatchers.add(dispatcher);
+            asyncIndex = new ConcurrentHashMap<>();
         }
+        dispatcher.start();
+    }
+
+    public static void unregister(EventListener listener) {
+        remove(listener);
     }
 
     public static void publish(Event e) {
+        // Asynchronous listeners are offered the event before the synchronous
+        // listeners run, so events published from within a synchronous
+        // listener are queued after the event that caused them.
+        // A publish from within a synchronous listener holds the sync object
+        // and must not wait for a full queue. That queue's worker may itself
+        // be waiting for the sync object to publish.
+        boolean mayBlock = !Thread.holdsLock(syncObject);
+        for (AsyncDispatcher dispatcher : lookupAsync(e.getClass())) {
+            dispatcher.offer(e, mayBlock);
+        }
+        // Listeners are only timed while the profiler is enabled so the
+        // default path does not pay for the clock reads.
+        ExtensionProfiler profiler = ExtensionProfiler.getInstance();
+        boolean profile = profiler.isEnabled();
         synchronized (syncObject) {
-            listeners.forEach(listener -> {
-                listener.onEvent(e);
-            });
+            for (Subscription subscription : lookup(e.getClass())) {
+                if (profile) {
+                    dispatchProfiled(subscription, e, profiler);
+                } else {
+                    subscription.handler.accept(e);
+                }
+            }
+        }
+    }
+
+    private static void dispatchProfiled(Subscription subscription, Event e,
+            ExtensionProfiler profiler) {
+        long allocated = profiler.allocatedBytes();
+        long start = System.nanoTime();
+        subscription.handler.accept(e);
+        long duration = System.nanoTime() - start;
+        subscription.dispatchTime.record(duration);
+        profiler.record(subscription.owner, e.getClass(), duration,
+                profiler.allocatedBytes() - allocated);
+    }
+
+    private static void add(Subscription subscription) {
+        subscriptions.add(subscription);
+        index.clear();
+    }
+
+    private static void remove(Object owner) {
+        synchronized (syncObject) {
+            if (subscriptions.removeIf(s -> s.owner == owner)) {
+                index.clear();
+            }
+            for (AsyncDispatcher dispatcher : dispatchers) {
+                if (dispatcher.getListener() == owner) {
+                    dispatchers.remove(dispatcher);
+                    asyncIndex = new ConcurrentHashMap<>();
+                    dispatcher.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the event types element by element, so the generic varargs
+     * array never leaves the method that received it and the caller cannot
+     * change the types after registering.
+     *
+     * @param types the event types.
+     * @return a copy of the types.
+     */
+    @SafeVarargs
+    private static Class<?>[] copyOf(Class<? extends Event>... types) {
+        Class<?>[] copy = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            copy[i] = types[i];
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the subscriptions for an event class in the order they were
+     * made. Has to be called while holding the sync object.
+     *
+     * @param eventClass the event class.
+     * @return the interested subscriptions.
+     */
+    private static Subscription[] lookup(Class<?> eventClass) {
+        Subscription[] result = index.get(eventClass);
+        if (result == null) {
+            result = subscriptions.stream()
+                    .filter(s -> s.accepts(eventClass))
+                    .toArray(Subscription[]::new);
+            index.put(eventClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the asynchronous dispatchers for an event class in the order
+     * they were registered.
+     *
+     * @param eventClass the event class.
+     * @return the interested dispatchers.
+     */
+    private static AsyncDispatcher[] lookupAsync(Class<?> eventClass) {
+        Map<Class<?>, AsyncDispatcher[]> cache = asyncIndex;
+        AsyncDispatcher[] result = cache.get(eventClass);
+        if (result == null) {
+            result = dispatchers.stream()
+                    .filter(d -> d.accepts(eventClass))
+                    .toArray(AsyncDispatcher[]::new);
+            cache.put(eventClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * A handler subscribed to one or more event types.
+     */
+    private static class Subscription {
+
+        /**
+         * The event types the handler is interested in.
+         */
+        private final Class<?>[] types;
+        /**
+         * The handler.
+         */
+        private final Consumer<Event> handler;
+        /**
+         * The object that made the subscription, used to remove it.
+         */
+        private final Object owner;
+        /**
+         * Time spend in the handler while the profiler is enabled.
+         */
+        private final LatencyHistogram dispatchTime;
+
+        Subscription(Class<?>[] types, Consumer<Event> handler, Object owner) {
+            this.types = types;
+            this.handler = handler;
+            this.owner = owner;
+            this.dispatchTime = Metrics.dispatchHistogram(owner);
+        }
+
+        boolean accepts(Class<?> eventClass) {
+            for (Class<?> type : types) {
+                if (type.isAssignableFrom(eventClass)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 }
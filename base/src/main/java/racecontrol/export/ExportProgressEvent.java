@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.export;
+
+import racecontrol.eventbus.Backpressure;
+import racecontrol.eventbus.Event;
+
+/**
+ * Published while an export is running and once when it has finished.
+ *
+ * @author Leonard
+ */
+public class ExportProgressEvent
+        extends Event {
+
+    /**
+     * Name of the export.
+     */
+    private final String name;
+    /**
+     * Completed work units.
+     */
+    private final long completed;
+    /**
+     * Total work units.
+     */
+    private final long total;
+    /**
+     * Indicates that the export has finished.
+     */
+    private final boolean done;
+    /**
+     * Error of the first task that failed. Null if no task failed.
+     */
+    private final Exception error;
+
+    public ExportProgressEvent(String name,
+            long completed,
+            long total,
+            boolean done,
+            Exception error) {
+        this.name = name;
+        this.completed = completed;
+        this.total = total;
+        this.done = done;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the progress between 0 and 1.
+     *
+     * @return the progress.
+     */
+    public float getProgress() {
+        if (total == 0) {
+            return done ? 1 : 0;
+        }
+        return Math.min(1f, completed / (float) total);
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public Backpressure getBackpressure() {
+        // intermediate progress is superseded by the next event.
+        return done ? Backpressure.BLOCK : Backpressure.DROP_OLDEST;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.export;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.eventbus.EventBus;
+
+/**
+ * Runs exports on a pool of worker threads so the UI does not wait for files
+ * to be written. The tasks of an export run in parallel and the combined
+ * progress is published as an ExportProgressEvent.
+ *
+ * @author Leonard
+ */
+public class ExportService {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ExportService.class.getName());
+    /**
+     * Singelton instance.
+     */
+    private static ExportService instance;
+    /**
+     * Minimum time between two progress events in milliseconds.
+     */
+    private static final long PROGRESS_INTERVAL = 100;
+    /**
+     * Number of worker threads.
+     */
+    private static final int WORKER_COUNT
+            = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    /**
+     * Executes the export tasks.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Gets the instance of the export service.
+     *
+     * @return the instance.
+     */
+    public static synchronized ExportService getInstance() {
+        if (instance == null) {
+            instance = new ExportService();
+        }
+        return instance;
+    }
+
+    private ExportService() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(WORKER_COUNT, r -> {
+            Thread thread = new Thread(r, "Export worker " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts an export. Returns immediately, the tasks are run by the worker
+     * threads. A failing task does not stop the other tasks.
+     *
+     * @param name name of the export for progress and log messages.
+     * @param tasks the tasks to run.
+     * @return future that completes when all tasks are done. Completes
+     * exceptionally with the error of the first failing task.
+     */
+    public CompletableFuture<Void> submit(String name, List<ExportTask> tasks) {
+        Export export = new Export(name, tasks);
+        LOG.info("Starting export " + name + " with " + tasks.size() + " files.");
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            ExportTask task = tasks.get(i);
+            futures[i] = CompletableFuture.runAsync(() -> export.run(task), workers);
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture.allOf(futures).whenComplete((v, t) -> {
+            export.finish();
+            if (export.error.get() == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(export.error.get());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * State of a running export.
+     */
+    private static class Export {
+
+        /**
+         * Name of the export.
+         */
+        private final String name;
+        /**
+         * Total work units of all tasks.
+         */
+        private final long total;
+        /**
+         * Completed work units of all tasks.
+         */
+        private final AtomicLong completed = new AtomicLong();
+        /**
+         * Time the last progress event was published.
+         */
+        private final AtomicLong lastPublished = new AtomicLong();
+        /**
+         * Error of the first task that failed.
+         */
+        private final AtomicReference<Exception> error = new AtomicReference<>();
+
+        Export(String name, List<ExportTask> tasks) {
+            this.name = name;
+            this.total = tasks.stream()
+                    .mapToLong(ExportTask::getSize)
+                    .sum();
+        }
+
+        void run(ExportTask task) {
+            long start = System.nanoTime();
+            int[] reported = new int[1];
+            try {
+                task.write(units -> {
+                    reported[0] += units;
+                    advance(units);
+                });
+                LOG.info("Exported " + task.getFile().getAbsolutePath()
+                        + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
+            } catch (Exception e) {
+                LOG.log(Level.SEVERE, "Error exporting " + task.getFile().getAbsolutePath(), e);
+                error.compareAndSet(null, e);
+            }
+            // account for work a task did not report.
+            if (reported[0] < task.getSize()) {
+                advance(task.getSize() - reported[0]);
+            }
+        }
+
+        private void advance(int units) {
+            long done = completed.addAndGet(units);
+            long now = System.currentTimeMillis();
+            long last = lastPublished.get();
+            if (now - last >= PROGRESS_INTERVAL
+                    && lastPublished.compareAndSet(last, now)) {
+                EventBus.publish(new ExportProgressEvent(name, done, total, false, null));
+            }
+        }
+
+        void finish() {
+            EventBus.publish(new ExportProgressEvent(name,
+                    completed.get(),
+                    total,
+                    true,
+                    error.get()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.export;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes one output file of an export. A task only works on the snapshot it
+ * was created with, so it can run on any thread.
+ *
+ * @author Leonard
+ */
+public interface ExportTask {
+
+    /**
+     * Returns the file or directory that is written.
+     *
+     * @return the file.
+     */
+    File getFile();
+
+    /**
+     * Returns the amount of work units the task reports while writing.
+     *
+     * @return the amount of work.
+     */
+    int getSize();
+
+    /**
+     * Writes the output.
+     *
+     * @param progress to report the completed work units to.
+     * @throws IOException if writing fails.
+     */
+    void write(Progress progress) throws IOException;
+
+    /**
+     * Receives the progress of a task.
+     */
+    @FunctionalInterface
+    interface Progress {
+
+        /**
+         * Reports completed work units.
+         *
+         * @param units the amount of units completed since the last call.
+         */
+        void advance(int units);
+    }
+}
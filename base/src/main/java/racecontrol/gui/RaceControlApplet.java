@@ -8,8 +8,6 @@ package racecontrol.gui;
 import java.util.HashMap;
 import racecontrol.gui.hotkey.Hotkeys;
 import racecontrol.client.AccBroadcastingClient;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 import processing.core.PImage;
@@ -34,10 +32,14 @@ public class RaceControlApplet extends CustomPApplet {
      * This classes logger.
      */
     private static final Logger LOG = Logger.getLogger(RaceControlApplet.class.getName());
+    /**
+     * Time in nanoseconds the tasks of one frame may take.
+     */
+    private static final long FRAME_BUDGET = 8_000_000;
     /**
      * Tasks that are to be executed on the animation thread later.
      */
-    private static final List<Runnable> runLater = new LinkedList<>();
+    private static final UpdateScheduler scheduler = new UpdateScheduler(FRAME_BUDGET);
     /**
      * Map of components to their window applet.
      */
@@ -100,12 +102,7 @@ public class RaceControlApplet extends CustomPApplet {
 
         super.draw();
 
-        synchronized (runLater) {
-            for (Runnable task : runLater) {
-                task.run();
-            }
-            runLater.clear();
-        }
+        scheduler.runTasks();
     }
 
     @Override
@@ -139,9 +136,20 @@ public class RaceControlApplet extends CustomPApplet {
      * @param task The task to run.
      */
     public static void runLater(Runnable task) {
-        synchronized (runLater) {
-            runLater.add(task);
-        }
+        scheduler.submit(task);
+    }
+
+    /**
+     * Adds a task to a queue to run after the current UI event loop has been
+     * processed. The task replaces a task with the same key that has not run
+     * yet. Use this for updates that only need their latest version to run,
+     * like refreshing a panel on every realtime update.
+     *
+     * @param key The key, usually the panel or controller that is updated.
+     * @param task The task to run.
+     */
+    public static void runLater(Object key, Runnable task) {
+        scheduler.submit(key, task);
     }
 
     /**
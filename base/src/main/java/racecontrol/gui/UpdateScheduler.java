@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.metrics.Metrics;
+
+/**
+ * Runs tasks submitted from any thread on the animation thread. Tasks that
+ * are submitted with a key replace a task with the same key that has not run
+ * yet, so a panel that is updated on every event is only updated once per
+ * frame. The tasks of a frame run until the frame budget is used up, the
+ * remaining tasks are deferred to the next frame.
+ *
+ * Submitting never blocks. The queue is a lock free linked queue with many
+ * producers and the animation thread as the only consumer.
+ *
+ * @author Leonard
+ */
+public class UpdateScheduler {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(UpdateScheduler.class.getName());
+    /**
+     * Slots waiting to run, in the order they were first submitted.
+     */
+    private final ConcurrentLinkedQueue<Slot> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of slots in the queue.
+     */
+    private final AtomicInteger queueSize = new AtomicInteger();
+    /**
+     * Slot for every key that was used so far.
+     */
+    private final Map<Object, Slot> keyedSlots = new ConcurrentHashMap<>();
+    /**
+     * Time in nanoseconds the tasks of one frame may take.
+     */
+    private final long frameBudget;
+    /**
+     * Number of tasks that were deferred to a later frame.
+     */
+    private long deferredCount = 0;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param frameBudget time in nanoseconds the tasks of one frame may take.
+     */
+    public UpdateScheduler(long frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    /**
+     * Submits a task that is always run.
+     *
+     * @param task the task.
+     */
+    public void submit(Runnable task) {
+        Slot slot = new Slot();
+        slot.task.set(new Task(task));
+        enqueue(slot);
+    }
+
+    /**
+     * Submits a task that replaces a task with the same key that has not run
+     * yet. Keys are kept for the lifetime of the scheduler so they should be
+     * long lived objects like the panel or controller that is updated.
+     *
+     * @param key the key.
+     * @param task the task.
+     */
+    public void submit(Object key, Runnable task) {
+        Slot slot = keyedSlots.get(key);
+        if (slot == null) {
+            slot = keyedSlots.computeIfAbsent(key, k -> new Slot());
+        }
+        // An empty slot is not queued, the first task to fill it queues it.
+        if (slot.task.getAndSet(new Task(task)) == null) {
+            enqueue(slot);
+        }
+    }
+
+    private void enqueue(Slot slot) {
+        queue.offer(slot);
+        queueSize.incrementAndGet();
+    }
+
+    /**
+     * Runs the tasks that were submitted before this call until the frame
+     * budget is used up. At least one task is run every call so tasks are not
+     * deferred forever. Must only be called from the animation thread.
+     */
+    public void runTasks() {
+        long start = System.nanoTime();
+        // Tasks submitted by the tasks themselves wait for the next frame.
+        int count = queueSize.get();
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && System.nanoTime() - start > frameBudget) {
+                deferred(count - i);
+                return;
+            }
+            Slot slot = queue.poll();
+            if (slot == null) {
+                return;
+            }
+            queueSize.decrementAndGet();
+            Task task = slot.task.getAndSet(null);
+            if (task != null) {
+                run(task);
+            }
+        }
+    }
+
+    private void run(Task task) {
+        Metrics.RUN_LATER_WAIT.recordSince(task.submitted);
+        try {
+            task.runnable.run();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "Error in UI task.", e);
+        }
+    }
+
+    private void deferred(int count) {
+        long before = deferredCount;
+        deferredCount += count;
+        if (before / 1000 != deferredCount / 1000) {
+            LOG.info("Frame budget exceeded, deferred " + deferredCount + " UI tasks so far.");
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to run.
+     *
+     * @return the number of tasks.
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * A submitted task.
+     */
+    private static class Task {
+
+        /**
+         * The task to run.
+         */
+        private final Runnable runnable;
+        /**
+         * Time in nanoseconds when the task was submitted.
+         */
+        private final long submitted = System.nanoTime();
+
+        Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * Holds the task to run for one queue entry. A keyed slot is reused for
+     * every task with its key.
+     */
+    private static class Slot {
+
+        /**
+         * The task to run or null if the slot was run already.
+         */
+        private final AtomicReference<Task> task = new AtomicReference<>();
+    }
+}
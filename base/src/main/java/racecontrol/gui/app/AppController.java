@@ -26,6 +26,8 @@ import racecontrol.gui.RaceControlApplet;
 import racecontrol.gui.app.autobroadcast.AutobroadcastController;
 import racecontrol.gui.app.dangerdetection.DangerDetectionController;
 import racecontrol.gui.app.livetiming.LiveTimingController;
+import racecontrol.gui.app.metrics.MetricsPanel;
+import racecontrol.gui.app.metrics.ProfilerPanel;
 import racecontrol.gui.app.test.TestPanel;
 import racecontrol.gui.app.trackdata.TrackDataController;
 import racecontrol.gui.lpui.LPComponent;
@@ -62,7 +64,11 @@ public class AppController
     private final DetachedPlaceholderPanel detachedPlaceholderPanel = new DetachedPlaceholderPanel();
 
     public AppController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                RealtimeUpdateEvent.class,
+                ConnectionOpenedEvent.class,
+                RegistrationResultEvent.class,
+                ConnectionClosedEvent.class);
         StatusPanelManager.getInstance().setTargetPanel(appPanel);
         setupMenu();
     }
@@ -76,6 +82,11 @@ public class AppController
             pageControllers.add(new AutobroadcastController());
         }
         pageControllers.add(new LoggingPanel());
+        if (SHOW_DEBUG
+                || PersistantConfig.get(ENABLE_EXPERIMENTAL_FEATURES)) {
+            pageControllers.add(new MetricsPanel());
+            pageControllers.add(new ProfilerPanel());
+        }
         if (SHOW_DEBUG) {
             pageControllers.add(new TestPanel());
             pageControllers.add(new DangerDetectionController());
@@ -151,7 +162,7 @@ public class AppController
     @Override
     public void onEvent(Event e) {
         if (e instanceof RealtimeUpdateEvent) {
-            RaceControlApplet.runLater(() -> {
+            RaceControlApplet.runLater(appPanel.header, () -> {
                 appPanel.header.invalidate();
             });
         } else if (e instanceof ConnectionOpenedEvent) {
@@ -8,7 +8,8 @@ package racecontrol.gui.app;
 import processing.core.PApplet;
 import racecontrol.client.protocol.SessionId;
 import racecontrol.client.AccBroadcastingClient;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DURATION_SHORT;
 import static racecontrol.gui.LookAndFeel.COLOR_DARK_DARK_GRAY;
 import static racecontrol.gui.LookAndFeel.COLOR_RED;
 import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
@@ -73,7 +74,7 @@ public class HeaderPanel
 
             applet.textFont(fontMedium());
             applet.textSize(TEXT_SIZE);
-            String sessionTimeLeft = TimeUtils.asDurationShort(client.getModel().session.raw.getSessionEndTime());
+            String sessionTimeLeft = FormatCache.format(DURATION_SHORT, client.getModel().session.raw.getSessionEndTime());
             applet.text(sessionTimeLeft,
                     getWidth() - sessionNameWidth - 27,
                     LINE_HEIGHT * 0.5f);
@@ -50,7 +50,9 @@ public class AutobroadcastController
     private final Menu.MenuItem menuItem;
 
     public AutobroadcastController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                AutobroadcastDisabledEvent.class,
+                RealtimeUpdateEvent.class);
 
         menuItem = new Menu.MenuItem("Auto Cam",
                 getApplet().loadResourceAsPImage("/images/RC_Menu_AutoBroadcast.png"));
@@ -84,7 +86,7 @@ public class AutobroadcastController
         if (e instanceof AutobroadcastDisabledEvent) {
             panel.enableCheckBox.setSelected(false);
         } else if (e instanceof RealtimeUpdateEvent) {
-            RaceControlApplet.runLater(() -> {
+            RaceControlApplet.runLater(this, () -> {
                 carRatingModel.setEntriesNew(extension.getCarEntries());
                 cameraRatingModel.setEntriesNew(extension.getCameraRatings());
                 if (panel.sortByRatingCheckBox.isSelected()) {
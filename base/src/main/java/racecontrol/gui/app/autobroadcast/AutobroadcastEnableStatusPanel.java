@@ -31,7 +31,7 @@ public class AutobroadcastEnableStatusPanel
     private final int backgroundColor = LookAndFeel.COLOR_ORANGE;
 
     public AutobroadcastEnableStatusPanel() {
-        EventBus.register(this);
+        EventBus.register(this, AutobroadcastDisabledEvent.class);
         message.setPosition(20, 0);
         addComponent(message);
         message.setBackground(backgroundColor);
@@ -26,7 +26,8 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PitFlagColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PositionColumn;
 import racecontrol.gui.lpui.table.LPTable.RenderContext;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DURATION_SHORT;
 
 /**
  *
@@ -125,7 +126,7 @@ public class CarRatingTableModel
         CarRating entry = (CarRating) context.object;
         applet.textAlign(CENTER, CENTER);
         applet.fill(COLOR_WHITE);
-        applet.text(TimeUtils.asDurationShort(entry.screenTime), context.width / 2, context.height / 2);
+        applet.text(FormatCache.format(DURATION_SHORT, entry.screenTime), context.width / 2, context.height / 2);
     }
 
     private void screenTimeErrorRenderer(PApplet applet, RenderContext context) {
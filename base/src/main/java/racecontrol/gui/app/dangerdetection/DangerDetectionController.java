@@ -12,8 +12,7 @@ import java.util.Map;
 import processing.core.PApplet;
 import processing.core.PVector;
 import racecontrol.client.protocol.RealtimeInfo;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
-import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
 import racecontrol.client.extension.dangerdetection.DangerDetectionExtension;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
@@ -57,7 +56,9 @@ public class DangerDetectionController
     private int focusedCarId = 0;
 
     public DangerDetectionController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                TrackDataEvent.class,
+                RealtimeFrameEvent.class);
         extension = DangerDetectionExtension.getInstance();
         menuItem = new Menu.MenuItem("Danger det.",
                 ((CustomPApplet) getApplet()).loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
@@ -67,22 +68,23 @@ public class DangerDetectionController
     public void onEvent(Event e) {
         if (e instanceof TrackDataEvent) {
             trackData = ((TrackDataEvent) e).getTrackData();
-        } else if (e instanceof RealtimeCarUpdateEvent) {
-            onRealtimeCarUpdate(((RealtimeCarUpdateEvent) e).getInfo());
-        } else if (e instanceof RealtimeUpdateEvent) {
-            focusedCarId = ((RealtimeUpdateEvent) e).getSessionInfo().getFocusedCarIndex();
+        } else if (e instanceof RealtimeFrameEvent) {
+            onRealtimeFrame((RealtimeFrameEvent) e);
         }
     }
 
-    private void onRealtimeCarUpdate(RealtimeInfo info) {
+    private void onRealtimeFrame(RealtimeFrameEvent frame) {
+        focusedCarId = frame.getSessionInfo().getFocusedCarIndex();
         synchronized (carV) {
-            if (!carV.containsKey(info.getCarId())) {
-                carV.put(info.getCarId(), new ArrayList<>());
-            }
-            var list = carV.get(info.getCarId());
-            list.add(info);
-            while (list.size() > 100) {
-                list.remove(0);
+            for (RealtimeInfo info : frame.getCarInfos()) {
+                if (!carV.containsKey(info.getCarId())) {
+                    carV.put(info.getCarId(), new ArrayList<>());
+                }
+                var list = carV.get(info.getCarId());
+                list.add(info);
+                while (list.size() > 100) {
+                    list.remove(0);
+                }
             }
         }
         invalidate();
@@ -35,7 +35,9 @@ public class BroadcastingController
     private final BroadcastingPanel panel;
 
     public BroadcastingController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                TrackInfoEvent.class,
+                RealtimeUpdateEvent.class);
         client = AccBroadcastingClient.getClient();
         this.panel = new BroadcastingPanel(this);
     }
@@ -51,7 +53,7 @@ public class BroadcastingController
                 panel.setCameraSets(((TrackInfoEvent) e).getInfo().getCameraSets());
             });
         } else if (e instanceof RealtimeUpdateEvent) {
-            RaceControlApplet.runLater(() -> {
+            RaceControlApplet.runLater(this, () -> {
                 SessionInfo info = ((RealtimeUpdateEvent) e).getSessionInfo();
                 panel.setActiveCameraSet(info.getActiveCameraSet(), info.getActiveCamera());
                 panel.setActiveHudPage(info.getCurrentHudPage());
@@ -8,7 +8,7 @@ package racecontrol.gui.app.livetiming.timing;
 import java.util.ArrayList;
 import java.util.List;
 import racecontrol.gui.app.livetiming.timing.tablemodels.LiveTimingTableModel;
-import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
 import racecontrol.eventbus.Event;
 import racecontrol.eventbus.EventBus;
 import racecontrol.eventbus.EventListener;
@@ -25,6 +25,7 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.RelativeTableModel;
 import racecontrol.gui.app.livetiming.timing.tablemodels.StatsTableModel;
 import racecontrol.gui.app.livetiming.timing.tablemodels.TestTableModel;
 import racecontrol.gui.lpui.table.LPTable;
+import racecontrol.metrics.Metrics;
 
 /**
  *
@@ -73,9 +74,10 @@ public class LiveTimingTableController
     private int lastTableClickRow = -1;
 
     public LiveTimingTableController() {
-        EventBus.register(this);
+        EventBus.register(this, RealtimeFrameEvent.class);
         client = AccBroadcastingClient.getClient();
         table.setCellClickAction((column, row) -> onCellClickAction(column, row));
+        table.setAnimateRowMoves(true);
 
         useRelative(false);
 
@@ -89,9 +91,11 @@ public class LiveTimingTableController
 
     @Override
     public void onEvent(Event e) {
-        if (e instanceof RealtimeUpdateEvent) {
-            RaceControlApplet.runLater(() -> {
+        if (e instanceof RealtimeFrameEvent) {
+            long receiveTime = ((RealtimeFrameEvent) e).getReceiveTime();
+            RaceControlApplet.runLater(this, () -> {
                 updateTableModel();
+                Metrics.RECEIVE_TO_TABLE.recordSince(receiveTime);
             });
         }
     }
@@ -101,7 +105,7 @@ public class LiveTimingTableController
                 .filter(car -> car.connected)
                 .collect(Collectors.toList()));
         model.sort();
-        table.invalidate();
+        model.publishChanges();
     }
 
     private void onCellClickAction(int column, int row) {
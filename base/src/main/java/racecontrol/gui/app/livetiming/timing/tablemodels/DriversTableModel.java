@@ -21,7 +21,8 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PitFlagColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PositionColumn;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DURATION_SHORT;
 
 /**
  *
@@ -139,7 +140,7 @@ public class DriversTableModel
 
     private void stintTimeRenderer(PApplet applet, LPTable.RenderContext context) {
         Car car = (Car) context.object;
-        String text = TimeUtils.asDurationShort(car.driverStintTime);
+        String text = FormatCache.format(DURATION_SHORT, car.driverStintTime);
         text = text + (car.driverStintTimeAccurate ? "" : "*");
         applet.fill(COLOR_WHITE);
         applet.textAlign(LEFT, CENTER);
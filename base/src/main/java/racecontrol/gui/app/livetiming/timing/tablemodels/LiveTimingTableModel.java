@@ -19,7 +19,9 @@ import static racecontrol.client.protocol.enums.SessionType.RACE;
 import racecontrol.client.model.Car;
 import static racecontrol.gui.LookAndFeel.COLOR_ORANGE;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DELTA;
+import static racecontrol.utility.FormatCache.Format.GAP;
 
 /**
  *
@@ -46,7 +48,7 @@ public abstract class LiveTimingTableModel
         if (getClient().getModel().currentSessionId.getType() == RACE) {
             int gap = car.gapPositionAhead;
             if (car.realtimePosition > 1) {
-                text = TimeUtils.asGap(gap);
+                text = FormatCache.format(GAP, gap);
             }
 
             if (gap < 1000 && gap > 0) {
@@ -55,7 +57,7 @@ public abstract class LiveTimingTableModel
         } else {
             if (car.bestLap.getLapTimeMS() != Integer.MAX_VALUE
                     && car.deltaToSessionBest != 0) {
-                text = TimeUtils.asDelta(car.deltaToSessionBest);
+                text = FormatCache.format(DELTA, car.deltaToSessionBest);
             }
         }
 
@@ -64,12 +66,21 @@ public abstract class LiveTimingTableModel
         applet.text(text, context.width - 20, context.height / 2);
     }
 
+    protected Object gapKey(Object value) {
+        Car car = (Car) value;
+        return List.of(getClient().getModel().currentSessionId.getType(),
+                car.gapPositionAhead,
+                car.realtimePosition,
+                car.bestLap.getLapTimeMS(),
+                car.deltaToSessionBest);
+    }
+
     protected void gapToLeaderRenderer(PApplet applet, LPTable.RenderContext context) {
         Car car = (Car) context.object;
         String text = "--";
         if (getClient().getModel().currentSessionId.getType() == RACE) {
             if (car.gapToLeader != 0) {
-                text = TimeUtils.asGap(car.gapToLeader);
+                text = FormatCache.format(GAP, car.gapToLeader);
             }
         }
         applet.textAlign(RIGHT, CENTER);
@@ -78,11 +89,27 @@ public abstract class LiveTimingTableModel
         applet.text(text, context.width - 20, context.height / 2);
     }
 
+    protected Object gapToLeaderKey(Object value) {
+        Car car = (Car) value;
+        return List.of(getClient().getModel().currentSessionId.getType(),
+                car.gapToLeader);
+    }
+
     @Override
     public int getRowCount() {
         return entries.size();
     }
 
+    @Override
+    public boolean reportsCellChanges() {
+        return true;
+    }
+
+    @Override
+    public Object getRowKey(int row) {
+        return entries.get(row).id;
+    }
+
     @Override
     public int getSelectedRow() {
         for (int i = 0; i < entries.size(); i++) {
@@ -14,7 +14,10 @@ import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_PURPLE;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DELTA;
+import static racecontrol.utility.FormatCache.Format.LAP_TIME;
+import static racecontrol.utility.FormatCache.Format.SECONDS;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import racecontrol.client.model.Car;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.BestLaptime;
@@ -43,7 +46,8 @@ public class QualifyingBestTableModel
             new LPTableColumn("Gap")
             .setMinWidth(90)
             .setPriority(3)
-            .setCellRenderer((applet, context) -> gapRenderer(applet, context)),
+            .setCellRenderer((applet, context) -> gapRenderer(applet, context))
+            .setCellKey(this::gapKey),
             new LPTableColumn("Lap")
             .setMinWidth(100)
             .setPriority(1)
@@ -90,7 +94,7 @@ public class QualifyingBestTableModel
             if (car.currentLap.isInvalid()) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asLapTime(car.currentLap.getLapTimeMS());
+            text = FormatCache.format(LAP_TIME, car.currentLap.getLapTimeMS());
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -105,7 +109,7 @@ public class QualifyingBestTableModel
             if (car.delta > 0) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asDelta(car.delta);
+            text = FormatCache.format(DELTA, car.delta);
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -120,7 +124,7 @@ public class QualifyingBestTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (splitTime == sessionBestSplitTime) {
                 applet.fill(COLOR_PURPLE);
             }
@@ -138,7 +142,7 @@ public class QualifyingBestTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (splitTime == sessionBestSplitTime) {
                 applet.fill(COLOR_PURPLE);
             }
@@ -156,7 +160,7 @@ public class QualifyingBestTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (splitTime == sessionBestSplitTime) {
                 applet.fill(COLOR_PURPLE);
             }
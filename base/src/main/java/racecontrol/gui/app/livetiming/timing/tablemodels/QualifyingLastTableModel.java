@@ -23,7 +23,9 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PitFlagColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PositionColumn;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.LAP_TIME;
+import static racecontrol.utility.FormatCache.Format.SECONDS;
 
 /**
  *
@@ -43,7 +45,8 @@ public class QualifyingLastTableModel
             new LPTableColumn("Gap")
             .setMinWidth(90)
             .setPriority(3)
-            .setCellRenderer((applet, context) -> gapRenderer(applet, context)),
+            .setCellRenderer((applet, context) -> gapRenderer(applet, context))
+            .setCellKey(this::gapKey),
             new LPTableColumn("Lap")
             .setMinWidth(100)
             .setPriority(1)
@@ -90,7 +93,7 @@ public class QualifyingLastTableModel
         }
         String text = "--";
         if (lastLapTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asLapTime(lastLapTime);
+            text = FormatCache.format(LAP_TIME, lastLapTime);
         }
         applet.noStroke();
         applet.textAlign(CENTER, CENTER);
@@ -107,7 +110,7 @@ public class QualifyingLastTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (!car.lastLap.isInvalid()) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
@@ -132,7 +135,7 @@ public class QualifyingLastTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (!car.lastLap.isInvalid()) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
@@ -156,7 +159,7 @@ public class QualifyingLastTableModel
         String text = "--";
         applet.fill(COLOR_WHITE);
         if (splitTime > 0 && splitTime < 999999) {
-            text = TimeUtils.asSeconds(splitTime);
+            text = FormatCache.format(SECONDS, splitTime);
             if (!car.lastLap.isInvalid()) {
                 if (splitTime <= bestSplitTime) {
                     applet.fill(COLOR_RACE);
@@ -39,12 +39,14 @@ public class RaceTableModel
             .setMinWidth(100)
             .setMaxWidth(100)
             .setTextAlign(RIGHT)
-            .setCellRenderer((applet, context) -> gapRenderer(applet, context)),
+            .setCellRenderer((applet, context) -> gapRenderer(applet, context))
+            .setCellKey(this::gapKey),
             new LPTableColumn("To Leader")
             .setMinWidth(100)
             .setMaxWidth(150)
             .setTextAlign(RIGHT)
-            .setCellRenderer((applet, context) -> gapToLeaderRenderer(applet, context)),
+            .setCellRenderer((applet, context) -> gapToLeaderRenderer(applet, context))
+            .setCellKey(this::gapToLeaderKey),
             new CurrentLaptime(),
             new LastLaptime(),
             new BestLaptime(),
@@ -25,7 +25,8 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PitFlagColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PositionColumn;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.GAP;
 
 /**
  *
@@ -110,10 +111,10 @@ public class RelativeTableModel
         String text = "--";
         if (context.rowIndex < getSelectedRow()) {
             gap = car.gapBehind;
-            text = TimeUtils.asGap(gap);
+            text = FormatCache.format(GAP, gap);
         } else if (context.rowIndex > getSelectedRow()) {
             gap = car.gapAhead;
-            text = TimeUtils.asGap(-gap);
+            text = FormatCache.format(GAP, -gap);
         }
 
         applet.fill(COLOR_WHITE);
@@ -135,13 +136,13 @@ public class RelativeTableModel
             for (int i = getSelectedRow() - 1; i >= context.rowIndex; i--) {
                 gap += getEntry(i).gapBehind;
             }
-            text = TimeUtils.asGap(gap);
+            text = FormatCache.format(GAP, gap);
         } else if (context.rowIndex > getSelectedRow()) {
             int gap = 0;
             for (int i = getSelectedRow() + 1; i <= context.rowIndex; i++) {
                 gap += getEntry(i).gapAhead;
             }
-            text = TimeUtils.asGap(-gap);
+            text = FormatCache.format(GAP, -gap);
         }
 
         applet.fill(COLOR_WHITE);
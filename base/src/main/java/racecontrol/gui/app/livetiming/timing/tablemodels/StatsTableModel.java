@@ -24,7 +24,8 @@ import racecontrol.gui.app.livetiming.timing.tablemodels.columns.ConstructorColu
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.NameColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PitFlagColumn;
 import racecontrol.gui.app.livetiming.timing.tablemodels.columns.PositionColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DURATION_SHORT;
 
 /**
  *
@@ -143,7 +144,7 @@ public class StatsTableModel
     private void pitTimeRenderer(PApplet applet, RenderContext context) {
         Car car = (Car) context.object;
         if (car.pitLaneTime > 0) {
-            String text = TimeUtils.asDurationShort(car.pitLaneTime);
+            String text = FormatCache.format(DURATION_SHORT, car.pitLaneTime);
             applet.fill(COLOR_WHITE);
             applet.textAlign(CENTER, CENTER);
             applet.textFont(LookAndFeel.fontRegular());
@@ -154,7 +155,7 @@ public class StatsTableModel
     private void pitTimeStationaryRenderer(PApplet applet, RenderContext context) {
         Car car = (Car) context.object;
         if (car.pitLaneTime > 0) {
-            String text = TimeUtils.asDurationShort(car.pitLaneTimeStationary);
+            String text = FormatCache.format(DURATION_SHORT, car.pitLaneTimeStationary);
             applet.fill(COLOR_WHITE);
             applet.textAlign(CENTER, CENTER);
             applet.textFont(LookAndFeel.fontRegular());
@@ -181,7 +182,7 @@ public class StatsTableModel
 
     private void stintTimeRenderer(PApplet applet, RenderContext context) {
         Car car = (Car) context.object;
-        String text = TimeUtils.asDurationShort(car.driverStintTime);
+        String text = FormatCache.format(DURATION_SHORT, car.driverStintTime);
         text = text + (car.driverStintTimeAccurate ? "" : "*");
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import racecontrol.client.model.Car;
@@ -13,7 +14,8 @@ import static racecontrol.gui.LookAndFeel.COLOR_PURPLE;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.LAP_TIME;
 
 /**
  *
@@ -28,6 +30,12 @@ public class BestLaptime
         setMaxWidth(200);
         setPriority(4);
         setCellRenderer(BestLaptime::bestLapRenderer);
+        setCellKey(BestLaptime::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return List.of(car.bestLap.getLapTimeMS(), car.isSessionBestLaptime);
     }
 
     public static void bestLapRenderer(PApplet applet,
@@ -41,7 +49,7 @@ public class BestLaptime
         String text = "--";
         int bestLapTime = car.bestLap.getLapTimeMS();
         if (bestLapTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asLapTime(bestLapTime);
+            text = FormatCache.format(LAP_TIME, bestLapTime);
         }
         applet.noStroke();
         applet.textAlign(CENTER, CENTER);
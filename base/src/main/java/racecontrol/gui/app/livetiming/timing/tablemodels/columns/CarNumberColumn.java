@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.CLOSE;
@@ -28,6 +29,8 @@ import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.NUMBER;
 
 /**
  *
@@ -42,6 +45,12 @@ public class CarNumberColumn
         setMaxWidth(LINE_HEIGHT * 1.3f);
         setPriority(1000);
         setCellRenderer(this::carNumberRenderer);
+        setCellKey(CarNumberColumn::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return List.of(car.carNumber, car.getDriver().category, car.carModel);
     }
 
     protected void carNumberRenderer(PApplet applet, LPTable.RenderContext context) {
@@ -106,7 +115,7 @@ public class CarNumberColumn
         applet.fill(frontColor);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontMedium());
-        applet.text(String.valueOf(car.carNumber),
+        applet.text(FormatCache.format(NUMBER, car.carNumber),
                 context.width / 2f, context.height / 2f);
     }
 
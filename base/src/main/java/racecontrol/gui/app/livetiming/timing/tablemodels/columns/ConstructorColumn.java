@@ -35,6 +35,12 @@ public class ConstructorColumn
         setMaxWidth(LINE_HEIGHT * 1f);
         setPriority(1000);
         setCellRenderer(this::constructorRenderer);
+        setCellKey(ConstructorColumn::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return car.carModel;
     }
 
     protected void constructorRenderer(PApplet applet, LPTable.RenderContext context) {
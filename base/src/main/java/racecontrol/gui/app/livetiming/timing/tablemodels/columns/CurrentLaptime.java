@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static racecontrol.client.protocol.enums.CarLocation.TRACK;
@@ -13,7 +14,8 @@ import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.LAP_TIME;
 
 /**
  *
@@ -28,6 +30,14 @@ public class CurrentLaptime
         setMaxWidth(200);
         setPriority(4);
         setCellRenderer(CurrentLaptime::currentLapRenderer);
+        setCellKey(CurrentLaptime::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return List.of(car.carLocation == TRACK,
+                car.currentLap.isInvalid(),
+                car.currentLap.getLapTimeMS());
     }
 
     public static void currentLapRenderer(PApplet applet,
@@ -40,7 +50,7 @@ public class CurrentLaptime
             if (car.currentLap.isInvalid()) {
                 applet.fill(LookAndFeel.COLOR_RED);
             }
-            text = TimeUtils.asLapTime(car.currentLap.getLapTimeMS());
+            text = FormatCache.format(LAP_TIME, car.currentLap.getLapTimeMS());
         }
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
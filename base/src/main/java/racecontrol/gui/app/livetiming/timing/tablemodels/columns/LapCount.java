@@ -12,6 +12,8 @@ import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.NUMBER;
 
 /**
  *
@@ -26,12 +28,18 @@ public class LapCount
         setMaxWidth(70);
         setPriority(1);
         setCellRenderer(LapCount::lapCountRenderer);
+        setCellKey(LapCount::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return car.lapCount;
     }
 
     public static void lapCountRenderer(PApplet applet,
             LPTable.RenderContext context) {
         Car car = (Car) context.object;
-        String text = String.valueOf(car.lapCount);
+        String text = FormatCache.format(NUMBER, car.lapCount);
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
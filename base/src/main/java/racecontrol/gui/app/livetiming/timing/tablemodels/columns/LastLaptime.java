@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import racecontrol.client.model.Car;
@@ -15,7 +16,8 @@ import static racecontrol.gui.LookAndFeel.COLOR_RED;
 import static racecontrol.gui.LookAndFeel.COLOR_WHITE;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.LAP_TIME;
 
 /**
  *
@@ -30,6 +32,15 @@ public class LastLaptime
         setMaxWidth(200);
         setPriority(4);
         setCellRenderer(LastLaptime::lastLapRenderer);
+        setCellKey(LastLaptime::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return List.of(car.lastLap.getLapTimeMS(),
+                car.lastLap.isInvalid(),
+                car.bestLap.getLapTimeMS(),
+                car.isSessionBestLaptime);
     }
 
     public static void lastLapRenderer(PApplet applet,
@@ -49,7 +60,7 @@ public class LastLaptime
         }
         String text = "--";
         if (lastLapTime != Integer.MAX_VALUE) {
-            text = TimeUtils.asLapTime(lastLapTime);
+            text = FormatCache.format(LAP_TIME, lastLapTime);
         }
         applet.noStroke();
         applet.textAlign(CENTER, CENTER);
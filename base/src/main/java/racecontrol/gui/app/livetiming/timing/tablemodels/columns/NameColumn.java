@@ -31,6 +31,12 @@ public class NameColumn
         setMinWidth(LINE_HEIGHT * 5f);
         setPriority(1000);
         setCellRenderer(NameColumn::defaultNameRenderer);
+        setCellKey(NameColumn::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return car.getDriver().truncatedName();
     }
 
     public static void defaultNameRenderer(PApplet applet, LPTable.RenderContext context) {
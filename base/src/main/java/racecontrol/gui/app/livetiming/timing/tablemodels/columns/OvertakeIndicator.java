@@ -24,6 +24,12 @@ public class OvertakeIndicator
         setMinWidth(40);
         setMaxWidth(40);
         setCellRenderer(OvertakeIndicator::overtakeRenderer);
+        setCellKey(OvertakeIndicator::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return Integer.signum(car.overtakeIndicator);
     }
 
     public static void overtakeRenderer(PApplet applet,
@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import racecontrol.client.model.Car;
@@ -30,6 +31,15 @@ public class PitFlagColumn
         setMinWidth((int) (LINE_HEIGHT * 0.4f));
         setPriority(1000);
         setCellRenderer(this::pitRenderer);
+        setCellKey(PitFlagColumn::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        if (!(value instanceof Car)) {
+            return value;
+        }
+        Car car = (Car) value;
+        return List.of(car.isCheckeredFlag, car.isInPit(), car.isYellowFlag);
     }
 
     protected void pitRenderer(PApplet applet, LPTable.RenderContext context) {
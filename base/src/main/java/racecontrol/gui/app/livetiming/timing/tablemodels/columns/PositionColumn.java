@@ -5,6 +5,7 @@
  */
 package racecontrol.gui.app.livetiming.timing.tablemodels.columns;
 
+import java.util.List;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import racecontrol.client.model.Car;
@@ -12,6 +13,8 @@ import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.NUMBER;
 
 /**
  *
@@ -26,6 +29,12 @@ public class PositionColumn
         setMaxWidth((int) (LINE_HEIGHT * 1.2f));
         setPriority(1000);
         setCellRenderer(this::positionRenderer);
+        setCellKey(PositionColumn::cellKey);
+    }
+
+    public static Object cellKey(Object value) {
+        Car car = (Car) value;
+        return List.of(car.realtimePosition, car.isSessionBestLaptime, car.isFocused);
     }
 
     protected void positionRenderer(PApplet applet, LPTable.RenderContext context) {
@@ -46,7 +55,7 @@ public class PositionColumn
         applet.fill(fgColor);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontMedium());
-        applet.text(String.valueOf(car.realtimePosition),
+        applet.text(FormatCache.format(NUMBER, car.realtimePosition),
                 context.width / 2f, context.height / 2f);
     }
 
@@ -43,6 +43,11 @@ public class LoggingTableModel extends LPTableModel {
 
     private List<LogMessage> messages = new LinkedList<>();
 
+    @Override
+    public boolean hasImmutableValues() {
+        return true;
+    }
+
     @Override
     public int getRowCount() {
         return messages.size();
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.metrics;
+
+import java.util.stream.Collectors;
+import processing.core.PApplet;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventListener;
+import racecontrol.gui.CustomPApplet;
+import static racecontrol.gui.LookAndFeel.COLOR_DARK_GRAY;
+import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
+import racecontrol.gui.RaceControlApplet;
+import racecontrol.gui.app.Menu;
+import racecontrol.gui.app.Menu.MenuItem;
+import racecontrol.gui.app.PageController;
+import racecontrol.gui.lpui.LPButton;
+import racecontrol.gui.lpui.LPContainer;
+import racecontrol.gui.lpui.table.LPTable;
+import racecontrol.metrics.LatencyHistogram;
+import racecontrol.metrics.Metrics;
+
+/**
+ * Debug page that shows the latency histograms of the hot path.
+ *
+ * @author Leonard
+ */
+public class MetricsPanel
+        extends LPContainer
+        implements EventListener, PageController {
+
+    /**
+     * Interval in ms in which the table is refreshed.
+     */
+    private static final int REFRESH_INTERVAL = 1000;
+    /**
+     * The table that displays the histograms.
+     */
+    private final LPTable table = new LPTable();
+    /**
+     * Table model for the histograms.
+     */
+    private final MetricsTableModel model = new MetricsTableModel();
+    /**
+     * Button to reset all histograms.
+     */
+    private final LPButton resetButton = new LPButton("Reset");
+    /**
+     * Time the table was last refreshed.
+     */
+    private long lastRefresh = 0;
+
+    private final MenuItem menuItem;
+
+    public MetricsPanel() {
+        setName("Metrics");
+        EventBus.register(this, RealtimeUpdateEvent.class);
+
+        table.setTableModel(model);
+        addComponent(table);
+        resetButton.setAction(() -> {
+            Metrics.reset();
+            refresh();
+        });
+        addComponent(resetButton);
+
+        this.menuItem = new MenuItem("Metrics",
+                ((CustomPApplet) getApplet()).loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
+    }
+
+    @Override
+    public void draw(PApplet applet) {
+        applet.fill(COLOR_DARK_GRAY);
+        applet.rect(0, 0, getWidth(), getHeight());
+    }
+
+    @Override
+    public void onResize(float w, float h) {
+        resetButton.setPosition(10, 10);
+        resetButton.setSize(100, LINE_HEIGHT);
+        table.setPosition(10, LINE_HEIGHT + 20);
+        table.setSize(w - 20, h - LINE_HEIGHT - 30);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof RealtimeUpdateEvent) {
+            long now = System.currentTimeMillis();
+            if (now - lastRefresh > REFRESH_INTERVAL) {
+                lastRefresh = now;
+                RaceControlApplet.runLater(this, this::refresh);
+            }
+        }
+    }
+
+    private void refresh() {
+        model.setSnapshots(Metrics.getHistograms().stream()
+                .map(LatencyHistogram::snapshot)
+                .collect(Collectors.toList()));
+        table.invalidate();
+    }
+
+    @Override
+    public LPContainer getPanel() {
+        return this;
+    }
+
+    @Override
+    public Menu.MenuItem getMenuItem() {
+        return menuItem;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import static processing.core.PConstants.LEFT;
+import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.gui.lpui.table.LPTableModel;
+import racecontrol.metrics.LatencyHistogram;
+import static racecontrol.metrics.Metrics.formatNanos;
+
+/**
+ * Table model that shows the latency histograms.
+ *
+ * @author Leonard
+ */
+public class MetricsTableModel
+        extends LPTableModel {
+
+    /**
+     * Snapshots of the histograms to show.
+     */
+    private List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+
+    @Override
+    public boolean hasImmutableValues() {
+        return true;
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshots.size();
+    }
+
+    @Override
+    public LPTableColumn[] getColumns() {
+        return new LPTableColumn[]{
+            new LPTableColumn("Name")
+            .setMinWidth(250)
+            .setTextAlign(LEFT),
+            new LPTableColumn("Count"),
+            new LPTableColumn("Mean"),
+            new LPTableColumn("p50"),
+            new LPTableColumn("p90"),
+            new LPTableColumn("p99"),
+            new LPTableColumn("p99.9"),
+            new LPTableColumn("Max"),
+            new LPTableColumn("Total")
+        };
+    }
+
+    @Override
+    public Object getValueAt(int column, int row) {
+        LatencyHistogram.Snapshot snapshot = snapshots.get(row);
+        switch (column) {
+            case 0:
+                return snapshot.getName();
+            case 1:
+                return String.valueOf(snapshot.getCount());
+            case 2:
+                return formatNanos(snapshot.getMean());
+            case 3:
+                return formatNanos(snapshot.getPercentile(50));
+            case 4:
+                return formatNanos(snapshot.getPercentile(90));
+            case 5:
+                return formatNanos(snapshot.getPercentile(99));
+            case 6:
+                return formatNanos(snapshot.getPercentile(99.9));
+            case 7:
+                return formatNanos(snapshot.getMax());
+            case 8:
+                return formatNanos(snapshot.getTotal());
+        }
+        return "-";
+    }
+
+    public void setSnapshots(List<LatencyHistogram.Snapshot> snapshots) {
+        this.snapshots = snapshots;
+    }
+
+}
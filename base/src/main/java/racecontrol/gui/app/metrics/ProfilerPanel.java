@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.metrics;
+
+import processing.core.PApplet;
+import racecontrol.client.events.RealtimeUpdateEvent;
+import racecontrol.eventbus.Event;
+import racecontrol.eventbus.EventBus;
+import racecontrol.eventbus.EventListener;
+import racecontrol.gui.CustomPApplet;
+import static racecontrol.gui.LookAndFeel.COLOR_DARK_GRAY;
+import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
+import racecontrol.gui.RaceControlApplet;
+import racecontrol.gui.app.Menu;
+import racecontrol.gui.app.Menu.MenuItem;
+import racecontrol.gui.app.PageController;
+import racecontrol.gui.lpui.LPButton;
+import racecontrol.gui.lpui.LPCheckBox;
+import racecontrol.gui.lpui.LPContainer;
+import racecontrol.gui.lpui.LPLabel;
+import racecontrol.gui.lpui.table.LPTable;
+import racecontrol.metrics.ExtensionProfiler;
+
+/**
+ * Debug page that shows the time and memory the client extensions spend on
+ * each event type.
+ *
+ * @author Leonard
+ */
+public class ProfilerPanel
+        extends LPContainer
+        implements EventListener, PageController {
+
+    /**
+     * Interval in ms in which the table is refreshed.
+     */
+    private static final int REFRESH_INTERVAL = 1000;
+    /**
+     * The profiler.
+     */
+    private final ExtensionProfiler profiler = ExtensionProfiler.getInstance();
+    /**
+     * The table that displays the statistics.
+     */
+    private final LPTable table = new LPTable();
+    /**
+     * Table model for the statistics.
+     */
+    private final ProfilerTableModel model = new ProfilerTableModel();
+    /**
+     * Enables the profiler.
+     */
+    private final LPCheckBox enableCheckBox = new LPCheckBox();
+    private final LPLabel enableLabel = new LPLabel("Profile extensions");
+    /**
+     * Button to reset the statistics.
+     */
+    private final LPButton resetButton = new LPButton("Reset");
+    /**
+     * Time the table was last refreshed.
+     */
+    private long lastRefresh = 0;
+
+    private final MenuItem menuItem;
+
+    public ProfilerPanel() {
+        setName("Profiler");
+        EventBus.register(this, RealtimeUpdateEvent.class);
+
+        table.setTableModel(model);
+        table.setClickableHeader(true);
+        addComponent(table);
+
+        enableCheckBox.setSize(LINE_HEIGHT, LINE_HEIGHT);
+        enableCheckBox.setSelected(profiler.isEnabled());
+        enableCheckBox.setChangeAction(profiler::setEnabled);
+        addComponent(enableCheckBox);
+        if (!profiler.isAllocationSupported()) {
+            enableLabel.setText("Profile extensions (allocations not supported)");
+        }
+        addComponent(enableLabel);
+
+        resetButton.setAction(() -> {
+            profiler.reset();
+            refresh();
+        });
+        addComponent(resetButton);
+
+        this.menuItem = new MenuItem("Profiler",
+                ((CustomPApplet) getApplet()).loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
+    }
+
+    @Override
+    public void draw(PApplet applet) {
+        applet.fill(COLOR_DARK_GRAY);
+        applet.rect(0, 0, getWidth(), getHeight());
+    }
+
+    @Override
+    public void onResize(float w, float h) {
+        resetButton.setPosition(10, 10);
+        resetButton.setSize(100, LINE_HEIGHT);
+        enableCheckBox.setPosition(130, 10);
+        enableLabel.setPosition(140 + LINE_HEIGHT, 10);
+        enableLabel.setSize(500, LINE_HEIGHT);
+        table.setPosition(10, LINE_HEIGHT + 20);
+        table.setSize(w - 20, h - LINE_HEIGHT - 30);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e instanceof RealtimeUpdateEvent) {
+            long now = System.currentTimeMillis();
+            if (profiler.isEnabled() && now - lastRefresh > REFRESH_INTERVAL) {
+                lastRefresh = now;
+                RaceControlApplet.runLater(this, this::refresh);
+            }
+        }
+    }
+
+    private void refresh() {
+        model.setStats(profiler.getStats());
+        table.invalidate();
+    }
+
+    @Override
+    public LPContainer getPanel() {
+        return this;
+    }
+
+    @Override
+    public Menu.MenuItem getMenuItem() {
+        return menuItem;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.app.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import static processing.core.PConstants.LEFT;
+import racecontrol.gui.lpui.table.LPTableColumn;
+import racecontrol.gui.lpui.table.LPTableModel;
+import racecontrol.metrics.ExtensionProfiler.Stats;
+import static racecontrol.metrics.Metrics.formatNanos;
+
+/**
+ * Table model that shows the cost of the client extensions. Clicking a column
+ * header sorts by that column, clicking it again reverses the order.
+ *
+ * @author Leonard
+ */
+public class ProfilerTableModel
+        extends LPTableModel {
+
+    /**
+     * Comparators for each column.
+     */
+    private static final List<Comparator<Stats>> COMPARATORS = List.of(
+            Comparator.comparing(Stats::getExtensionName),
+            Comparator.comparing(Stats::getEventName),
+            Comparator.comparingLong(Stats::getCount),
+            Comparator.comparingLong(Stats::getNanos),
+            Comparator.comparingLong(ProfilerTableModel::meanNanos),
+            Comparator.comparingLong(Stats::getBytes),
+            Comparator.comparingLong(ProfilerTableModel::meanBytes)
+    );
+    /**
+     * Statistics to show.
+     */
+    private List<Stats> stats = new ArrayList<>();
+    /**
+     * Column to sort by.
+     */
+    private int sortColumn = 3;
+    /**
+     * Sort in descending order.
+     */
+    private boolean descending = true;
+
+    @Override
+    public boolean hasImmutableValues() {
+        return true;
+    }
+
+    @Override
+    public int getRowCount() {
+        return stats.size();
+    }
+
+    @Override
+    public LPTableColumn[] getColumns() {
+        return new LPTableColumn[]{
+            new LPTableColumn("Extension")
+            .setMinWidth(250)
+            .setTextAlign(LEFT),
+            new LPTableColumn("Event")
+            .setMinWidth(250)
+            .setTextAlign(LEFT),
+            new LPTableColumn("Calls"),
+            new LPTableColumn("Time"),
+            new LPTableColumn("Time/call"),
+            new LPTableColumn("Allocated"),
+            new LPTableColumn("Alloc/call")
+        };
+    }
+
+    @Override
+    public Object getValueAt(int column, int row) {
+        Stats s = stats.get(row);
+        switch (column) {
+            case 0:
+                return s.getExtensionName();
+            case 1:
+                return s.getEventName();
+            case 2:
+                return String.valueOf(s.getCount());
+            case 3:
+                return formatNanos(s.getNanos());
+            case 4:
+                return formatNanos(meanNanos(s));
+            case 5:
+                return formatBytes(s.getBytes());
+            case 6:
+                return formatBytes(meanBytes(s));
+        }
+        return "-";
+    }
+
+    @Override
+    public void onHeaderClicked(int column) {
+        if (column < 0 || column >= COMPARATORS.size()) {
+            return;
+        }
+        if (column == sortColumn) {
+            descending = !descending;
+        } else {
+            sortColumn = column;
+            // Names read best ascending, costs descending.
+            descending = column > 1;
+        }
+        sort();
+    }
+
+    public void setStats(List<Stats> stats) {
+        this.stats = stats;
+        sort();
+    }
+
+    private void sort() {
+        Comparator<Stats> comparator = COMPARATORS.get(sortColumn);
+        stats.sort(descending ? comparator.reversed() : comparator);
+    }
+
+    private static long meanNanos(Stats s) {
+        return s.getCount() == 0 ? 0 : s.getNanos() / s.getCount();
+    }
+
+    private static long meanBytes(Stats s) {
+        return s.getCount() == 0 ? 0 : s.getBytes() / s.getCount();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 10 * 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 10 * 1024 * 1024) {
+            return (bytes / 1024) + "KB";
+        }
+        return (bytes / (1024 * 1024)) + "MB";
+    }
+
+}
@@ -30,6 +30,7 @@ import racecontrol.gui.app.Menu.MenuItem;
 import racecontrol.gui.app.PageController;
 import racecontrol.gui.app.racecontrol.contact.ContactConfigController;
 import racecontrol.gui.app.racecontrol.googlesheetsapi.GoogleSheetsController;
+import racecontrol.export.ExportProgressEvent;
 import racecontrol.logging.UILogger;
 
 /**
@@ -56,7 +57,12 @@ public class RaceControlController
     public RaceControlController() {
         menuItem = new MenuItem("Race Control",
                 getApplet().loadResourceAsPImage("/images/RC_Menu_Control.png"));
-        EventBus.register(this);
+        EventBus.register(this,
+                ReplayStartRequiresSearchEvent.class,
+                ReplayStartKnownEvent.class,
+                SessionChangedEvent.class,
+                RaceEventEvent.class,
+                ExportProgressEvent.class);
 
         tableModel.setInfoColumnAction(infoClickAction);
         tableModel.setReplayClickAction((RaceEventEntry entry, int mouseX, int mouseY) -> replayClickAction(entry));
@@ -103,6 +109,24 @@ public class RaceControlController
             });
         } else if (e instanceof RaceEventEvent) {
             tableModel.addEntry(((RaceEventEvent) e).getEntry());
+        } else if (e instanceof ExportProgressEvent) {
+            RaceControlApplet.runLater(() -> {
+                onExportProgress((ExportProgressEvent) e);
+            });
+        }
+    }
+
+    private void onExportProgress(ExportProgressEvent e) {
+        if (!e.isDone()) {
+            panel.exportButton.setText(String.format("Exporting %d%%",
+                    (int) (e.getProgress() * 100)));
+            return;
+        }
+        panel.exportButton.setText("Export event list");
+        if (e.isFailed()) {
+            UILogger.log("Export of " + e.getName() + " failed: " + e.getError().getMessage());
+        } else {
+            UILogger.log("Export of " + e.getName() + " finished.");
         }
     }
 
@@ -21,7 +21,8 @@ import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.lpui.table.LPTable.RenderContext;
 import racecontrol.gui.lpui.table.LPTableColumn;
 import racecontrol.gui.lpui.table.LPTableModel;
-import racecontrol.utility.TimeUtils;
+import racecontrol.utility.FormatCache;
+import static racecontrol.utility.FormatCache.Format.DURATION;
 
 /**
  *
@@ -123,7 +124,7 @@ public class RaceEventTableModel
             PApplet applet,
             RenderContext context) -> {
         RaceEventEntry entry = (RaceEventEntry) context.object;
-        String time = TimeUtils.asDuration(entry.getSessionTime());
+        String time = FormatCache.format(DURATION, entry.getSessionTime());
         applet.fill(COLOR_WHITE);
         applet.textAlign(CENTER, CENTER);
         applet.textFont(LookAndFeel.fontRegular());
@@ -180,7 +181,7 @@ public class RaceEventTableModel
             if (entry.getReplayTime() == -1) {
                 return;
             }
-            String time = TimeUtils.asDuration(entry.getReplayTime());
+            String time = FormatCache.format(DURATION, entry.getReplayTime());
             applet.fill(COLOR_WHITE);
             applet.textAlign(CENTER, CENTER);
             applet.textFont(LookAndFeel.fontRegular());
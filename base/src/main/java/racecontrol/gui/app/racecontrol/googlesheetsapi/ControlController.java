@@ -31,7 +31,10 @@ public class ControlController
     private final ControlPanel panel;
 
     public ControlController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                GoogleSheetsConnectedEvent.class,
+                GoogleSheetsDisconnetedEvent.class,
+                GoogleSheetsTargetChangedEvent.class);
         GOOGLE_SHEETS = GoogleSheetsAPIExtension.getInstance();
         panel = new ControlPanel();
 
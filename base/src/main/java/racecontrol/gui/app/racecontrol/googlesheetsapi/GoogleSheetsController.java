@@ -34,7 +34,9 @@ public class GoogleSheetsController
     private final ControlController controlController;
 
     public GoogleSheetsController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                GoogleSheetsConnectedEvent.class,
+                GoogleSheetsDisconnetedEvent.class);
         configController = new ConfigurationController();
         controlController = new ControlController();
 
@@ -39,7 +39,9 @@ public class SignInWithGooglePanel
     private boolean connected = false;
 
     public SignInWithGooglePanel() {
-        EventBus.register(this);
+        EventBus.register(this,
+                GoogleSheetsConnectedEvent.class,
+                GoogleSheetsDisconnetedEvent.class);
 
         logo = RaceControlApplet.getApplet()
                 .loadResourceAsPImage("/images/ACC-RaceControl-Logo_dark.png");
@@ -41,7 +41,10 @@ public class VirtualSafetyCarConfigController
     private final VSCStatusPanel statusPanel;
 
     public VirtualSafetyCarConfigController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                VSCStartEvent.class,
+                VSCEndEvent.class,
+                AfterPacketReceivedEvent.class);
         statusPanelManager = StatusPanelManager.getInstance();
         vscController = VirtualSafetyCarExtension.getInstance();
         statusPanel = new VSCStatusPanel();
@@ -13,9 +13,12 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import racecontrol.client.AccBroadcastingClient;
 import racecontrol.client.AccConnection;
+import racecontrol.client.capture.CaptureFile;
 import racecontrol.client.events.ConnectionClosedEvent;
 import racecontrol.client.events.ConnectionOpenedEvent;
 import racecontrol.eventbus.Event;
@@ -52,10 +55,13 @@ public class ConnectionController
     private final AccBroadcastingClient client;
 
     public ConnectionController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                ConnectionOpenedEvent.class,
+                ConnectionClosedEvent.class);
         client = AccBroadcastingClient.getClient();
 
         panel.connectButton.setAction(this::connectButtonPressed);
+        panel.replayButton.setAction(this::replayButtonPressed);
     }
 
     public LPContainer getPanel() {
@@ -148,6 +154,43 @@ public class ConnectionController
         //client.sendRegisterRequest();
     }
 
+    private void replayButtonPressed() {
+        JFileChooser fileChooser = new JFileChooser();
+        File captureDir = new File("capture");
+        fileChooser.setCurrentDirectory(captureDir.isDirectory()
+                ? captureDir
+                : new File(System.getProperty("user.dir")));
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Packet capture",
+                CaptureFile.EXTENSION.substring(1)));
+        if (fileChooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        String input = JOptionPane.showInputDialog(null,
+                "Playback speed (1 = real time, 0 = as fast as possible):",
+                "1");
+        if (input == null) {
+            return;
+        }
+        double speed;
+        try {
+            speed = Double.valueOf(input);
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(null, input + " is not a valid speed.");
+            return;
+        }
+
+        try {
+            client.replay(fileChooser.getSelectedFile(), speed);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Error opening the capture file.", e);
+            JOptionPane.showMessageDialog(null,
+                    "Cannot open capture file.",
+                    "Error replaying capture",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     @Override
     public void onEvent(Event e) {
         if (e instanceof ConnectionOpenedEvent) {
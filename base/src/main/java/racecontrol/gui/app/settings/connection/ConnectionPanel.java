@@ -7,6 +7,7 @@ package racecontrol.gui.app.settings.connection;
 
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
+import racecontrol.client.AccTransport;
 import racecontrol.gui.LookAndFeel;
 import static racecontrol.gui.LookAndFeel.COLOR_DARK_GRAY;
 import static racecontrol.gui.LookAndFeel.LINE_HEIGHT;
@@ -17,10 +18,12 @@ import racecontrol.gui.lpui.LPContainer;
 import racecontrol.gui.lpui.LPLabel;
 import racecontrol.gui.lpui.LPTextField;
 import racecontrol.persistance.PersistantConfig;
+import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_CAPTURE;
 import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_COMMAND_PW;
 import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_IP;
 import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_PASSWORD;
 import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_PORT;
+import static racecontrol.persistance.PersistantConfigKeys.CONNECTION_TRANSPORT;
 import static racecontrol.persistance.PersistantConfigKeys.USE_AUTO_CONNECT_SETTINGS;
 
 /**
@@ -43,7 +46,12 @@ public class ConnectionPanel
     protected final LPTextField commandPWTextField = new LPTextField();
     protected final LPCheckBox autoDetectSettingsCheckBox = new LPCheckBox();
     private final LPLabel autoDetectSettingsLabel = new LPLabel("Auto detect connection settings");
+    protected final LPCheckBox channelTransportCheckBox = new LPCheckBox();
+    private final LPLabel channelTransportLabel = new LPLabel("Use NIO channel transport");
+    protected final LPCheckBox captureCheckBox = new LPCheckBox();
+    private final LPLabel captureLabel = new LPLabel("Capture packets to file");
     protected final LPButton connectButton = new LPButton("Connect");
+    protected final LPButton replayButton = new LPButton("Replay capture");
 
     protected boolean autoDetectSettings = false;
 
@@ -83,10 +91,25 @@ public class ConnectionPanel
         autoDetectSettingsCheckBox.setChangeAction(this::autoDetectSettingsFlipped);
         addComponent(autoDetectSettingsCheckBox);
 
+        addComponent(channelTransportLabel);
+        channelTransportCheckBox.setSize(LINE_HEIGHT, LINE_HEIGHT);
+        channelTransportCheckBox.setSelected(PersistantConfig.get(CONNECTION_TRANSPORT) == AccTransport.Type.CHANNEL);
+        channelTransportCheckBox.setChangeAction(this::channelTransportFlipped);
+        addComponent(channelTransportCheckBox);
+
+        addComponent(captureLabel);
+        captureCheckBox.setSize(LINE_HEIGHT, LINE_HEIGHT);
+        captureCheckBox.setSelected(PersistantConfig.get(CONNECTION_CAPTURE));
+        captureCheckBox.setChangeAction(state -> PersistantConfig.put(CONNECTION_CAPTURE, state));
+        addComponent(captureCheckBox);
+
         connectButton.setSize(380, LookAndFeel.LINE_HEIGHT);
         addComponent(connectButton);
 
-        setSize(400, LINE_HEIGHT * 1.2f * 7);
+        replayButton.setSize(380, LookAndFeel.LINE_HEIGHT);
+        addComponent(replayButton);
+
+        setSize(400, LINE_HEIGHT * 1.2f * 10);
         setDisconnected();
     }
 
@@ -117,7 +140,16 @@ public class ConnectionPanel
         autoDetectSettingsCheckBox.setPosition(400 - lh,
                 lh * 5f + (LINE_HEIGHT - TEXT_SIZE) / 2f);
 
-        connectButton.setPosition(20, lh * 6);
+        channelTransportLabel.setPosition(20, lh * 6f);
+        channelTransportCheckBox.setPosition(400 - lh,
+                lh * 6f + (LINE_HEIGHT - TEXT_SIZE) / 2f);
+
+        captureLabel.setPosition(20, lh * 7f);
+        captureCheckBox.setPosition(400 - lh,
+                lh * 7f + (LINE_HEIGHT - TEXT_SIZE) / 2f);
+
+        connectButton.setPosition(20, lh * 8);
+        replayButton.setPosition(20, lh * 9);
     }
 
     /**
@@ -135,6 +167,11 @@ public class ConnectionPanel
         commandPWLabel.setEnabled(false);
         autoDetectSettingsCheckBox.setEnabled(false);
         autoDetectSettingsLabel.setEnabled(false);
+        channelTransportCheckBox.setEnabled(false);
+        channelTransportLabel.setEnabled(false);
+        captureCheckBox.setEnabled(false);
+        captureLabel.setEnabled(false);
+        replayButton.setEnabled(false);
         connectButton.setText("Disconnect");
     }
 
@@ -153,6 +190,11 @@ public class ConnectionPanel
         commandPWLabel.setEnabled(!autoDetectSettings);
         autoDetectSettingsCheckBox.setEnabled(true);
         autoDetectSettingsLabel.setEnabled(true);
+        channelTransportCheckBox.setEnabled(true);
+        channelTransportLabel.setEnabled(true);
+        captureCheckBox.setEnabled(true);
+        captureLabel.setEnabled(true);
+        replayButton.setEnabled(true);
         connectButton.setText("Connect");
     }
 
@@ -162,4 +204,10 @@ public class ConnectionPanel
         setDisconnected();
     }
 
+    public void channelTransportFlipped(boolean state) {
+        PersistantConfig.put(CONNECTION_TRANSPORT, state
+                ? AccTransport.Type.CHANNEL
+                : AccTransport.Type.SOCKET);
+    }
+
 }
@@ -31,7 +31,7 @@ public class ReplayPlayingStatusPanel
     private final AccBroadcastingClient client;
 
     public ReplayPlayingStatusPanel() {
-        EventBus.register(this);
+        EventBus.register(this, AfterPacketReceivedEvent.class);
         client = AccBroadcastingClient.getClient();
     }
 
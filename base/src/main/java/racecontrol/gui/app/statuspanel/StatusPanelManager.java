@@ -57,7 +57,11 @@ public class StatusPanelManager
     }
 
     private StatusPanelManager() {
-        EventBus.register(this);
+        EventBus.register(this,
+                ReplayOffsetSearchStartedEvent.class,
+                ReplayStartKnownEvent.class,
+                ReplayStartedEvent.class,
+                ReplayEndedEvent.class);
         replayOffsetSearchStatusPanel = new ReplayOffsetSearchStatusPanel();
         replayPlayingStatusPanel = new ReplayPlayingStatusPanel();
     }
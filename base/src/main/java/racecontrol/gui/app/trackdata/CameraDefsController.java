@@ -34,7 +34,9 @@ public class CameraDefsController
     private int currentFocusedCar = 0;
 
     public CameraDefsController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                RealtimeUpdateEvent.class,
+                TrackInfoEvent.class);
 
         camChanges.put("set1", new HashMap<>());
         camChanges.put("set2", new HashMap<>());
@@ -7,13 +7,15 @@ package racecontrol.gui.app.trackdata;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import processing.core.PVector;
 import racecontrol.client.protocol.RealtimeInfo;
 import static racecontrol.client.protocol.enums.CarLocation.TRACK;
 import static racecontrol.client.protocol.enums.LapType.REGULAR;
-import racecontrol.client.events.RealtimeCarUpdateEvent;
+import racecontrol.client.events.RealtimeFrameEvent;
 import racecontrol.client.extension.trackdata.TrackData;
 import racecontrol.client.extension.trackdata.TrackDataEvent;
 import racecontrol.client.extension.trackdata.TrackDataExtension;
@@ -35,6 +37,10 @@ public class TrackDataController
         implements EventListener, PageController {
 
     private static final Logger LOG = Logger.getLogger(TrackDataController.class.getName());
+    /**
+     * Number of frames that are kept while the UI does not process them.
+     */
+    private static final int MAX_PENDING_FRAMES = 256;
 
     private final TrackDataPanel dataPanel;
     private final TrackMapPanel mapPanel;
@@ -52,6 +58,12 @@ public class TrackDataController
 
     private final List<Float> dirMap = new ArrayList<>();
     private final List<List<Float>> dirMapTotal = new ArrayList<>();
+    /**
+     * Frames received since the maps were last updated. When the UI stalls
+     * the oldest frames are dropped, the maps are medians over many laps so
+     * a gap does not change them.
+     */
+    private final Queue<RealtimeFrameEvent> frames = new ArrayBlockingQueue<>(MAX_PENDING_FRAMES);
 
     /**
      * Menu item for the page menu.
@@ -59,7 +71,9 @@ public class TrackDataController
     private final Menu.MenuItem menuItem;
 
     public TrackDataController() {
-        EventBus.register(this);
+        EventBus.register(this,
+                TrackDataEvent.class,
+                RealtimeFrameEvent.class);
         menuItem = new Menu.MenuItem("Track data",
                 getApplet().loadResourceAsPImage("/images/RC_Menu_Debugging.png"));
 
@@ -103,15 +117,25 @@ public class TrackDataController
                 mapPanel.trackData = ((TrackDataEvent) e).getTrackData();
                 dataPanel.speedTrapLine = ((TrackDataEvent) e).getTrackData().getSpeedTrapLine();
             });
-        } else if (e instanceof RealtimeCarUpdateEvent) {
-            RaceControlApplet.runLater(() -> {
-                updateVMap(((RealtimeCarUpdateEvent) e).getInfo());
-                updateDirMap(((RealtimeCarUpdateEvent) e).getInfo());
-                dataPanel.drawCarState(((RealtimeCarUpdateEvent) e).getInfo());
-                dataPanel.invalidate();
-                //mapPanel.invalidate();
-            });
+        } else if (e instanceof RealtimeFrameEvent) {
+            while (!frames.offer((RealtimeFrameEvent) e)) {
+                frames.poll();
+            }
+            RaceControlApplet.runLater(this, this::processFrames);
+        }
+    }
+
+    private void processFrames() {
+        RealtimeFrameEvent frame;
+        while ((frame = frames.poll()) != null) {
+            for (RealtimeInfo info : frame.getCarInfos()) {
+                updateVMap(info);
+                updateDirMap(info);
+                dataPanel.drawCarState(info);
+            }
         }
+        dataPanel.invalidate();
+        //mapPanel.invalidate();
     }
 
     private void onTrackData() {
@@ -200,12 +224,13 @@ public class TrackDataController
 
         List<Float> newVMap = oldData.getGt3VelocityMap();
         if (dataPanel.enableVMapCheckBox.isSelected()) {
-            newVMap = vMap;
+            // copy, the live map keeps changing while the data is written.
+            newVMap = new ArrayList<>(vMap);
         }
 
         List<Float> newDMap = oldData.getDirectionMap();
         if (dataPanel.enableDMapCheckBox.isSelected()) {
-            newDMap = dirMap;
+            newDMap = new ArrayList<>(dirMap);
         }
 
         TrackData newData = new TrackData(oldData.getTrackname(),
@@ -235,12 +260,13 @@ public class TrackDataController
 
         List<Float> newVMap = oldData.getGt3VelocityMap();
         if (dataPanel.enableVMapCheckBox.isSelected()) {
-            newVMap = vMap;
+            // copy, the live map keeps changing while the data is written.
+            newVMap = new ArrayList<>(vMap);
         }
 
         List<Float> newDMap = oldData.getDirectionMap();
         if (dataPanel.enableDMapCheckBox.isSelected()) {
-            newDMap = dirMap;
+            newDMap = new ArrayList<>(dirMap);
         }
 
         TrackData newData = new TrackData(oldData.getTrackname(),
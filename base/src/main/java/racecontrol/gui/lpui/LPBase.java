@@ -8,6 +8,7 @@ package racecontrol.gui.lpui;
 import processing.core.PApplet;
 import processing.event.KeyEvent;
 import processing.event.MouseEvent;
+import racecontrol.metrics.Metrics;
 
 /**
  *
@@ -31,6 +32,7 @@ public class LPBase extends PApplet {
 
     @Override
     public void draw() {
+        long start = System.nanoTime();
         if (width != sizeWidth || height != sizeHeight) {
             onResize(width, height);
         }
@@ -43,7 +45,7 @@ public class LPBase extends PApplet {
         base.drawInternal(this);
         noClip();
         translate(-base.getPosX(), -base.getPosY());
-
+        Metrics.FRAME.recordSince(start);
     }
 
     protected void onResize(int w, int h) {
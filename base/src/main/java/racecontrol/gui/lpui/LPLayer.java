@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.gui.lpui;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * Offscreen buffer that keeps the rendered content of a region of a
+ * component. While the layer is being drawn all drawing calls on the applet
+ * are redirected into the layer, so existing drawing code can be cached
+ * without changes. Once drawn the layer is composited with a single image
+ * call until it is invalidated. The content is kept between draws, so parts
+ * of a layer can be cleared and drawn again.
+ *
+ * @author Leonard
+ */
+public class LPLayer {
+
+    /**
+     * The offscreen graphics holding the rendered content.
+     */
+    private PGraphics graphics;
+    /**
+     * The graphics of the applet while drawing is redirected into this layer.
+     */
+    private PGraphics target;
+    /**
+     * Indicates that the layer holds valid content.
+     */
+    private boolean isValid = false;
+
+    /**
+     * Redirects all drawing calls on the applet into this layer. The layer is
+     * resized if necessary, which clears its content. Every call must be
+     * followed by a call to endDraw().
+     *
+     * @param applet the applet to redirect.
+     * @param w width of the layer.
+     * @param h height of the layer.
+     */
+    public void beginDraw(PApplet applet, float w, float h) {
+        int width = Math.max(1, (int) Math.ceil(w));
+        int height = Math.max(1, (int) Math.ceil(h));
+        if (graphics == null
+                || graphics.width != width
+                || graphics.height != height) {
+            graphics = applet.createGraphics(width, height);
+            isValid = false;
+        }
+        graphics.beginDraw();
+        target = applet.g;
+        applet.g = graphics;
+    }
+
+    /**
+     * Stops redirecting drawing calls into this layer.
+     *
+     * @param applet the applet that was redirected.
+     */
+    public void endDraw(PApplet applet) {
+        applet.g = target;
+        target = null;
+        graphics.endDraw();
+        isValid = true;
+    }
+
+    /**
+     * Clears the content of this layer. Can only be called between
+     * beginDraw() and endDraw().
+     */
+    public void clear() {
+        graphics.clear();
+    }
+
+    /**
+     * Clears an area of this layer to transparent. Can only be called between
+     * beginDraw() and endDraw().
+     *
+     * @param x X-position of the area.
+     * @param y Y-position of the area.
+     * @param w Width of the area.
+     * @param h Height of the area.
+     */
+    public void clear(float x, float y, float w, float h) {
+        Graphics2D g2 = (Graphics2D) graphics.getNative();
+        Composite composite = g2.getComposite();
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fill(new Rectangle2D.Float(x, y, w, h));
+        g2.setComposite(composite);
+    }
+
+    /**
+     * Draws the content of this layer.
+     *
+     * @param applet the target applet.
+     * @param x X-position.
+     * @param y Y-position.
+     */
+    public void draw(PApplet applet, float x, float y) {
+        if (graphics != null) {
+            applet.image(graphics, x, y);
+        }
+    }
+
+    /**
+     * Returns true if the layer holds valid content.
+     *
+     * @return true if the layer is valid.
+     */
+    public boolean isValid() {
+        return isValid;
+    }
+
+    /**
+     * Marks the content of this layer as outdated.
+     */
+    public void invalidate() {
+        isValid = false;
+    }
+}
@@ -7,11 +7,20 @@ package racecontrol.gui.lpui.table;
 
 import static java.util.Objects.requireNonNull;
 import racecontrol.gui.LookAndFeel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 import processing.core.PApplet;
 import racecontrol.gui.lpui.LPAnimationTask;
 import racecontrol.gui.lpui.LPContainer;
+import racecontrol.gui.lpui.LPLayer;
 import static processing.core.PConstants.ARROW;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.LEFT;
@@ -28,6 +37,10 @@ public class LPTable
         implements TableModelChangedListener {
 
     private static final Logger LOG = Logger.getLogger(LPTable.class.getName());
+    /**
+     * Duration of the animation when a row moves to a new position in ms.
+     */
+    private static final int ROW_MOVE_ANIMATION_TIME = 300;
 
     /**
      * Default implementation of the table model. Does nothing.
@@ -114,9 +127,52 @@ public class LPTable
      * Current mouse y position.
      */
     private float mouseY;
+    /**
+     * Incremented every time the column layout changes. Cached renderings of
+     * an older layout are outdated.
+     */
+    private int layoutVersion = 0;
+    /**
+     * Width of the table the column layout was calculated for.
+     */
+    private float layoutWidth = 0;
+    /**
+     * Cached rendering of the header.
+     */
+    private final LPLayer headerLayer = new LPLayer();
+    /**
+     * Layout version the header was rendered with.
+     */
+    private int headerLayoutVersion = -1;
+    /**
+     * Highlighted column the header was rendered with.
+     */
+    private int headerHoveredColumn = -1;
+    /**
+     * Cached renderings of the visible rows by their row key.
+     */
+    private final Map<Object, RowLayer> rowLayers = new HashMap<>();
+    /**
+     * Row layers that are currently not in use.
+     */
+    private final Deque<RowLayer> freeRowLayers = new ArrayDeque<>();
+    /**
+     * Number of times the rows have been drawn.
+     */
+    private int drawCount = 0;
+    /**
+     * Indicates that rows are animated to their new position when they move.
+     */
+    private boolean animateRowMoves = false;
+    /**
+     * Animation task for rows moving to a new position.
+     */
+    private final LPAnimationTask moveAnimation
+            = new LPAnimationTask(this::moveAnimationFunction, ROW_MOVE_ANIMATION_TIME);
 
     public LPTable() {
         addAnimationTask(scrollbar.scrollAnimation);
+        addAnimationTask(moveAnimation);
     }
 
     @Override
@@ -132,33 +188,22 @@ public class LPTable
             if (scrollbar.isVisible) {
                 columnOffset = scrollbar.width;
             }
-            applet.fill(LookAndFeel.COLOR_MEDIUM_DARK_GRAY);
-            applet.rect(columnOffset, 0, getWidth() - columnOffset, LINE_HEIGHT);
-            applet.textAlign(CENTER, CENTER);
-            applet.textFont(LookAndFeel.fontMedium());
-            for (int i = 0; i < columns.length; i++) {
-                if (!columns[i].isVisible()) {
-                    continue;
-                }
-                if (clickableColumnHeaders
-                        && mouseOverColumn == i
-                        && mouseOverRow == 0) {
-                    applet.fill(LookAndFeel.TRANSPARENT_WHITE);
-                    applet.rect(columnOffset, 0, columnWidths[i], LINE_HEIGHT);
-                }
-                applet.fill(LookAndFeel.COLOR_WHITE);
-                applet.textAlign(columns[i].getTextAlign(), CENTER);
-                float textStartX = columnOffset;
-                if (columns[i].getTextAlign() == LEFT) {
-                    textStartX = columnOffset + 10;
-                } else if (columns[i].getTextAlign() == RIGHT) {
-                    textStartX = columnOffset + columnWidths[i] - 10;
-                } else {
-                    textStartX = columnOffset + columnWidths[i] / 2f;
-                }
-                applet.text(columns[i].getHeader(), textStartX, LINE_HEIGHT / 2f);
-                columnOffset += columnWidths[i];
+            int hoveredColumn = -1;
+            if (clickableColumnHeaders && mouseOverRow == 0) {
+                hoveredColumn = mouseOverColumn;
             }
+            if (!headerLayer.isValid()
+                    || headerLayoutVersion != layoutVersion
+                    || headerHoveredColumn != hoveredColumn) {
+                headerLayer.beginDraw(applet, getWidth() - columnOffset, LINE_HEIGHT);
+                applet.translate(-columnOffset, 0);
+                renderHeader(applet, columnOffset, hoveredColumn);
+                applet.translate(columnOffset, 0);
+                headerLayer.endDraw(applet);
+                headerLayoutVersion = layoutVersion;
+                headerHoveredColumn = hoveredColumn;
+            }
+            headerLayer.draw(applet, columnOffset, 0);
         }
         //draw scrollbar
         if (scrollbar.isVisible) {
@@ -185,60 +230,226 @@ public class LPTable
         float clipWidth = scrollbar.isVisible ? scrollbar.width : 0;
         applet.clip(clipWidth, clipHeight, getWidth() - clipWidth, getHeight() - clipHeight);
         float heightOffset = lowerVisibleRowYOffset + clipHeight;
+        for (int row = lowerVisibleIndex; row < upperVisibleIndex; row++) {
+            if (row > model.getRowCount()) {
+                break;
+            }
+            float rowHeight = model.getRowHeight(row);
+            renderRowBackground(applet, row, clipWidth, heightOffset, rowHeight);
+            heightOffset += rowHeight;
+        }
+
+        boolean cacheRows = model.hasImmutableValues() || model.reportsCellChanges();
+        drawCount++;
+        heightOffset = lowerVisibleRowYOffset + clipHeight;
         for (int row = lowerVisibleIndex; row < upperVisibleIndex; row++) {
             if (row > model.getRowCount()) {
                 break;
             }
 
-            boolean isMouseOverThisRow = row == mouseOverRow;
             float rowHeight = model.getRowHeight(row);
-            if (row % 2 == 0) {
-                applet.fill(COLOR_MEDIUM_DARK_GRAY);
-                applet.rect(clipWidth, heightOffset, getWidth() - clipWidth, rowHeight);
+            if (cacheRows) {
+                RowLayer layer = getRowLayer(row);
+                // The row under the mouse depends on the mouse position and is
+                // always rendered directly.
+                if (row == mouseOverRow) {
+                    renderCells(applet, row, clipWidth, heightOffset, rowHeight);
+                } else {
+                    layer.render(applet, row, clipWidth, heightOffset, rowHeight);
+                    layer.draw(applet, clipWidth, heightOffset + layer.moveOffset);
+                }
+            } else {
+                renderCells(applet, row, clipWidth, heightOffset, rowHeight);
             }
+            heightOffset += rowHeight;
+        }
+        releaseRowLayers();
+    }
 
-            boolean isSelectedRow = model.getSelectedRow() == row;
-            if (isSelectedRow) {
+    /**
+     * Renders the column headers.
+     *
+     * @param applet the target applet.
+     * @param columnOffset horizontal position of the first column.
+     * @param hoveredColumn the column to highlight. -1 for none.
+     */
+    private void renderHeader(PApplet applet, float columnOffset, int hoveredColumn) {
+        applet.noStroke();
+        applet.fill(LookAndFeel.COLOR_MEDIUM_DARK_GRAY);
+        applet.rect(columnOffset, 0, getWidth() - columnOffset, LINE_HEIGHT);
+        applet.textAlign(CENTER, CENTER);
+        applet.textFont(LookAndFeel.fontMedium());
+        for (int i = 0; i < columns.length; i++) {
+            if (!columns[i].isVisible()) {
+                continue;
+            }
+            if (hoveredColumn == i) {
                 applet.fill(LookAndFeel.TRANSPARENT_WHITE);
-                applet.rect(clipWidth, (int) heightOffset, getWidth() - clipWidth, (int) rowHeight);
+                applet.rect(columnOffset, 0, columnWidths[i], LINE_HEIGHT);
             }
-            float widthOffset = clipWidth;
-            for (int column = 0; column < columns.length; column++) {
-                if (!columns[column].isVisible()) {
-                    continue;
-                }
-                Object value = model.getValueAt(column, row);
-                if (value == null) {
-                    continue;
-                }
+            applet.fill(LookAndFeel.COLOR_WHITE);
+            applet.textAlign(columns[i].getTextAlign(), CENTER);
+            float textStartX = columnOffset;
+            if (columns[i].getTextAlign() == LEFT) {
+                textStartX = columnOffset + 10;
+            } else if (columns[i].getTextAlign() == RIGHT) {
+                textStartX = columnOffset + columnWidths[i] - 10;
+            } else {
+                textStartX = columnOffset + columnWidths[i] / 2f;
+            }
+            applet.text(columns[i].getHeader(), textStartX, LINE_HEIGHT / 2f);
+            columnOffset += columnWidths[i];
+        }
+    }
 
-                boolean isMouseOverThisColumn = column == mouseOverColumn;
-                applet.translate(widthOffset, heightOffset);
-                columns[column].getRenderer().render(applet,
-                        new RenderContext(value,
-                                row,
-                                column,
-                                isSelectedRow,
-                                isMouseOverThisRow,
-                                isMouseOverThisColumn,
-                                row % 2 == 0,
-                                columnWidths[column],
-                                rowHeight,
-                                getWidth() - scrollbar.width,
-                                getHeight(),
-                                widthOffset - scrollbar.width,
-                                heightOffset,
-                                mouseX - widthOffset,
-                                mouseY - heightOffset
-                        )
-                );
-                applet.translate(-widthOffset, -heightOffset);
-                widthOffset += columnWidths[column];
+    /**
+     * Renders the background of a row.
+     *
+     * @param applet the target applet.
+     * @param row the row to render.
+     * @param clipWidth horizontal position of the row.
+     * @param heightOffset vertical position of the row.
+     * @param rowHeight the height of the row.
+     */
+    private void renderRowBackground(PApplet applet, int row,
+            float clipWidth, float heightOffset, float rowHeight) {
+        if (row % 2 == 0) {
+            applet.fill(COLOR_MEDIUM_DARK_GRAY);
+            applet.rect(clipWidth, heightOffset, getWidth() - clipWidth, rowHeight);
+        }
+
+        if (model.getSelectedRow() == row) {
+            applet.fill(LookAndFeel.TRANSPARENT_WHITE);
+            applet.rect(clipWidth, (int) heightOffset, getWidth() - clipWidth, (int) rowHeight);
+        }
+    }
+
+    /**
+     * Renders all cells of a row.
+     *
+     * @param applet the target applet.
+     * @param row the row to render.
+     * @param clipWidth horizontal position of the row.
+     * @param heightOffset vertical position of the row.
+     * @param rowHeight the height of the row.
+     */
+    private void renderCells(PApplet applet, int row,
+            float clipWidth, float heightOffset, float rowHeight) {
+        boolean isSelectedRow = model.getSelectedRow() == row;
+        float widthOffset = clipWidth;
+        for (int column = 0; column < columns.length; column++) {
+            if (!columns[column].isVisible()) {
+                continue;
             }
-            heightOffset += rowHeight;
+            renderCell(applet, row, column, isSelectedRow,
+                    widthOffset, heightOffset, rowHeight, false);
+            widthOffset += columnWidths[column];
         }
     }
 
+    /**
+     * Renders a single cell.
+     *
+     * @param applet the target applet.
+     * @param row the row of the cell.
+     * @param column the column of the cell.
+     * @param isSelectedRow true if the row is selected.
+     * @param widthOffset horizontal position of the cell.
+     * @param heightOffset vertical position of the cell.
+     * @param rowHeight the height of the row.
+     * @param clip true if the rendering should be clipped to the cell.
+     */
+    private void renderCell(PApplet applet, int row, int column,
+            boolean isSelectedRow, float widthOffset, float heightOffset,
+            float rowHeight, boolean clip) {
+        Object value = model.getValueAt(column, row);
+        if (value == null) {
+            return;
+        }
+
+        boolean isMouseOverThisRow = row == mouseOverRow;
+        boolean isMouseOverThisColumn = column == mouseOverColumn;
+        applet.translate(widthOffset, heightOffset);
+        if (clip) {
+            applet.clip(0, 0, columnWidths[column], rowHeight);
+        }
+        columns[column].getRenderer().render(applet,
+                new RenderContext(value,
+                        row,
+                        column,
+                        isSelectedRow,
+                        isMouseOverThisRow,
+                        isMouseOverThisColumn,
+                        row % 2 == 0,
+                        columnWidths[column],
+                        rowHeight,
+                        getWidth() - scrollbar.width,
+                        getHeight(),
+                        widthOffset - scrollbar.width,
+                        heightOffset,
+                        mouseX - widthOffset,
+                        mouseY - heightOffset
+                )
+        );
+        if (clip) {
+            applet.noClip();
+        }
+        applet.translate(-widthOffset, -heightOffset);
+    }
+
+    /**
+     * Returns the layer for a row and marks it as used in this draw.
+     *
+     * @param row the row.
+     * @return the layer for the row.
+     */
+    private RowLayer getRowLayer(int row) {
+        Object key = model.getRowKey(row);
+        RowLayer layer = rowLayers.get(key);
+        if (layer == null) {
+            layer = freeRowLayers.isEmpty() ? new RowLayer() : freeRowLayers.pop();
+            rowLayers.put(key, layer);
+        }
+        layer.drawCount = drawCount;
+        return layer;
+    }
+
+    /**
+     * Releases the layers of rows that have not been drawn in the last draw so
+     * they can be reused for other rows.
+     */
+    private void releaseRowLayers() {
+        Iterator<RowLayer> iter = rowLayers.values().iterator();
+        while (iter.hasNext()) {
+            RowLayer layer = iter.next();
+            if (layer.drawCount != drawCount) {
+                iter.remove();
+                layer.release();
+                freeRowLayers.push(layer);
+            }
+        }
+    }
+
+    /**
+     * Releases all row layers.
+     */
+    private void releaseAllRowLayers() {
+        rowLayers.values().forEach(layer -> {
+            layer.release();
+            freeRowLayers.push(layer);
+        });
+        rowLayers.clear();
+    }
+
+    private void moveAnimationFunction(LPAnimationTask task, int dt) {
+        float t = task.getProgressNormal();
+        float ease = t * t * (3 - 2 * t);
+        for (RowLayer layer : rowLayers.values()) {
+            layer.moveOffset = layer.moveStart * (1 - ease);
+        }
+        invalidate();
+    }
+
     @Override
     public void onMouseScroll(int scrollDir) {
         scrollbar.setScrollSmooth(scrollbar.actualScroll + scrollDir * LINE_HEIGHT);
@@ -389,8 +600,13 @@ public class LPTable
         scrollbar.isVisible = visibleHeight < modelHeight;
 
         //calculate column widths
-        columnWidths = calculateColumnWidths(columns,
+        float[] widths = calculateColumnWidths(columns,
                 getWidth() - ((scrollbar.isVisible) ? scrollbar.width : 0));
+        if (!Arrays.equals(widths, columnWidths) || layoutWidth != getWidth()) {
+            columnWidths = widths;
+            layoutWidth = getWidth();
+            layoutVersion++;
+        }
 
         //limit the maximum scroll
         if (scrollbar.scroll + visibleHeight > modelHeight) {
@@ -429,6 +645,9 @@ public class LPTable
         this.model = model;
         this.model.registerListener(this);
         columns = model.getColumns();
+        layoutVersion++;
+        releaseAllRowLayers();
+        invalidate();
     }
 
     public void drawHeader(boolean state) {
@@ -439,6 +658,10 @@ public class LPTable
         this.clickableColumnHeaders = state;
     }
 
+    public void setAnimateRowMoves(boolean state) {
+        this.animateRowMoves = state;
+    }
+
     public void setCellClickAction(BiConsumer<Integer, Integer> action) {
         this.cellClickAction = action;
     }
@@ -534,6 +757,46 @@ public class LPTable
         }
     }
 
+    @Override
+    public void onRowsInserted(int firstRow, int lastRow) {
+        calculateVisibleArea();
+        invalidate();
+    }
+
+    @Override
+    public void onRowsRemoved(int firstRow, int lastRow) {
+        calculateVisibleArea();
+        invalidate();
+    }
+
+    @Override
+    public void onRowMoved(int fromRow, int toRow) {
+        RowLayer moved = rowLayers.get(model.getRowKey(toRow));
+        if (animateRowMoves && moved != null) {
+            // continue running animations from their current offset.
+            for (RowLayer layer : rowLayers.values()) {
+                layer.moveStart = layer.moveOffset;
+            }
+            float distance = 0;
+            for (int row = Math.min(fromRow, toRow); row < Math.max(fromRow, toRow); row++) {
+                distance += model.getRowHeight(row);
+            }
+            moved.moveOffset += fromRow < toRow ? -distance : distance;
+            moved.moveStart = moved.moveOffset;
+            moveAnimation.restart();
+        }
+        invalidate();
+    }
+
+    @Override
+    public void onCellsChanged(int row, int firstColumn, int lastColumn) {
+        RowLayer layer = rowLayers.get(model.getRowKey(row));
+        if (layer != null) {
+            layer.markDirty(firstColumn, lastColumn);
+        }
+        invalidate();
+    }
+
     private class Scrollbar {
 
         /**
@@ -647,6 +910,144 @@ public class LPTable
         }
     }
 
+    /**
+     * Cached rendering of the cells of a single row together with the state
+     * they were rendered with. The layer is transparent, the background and
+     * the selection of the row are drawn by the table.
+     */
+    private class RowLayer
+            extends LPLayer {
+
+        /**
+         * Values of the cells the row was rendered with. Only used for models
+         * that do not report their changes.
+         */
+        private Object[] values = new Object[0];
+        /**
+         * Columns that have to be rendered again.
+         */
+        private final BitSet dirtyColumns = new BitSet();
+        /**
+         * Layout version the row was rendered with.
+         */
+        private int rowLayoutVersion = -1;
+        /**
+         * Height the row was rendered with.
+         */
+        private float height;
+        /**
+         * Column under the mouse the row was rendered with.
+         */
+        private int hoveredColumn = -1;
+        /**
+         * The draw this layer was last used in.
+         */
+        private int drawCount;
+        /**
+         * Current vertical offset while the row is animated to a new position.
+         */
+        private float moveOffset = 0;
+        /**
+         * Vertical offset at the start of the move animation.
+         */
+        private float moveStart = 0;
+
+        /**
+         * Marks a range of cells to be rendered again.
+         *
+         * @param firstColumn the first column.
+         * @param lastColumn the last column.
+         */
+        void markDirty(int firstColumn, int lastColumn) {
+            dirtyColumns.set(firstColumn, lastColumn + 1);
+        }
+
+        /**
+         * Renders the cells of the row that have changed since the last
+         * render. If the layout of the row has changed all cells are
+         * rendered.
+         *
+         * @param applet the target applet.
+         * @param row the row to render.
+         * @param clipWidth horizontal position of the row.
+         * @param heightOffset vertical position of the row.
+         * @param rowHeight the height of the row.
+         */
+        void render(PApplet applet, int row,
+                float clipWidth, float heightOffset, float rowHeight) {
+            boolean renderAll = !isValid()
+                    || rowLayoutVersion != layoutVersion
+                    || height != rowHeight
+                    || hoveredColumn != mouseOverColumn;
+            rowLayoutVersion = layoutVersion;
+            height = rowHeight;
+            hoveredColumn = mouseOverColumn;
+            if (!model.reportsCellChanges()) {
+                compareValues(row);
+            }
+            if (!renderAll && dirtyColumns.isEmpty()) {
+                return;
+            }
+
+            boolean isSelectedRow = model.getSelectedRow() == row;
+            beginDraw(applet, getWidth() - clipWidth, rowHeight);
+            if (renderAll) {
+                clear();
+            }
+            applet.translate(-clipWidth, -heightOffset);
+            float widthOffset = clipWidth;
+            for (int column = 0; column < columns.length; column++) {
+                if (!columns[column].isVisible()) {
+                    continue;
+                }
+                if (renderAll || dirtyColumns.get(column)) {
+                    if (!renderAll) {
+                        clear(widthOffset - clipWidth, 0, columnWidths[column], rowHeight);
+                    }
+                    renderCell(applet, row, column, isSelectedRow,
+                            widthOffset, heightOffset, rowHeight, true);
+                }
+                widthOffset += columnWidths[column];
+            }
+            applet.translate(clipWidth, heightOffset);
+            endDraw(applet);
+            dirtyColumns.clear();
+        }
+
+        /**
+         * Compares the values of the row with the values it was rendered with
+         * and marks the cells that have changed.
+         *
+         * @param row the row.
+         */
+        private void compareValues(int row) {
+            if (values.length != columns.length) {
+                values = new Object[columns.length];
+            }
+            for (int column = 0; column < columns.length; column++) {
+                Object value = null;
+                if (columns[column].isVisible()) {
+                    value = model.getValueAt(column, row);
+                }
+                if (!Objects.equals(values[column], value)) {
+                    values[column] = value;
+                    dirtyColumns.set(column);
+                }
+            }
+        }
+
+        /**
+         * Resets the layer so it can be used for another row.
+         */
+        void release() {
+            invalidate();
+            Arrays.fill(values, null);
+            dirtyColumns.clear();
+            moveOffset = 0;
+            moveStart = 0;
+        }
+    }
+
     @FunctionalInterface
     public interface CellRenderer {
 
@@ -7,6 +7,7 @@ package racecontrol.gui.lpui.table;
 
 import racecontrol.gui.lpui.table.LPTable;
 import racecontrol.gui.LookAndFeel;
+import java.util.function.Function;
 import processing.core.PApplet;
 import static processing.core.PConstants.CENTER;
 import static processing.core.PConstants.LEFT;
@@ -77,6 +78,12 @@ public class LPTableColumn {
         }
     };
 
+    /**
+     * Extracts the part of a cell value that this column shows. Cells with
+     * equal keys are rendered the same.
+     */
+    private Function<Object, Object> cellKey = Function.identity();
+
     public static final LPTable.CellRenderer nullRenderer = (
             PApplet applet,
             RenderContext context) -> {
@@ -101,8 +108,28 @@ public class LPTableColumn {
         return this;
     }
 
+    /**
+     * Sets the renderer for this column. Resets the cell key because it
+     * belongs to the previous renderer.
+     *
+     * @param renderer the renderer.
+     * @return this column.
+     */
     public LPTableColumn setCellRenderer(LPTable.CellRenderer renderer) {
         this.renderer = renderer;
+        this.cellKey = Function.identity();
+        return this;
+    }
+
+    /**
+     * Sets the function that extracts the part of a cell value that the
+     * renderer of this column shows. Has to be set after the renderer.
+     *
+     * @param cellKey the function.
+     * @return this column.
+     */
+    public LPTableColumn setCellKey(Function<Object, Object> cellKey) {
+        this.cellKey = cellKey;
         return this;
     }
 
@@ -146,6 +173,20 @@ public class LPTableColumn {
         return renderer;
     }
 
+    /**
+     * Returns the key for a cell value. Cells with equal keys are rendered the
+     * same.
+     *
+     * @param value the cell value.
+     * @return the key.
+     */
+    public Object getCellKey(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return cellKey.apply(value);
+    }
+
     public PFont getFont() {
         return font;
     }
@@ -6,7 +6,10 @@
 package racecontrol.gui.lpui.table;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import racecontrol.gui.LookAndFeel;
 
 /**
@@ -19,6 +22,19 @@ public abstract class LPTableModel {
      * List of registered table model changed listners.
      */
     private final List<TableModelChangedListener> listeners = new ArrayList<>();
+    /**
+     * Columns used to compare the cells. Created on the first call to
+     * publishChanges().
+     */
+    private LPTableColumn[] changeColumns;
+    /**
+     * Row keys at the last call to publishChanges().
+     */
+    private Object[] publishedRowKeys = new Object[0];
+    /**
+     * Cell keys at the last call to publishChanges().
+     */
+    private Object[][] publishedCellKeys = new Object[0][];
 
     /**
      * Returns the number of rows in this table model.
@@ -53,6 +69,41 @@ public abstract class LPTableModel {
         return LookAndFeel.LINE_HEIGHT;
     }
 
+    /**
+     * Returns true if the values of this model are never changed after they
+     * have been returned by getValueAt. The table then keeps the rendering of
+     * a row and only renders it again when one of its values is no longer
+     * equal to the value it was rendered with. Models that change their values
+     * in place must return false.
+     *
+     * @return true if the values are immutable.
+     */
+    public boolean hasImmutableValues() {
+        return false;
+    }
+
+    /**
+     * Returns true if this model reports all changes to its rows and cells
+     * with publishChanges(). The table then keeps the rendering of a row and
+     * only renders the cells that have been reported as changed.
+     *
+     * @return true if changes are reported.
+     */
+    public boolean reportsCellChanges() {
+        return false;
+    }
+
+    /**
+     * Returns a key that identifies the entry shown in a row. The key of an
+     * entry stays the same when the entry moves to another row.
+     *
+     * @param row the row.
+     * @return the key for the row.
+     */
+    public Object getRowKey(int row) {
+        return row;
+    }
+
     /**
      * Returns the currently selected row.
      *
@@ -99,6 +150,99 @@ public abstract class LPTableModel {
         listeners.remove(listener);
     }
 
+    /**
+     * Compares the rows and cells of this model with their state at the last
+     * call and notifies the listeners about inserted, removed and moved rows
+     * and about changed cells. Rows are matched by their row key, cells are
+     * compared by the cell key of their column.
+     */
+    public void publishChanges() {
+        if (changeColumns == null) {
+            changeColumns = getColumns();
+        }
+        int rowCount = getRowCount();
+        Object[] rowKeys = new Object[rowCount];
+        Object[][] cellKeys = new Object[rowCount][changeColumns.length];
+        Map<Object, Integer> rowIndices = new HashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            rowKeys[row] = getRowKey(row);
+            rowIndices.put(rowKeys[row], row);
+            for (int column = 0; column < changeColumns.length; column++) {
+                cellKeys[row][column] = changeColumns[column].getCellKey(getValueAt(column, row));
+            }
+        }
+        Map<Object, Integer> publishedIndices = new HashMap<>();
+        for (int row = 0; row < publishedRowKeys.length; row++) {
+            publishedIndices.put(publishedRowKeys[row], row);
+        }
+
+        // removed rows.
+        int first = -1;
+        for (int row = 0; row <= publishedRowKeys.length; row++) {
+            boolean removed = row < publishedRowKeys.length
+                    && !rowIndices.containsKey(publishedRowKeys[row]);
+            if (removed && first == -1) {
+                first = row;
+            } else if (!removed && first != -1) {
+                fireRowsRemoved(first, row - 1);
+                first = -1;
+            }
+        }
+
+        // inserted rows.
+        for (int row = 0; row <= rowCount; row++) {
+            boolean inserted = row < rowCount
+                    && !publishedIndices.containsKey(rowKeys[row]);
+            if (inserted && first == -1) {
+                first = row;
+            } else if (!inserted && first != -1) {
+                fireRowsInserted(first, row - 1);
+                first = -1;
+            }
+        }
+
+        // moved rows and changed cells.
+        for (int row = 0; row < rowCount; row++) {
+            Integer previous = publishedIndices.get(rowKeys[row]);
+            if (previous == null) {
+                continue;
+            }
+            if (previous != row) {
+                fireRowMoved(previous, row);
+            }
+            Object[] previousCells = publishedCellKeys[previous];
+            for (int column = 0; column <= changeColumns.length; column++) {
+                boolean changed = column < changeColumns.length
+                        && !Objects.equals(previousCells[column], cellKeys[row][column]);
+                if (changed && first == -1) {
+                    first = column;
+                } else if (!changed && first != -1) {
+                    fireCellsChanged(row, first, column - 1);
+                    first = -1;
+                }
+            }
+        }
+
+        publishedRowKeys = rowKeys;
+        publishedCellKeys = cellKeys;
+    }
+
+    private void fireRowsInserted(int firstRow, int lastRow) {
+        listeners.forEach(l -> l.onRowsInserted(firstRow, lastRow));
+    }
+
+    private void fireRowsRemoved(int firstRow, int lastRow) {
+        listeners.forEach(l -> l.onRowsRemoved(firstRow, lastRow));
+    }
+
+    private void fireRowMoved(int fromRow, int toRow) {
+        listeners.forEach(l -> l.onRowMoved(fromRow, toRow));
+    }
+
+    private void fireCellsChanged(int row, int firstColumn, int lastColumn) {
+        listeners.forEach(l -> l.onCellsChanged(row, firstColumn, lastColumn));
+    }
+
     /**
      * Notifies the listeners that an entry was added.
      *
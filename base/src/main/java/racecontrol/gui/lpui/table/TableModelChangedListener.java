@@ -19,4 +19,42 @@ public interface TableModelChangedListener {
      * @param index the index the entry was added at.
      */
     public void onEntryAdded(int index);
+
+    /**
+     * Gets called when rows have been inserted into the model.
+     *
+     * @param firstRow the index of the first inserted row.
+     * @param lastRow the index of the last inserted row.
+     */
+    public default void onRowsInserted(int firstRow, int lastRow) {
+    }
+
+    /**
+     * Gets called when rows have been removed from the model. The indices
+     * refer to the rows before the change.
+     *
+     * @param firstRow the previous index of the first removed row.
+     * @param lastRow the previous index of the last removed row.
+     */
+    public default void onRowsRemoved(int firstRow, int lastRow) {
+    }
+
+    /**
+     * Gets called when a row has moved to a new index.
+     *
+     * @param fromRow the previous index of the row.
+     * @param toRow the new index of the row.
+     */
+    public default void onRowMoved(int fromRow, int toRow) {
+    }
+
+    /**
+     * Gets called when the values of a range of cells in a row have changed.
+     *
+     * @param row the index of the row.
+     * @param firstColumn the first column that has changed.
+     * @param lastColumn the last column that has changed.
+     */
+    public default void onCellsChanged(int row, int firstColumn, int lastColumn) {
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import racecontrol.client.ClientExtension;
+
+/**
+ * Opt-in accounting of the cost of client extensions. While enabled the event
+ * bus reports every call to a listener and the profiler records the number of
+ * calls, the time spend and the bytes allocated for every extension and event
+ * type. The dispatch histograms in {@link Metrics} are filled at the same
+ * time, while disabled listeners are called without reading the clock. Events
+ * published by an extension while it handles an event are included in its
+ * cost.
+ *
+ * @author Leonard
+ */
+public class ExtensionProfiler {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(ExtensionProfiler.class.getName());
+    /**
+     * Singelton instance.
+     */
+    private static final ExtensionProfiler instance = new ExtensionProfiler();
+    /**
+     * Thread bean used to read the allocation counter of the current thread.
+     * Null if the JVM does not support allocation counters.
+     */
+    private final com.sun.management.ThreadMXBean threadBean;
+    /**
+     * Recorded statistics by extension class and event class.
+     */
+    private final Map<Class<?>, Map<Class<?>, Stats>> stats = new ConcurrentHashMap<>();
+    /**
+     * Flag to indicate that the profiler is recording.
+     */
+    private volatile boolean enabled = false;
+
+    private ExtensionProfiler() {
+        threadBean = createThreadBean();
+    }
+
+    public static ExtensionProfiler getInstance() {
+        return instance;
+    }
+
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        try {
+            var bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                var sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            LOG.warning("Cannot enable thread allocation counters: " + e.getMessage());
+        }
+        LOG.info("Thread allocation counters are not supported, allocations will not be profiled.");
+        return null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns true if allocated bytes can be recorded.
+     *
+     * @return true if allocations are supported.
+     */
+    public boolean isAllocationSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far.
+     *
+     * @return allocated bytes or 0 if not supported.
+     */
+    public long allocatedBytes() {
+        if (threadBean == null) {
+            return 0;
+        }
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Records a call to a listener. Calls to listeners that are not client
+     * extensions are ignored.
+     *
+     * @param listener the listener that was called.
+     * @param eventClass the class of the event it handled.
+     * @param nanos the time spend in the listener.
+     * @param bytes the bytes allocated by the listener.
+     */
+    public void record(Object listener, Class<?> eventClass, long nanos, long bytes) {
+        if (!(listener instanceof ClientExtension)) {
+            return;
+        }
+        Stats s = stats.computeIfAbsent(listener.getClass(), c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(eventClass, c -> new Stats(listener.getClass(), eventClass));
+        s.count.increment();
+        s.nanos.add(nanos);
+        s.bytes.add(bytes);
+    }
+
+    /**
+     * Removes all recorded statistics.
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Returns the statistics recorded so far.
+     *
+     * @return list of statistics.
+     */
+    public List<Stats> getStats() {
+        List<Stats> result = new ArrayList<>();
+        stats.values().forEach(byEvent -> result.addAll(byEvent.values()));
+        return result;
+    }
+
+    /**
+     * Cost of one extension for one event type.
+     */
+    public static class Stats {
+
+        /**
+         * The extension class.
+         */
+        private final Class<?> extension;
+        /**
+         * The event class.
+         */
+        private final Class<?> event;
+        /**
+         * Number of calls.
+         */
+        private final LongAdder count = new LongAdder();
+        /**
+         * Cumulative wall time in nanoseconds.
+         */
+        private final LongAdder nanos = new LongAdder();
+        /**
+         * Cumulative allocated bytes.
+         */
+        private final LongAdder bytes = new LongAdder();
+
+        private Stats(Class<?> extension, Class<?> event) {
+            this.extension = extension;
+            this.event = event;
+        }
+
+        public String getExtensionName() {
+            return extension.getSimpleName();
+        }
+
+        public String getEventName() {
+            return event.getSimpleName();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public long getBytes() {
+            return bytes.sum();
+        }
+    }
+}
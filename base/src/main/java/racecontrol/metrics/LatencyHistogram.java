@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds with a fixed relative precision.
+ * Every power of two is split into 16 buckets, so a recorded value is known
+ * to within 6.25% no matter how large it is. Recording is lock free and can
+ * be done from any thread. The memory use is constant.
+ *
+ * @author Leonard
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of bits used for the buckets within a power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    /**
+     * Number of buckets within a power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Number of buckets needed to cover all positive long values.
+     */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    /**
+     * Name of this histogram.
+     */
+    private final String name;
+    /**
+     * Number of values per bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Sum of all recorded values.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        sum.add(nanos);
+    }
+
+    /**
+     * Records the time that passed since a timestamp.
+     *
+     * @param startNanos the timestamp from System.nanoTime().
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+    }
+
+    /**
+     * Returns a copy of the current state.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(name, copy, sum.sum());
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the highest value that falls into a bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable state of a histogram at some point in time.
+     */
+    public static class Snapshot {
+
+        private final String name;
+        private final long[] counts;
+        private final long sum;
+        private final long count;
+
+        private Snapshot(String name, long[] counts, long sum) {
+            this.name = name;
+            this.counts = counts;
+            this.sum = sum;
+            long c = 0;
+            for (long v : counts) {
+                c += v;
+            }
+            this.count = c;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return the count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the sum of all recorded values.
+         *
+         * @return the total in nanoseconds.
+         */
+        public long getTotal() {
+            return sum;
+        }
+
+        /**
+         * Returns the mean of the recorded values.
+         *
+         * @return the mean in nanoseconds.
+         */
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Returns the value below which the given percentage of values fall.
+         *
+         * @param percentile the percentile between 0 and 100.
+         * @return the value in nanoseconds.
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return highestValueOf(i);
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * Returns the largest recorded value.
+         *
+         * @return the value in nanoseconds.
+         */
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return highestValueOf(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Returns the values that were recorded since an earlier snapshot of
+         * the same histogram.
+         *
+         * @param earlier the earlier snapshot.
+         * @return the difference.
+         */
+        public Snapshot minus(Snapshot earlier) {
+            long[] diff = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                diff[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            }
+            return new Snapshot(name, diff, Math.max(0, sum - earlier.sum));
+        }
+    }
+}
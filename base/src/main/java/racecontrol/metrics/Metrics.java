@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Latency histograms for the hot path from receiving a datagram to drawing
+ * it on screen.
+ *
+ * @author Leonard
+ */
+public class Metrics {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(Metrics.class.getName());
+    /**
+     * Prefix for the histograms of event listeners. These are only recorded
+     * while the {@link ExtensionProfiler} is enabled.
+     */
+    public static final String DISPATCH_PREFIX = "dispatch ";
+    /**
+     * All histograms by name.
+     */
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    /**
+     * Time from receiving a datagram until it is decoded.
+     */
+    public static final LatencyHistogram DECODE = histogram("decode");
+    /**
+     * Time to apply a realtime car update to the model.
+     */
+    public static final LatencyHistogram MODEL_UPDATE = histogram("model update");
+    /**
+     * Time to publish a model snapshot.
+     */
+    public static final LatencyHistogram SNAPSHOT = histogram("snapshot");
+    /**
+     * Time to process a datagram including all synchronous listeners.
+     */
+    public static final LatencyHistogram PACKET = histogram("packet");
+    /**
+     * Time from receiving a realtime update until the live timing table
+     * shows it.
+     */
+    public static final LatencyHistogram RECEIVE_TO_TABLE = histogram("receive to live timing");
+    /**
+     * Time a task waits in the runLater queue of the UI.
+     */
+    public static final LatencyHistogram RUN_LATER_WAIT = histogram("runLater wait");
+    /**
+     * Time to draw a frame.
+     */
+    public static final LatencyHistogram FRAME = histogram("frame");
+    /**
+     * Executor for the periodic log line.
+     */
+    private static ScheduledExecutorService logExecutor;
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the histogram with the given name. Creates it if it does not
+     * exist.
+     *
+     * @param name the name.
+     * @return the histogram.
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Returns the histogram for an event listener.
+     *
+     * @param listener the listener.
+     * @return the histogram.
+     */
+    public static LatencyHistogram dispatchHistogram(Object listener) {
+        return histogram(DISPATCH_PREFIX + nameOf(listener));
+    }
+
+    /**
+     * Returns all histograms sorted by name.
+     *
+     * @return list of histograms.
+     */
+    public static List<LatencyHistogram> getHistograms() {
+        return histograms.values().stream()
+                .sorted(Comparator.comparing(LatencyHistogram::getName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resets all histograms.
+     */
+    public static void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Starts logging a summary of the histograms periodically. Does nothing
+     * if logging was already started.
+     *
+     * @param interval the interval in seconds.
+     */
+    public static synchronized void startLogging(int interval) {
+        if (logExecutor != null) {
+            return;
+        }
+        logExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Metrics logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, LatencyHistogram.Snapshot> previous = new HashMap<>();
+        logExecutor.scheduleAtFixedRate(() -> logSummary(previous, interval),
+                interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Logs the values recorded since the last summary. The fixed histograms
+     * are always included, of the listeners only the three that took the
+     * most time.
+     */
+    private static void logSummary(Map<String, LatencyHistogram.Snapshot> previous,
+            int interval) {
+        List<LatencyHistogram.Snapshot> fixed = new ArrayList<>();
+        List<LatencyHistogram.Snapshot> listeners = new ArrayList<>();
+        for (LatencyHistogram histogram : getHistograms()) {
+            LatencyHistogram.Snapshot current = histogram.snapshot();
+            LatencyHistogram.Snapshot earlier = previous.put(histogram.getName(), current);
+            LatencyHistogram.Snapshot delta = earlier == null ? current : current.minus(earlier);
+            if (delta.getCount() == 0) {
+                continue;
+            }
+            if (histogram.getName().startsWith(DISPATCH_PREFIX)) {
+                listeners.add(delta);
+            } else {
+                fixed.add(delta);
+            }
+        }
+        if (fixed.isEmpty() && listeners.isEmpty()) {
+            return;
+        }
+        listeners.sort(Comparator.comparingLong(LatencyHistogram.Snapshot::getTotal).reversed());
+
+        StringBuilder line = new StringBuilder("Latency last " + interval + "s:");
+        for (var s : fixed) {
+            line.append(" | ").append(format(s));
+        }
+        if (!listeners.isEmpty()) {
+            line.append(" | slowest listeners:");
+            for (var s : listeners.subList(0, Math.min(3, listeners.size()))) {
+                line.append(" | ").append(format(s))
+                        .append(String.format(" total=%.1fms", s.getTotal() / 1e6));
+            }
+        }
+        LOG.info(line.toString());
+    }
+
+    private static String format(LatencyHistogram.Snapshot s) {
+        return String.format("%s n=%d p50=%s p99=%s max=%s",
+                s.getName(),
+                s.getCount(),
+                formatNanos(s.getPercentile(50)),
+                formatNanos(s.getPercentile(99)),
+                formatNanos(s.getMax()));
+    }
+
+    /**
+     * Formats a duration for display.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the formatted duration.
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return (nanos / 1000) + "us";
+        }
+        return String.format("%.1fms", nanos / 1e6);
+    }
+
+    private static String nameOf(Object listener) {
+        String name = listener.getClass().getSimpleName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda > 0 ? name.substring(0, lambda) : name;
+    }
+}
@@ -5,6 +5,7 @@
  */
 package racecontrol.persistance;
 
+import racecontrol.client.AccTransport;
 import racecontrol.persistance.PersistantConfig.Key;
 
 /**
@@ -32,6 +33,8 @@ public interface PersistantConfigKeys {
     public Key<String> CONNECTION_PASSWORD = new Key<>(String.class, "asd", "connectionPassword");
     public Key<String> CONNECTION_COMMAND_PW = new Key<>(String.class, "", "commandPassword");
     public Key<Boolean> USE_AUTO_CONNECT_SETTINGS = new Key<>(Boolean.class, true, "useAutoConnectionSettings");
+    public Key<AccTransport.Type> CONNECTION_TRANSPORT = new Key<>(AccTransport.Type.class, AccTransport.Type.SOCKET, "connectionTransport");
+    public Key<Boolean> CONNECTION_CAPTURE = new Key<>(Boolean.class, false, "connectionCapture");
 
     public Key<Boolean> BROADCASTING_CONTROLS_COLLAPSED = new Key<>(Boolean.class, false, "broadcastingControlsCollapsed");
     public Key<Boolean> MENU_COLLAPSED = new Key<>(Boolean.class, false, "menuCollapsed");
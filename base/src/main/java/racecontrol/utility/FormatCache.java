@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.utility;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Cache for formatted numbers and times. The renderers format the same values
+ * over and over again and String.format allocates about a kilobyte per call.
+ * Entries are identified by their format and value and the least recently used
+ * entry is evicted once the cache is full. Looking up a cached entry does not
+ * allocate.
+ *
+ * @author Leonard
+ */
+public class FormatCache {
+
+    /**
+     * Maximum number of cached strings.
+     */
+    private static final int CAPACITY = 4096;
+    /**
+     * Shared instance.
+     */
+    private static final FormatCache INSTANCE = new FormatCache(CAPACITY);
+    /**
+     * Marks the end of a chain.
+     */
+    private static final int NONE = -1;
+    /**
+     * First entry for each hash bucket.
+     */
+    private final int[] buckets;
+    /**
+     * Next entry in the same hash bucket.
+     */
+    private final int[] chain;
+    /**
+     * Keys of the entries.
+     */
+    private final long[] keys;
+    /**
+     * Formatted strings of the entries.
+     */
+    private final String[] values;
+    /**
+     * More recently used entry. Forms the LRU list together with older.
+     */
+    private final int[] newer;
+    /**
+     * Less recently used entry.
+     */
+    private final int[] older;
+    /**
+     * Most recently used entry.
+     */
+    private int newest = NONE;
+    /**
+     * Least recently used entry.
+     */
+    private int oldest = NONE;
+    /**
+     * Number of entries in use.
+     */
+    private int size = 0;
+
+    /**
+     * Available formats.
+     */
+    public enum Format {
+        /**
+         * See {@link TimeUtils#asLapTime(int)}.
+         */
+        LAP_TIME(TimeUtils::asLapTime),
+        /**
+         * See {@link TimeUtils#asDelta(int)}.
+         */
+        DELTA(TimeUtils::asDelta),
+        /**
+         * See {@link TimeUtils#asGap(int)}.
+         */
+        GAP(TimeUtils::asGap),
+        /**
+         * See {@link TimeUtils#asSeconds(int)}.
+         */
+        SECONDS(TimeUtils::asSeconds),
+        /**
+         * See {@link TimeUtils#asDuration(int)}.
+         */
+        DURATION(TimeUtils::asDuration),
+        /**
+         * See {@link TimeUtils#asDurationShort(int)}.
+         */
+        DURATION_SHORT(TimeUtils::asDurationShort),
+        /**
+         * Plain integer.
+         */
+        NUMBER(String::valueOf);
+
+        private final IntFunction<String> formatter;
+
+        private Format(IntFunction<String> formatter) {
+            this.formatter = formatter;
+        }
+    }
+
+    public FormatCache(int capacity) {
+        int bucketCount = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        buckets = new int[bucketCount];
+        Arrays.fill(buckets, NONE);
+        chain = new int[capacity];
+        keys = new long[capacity];
+        values = new String[capacity];
+        newer = new int[capacity];
+        older = new int[capacity];
+    }
+
+    /**
+     * Formats a value with the shared cache.
+     *
+     * @param format the format to use.
+     * @param value the value to format.
+     * @return the formatted value.
+     */
+    public static String format(Format format, int value) {
+        return INSTANCE.get(format, value);
+    }
+
+    /**
+     * Returns the formatted value. The value is formatted and cached if it is
+     * not in the cache yet.
+     *
+     * @param format the format to use.
+     * @param value the value to format.
+     * @return the formatted value.
+     */
+    public synchronized String get(Format format, int value) {
+        long key = ((long) format.ordinal() << 32) | (value & 0xffffffffL);
+        int bucket = bucket(key);
+        for (int entry = buckets[bucket]; entry != NONE; entry = chain[entry]) {
+            if (keys[entry] == key) {
+                unlink(entry);
+                linkNewest(entry);
+                return values[entry];
+            }
+        }
+
+        String text = format.formatter.apply(value);
+        int entry;
+        if (size < keys.length) {
+            entry = size++;
+        } else {
+            entry = oldest;
+            unlink(entry);
+            removeFromBucket(entry);
+        }
+        keys[entry] = key;
+        values[entry] = text;
+        chain[entry] = buckets[bucket];
+        buckets[bucket] = entry;
+        linkNewest(entry);
+        return text;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of cached entries.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int bucket(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (buckets.length - 1);
+    }
+
+    private void removeFromBucket(int entry) {
+        int bucket = bucket(keys[entry]);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = chain[entry];
+            return;
+        }
+        int previous = buckets[bucket];
+        while (chain[previous] != entry) {
+            previous = chain[previous];
+        }
+        chain[previous] = chain[entry];
+    }
+
+    private void unlink(int entry) {
+        if (newer[entry] != NONE) {
+            older[newer[entry]] = older[entry];
+        } else {
+            newest = older[entry];
+        }
+        if (older[entry] != NONE) {
+            newer[older[entry]] = newer[entry];
+        } else {
+            oldest = newer[entry];
+        }
+    }
+
+    private void linkNewest(int entry) {
+        newer[entry] = NONE;
+        older[entry] = newest;
+        if (newest != NONE) {
+            newer[newest] = entry;
+        }
+        newest = entry;
+        if (oldest == NONE) {
+            oldest = entry;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import racecontrol.client.events.RealtimeFrameEvent;
+import racecontrol.client.protocol.LapInfo;
+import racecontrol.client.protocol.RealtimeInfo;
+import racecontrol.client.protocol.SessionInfo;
+import racecontrol.client.protocol.enums.CarLocation;
+
+/**
+ * Checks when a realtime frame is complete.
+ *
+ * @author Leonard
+ */
+public class RealtimeFrameAssemblerTest {
+
+    private final RealtimeFrameAssembler frame = new RealtimeFrameAssembler();
+
+    private static RealtimeInfo carUpdate(int carId) {
+        return new RealtimeInfo(carId, 0, (byte) 1, (byte) 3, 0, 0, 0,
+                CarLocation.TRACK, 150, 1, 1, 1, 0.5f, 1, 0,
+                new LapInfo(), new LapInfo(), new LapInfo());
+    }
+
+    @Test
+    public void frameWithoutCarsIsNeverComplete() {
+        frame.begin(new SessionInfo(), 0);
+        assertTrue(frame.isOpen());
+        assertFalse(frame.isComplete());
+    }
+
+    @Test
+    public void frameIsCompleteOnceEveryExpectedCarSendAnUpdate() {
+        frame.begin(new SessionInfo(), 0);
+        frame.expect(1);
+        frame.expect(2);
+        frame.add(carUpdate(1));
+        assertFalse(frame.isComplete());
+        frame.add(carUpdate(2));
+        assertTrue(frame.isComplete());
+    }
+
+    @Test
+    public void updatesOfOtherCarsDoNotCompleteTheFrame() {
+        frame.begin(new SessionInfo(), 0);
+        frame.expect(1);
+        frame.expect(2);
+        frame.add(carUpdate(1));
+        frame.add(carUpdate(1));
+        frame.add(carUpdate(3));
+        assertFalse(frame.isComplete());
+
+        RealtimeFrameEvent event = frame.finish();
+        assertFalse(event.isComplete());
+        assertEquals(2, event.getCarInfos().size());
+        assertFalse(frame.isOpen());
+    }
+}
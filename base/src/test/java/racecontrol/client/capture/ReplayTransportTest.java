@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.capture;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that a replay runs deadlines at the time of the capture.
+ *
+ * @author Leonard
+ */
+public class ReplayTransportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes a capture with one datagram at each of the given times.
+     */
+    private ReplayTransport replay(long... millis) throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test" + CaptureFile.EXTENSION);
+        try (CaptureWriter writer = new CaptureWriter(path)) {
+            for (int i = 0; i < millis.length; i++) {
+                writer.write(TimeUnit.MILLISECONDS.toNanos(millis[i]),
+                        ByteBuffer.wrap(new byte[]{(byte) i}));
+            }
+        }
+        return new ReplayTransport(new CaptureReader(path),
+                ReplayTransport.AS_FAST_AS_POSSIBLE);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Test
+    public void deadlineRunsBeforeLaterDatagram() throws IOException {
+        ReplayTransport transport = replay(0, 100, 300);
+        List<Long> runs = new ArrayList<>();
+        Runnable action = () -> runs.add(millis(transport.getClock().nanoTime()));
+
+        assertEquals(0, transport.receive().get());
+        transport.setDeadline(TimeUnit.MILLISECONDS.toNanos(150), action);
+        assertEquals(1, transport.receive().get());
+        assertEquals(0, runs.size());
+
+        assertEquals(2, transport.receive().get());
+        assertEquals(List.of(150L), runs);
+        assertEquals(300, millis(transport.getClock().nanoTime()));
+        transport.close();
+    }
+
+    @Test
+    public void pendingDeadlineRunsAtTheEndOfTheCapture() throws IOException {
+        ReplayTransport transport = replay(0);
+        List<Long> runs = new ArrayList<>();
+        transport.receive();
+        transport.setDeadline(TimeUnit.MILLISECONDS.toNanos(50),
+                () -> runs.add(millis(transport.getClock().nanoTime())));
+        try {
+            transport.receive();
+            fail("End of capture expected");
+        } catch (EOFException e) {
+            assertEquals(List.of(50L), runs);
+        }
+        transport.close();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.contact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import racecontrol.client.model.Car;
+
+/**
+ * Checks that the telemetry history keeps no samples past the maximum age.
+ *
+ * @author Leonard
+ */
+public class TelemetryHistoryTest {
+
+    private static final int MAX_AGE = 1000;
+
+    private static Car car(int id, float splinePosition) {
+        Car car = new Car();
+        car.id = id;
+        car.splinePosition = splinePosition;
+        return car;
+    }
+
+    @Test
+    public void evictRemovesSamplesOfCarsThatAreNoLongerUpdated() {
+        TelemetryHistory history = new TelemetryHistory(MAX_AGE, 64);
+        history.add(0, car(1, 0.1f));
+        history.add(0, car(2, 0.2f));
+        for (int time = 100; time <= 2000; time += 100) {
+            history.add(time, car(2, 0.2f));
+        }
+        history.evict(2000);
+
+        assertFalse(history.hasSample(1, 0));
+        assertFalse(history.hasSample(2, 0));
+        assertTrue(history.hasSample(2, 2000));
+        assertEquals(0, history.getIndex(0).size());
+    }
+
+    @Test
+    public void evictKeepsSamplesWithinMaximumAge() {
+        TelemetryHistory history = new TelemetryHistory(MAX_AGE, 64);
+        history.add(500, car(1, 0.1f));
+        history.evict(1200);
+
+        assertTrue(history.hasSample(1, 500));
+        assertEquals(0.1f, history.getSplinePosition(1, 500), 0);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.contact;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks the nearest car lookup of the track position index, including the
+ * wrap around at the start finish line.
+ *
+ * @author Leonard
+ */
+public class TrackPositionIndexTest {
+
+    private static TrackPositionIndex index(float... splinePositions) {
+        TrackPositionIndex index = new TrackPositionIndex();
+        for (int i = 0; i < splinePositions.length; i++) {
+            index.add(i + 1, splinePositions[i]);
+        }
+        return index;
+    }
+
+    @Test
+    public void emptyIndexHasNoNearestCar() {
+        assertEquals(-1, new TrackPositionIndex().nearest(0.5f, -1));
+        assertEquals(-1, index(0.5f).nearest(0.5f, 1));
+    }
+
+    @Test
+    public void nearestCarInEitherDirection() {
+        TrackPositionIndex index = index(0.2f, 0.5f, 0.55f, 0.9f);
+        assertEquals(2, index.nearest(0.45f, -1));
+        assertEquals(3, index.nearest(0.54f, -1));
+        assertEquals(3, index.nearest(0.5f, 2));
+        assertEquals(1, index.nearest(0.3f, -1));
+    }
+
+    @Test
+    public void nearestCarWrapsAroundTheStartFinishLine() {
+        TrackPositionIndex index = index(0.98f, 0.1f, 0.5f);
+        // across the line backwards.
+        assertEquals(1, index.nearest(0.01f, -1));
+        // across the line forwards.
+        assertEquals(2, index.nearest(0.99f, 1));
+        assertEquals(2, index.nearest(0.999f, 1));
+    }
+
+    @Test
+    public void splinePositionsOutsideOfOneLapAreNormalised() {
+        TrackPositionIndex index = index(1.02f, -0.05f, 0.5f);
+        assertEquals(1, index.nearest(0.03f, -1));
+        assertEquals(2, index.nearest(0.9f, -1));
+        assertEquals(2, index.nearest(0f, 1));
+    }
+
+    @Test
+    public void indexGrowsAndCanBeReused() {
+        TrackPositionIndex index = new TrackPositionIndex();
+        for (int id = 0; id < 100; id++) {
+            index.add(id, id / 100f);
+        }
+        assertEquals(100, index.size());
+        assertEquals(42, index.nearest(0.421f, -1));
+
+        index.clear();
+        assertEquals(-1, index.nearest(0.421f, -1));
+        index.add(7, 0.7f);
+        assertEquals(7, index.nearest(0.421f, -1));
+    }
+}
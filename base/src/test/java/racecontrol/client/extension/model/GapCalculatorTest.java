@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import racecontrol.client.extension.trackdata.TrackData;
+
+/**
+ * Checks the lookup table in GapCalculator against the step by step
+ * integration it replaced.
+ *
+ * @author Leonard
+ */
+public class GapCalculatorTest {
+
+    /**
+     * Largest allowed difference between both methods relative to the gap.
+     * The integrator steps from the start position instead of the points of
+     * the velocity map, so its steps cut the corners of the velocity map and
+     * both methods do not agree exactly.
+     */
+    private static final float TOLERANCE = 0.005f;
+    /**
+     * Differences below this are always allowed, in ms.
+     */
+    private static final float MIN_TOLERANCE_MS = 1f;
+    /**
+     * Number of points in the velocity map of the synthetic track.
+     */
+    private static final int VELOCITY_MAP_SIZE = 200;
+    /**
+     * Bundled tracks that are checked, the 24H track has a much finer
+     * velocity map than the others.
+     */
+    private static final String[] TRACKS = {"Circuit de Spa-Francorchamps",
+        "Monza Circuit", "Brands Hatch Circuit", "24H N\u00fcrburgring"};
+
+    private TrackData trackData;
+    private GapCalculator calculator;
+    private IntegratingGapCalculator integrator;
+
+    @Before
+    public void setUp() {
+        trackData = syntheticTrack();
+        calculator = new GapCalculator();
+        calculator.setTrackData(trackData);
+        integrator = new IntegratingGapCalculator(trackData);
+    }
+
+    /**
+     * Creates a track with a smooth velocity map and a few corners like a
+     * real track.
+     */
+    static TrackData syntheticTrack() {
+        List<Float> velocityMap = new ArrayList<>();
+        for (int i = 0; i < VELOCITY_MAP_SIZE; i++) {
+            double s = i / (double) VELOCITY_MAP_SIZE * 2 * Math.PI;
+            velocityMap.add((float) (180 + 60 * Math.sin(5 * s) + 30 * Math.cos(3 * s)));
+        }
+        return new TrackData("Synthetic", 5000, velocityMap,
+                0.333f, 0.666f, 1f, 0f, new ArrayList<>());
+    }
+
+    /**
+     * Returns the allowed difference between the lookup table and the
+     * aligned integrator for a gap. Both use the same trapezoids except in the
+     * segment of the velocity map that contains behind, where the table
+     * subtracts the part before behind and the integrator takes the part
+     * after it in a single step. With the velocity linear in a segment a step
+     * is the midpoint rule for 1/v, whose error over a segment is about
+     * segment time * (v1 / v0 - 1)^2 / 12. Splitting the segment only makes
+     * the error smaller, so the difference is at most that on top of the
+     * regular tolerance.
+     *
+     * @param trackData the track.
+     * @param behind spline position of the car behind.
+     * @param expected the gap of the integrator in ms.
+     * @return the allowed difference in ms.
+     */
+    static float tolerance(TrackData trackData, float behind, float expected) {
+        List<Float> velocityMap = trackData.getGt3VelocityMap();
+        int size = velocityMap.size();
+        int index = (int) (behind * size) % size;
+        float v0 = velocityMap.get(index);
+        float v1 = velocityMap.get((index + 1) % size);
+        float segmentTime = 2 * trackData.getTrackMeters() / size / ((v0 + v1) / 3.6f) * 1000;
+        float change = Math.max(v0, v1) / Math.min(v0, v1) - 1;
+        return Math.max(MIN_TOLERANCE_MS, expected * TOLERANCE)
+                + segmentTime * change * change / 12;
+    }
+
+    /**
+     * Loads the bundled track data of a track.
+     */
+    static TrackData loadTrack(String name) throws IOException {
+        InputStream in = GapCalculatorTest.class
+                .getResourceAsStream("/trackdata/" + name + ".trackData");
+        assertNotNull("No track data for " + name, in);
+        try (ObjectInputStream objIn = new ObjectInputStream(in)) {
+            return (TrackData) objIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot read track data for " + name, e);
+        }
+    }
+
+    @Test
+    public void randomPositionsMatchIntegrator() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            assertGap(random.nextFloat(), random.nextFloat());
+        }
+    }
+
+    @Test
+    public void positionsOnVelocityMapPointsMatchIntegrator() {
+        Random random = new Random(7);
+        for (int i = 0; i < VELOCITY_MAP_SIZE; i++) {
+            float behind = i / (float) VELOCITY_MAP_SIZE;
+            assertGap(behind, random.nextFloat());
+            assertGap(random.nextFloat(), behind);
+        }
+    }
+
+    @Test
+    public void carsDrivingALapMatchIntegrator() {
+        // two cars a few seconds apart driving a lap and a half, so the
+        // trace crosses the start finish line.
+        for (float leader = 0.02f; leader < 1.5f; leader += 0.001f) {
+            float infront = leader % 1;
+            float behind = (leader - 0.02f) % 1;
+            assertGap(behind, infront);
+        }
+    }
+
+    @Test
+    public void gapWrapsAroundStartFinishLine() {
+        float beforeLine = calculator.calculateGap(0.95f, 1f);
+        float afterLine = calculator.calculateGap(0f, 0.05f);
+        assertEquals(beforeLine + afterLine,
+                calculator.calculateGap(0.95f, 0.05f),
+                MIN_TOLERANCE_MS);
+        assertGap(0.95f, 0.05f);
+    }
+
+    @Test
+    public void gapToItselfIsZero() {
+        assertEquals(0, calculator.calculateGap(0.5f, 0.5f), 0);
+    }
+
+    @Test
+    public void lapTimeMatchesIntegrator() {
+        float expected = integrator.calculateLapTime();
+        assertEquals(expected, calculator.getLapTime(), expected * TOLERANCE);
+    }
+
+    @Test
+    public void bundledTracksMatchAlignedIntegrator() throws IOException {
+        Random random = new Random(42);
+        for (String name : TRACKS) {
+            TrackData track = loadTrack(name);
+            int size = track.getGt3VelocityMap().size();
+            GapCalculator trackCalculator = new GapCalculator();
+            trackCalculator.setTrackData(track);
+            IntegratingGapCalculator trackIntegrator = new IntegratingGapCalculator(track);
+            for (int i = 0; i < 20_000; i++) {
+                float behind = i % 10 == 0
+                        ? random.nextInt(size) / (float) size
+                        : random.nextFloat();
+                float infront = random.nextFloat();
+                float expected = trackIntegrator.calculateAlignedGap(behind, infront);
+                float actual = trackCalculator.calculateGap(behind, infront);
+                assertTrue(name + ": gap from " + behind + " to " + infront
+                        + " is " + actual + "ms, integrator says " + expected + "ms",
+                        Math.abs(expected - actual) <= tolerance(track, behind, expected));
+            }
+            float lapTime = trackIntegrator.calculateLapTime();
+            assertEquals(name, lapTime, trackCalculator.getLapTime(), lapTime * TOLERANCE);
+        }
+    }
+
+    @Test
+    public void gapWithoutTrackDataIsZero() {
+        GapCalculator empty = new GapCalculator();
+        assertEquals(0, empty.calculateGap(0.2f, 100, 0.4f, 100), 0);
+    }
+
+    private void assertGap(float behind, float infront) {
+        float expected = integrator.calculateGap(behind, infront);
+        float actual = calculator.calculateGap(behind, infront);
+        assertTrue("Gap from " + behind + " to " + infront + " is " + actual
+                + "ms, integrator says " + expected + "ms",
+                Math.abs(expected - actual) <= Math.max(MIN_TOLERANCE_MS, expected * TOLERANCE));
+    }
+}
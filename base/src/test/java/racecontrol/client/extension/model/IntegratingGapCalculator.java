@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.model;
+
+import java.util.List;
+import racecontrol.client.extension.trackdata.TrackData;
+
+/**
+ * The gap calculation as it was before the lookup table in GapCalculator.
+ * Integrates the time step by step over the boxed velocity map. Kept as the
+ * reference for the tests and the benchmark.
+ *
+ * @author Leonard
+ */
+class IntegratingGapCalculator {
+
+    private final TrackData trackData;
+
+    IntegratingGapCalculator(TrackData trackData) {
+        this.trackData = trackData;
+    }
+
+    float calculateGap(float behind, float infront) {
+        List<Float> velocityMap = trackData.getGt3VelocityMap();
+
+        float start = behind;
+        float end = infront;
+        if (end < start) {
+            end += 1;
+        }
+
+        float stepSize = 1f / velocityMap.size();
+        float totalTime = 0;
+        float currentPosition = start;
+        while (currentPosition + stepSize < end) {
+            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
+            currentPosition += stepSize;
+        }
+        totalTime += calcTimeBetweenSplinePoints(currentPosition, end);
+        return totalTime * 1000;
+    }
+
+    /**
+     * Same as calculateGap but starts a new step at the first point of the
+     * velocity map after behind. All following steps then line up with the
+     * points of the velocity map like the segments of the lookup table. On
+     * the bundled tracks the velocity changes a lot between two points, so
+     * steps across a point cut its corner and the error adds up over long
+     * gaps.
+     *
+     * @param behind spline position of the car behind.
+     * @param infront spline position of the car in front.
+     * @return gap in ms.
+     */
+    float calculateAlignedGap(float behind, float infront) {
+        int size = trackData.getGt3VelocityMap().size();
+        float nextPoint = ((int) (behind * size) + 1) / (float) size;
+        float end = infront < behind ? infront + 1 : infront;
+        if (end <= nextPoint) {
+            return calculateGap(behind, infront);
+        }
+        return calculateGap(behind, nextPoint)
+                + calculateGap(nextPoint % 1, infront);
+    }
+
+    float calculateLapTime() {
+        List<Float> velocityMap = trackData.getGt3VelocityMap();
+        float stepSize = 1f / velocityMap.size();
+        float totalTime = 0;
+        float currentPosition = 0;
+        while (currentPosition + stepSize < 1) {
+            totalTime += calcTimeBetweenSplinePoints(currentPosition, currentPosition + stepSize);
+            currentPosition += stepSize;
+        }
+        totalTime += calcTimeBetweenSplinePoints(currentPosition, 1);
+        return totalTime * 1000;
+    }
+
+    private float calcTimeBetweenSplinePoints(float s1, float s2) {
+        float s1Velocity = findVmapVelocityForPosition(s1);
+        float s2Velocity = findVmapVelocityForPosition(s2);
+        float distance = (s2 - s1) * trackData.getTrackMeters();
+        if (s1Velocity + s2Velocity == 0) {
+            return 0;
+        }
+        return 2 * distance / (s1Velocity + s2Velocity);
+    }
+
+    private float findVmapVelocityForPosition(float s) {
+        List<Float> velocityMap = trackData.getGt3VelocityMap();
+        int lowerIndex = (int) Math.floor(s * velocityMap.size()) % velocityMap.size();
+        int upperIndex = (lowerIndex + 1) % velocityMap.size();
+        float t = s * velocityMap.size() % 1;
+        return (velocityMap.get(lowerIndex) * (1 - t) + velocityMap.get(upperIndex) * t) / 3.6f;
+    }
+}
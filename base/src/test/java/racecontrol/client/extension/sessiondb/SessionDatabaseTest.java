@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.client.extension.sessiondb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import racecontrol.client.protocol.SessionId;
+import racecontrol.client.protocol.enums.SessionType;
+
+/**
+ * Checks that a damaged database file still loads the records it can read.
+ *
+ * @author Leonard
+ */
+public class SessionDatabaseTest {
+
+    /**
+     * Size of a lap record including its length prefix.
+     */
+    private static final int LAP_RECORD_SIZE = 2 + 14 + 16;
+
+    private static final SessionId SESSION = new SessionId(SessionType.RACE, 0, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeLaps(int count) throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.db");
+        try (SessionDatabase database = new SessionDatabase(path)) {
+            for (int lap = 1; lap <= count; lap++) {
+                database.insert(new LapEntry(SESSION, lap * 1000, 7, 77, lap, 1000));
+            }
+        }
+        return path;
+    }
+
+    private static void overwrite(Path path, long offset, byte... bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    @Test
+    public void corruptRecordIsSkippedAndLaterRecordsAreLoaded() throws IOException {
+        Path path = writeLaps(3);
+        // unknown record type in the second record.
+        overwrite(path, 8 + LAP_RECORD_SIZE + 2, (byte) 99);
+
+        try (SessionDatabase database = new SessionDatabase(path)) {
+            List<LapEntry> laps = database.getLaps(SESSION, 7);
+            assertEquals(2, laps.size());
+            assertEquals(1, laps.get(0).getLap());
+            assertEquals(3, laps.get(1).getLap());
+        }
+        assertEquals(8 + 3 * LAP_RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    public void partialRecordAtTheEndIsCutOff() throws IOException {
+        Path path = writeLaps(2);
+        overwrite(path, 8 + 2 * LAP_RECORD_SIZE, (byte) 0, (byte) LAP_RECORD_SIZE, (byte) 1);
+
+        try (SessionDatabase database = new SessionDatabase(path)) {
+            assertEquals(2, database.getLaps(SESSION, 7).size());
+        }
+        assertEquals(8 + 2 * LAP_RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    public void readOnlyDatabaseDoesNotChangeTheFile() throws IOException {
+        Path path = writeLaps(2);
+        overwrite(path, 8 + 2 * LAP_RECORD_SIZE, (byte) 0, (byte) LAP_RECORD_SIZE, (byte) 1);
+
+        try (SessionDatabase database = SessionDatabase.openReadOnly(path)) {
+            assertEquals(2, database.getLaps(SESSION, 7).size());
+        }
+        assertEquals(8 + 2 * LAP_RECORD_SIZE + 3, Files.size(path));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void readOnlyDatabaseIsNotCreated() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("missing.db");
+        try {
+            SessionDatabase.openReadOnly(path).close();
+        } finally {
+            assertFalse(Files.exists(path));
+        }
+    }
+}
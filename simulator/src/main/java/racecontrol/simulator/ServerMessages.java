@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import racecontrol.client.protocol.AccBroadcastingProtocol.InboundMessageTypes;
+import racecontrol.client.protocol.enums.BroadcastingEventType;
+
+/**
+ * Writes the messages the game sends to a broadcasting client and reads the
+ * requests the client sends to the game. This is the server side of
+ * {@link racecontrol.client.protocol.AccBroadcastingProtocol}. All messages
+ * are written into a buffer given by the caller, which is cleared first and
+ * flipped when the message is complete.
+ *
+ * @author Leonard
+ */
+public class ServerMessages {
+
+    private ServerMessages() {
+    }
+
+    public static void writeRegistrationResult(ByteBuffer out,
+            int connectionId,
+            boolean success,
+            boolean readOnly,
+            String message) {
+        out.clear();
+        out.put(InboundMessageTypes.REGISTRATION_RESULT);
+        out.putInt(connectionId);
+        out.put((byte) (success ? 1 : 0));
+        out.put((byte) (readOnly ? 0 : 1));
+        writeString(out, message);
+        out.flip();
+    }
+
+    public static void writeRealtimeUpdate(ByteBuffer out,
+            SimulatedSession session) {
+        out.clear();
+        out.put(InboundMessageTypes.REALTIME_UPDATE);
+        out.putShort((short) session.getEventIndex());
+        out.putShort((short) session.getSessionIndex());
+        out.put((byte) session.getSessionType().getId());
+        out.put((byte) session.getPhase().getId());
+        out.putFloat(session.getSessionTime());
+        out.putFloat(session.getSessionEndTime());
+        out.putInt(session.getFocusedCarId());
+        writeString(out, "Helicam");
+        writeString(out, "Helicam");
+        writeString(out, "Basic HUD");
+        out.put((byte) 0); // no replay playing
+        out.putFloat(session.getTimeOfDay());
+        out.put((byte) 22); // ambient temperature
+        out.put((byte) 30); // track temperature
+        out.put((byte) 0); // clouds
+        out.put((byte) 0); // rain
+        out.put((byte) 0); // wetness
+        SimulatedCar best = session.getBestLapCar();
+        if (best == null) {
+            writeEmptyLap(out);
+        } else {
+            writeLap(out, best.getBestLapTime(), best.getId(), best.getBestLapSplits());
+        }
+        out.flip();
+    }
+
+    public static void writeRealtimeCarUpdate(ByteBuffer out,
+            SimulatedCar car) {
+        out.clear();
+        out.put(InboundMessageTypes.REALTIME_CAR_UPDATE);
+        out.putShort((short) car.getId());
+        out.putShort((short) 0); // driver index
+        out.put((byte) 1); // driver count
+        out.put((byte) car.getGear());
+        out.putFloat(0); // yaw
+        out.putFloat(0); // pitch
+        out.putFloat(0); // roll
+        out.put((byte) car.getLocation().getId());
+        out.putShort((short) car.getKmh());
+        out.putShort((short) car.getPosition());
+        out.putShort((short) car.getPosition()); // cup position
+        out.putShort((short) car.getPosition()); // track position
+        out.putFloat(car.getSplinePosition());
+        out.putShort((short) car.getLaps());
+        out.putInt(car.getDelta());
+        if (car.getBestLapTime() == Integer.MAX_VALUE) {
+            writeEmptyLap(out);
+        } else {
+            writeLap(out, car.getBestLapTime(), car.getId(), car.getBestLapSplits());
+        }
+        if (car.getLastLapTime() == Integer.MAX_VALUE) {
+            writeEmptyLap(out);
+        } else {
+            writeLap(out, car.getLastLapTime(), car.getId(), car.getLastLapSplits());
+        }
+        writeLap(out, car.getCurrentLapTime(), car.getId(), new int[0]);
+        out.flip();
+    }
+
+    public static void writeEntryList(ByteBuffer out,
+            int connectionId,
+            List<SimulatedCar> cars) {
+        out.clear();
+        out.put(InboundMessageTypes.ENTRY_LIST);
+        out.putInt(connectionId);
+        out.putShort((short) cars.size());
+        for (SimulatedCar car : cars) {
+            out.putShort((short) car.getId());
+        }
+        out.flip();
+    }
+
+    public static void writeEntryListCar(ByteBuffer out, SimulatedCar car) {
+        out.clear();
+        out.put(InboundMessageTypes.ENTRY_LIST_CAR);
+        out.putShort((short) car.getId());
+        out.put((byte) car.getModel().getType());
+        writeString(out, car.getTeamName());
+        out.putInt(car.getRaceNumber());
+        out.put((byte) 0); // cup category
+        out.put((byte) 0); // current driver index
+        out.putShort((short) car.getNationality().getId());
+        out.put((byte) 1); // driver count
+        writeString(out, car.getFirstName());
+        writeString(out, car.getLastName());
+        writeString(out, car.getShortName());
+        out.put((byte) car.getDriverCategory().getId());
+        out.putShort((short) car.getNationality().getId());
+        out.flip();
+    }
+
+    public static void writeTrackData(ByteBuffer out,
+            int connectionId,
+            String trackName,
+            int trackId,
+            int trackMeters,
+            Map<String, List<String>> cameraSets,
+            List<String> hudPages) {
+        out.clear();
+        out.put(InboundMessageTypes.TRACK_DATA);
+        out.putInt(connectionId);
+        writeString(out, trackName);
+        out.putInt(trackId);
+        out.putInt(trackMeters);
+        out.put((byte) cameraSets.size());
+        for (var entry : cameraSets.entrySet()) {
+            writeString(out, entry.getKey());
+            out.put((byte) entry.getValue().size());
+            for (String camera : entry.getValue()) {
+                writeString(out, camera);
+            }
+        }
+        out.put((byte) hudPages.size());
+        for (String page : hudPages) {
+            writeString(out, page);
+        }
+        out.flip();
+    }
+
+    public static void writeBroadcastingEvent(ByteBuffer out,
+            BroadcastingEventType type,
+            String message,
+            int timeMs,
+            int carId) {
+        out.clear();
+        out.put(InboundMessageTypes.BROADCASTING_EVENT);
+        out.put((byte) type.getId());
+        writeString(out, message);
+        out.putInt(timeMs);
+        out.putInt(carId);
+        out.flip();
+    }
+
+    private static void writeLap(ByteBuffer out,
+            int lapTime,
+            int carId,
+            int[] splits) {
+        out.putInt(lapTime);
+        out.putShort((short) carId);
+        out.putShort((short) 0); // driver index
+        out.put((byte) splits.length);
+        for (int split : splits) {
+            out.putInt(split);
+        }
+        out.put((byte) 0); // invalid
+        out.put((byte) 1); // valid for best
+        out.put((byte) 0); // out lap
+        out.put((byte) 0); // in lap
+    }
+
+    private static void writeEmptyLap(ByteBuffer out) {
+        writeLap(out, Integer.MAX_VALUE, 0, new int[0]);
+    }
+
+    private static void writeString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    /**
+     * Reads a string from a request.
+     *
+     * @param in the buffer to read from.
+     * @return the string.
+     */
+    public static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import racecontrol.client.protocol.enums.CarLocation;
+import racecontrol.client.protocol.enums.CarModel;
+import racecontrol.client.protocol.enums.DriverCategory;
+import racecontrol.client.protocol.enums.Nationality;
+
+/**
+ * A car driven by the simulator.
+ *
+ * @author Leonard
+ */
+public class SimulatedCar {
+
+    /**
+     * Car id.
+     */
+    private final int id;
+    /**
+     * Race number.
+     */
+    private final int raceNumber;
+    /**
+     * Car model.
+     */
+    private final CarModel model;
+    /**
+     * Nationality of the team and driver.
+     */
+    private final Nationality nationality;
+    /**
+     * Category of the driver.
+     */
+    private final DriverCategory driverCategory;
+    /**
+     * Factor for the speed from the velocity map. The fastest car has a pace
+     * of 1.
+     */
+    private final float pace;
+    /**
+     * Current spline position.
+     */
+    private float splinePosition;
+    /**
+     * Completed laps.
+     */
+    private int laps = 0;
+    /**
+     * Current speed in km/h.
+     */
+    private int kmh = 0;
+    /**
+     * Current position in the race.
+     */
+    private int position;
+    /**
+     * Location of the car.
+     */
+    private CarLocation location = CarLocation.TRACK;
+    /**
+     * Session time at the start of the current lap in ms.
+     */
+    private float lapStartTime = 0;
+    /**
+     * Session time of the last update in ms.
+     */
+    private float sessionTime = 0;
+    /**
+     * Split times of the current lap.
+     */
+    private final int[] currentSplits = new int[3];
+    /**
+     * Number of splits completed in the current lap.
+     */
+    private int currentSplitCount = 0;
+    /**
+     * Time of the last lap in ms.
+     */
+    private int lastLapTime = Integer.MAX_VALUE;
+    /**
+     * Splits of the last lap.
+     */
+    private int[] lastLapSplits = new int[0];
+    /**
+     * Time of the best lap in ms.
+     */
+    private int bestLapTime = Integer.MAX_VALUE;
+    /**
+     * Splits of the best lap.
+     */
+    private int[] bestLapSplits = new int[0];
+    /**
+     * Session time until which the car is slowed down by an accident.
+     */
+    private float slowedUntil = -1;
+
+    public SimulatedCar(int id,
+            int raceNumber,
+            CarModel model,
+            Nationality nationality,
+            DriverCategory driverCategory,
+            float pace,
+            float splinePosition) {
+        this.id = id;
+        this.raceNumber = raceNumber;
+        this.model = model;
+        this.nationality = nationality;
+        this.driverCategory = driverCategory;
+        this.pace = pace;
+        this.splinePosition = splinePosition;
+    }
+
+    /**
+     * Moves the car along the track.
+     *
+     * @param newSessionTime the session time to move to in ms.
+     * @param targetKmh speed at the current position from the velocity map.
+     * @param trackMeters length of the track in meters.
+     */
+    public void advance(float newSessionTime, float targetKmh, int trackMeters) {
+        float dt = (newSessionTime - sessionTime) / 1000f;
+        sessionTime = newSessionTime;
+
+        float speed = targetKmh * pace;
+        if (sessionTime < slowedUntil) {
+            speed *= 0.15f;
+        }
+        kmh = Math.round(speed);
+
+        float oldSpline = splinePosition;
+        splinePosition += speed / 3.6f * dt / trackMeters;
+
+        // sector splits.
+        for (int sector = currentSplitCount; sector < 2; sector++) {
+            float line = (sector + 1) / 3f;
+            if (oldSpline < line && splinePosition >= line) {
+                currentSplits[sector] = splitTime(sector);
+                currentSplitCount = sector + 1;
+            }
+        }
+
+        // lap completed.
+        if (splinePosition >= 1f) {
+            splinePosition -= 1f;
+            int lapTime = Math.round(sessionTime - lapStartTime);
+            currentSplits[2] = splitTime(2);
+            lastLapTime = lapTime;
+            lastLapSplits = currentSplits.clone();
+            if (lapTime < bestLapTime) {
+                bestLapTime = lapTime;
+                bestLapSplits = lastLapSplits;
+            }
+            lapStartTime = sessionTime;
+            currentSplitCount = 0;
+            laps++;
+        }
+    }
+
+    /**
+     * Calculates the time for a sector of the current lap.
+     */
+    private int splitTime(int sector) {
+        int lapTime = Math.round(sessionTime - lapStartTime);
+        for (int i = 0; i < sector; i++) {
+            lapTime -= currentSplits[i];
+        }
+        return lapTime;
+    }
+
+    /**
+     * Slows the car down as if it had an accident.
+     *
+     * @param until session time in ms until which the car is slow.
+     */
+    public void slowDown(float until) {
+        slowedUntil = until;
+    }
+
+    /**
+     * Returns the distance driven in laps.
+     *
+     * @return the race distance.
+     */
+    public float getRaceDistance() {
+        return laps + splinePosition;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getRaceNumber() {
+        return raceNumber;
+    }
+
+    public CarModel getModel() {
+        return model;
+    }
+
+    public Nationality getNationality() {
+        return nationality;
+    }
+
+    public DriverCategory getDriverCategory() {
+        return driverCategory;
+    }
+
+    public String getTeamName() {
+        return "Simulated Team " + raceNumber;
+    }
+
+    public String getFirstName() {
+        return "Driver";
+    }
+
+    public String getLastName() {
+        return "Number " + raceNumber;
+    }
+
+    public String getShortName() {
+        return "D" + raceNumber;
+    }
+
+    public float getSplinePosition() {
+        return splinePosition;
+    }
+
+    public int getLaps() {
+        return laps;
+    }
+
+    public int getKmh() {
+        return kmh;
+    }
+
+    public int getGear() {
+        return Math.min(6, 2 + kmh / 45);
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public CarLocation getLocation() {
+        return location;
+    }
+
+    public int getDelta() {
+        if (bestLapTime == Integer.MAX_VALUE) {
+            return 0;
+        }
+        float expected = bestLapTime * splinePosition;
+        return Math.round(getCurrentLapTime() - expected);
+    }
+
+    public int getCurrentLapTime() {
+        return Math.round(sessionTime - lapStartTime);
+    }
+
+    public int getLastLapTime() {
+        return lastLapTime;
+    }
+
+    public int[] getLastLapSplits() {
+        return lastLapSplits;
+    }
+
+    public int getBestLapTime() {
+        return bestLapTime;
+    }
+
+    public int[] getBestLapSplits() {
+        return bestLapSplits;
+    }
+}
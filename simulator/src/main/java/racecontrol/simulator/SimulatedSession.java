@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import racecontrol.client.extension.trackdata.TrackData;
+import racecontrol.client.protocol.enums.CarModel;
+import racecontrol.client.protocol.enums.CarCategory;
+import racecontrol.client.protocol.enums.DriverCategory;
+import racecontrol.client.protocol.enums.Nationality;
+import racecontrol.client.protocol.enums.SessionPhase;
+import racecontrol.client.protocol.enums.SessionType;
+
+/**
+ * A race session with a field of cars that drive around the track following
+ * the velocity map of the track data. Accidents are injected at random
+ * intervals. Like the game the accident event is reported a few seconds
+ * after the accident happened.
+ *
+ * @author Leonard
+ */
+public class SimulatedSession {
+
+    /**
+     * Distance between two cars on the grid in meters.
+     */
+    private static final int GRID_SPACING = 8;
+    /**
+     * Time in ms a car is slowed down after an accident.
+     */
+    private static final int ACCIDENT_DURATION = 8000;
+    /**
+     * Time in ms after an accident until it is reported.
+     */
+    private static final int ACCIDENT_REPORT_DELAY = 5000;
+    /**
+     * Speed used when the track has no velocity map in km/h.
+     */
+    private static final float DEFAULT_SPEED = 160;
+    /**
+     * The track.
+     */
+    private final TrackData trackData;
+    /**
+     * Velocity map of the track in km/h.
+     */
+    private final float[] velocityMap;
+    /**
+     * The cars.
+     */
+    private final List<SimulatedCar> cars = new ArrayList<>();
+    /**
+     * The cars ordered by position.
+     */
+    private final List<SimulatedCar> carsByPosition = new ArrayList<>();
+    /**
+     * Random source for the pace of the cars and the accidents.
+     */
+    private final Random random;
+    /**
+     * Length of the session in ms.
+     */
+    private final int sessionLength;
+    /**
+     * Average time between accidents in ms. 0 disables accidents.
+     */
+    private final int accidentInterval;
+    /**
+     * Current session time in ms.
+     */
+    private float sessionTime = 0;
+    /**
+     * Session time of the next accident.
+     */
+    private float nextAccident;
+    /**
+     * Accidents waiting to be reported. Pairs of session time and car id.
+     */
+    private final ArrayDeque<float[]> pendingAccidents = new ArrayDeque<>();
+
+    /**
+     * Creates a new session.
+     *
+     * @param trackData the track.
+     * @param carCount number of cars.
+     * @param sessionLength length of the session in ms.
+     * @param accidentInterval average time between accidents in ms. 0
+     * disables accidents.
+     * @param seed seed for the random source.
+     */
+    public SimulatedSession(TrackData trackData,
+            int carCount,
+            int sessionLength,
+            int accidentInterval,
+            long seed) {
+        this.trackData = trackData;
+        this.sessionLength = sessionLength;
+        this.accidentInterval = accidentInterval;
+        this.random = new Random(seed);
+
+        List<Float> map = trackData.getGt3VelocityMap();
+        velocityMap = new float[map.size()];
+        for (int i = 0; i < velocityMap.length; i++) {
+            velocityMap[i] = map.get(i);
+        }
+
+        CarModel[] models = Arrays.stream(CarModel.values())
+                .filter(model -> model.getCategory() == CarCategory.GT3)
+                .toArray(CarModel[]::new);
+        Nationality[] nationalities = Nationality.values();
+        DriverCategory[] categories = {
+            DriverCategory.BRONZE,
+            DriverCategory.SILVER,
+            DriverCategory.GOLD,
+            DriverCategory.PLATINUM
+        };
+        float gridLength = (float) carCount * GRID_SPACING / trackData.getTrackMeters();
+        for (int i = 0; i < carCount; i++) {
+            // faster cars start further ahead.
+            float pace = 1f - 0.015f * i / Math.max(1, carCount) - random.nextFloat() * 0.005f;
+            float spline = gridLength - (float) i * GRID_SPACING / trackData.getTrackMeters();
+            SimulatedCar car = new SimulatedCar(1001 + i,
+                    i + 1,
+                    models[random.nextInt(models.length)],
+                    nationalities[random.nextInt(nationalities.length)],
+                    categories[random.nextInt(categories.length)],
+                    pace,
+                    spline);
+            cars.add(car);
+            carsByPosition.add(car);
+        }
+        updatePositions();
+        scheduleNextAccident();
+    }
+
+    /**
+     * Advances the session.
+     *
+     * @param dt time to advance in ms.
+     */
+    public void advance(float dt) {
+        sessionTime += dt;
+        int meters = trackData.getTrackMeters();
+        for (SimulatedCar car : cars) {
+            car.advance(sessionTime, velocityAt(car.getSplinePosition()), meters);
+        }
+        updatePositions();
+
+        if (accidentInterval > 0 && sessionTime >= nextAccident) {
+            injectAccident();
+            scheduleNextAccident();
+        }
+    }
+
+    /**
+     * Calls the consumer for every car whose accident is due to be reported.
+     *
+     * @param consumer consumer for the car ids.
+     */
+    public void pollAccidents(IntConsumer consumer) {
+        while (!pendingAccidents.isEmpty()
+                && pendingAccidents.peekFirst()[0] <= sessionTime) {
+            consumer.accept((int) pendingAccidents.pollFirst()[1]);
+        }
+    }
+
+    private void injectAccident() {
+        SimulatedCar car = cars.get(random.nextInt(cars.size()));
+        car.slowDown(sessionTime + ACCIDENT_DURATION);
+        pendingAccidents.add(new float[]{sessionTime + ACCIDENT_REPORT_DELAY, car.getId()});
+
+        // most accidents involve the car behind.
+        int index = carsByPosition.indexOf(car);
+        if (random.nextBoolean() && index + 1 < carsByPosition.size()) {
+            SimulatedCar other = carsByPosition.get(index + 1);
+            other.slowDown(sessionTime + ACCIDENT_DURATION);
+            pendingAccidents.add(new float[]{sessionTime + ACCIDENT_REPORT_DELAY, other.getId()});
+        }
+    }
+
+    private void scheduleNextAccident() {
+        if (accidentInterval > 0) {
+            nextAccident = sessionTime + accidentInterval * (0.5f + random.nextFloat());
+        }
+    }
+
+    private void updatePositions() {
+        // the order barely changes between updates so insertion sort is
+        // close to linear here.
+        for (int i = 1; i < carsByPosition.size(); i++) {
+            SimulatedCar car = carsByPosition.get(i);
+            int j = i - 1;
+            while (j >= 0 && carsByPosition.get(j).getRaceDistance() < car.getRaceDistance()) {
+                carsByPosition.set(j + 1, carsByPosition.get(j));
+                j--;
+            }
+            carsByPosition.set(j + 1, car);
+        }
+        for (int i = 0; i < carsByPosition.size(); i++) {
+            carsByPosition.get(i).setPosition(i + 1);
+        }
+    }
+
+    /**
+     * Returns the speed from the velocity map at a spline position.
+     */
+    private float velocityAt(float spline) {
+        if (velocityMap.length == 0) {
+            return DEFAULT_SPEED;
+        }
+        float scaled = spline * velocityMap.length;
+        int lower = Math.min((int) scaled, velocityMap.length - 1);
+        int upper = (lower + 1) % velocityMap.length;
+        float t = scaled - lower;
+        return velocityMap[lower] * (1 - t) + velocityMap[upper] * t;
+    }
+
+    public List<SimulatedCar> getCars() {
+        return Collections.unmodifiableList(cars);
+    }
+
+    public TrackData getTrackData() {
+        return trackData;
+    }
+
+    public int getEventIndex() {
+        return 0;
+    }
+
+    public int getSessionIndex() {
+        return 0;
+    }
+
+    public SessionType getSessionType() {
+        return SessionType.RACE;
+    }
+
+    public SessionPhase getPhase() {
+        return sessionTime < sessionLength
+                ? SessionPhase.SESSION
+                : SessionPhase.SESSIONOVER;
+    }
+
+    public float getSessionTime() {
+        return sessionTime;
+    }
+
+    public float getSessionEndTime() {
+        return Math.max(0, sessionLength - sessionTime);
+    }
+
+    public int getFocusedCarId() {
+        return carsByPosition.isEmpty() ? 0 : carsByPosition.get(0).getId();
+    }
+
+    public float getTimeOfDay() {
+        // races start at noon.
+        return 12 * 3600 + sessionTime / 1000;
+    }
+
+    /**
+     * Returns the car with the best lap of the session.
+     *
+     * @return the car or null if no lap was completed yet.
+     */
+    public SimulatedCar getBestLapCar() {
+        return cars.stream()
+                .filter(car -> car.getBestLapTime() != Integer.MAX_VALUE)
+                .min(Comparator.comparingInt(SimulatedCar::getBestLapTime))
+                .orElse(null);
+    }
+}
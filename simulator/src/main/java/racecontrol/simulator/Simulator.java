@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import racecontrol.client.extension.trackdata.TrackData;
+
+/**
+ * Simulates the broadcasting interface of an ACC server. Used to load test
+ * the client with grid sizes and update intervals that are hard to get from
+ * a real server.
+ * <p>
+ * Options:
+ * <pre>
+ * --port      port to listen on (9000)
+ * --cars      number of cars (60)
+ * --interval  update interval in ms, overrides the interval requested by the
+ *             client (requested interval)
+ * --track     name of the bundled track data ("Circuit de Spa-Francorchamps")
+ * --length    session length in minutes (60)
+ * --accidents average time between accidents in seconds, 0 disables them (30)
+ * --password  connection password ("asd")
+ * --command   command password ("")
+ * --seed      seed for the random source (0)
+ * </pre>
+ *
+ * @author Leonard
+ */
+public class Simulator {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(Simulator.class.getName());
+
+    public static void main(String[] args) throws IOException {
+        int port = 9000;
+        int cars = 60;
+        int interval = 0;
+        String track = "Circuit de Spa-Francorchamps";
+        int length = 60;
+        int accidents = 30;
+        String password = "asd";
+        String command = "";
+        long seed = 0;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "--cars":
+                        cars = Integer.parseInt(value);
+                        break;
+                    case "--interval":
+                        interval = Integer.parseInt(value);
+                        break;
+                    case "--track":
+                        track = value;
+                        break;
+                    case "--length":
+                        length = Integer.parseInt(value);
+                        break;
+                    case "--accidents":
+                        accidents = Integer.parseInt(value);
+                        break;
+                    case "--password":
+                        password = value;
+                        break;
+                    case "--command":
+                        command = value;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            System.err.println("Options: --port --cars --interval --track --length"
+                    + " --accidents --password --command --seed");
+            System.exit(1);
+            return;
+        }
+
+        SimulatedSession session = new SimulatedSession(loadTrackData(track),
+                cars,
+                length * 60 * 1000,
+                accidents * 1000,
+                seed);
+        SimulatorServer server = new SimulatorServer(port,
+                session,
+                password,
+                command,
+                interval);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.run();
+    }
+
+    /**
+     * Loads the bundled track data for a track. If there is none a track
+     * without velocity map is used.
+     *
+     * @param trackName the name of the track.
+     * @return the track data.
+     */
+    private static TrackData loadTrackData(String trackName) {
+        InputStream in = Simulator.class.getResourceAsStream("/trackdata/" + trackName + ".trackData");
+        if (in != null) {
+            try (ObjectInputStream objIn = new ObjectInputStream(in)) {
+                return (TrackData) objIn.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                LOG.log(Level.WARNING, "Cannot read track data for " + trackName, e);
+            }
+        } else {
+            LOG.warning("No track data for " + trackName);
+        }
+        return new TrackData(trackName, 5000);
+    }
+}
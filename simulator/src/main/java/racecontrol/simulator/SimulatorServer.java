@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2021 Leonard Schngel
+ * 
+ * For licensing information see the included license (LICENSE.txt)
+ */
+package racecontrol.simulator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import racecontrol.client.protocol.AccBroadcastingProtocol.OutboundMessageTypes;
+import racecontrol.client.protocol.enums.BroadcastingEventType;
+
+/**
+ * Server side of the broadcasting protocol. Answers registration, entry list
+ * and track data requests and streams realtime updates of a simulated session
+ * to every registered client at the interval the client asked for.
+ *
+ * @author Leonard
+ */
+public class SimulatorServer
+        implements Runnable {
+
+    /**
+     * This class's logger.
+     */
+    private static final Logger LOG = Logger.getLogger(SimulatorServer.class.getName());
+    /**
+     * Interval in ms in which statistics are logged.
+     */
+    private static final int STATS_INTERVAL = 10000;
+    /**
+     * Channel the server listens on.
+     */
+    private final DatagramChannel channel;
+    /**
+     * Selector to wait for requests.
+     */
+    private final Selector selector;
+    /**
+     * The simulated session.
+     */
+    private final SimulatedSession session;
+    /**
+     * Connection password clients have to send.
+     */
+    private final String connectionPassword;
+    /**
+     * Command password for clients that may send commands.
+     */
+    private final String commandPassword;
+    /**
+     * Update interval in ms that overrides the one requested by the clients.
+     * 0 uses the requested interval.
+     */
+    private final int intervalOverride;
+    /**
+     * Registered clients by address.
+     */
+    private final Map<SocketAddress, Client> clients = new HashMap<>();
+    /**
+     * Buffer requests are read into.
+     */
+    private final ByteBuffer in = ByteBuffer.allocate(2048).order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Buffer messages are written into.
+     */
+    private final ByteBuffer out = ByteBuffer.allocateDirect(16 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Next connection id.
+     */
+    private int nextConnectionId = 1;
+    /**
+     * Time of the last simulation step in nanoseconds.
+     */
+    private long lastStep;
+    /**
+     * Number of datagrams sent since the last statistics.
+     */
+    private long sentCount = 0;
+    /**
+     * Number of bytes sent since the last statistics.
+     */
+    private long sentBytes = 0;
+    /**
+     * Flag to indicate that the server should be running.
+     */
+    private volatile boolean running = true;
+
+    public SimulatorServer(int port,
+            SimulatedSession session,
+            String connectionPassword,
+            String commandPassword,
+            int intervalOverride) throws IOException {
+        this.session = session;
+        this.connectionPassword = connectionPassword;
+        this.commandPassword = commandPassword;
+        this.intervalOverride = intervalOverride;
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, 4 * 1024 * 1024);
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        LOG.info("Simulator listening on " + channel.socket().getLocalSocketAddress()
+                + " with " + session.getCars().size() + " cars on "
+                + session.getTrackData().getTrackname());
+        lastStep = System.nanoTime();
+        long nextStats = lastStep + TimeUnit.MILLISECONDS.toNanos(STATS_INTERVAL);
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                long nextDue = now + TimeUnit.MILLISECONDS.toNanos(100);
+                for (Client client : clients.values()) {
+                    nextDue = Math.min(nextDue, client.nextUpdate);
+                }
+                long wait = TimeUnit.NANOSECONDS.toMillis(nextDue - now);
+                if (wait > 0) {
+                    selector.select(wait);
+                } else {
+                    selector.selectNow();
+                }
+                selector.selectedKeys().clear();
+
+                readRequests();
+
+                now = System.nanoTime();
+                step(now);
+                sendUpdates(now);
+
+                if (now >= nextStats) {
+                    nextStats = now + TimeUnit.MILLISECONDS.toNanos(STATS_INTERVAL);
+                    LOG.info(String.format("%d clients, %.0f datagrams/s, %.1f kB/s",
+                            clients.size(),
+                            sentCount * 1000f / STATS_INTERVAL,
+                            sentBytes / 1024f / (STATS_INTERVAL / 1000f)));
+                    sentCount = 0;
+                    sentBytes = 0;
+                }
+            }
+        } catch (IOException e) {
+            LOG.severe("Simulator stopped: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+                selector.close();
+            } catch (IOException e) {
+                LOG.warning("Error closing the channel: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Advances the session to the current time and reports accidents that
+     * are due to every client.
+     */
+    private void step(long now) throws IOException {
+        float dt = (now - lastStep) / 1_000_000f;
+        lastStep = now;
+        if (clients.isEmpty()) {
+            return;
+        }
+        session.advance(dt);
+
+        List<Integer> accidents = new ArrayList<>();
+        session.pollAccidents(accidents::add);
+        for (int carId : accidents) {
+            LOG.info("Accident for car " + carId);
+            for (Client client : clients.values()) {
+                ServerMessages.writeBroadcastingEvent(out,
+                        BroadcastingEventType.ACCIDENT,
+                        "Accident",
+                        (int) session.getSessionTime(),
+                        carId);
+                send(client.address);
+            }
+        }
+    }
+
+    private void sendUpdates(long now) throws IOException {
+        for (Client client : clients.values()) {
+            if (now < client.nextUpdate) {
+                continue;
+            }
+            client.nextUpdate = Math.max(client.nextUpdate + client.interval,
+                    now - client.interval);
+
+            ServerMessages.writeRealtimeUpdate(out, session);
+            send(client.address);
+            for (SimulatedCar car : session.getCars()) {
+                ServerMessages.writeRealtimeCarUpdate(out, car);
+                send(client.address);
+            }
+        }
+    }
+
+    private void readRequests() throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress address = channel.receive(in);
+            if (address == null) {
+                return;
+            }
+            in.flip();
+            try {
+                handleRequest(address);
+            } catch (BufferUnderflowException e) {
+                LOG.warning("Malformed request from " + address);
+            }
+        }
+    }
+
+    private void handleRequest(SocketAddress address) throws IOException {
+        byte type = in.get();
+        Client client = clients.get(address);
+        switch (type) {
+            case OutboundMessageTypes.REGISTER_COMMAND_APPLICATION:
+                register(address);
+                break;
+            case OutboundMessageTypes.UNREGISTER_COMMAND_APPLICATION:
+                if (clients.remove(address) != null) {
+                    LOG.info("Client " + address + " unregistered.");
+                }
+                break;
+            case OutboundMessageTypes.REQUEST_ENTRY_LIST:
+                if (client != null) {
+                    sendEntryList(client);
+                }
+                break;
+            case OutboundMessageTypes.REQUEST_TRACK_DATA:
+                if (client != null) {
+                    sendTrackData(client);
+                }
+                break;
+            default:
+                // broadcasting commands have no effect on the simulation.
+                break;
+        }
+    }
+
+    private void register(SocketAddress address) throws IOException {
+        in.get(); // protocol version
+        String name = ServerMessages.readString(in);
+        String password = ServerMessages.readString(in);
+        int interval = in.getInt();
+        String command = ServerMessages.readString(in);
+
+        if (!connectionPassword.equals(password)) {
+            LOG.info("Refused " + name + " from " + address + ": wrong password.");
+            ServerMessages.writeRegistrationResult(out, -1, false, true,
+                    "Connection password is wrong");
+            send(address);
+            return;
+        }
+
+        Client client = clients.get(address);
+        if (client == null) {
+            client = new Client(address, nextConnectionId++);
+            clients.put(address, client);
+        }
+        int updateInterval = intervalOverride > 0 ? intervalOverride : interval;
+        client.interval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, updateInterval));
+        client.nextUpdate = System.nanoTime();
+        boolean readOnly = !commandPassword.isEmpty() && !commandPassword.equals(command);
+        LOG.info("Registered " + name + " from " + address
+                + " with an interval of " + updateInterval + "ms");
+        ServerMessages.writeRegistrationResult(out, client.connectionId, true, readOnly, "");
+        send(address);
+    }
+
+    private void sendEntryList(Client client) throws IOException {
+        ServerMessages.writeEntryList(out, client.connectionId, session.getCars());
+        send(client.address);
+        for (SimulatedCar car : session.getCars()) {
+            ServerMessages.writeEntryListCar(out, car);
+            send(client.address);
+        }
+    }
+
+    private void sendTrackData(Client client) throws IOException {
+        var trackData = session.getTrackData();
+        ServerMessages.writeTrackData(out,
+                client.connectionId,
+                trackData.getTrackname(),
+                0,
+                trackData.getTrackMeters(),
+                Map.of("Helicam", List.of("Helicam"),
+                        "set1", List.of("CameraPit1", "CameraPit2")),
+                List.of("Blank", "Basic HUD", "Broadcasting"));
+        send(client.address);
+    }
+
+    private void send(SocketAddress address) throws IOException {
+        sentBytes += out.remaining();
+        if (channel.send(out, address) > 0) {
+            sentCount++;
+        }
+    }
+
+    /**
+     * A registered client.
+     */
+    private static class Client {
+
+        private final SocketAddress address;
+        private final int connectionId;
+        /**
+         * Update interval in nanoseconds.
+         */
+        private long interval;
+        /**
+         * Time the next update is due in nanoseconds.
+         */
+        private long nextUpdate;
+
+        Client(SocketAddress address, int connectionId) {
+            this.address = address;
+            this.connectionId = connectionId;
+        }
+    }
+}